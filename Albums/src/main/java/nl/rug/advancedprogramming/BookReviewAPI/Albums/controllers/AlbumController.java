@@ -1,14 +1,22 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Albums.controllers;
 
 import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.AlbumRecord;
 import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.controller.ImportJobController;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJob;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ImportJobService;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * REST controller for handling requests related to albums, including creating, retrieving, updating,
@@ -17,15 +25,26 @@ import java.util.Optional;
 @RestController
 @RequestMapping("/albums")
 public class AlbumController {
+    private static final String IMPORT_JSON = "albums-json";
+    private static final String IMPORT_CSV = "albums-csv";
+
     private final AlbumService albumService;
+    private final ImportJobService importJobService;
 
     /**
-     * Constructs a new AlbumController with the specified AlbumService.
+     * Constructs a new AlbumController with the specified AlbumService and registers the album imports as
+     * background jobs.
      *
-     * @param albumService the service that provides album-related operations.
+     * @param albumService     the service that provides album-related operations.
+     * @param importJobService the service running the imports as background jobs.
      */
-    public AlbumController(AlbumService albumService) {
+    public AlbumController(AlbumService albumService, ImportJobService importJobService) {
         this.albumService = albumService;
+        this.importJobService = importJobService;
+        importJobService.register(IMPORT_JSON,
+                (importId, input) -> ((List<Album>) albumService.importAlbumsJSON(Files.readString(input))).size());
+        importJobService.register(IMPORT_CSV,
+                (importId, input) -> ((List<Album>) albumService.importAlbumsCSV(Files.readString(input))).size());
     }
 
     /**
@@ -47,8 +66,8 @@ public class AlbumController {
      * @return a ResponseEntity containing the album and HTTP status OK if found, or NOT_FOUND if not.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Album> getAlbumById(@PathVariable int id) {
-        Album album = albumService.getAlbumById(id);
+    public ResponseEntity<AlbumRecord> getAlbumById(@PathVariable int id) {
+        AlbumRecord album = albumService.getAlbumById(id);
         if (album == null) {
             return ResponseEntity.notFound().build();
         }
@@ -56,22 +75,39 @@ public class AlbumController {
     }
 
     /**
-     * Retrieves a list of albums, either all albums or filtered by a specific property.
+     * Retrieves a list of albums, either all albums or filtered by a specific property, optionally sorted
+     * by an album field such as totalDuration or trackCount.
      *
-     * @param property the property to filter by (e.g., "title", "artist").
-     * @param value    the value of the property to match.
-     * @return a ResponseEntity containing the list of matching albums and HTTP status OK, or BAD_REQUEST if missing value.
+     * @param property  the property to filter by (e.g., "title", "artist").
+     * @param value     the value of the property to match.
+     * @param sort      the album field to sort by.
+     * @param direction the sort direction, "asc" (default) or "desc".
+     * @return a ResponseEntity containing the list of matching albums and HTTP status OK, or BAD_REQUEST if missing value
+     * or the sort field or direction is invalid.
      */
     @GetMapping
-    public ResponseEntity<List<Album>> getAlbums(@RequestParam Optional<String> property, @RequestParam Optional<String> value) {
+    public ResponseEntity<List<AlbumRecord>> getAlbums(@RequestParam Optional<String> property,
+                                                       @RequestParam Optional<String> value,
+                                                       @RequestParam Optional<String> sort,
+                                                       @RequestParam(defaultValue = "asc") String direction) {
+        Sort order = null;
+        if (sort.isPresent()) {
+            order = AlbumService.sortBy(sort.get(), direction);
+            if (order == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+            }
+        }
         if (property.isEmpty()) {
-            List<Album> list = (List<Album>) albumService.getAllAlbums();
+            List<AlbumRecord> list = (List<AlbumRecord>) (order == null
+                    ? albumService.getAllAlbums() : albumService.getAllAlbums(order));
             return new ResponseEntity<>(list, HttpStatus.OK);
         }
         if (value.isEmpty()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
-        List<Album> albums = (List<Album>) albumService.getAlbumsByProperty(property.get(), value.get());
+        List<AlbumRecord> albums = (List<AlbumRecord>) (order == null
+                ? albumService.getAlbumsByProperty(property.get(), value.get())
+                : albumService.getAlbumsByProperty(property.get(), value.get(), order));
         return new ResponseEntity<>(albums, HttpStatus.OK);
     }
 
@@ -91,6 +127,26 @@ public class AlbumController {
         }
     }
 
+    /**
+     * Updates only the supplied fields of an album. The songs of an album are changed through its songs endpoints.
+     *
+     * @param id      the ID of the album to update.
+     * @param changes the fields to change (title, artist, genre or releaseDate) and their new values.
+     * @return a ResponseEntity with HTTP status NO_CONTENT if successful, NOT_FOUND if the album does not exist,
+     * or BAD_REQUEST if a field cannot be updated or has an invalid value.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchAlbum(@PathVariable int id, @RequestBody Map<String, Object> changes) {
+        try {
+            if (!albumService.patchAlbum(id, changes)) {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Deletes an album by its ID.
      *
@@ -150,35 +206,35 @@ public class AlbumController {
     }
 
     /**
-     * Imports album data from a JSON string.
+     * Imports album data from JSON as a background job. The albums are imported at once, so the job reports its
+     * rows when it has finished.
      *
-     * @param data the JSON-formatted string containing album data.
-     * @return a ResponseEntity containing the list of imported albums and HTTP status CREATED, or BAD_REQUEST if invalid data.
+     * @param importId optional ID of the job, a new one is generated if not given.
+     * @param data     the JSON-formatted album data.
+     * @return a ResponseEntity containing the job and HTTP status ACCEPTED with its location in the Location header,
+     * BAD_REQUEST if the data cannot be read, CONFLICT if a job with the same ID is still running, or
+     * SERVICE_UNAVAILABLE if too many imports are waiting.
      */
     @PostMapping("/import/json")
-    public ResponseEntity<List<Album>> importAlbumsJSON(@RequestBody String data) {
-        try {
-            List<Album> albums = (List<Album>) albumService.importAlbumsJSON(data);
-            return new ResponseEntity<>(albums, HttpStatus.CREATED);
-        } catch (IOException e) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
+    public ResponseEntity<ImportJob> importAlbumsJSON(@RequestParam Optional<String> importId, InputStream data) {
+        String id = importId.orElseGet(() -> UUID.randomUUID().toString());
+        return ImportJobController.accept(() -> importJobService.submit(id, IMPORT_JSON, data));
     }
 
     /**
-     * Imports album data from a CSV string.
+     * Imports album data from CSV as a background job. The albums are imported at once, so the job reports its
+     * rows when it has finished.
      *
-     * @param data the CSV-formatted string containing album data.
-     * @return a ResponseEntity containing the list of imported albums and HTTP status CREATED, or BAD_REQUEST if invalid data.
+     * @param importId optional ID of the job, a new one is generated if not given.
+     * @param data     the CSV-formatted album data.
+     * @return a ResponseEntity containing the job and HTTP status ACCEPTED with its location in the Location header,
+     * BAD_REQUEST if the data cannot be read, CONFLICT if a job with the same ID is still running, or
+     * SERVICE_UNAVAILABLE if too many imports are waiting.
      */
     @PostMapping("/import/csv")
-    public ResponseEntity<List<Album>> importAlbumsCSV(@RequestBody String data) {
-        try {
-            List<Album> albums = (List<Album>) albumService.importAlbumsCSV(data);
-            return new ResponseEntity<>(albums, HttpStatus.CREATED);
-        } catch (IOException e) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
+    public ResponseEntity<ImportJob> importAlbumsCSV(@RequestParam Optional<String> importId, InputStream data) {
+        String id = importId.orElseGet(() -> UUID.randomUUID().toString());
+        return ImportJobController.accept(() -> importJobService.submit(id, IMPORT_CSV, data));
     }
 
     /**
@@ -0,0 +1,40 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.controllers;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.ArtistPage;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.ArtistService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the artist page, combining the songs, albums and ratings of an artist in one response.
+ */
+@RestController
+@RequestMapping("/artists")
+public class ArtistController {
+    private final ArtistService artistService;
+
+    /**
+     * Constructs a new ArtistController with the specified ArtistService.
+     *
+     * @param artistService the service that builds artist pages.
+     */
+    public ArtistController(ArtistService artistService) {
+        this.artistService = artistService;
+    }
+
+    /**
+     * Retrieves the page of an artist.
+     *
+     * @param name the name of the artist.
+     * @return a ResponseEntity containing the songs and albums of the artist with their ratings and HTTP status OK,
+     * or NOT_FOUND if the artist has no songs or albums.
+     */
+    @GetMapping("/{name}")
+    public ResponseEntity<ArtistPage> getArtistPage(@PathVariable String name) {
+        ArtistPage page = artistService.getArtistPage(name);
+        if (page == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(page);
+    }
+}
@@ -0,0 +1,41 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.controllers;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.AlbumRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller answering which albums a song appears on. It lives in the Albums module
+ * because the Songs module does not know about albums.
+ */
+@RestController
+@RequestMapping("/songs")
+public class SongAlbumsController {
+    private final AlbumService albumService;
+
+    /**
+     * Constructs a new SongAlbumsController with the specified AlbumService.
+     *
+     * @param albumService the service that provides album-related operations.
+     */
+    public SongAlbumsController(AlbumService albumService) {
+        this.albumService = albumService;
+    }
+
+    /**
+     * Retrieves the albums a song appears on.
+     *
+     * @param id the ID of the song.
+     * @return a ResponseEntity containing the albums listing the song and HTTP status OK,
+     * or NOT_FOUND if the song does not exist.
+     */
+    @GetMapping("/{id}/albums")
+    public ResponseEntity<Iterable<AlbumRecord>> getAlbumsOfSong(@PathVariable int id) {
+        Iterable<AlbumRecord> albums = albumService.getAlbumsContainingSong(id);
+        if (albums == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(albums);
+    }
+}
@@ -0,0 +1,11 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.events;
+
+/**
+ * Published after an album was created, updated, imported or deleted, or its statistics were recomputed.
+ *
+ * @param id           the ID of the album.
+ * @param artistBefore the artist of the album before the change, or null if it did not exist.
+ * @param artistAfter  the artist of the album after the change, or null if it was deleted.
+ */
+public record AlbumChangedEvent(int id, String artistBefore, String artistAfter) {
+}
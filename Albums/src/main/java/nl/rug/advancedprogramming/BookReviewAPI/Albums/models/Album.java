@@ -1,10 +1,13 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Albums.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import nl.rug.advancedprogramming.BookReviewAPI.Albums.interfaces.toCSV;
 import nl.rug.advancedprogramming.BookReviewAPI.Albums.interfaces.toJSON;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -13,12 +16,17 @@ import java.util.List;
 
 /**
  * Represents a music album with attributes such as title, artist, genre, release date,
- * and a list of associated song IDs. Provides functionality to serialize the album to
+ * a list of associated song IDs and precomputed statistics over those songs. Provides functionality to serialize the album to
  * JSON and CSV formats.
+ * <p>
+ * Albums and their song lists are kept in the "albums" and "albums.songIds" regions of the second-level cache.
+ * </p>
  */
 @Setter
 @Getter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "albums")
 public class Album implements toJSON, toCSV {
 
     /** The unique identifier for the album, automatically generated. */
@@ -31,8 +39,25 @@ public class Album implements toJSON, toCSV {
     private Date releaseDate;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "albums.songIds")
     private List<Integer> songIds;
 
+    /** The summed length of all songs on the album, kept up to date by the album service. */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int totalDuration;
+
+    /** The number of songs listed on the album. */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int trackCount;
+
+    /** The length of the longest song on the album, or null if it has no songs. */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer longestTrack;
+
+    /** The length of the shortest song on the album, or null if it has no songs. */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer shortestTrack;
+
     /**
      * Constructs a new Album with the specified title, artist, genre, and release date.
      * Initializes an empty list of song IDs.
@@ -74,7 +99,8 @@ public class Album implements toJSON, toCSV {
     /**
      * Converts the album data to a JSON-formatted string.
      *
-     * @return a JSON representation of the album, including id, title, artist, genre, and release date.
+     * @return a JSON representation of the album, including id, title, artist, genre, release date,
+     * total duration and track count.
      */
     @Override
     public String toJSON() {
@@ -83,6 +109,8 @@ public class Album implements toJSON, toCSV {
                 "\t\t\"title\":\"" + getTitle() + "\",\n" +
                 "\t\t\"artist\":\"" + getArtist() + "\",\n" +
                 "\t\t\"genre\":\"" + getGenre() + "\",\n" +
-                "\t\t\"releaseDate\":\"" + getReleaseDate() + "\"\n";
+                "\t\t\"releaseDate\":\"" + getReleaseDate() + "\",\n" +
+                "\t\t\"totalDuration\":" + getTotalDuration() + ",\n" +
+                "\t\t\"trackCount\":" + getTrackCount() + ",\n";
     }
 }
@@ -0,0 +1,58 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.models;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Read-only view of an album as returned by the album endpoints. The album columns are selected by the queries of
+ * {@link nl.rug.advancedprogramming.BookReviewAPI.Albums.repositories.AlbumRepository} and the song list is taken
+ * from the in-memory album song index, so serializing it never loads the lazy song list of an {@link Album}.
+ *
+ * @param id            the ID of the album.
+ * @param title         the title of the album.
+ * @param artist        the artist of the album.
+ * @param genre         the genre of the album.
+ * @param releaseDate   the release date of the album.
+ * @param songIds       the IDs of the songs on the album, in album order.
+ * @param totalDuration the summed length of the songs on the album.
+ * @param trackCount    the number of songs on the album.
+ * @param longestTrack  the length of the longest song, or null if the album has no songs.
+ * @param shortestTrack the length of the shortest song, or null if the album has no songs.
+ */
+public record AlbumRecord(Integer id, String title, String artist, String genre, Date releaseDate,
+                          List<Integer> songIds, int totalDuration, int trackCount, Integer longestTrack,
+                          Integer shortestTrack) {
+
+    /**
+     * Constructor for the queries, which cannot select the song list. It is added with {@link #withSongIds(List)}.
+     */
+    public AlbumRecord(Integer id, String title, String artist, String genre, Date releaseDate, int totalDuration,
+                       int trackCount, Integer longestTrack, Integer shortestTrack) {
+        this(id, title, artist, genre, releaseDate, List.of(), totalDuration, trackCount, longestTrack,
+                shortestTrack);
+    }
+
+    /**
+     * Copies the album with its song list.
+     *
+     * @param songIds the IDs of the songs on the album.
+     * @return the album with the given songs.
+     */
+    public AlbumRecord withSongIds(List<Integer> songIds) {
+        return new AlbumRecord(id, title, artist, genre, releaseDate, songIds, totalDuration, trackCount,
+                longestTrack, shortestTrack);
+    }
+
+    /**
+     * Takes a snapshot of an album entity.
+     *
+     * @param album   the album to take a snapshot of.
+     * @param songIds the IDs of the songs on the album.
+     * @return the snapshot.
+     */
+    public static AlbumRecord of(Album album, List<Integer> songIds) {
+        return new AlbumRecord(album.getId(), album.getTitle(), album.getArtist(), album.getGenre(),
+                album.getReleaseDate(), songIds, album.getTotalDuration(), album.getTrackCount(),
+                album.getLongestTrack(), album.getShortestTrack());
+    }
+}
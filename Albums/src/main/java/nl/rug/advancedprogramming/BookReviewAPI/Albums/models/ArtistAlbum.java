@@ -0,0 +1,19 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.models;
+
+import java.util.Date;
+
+/**
+ * An album on an artist page.
+ *
+ * @param id            the ID of the album.
+ * @param title         the title of the album.
+ * @param genre         the genre of the album.
+ * @param releaseDate   the release date of the album.
+ * @param totalDuration the summed length of the songs on the album.
+ * @param trackCount    the number of songs on the album.
+ * @param reviewCount   the number of reviews of the album.
+ * @param averageRating the average rating of the album, or null if it has no reviews.
+ */
+public record ArtistAlbum(int id, String title, String genre, Date releaseDate, int totalDuration, int trackCount,
+                          long reviewCount, Double averageRating) {
+}
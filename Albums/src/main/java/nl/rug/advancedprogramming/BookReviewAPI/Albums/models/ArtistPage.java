@@ -0,0 +1,13 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.models;
+
+import java.util.List;
+
+/**
+ * Everything shown on the page of an artist: their songs and albums together with the ratings of each.
+ *
+ * @param name   the name of the artist.
+ * @param songs  the songs of the artist.
+ * @param albums the albums of the artist.
+ */
+public record ArtistPage(String name, List<ArtistSong> songs, List<ArtistAlbum> albums) {
+}
@@ -0,0 +1,16 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.models;
+
+/**
+ * A song on an artist page.
+ *
+ * @param id            the ID of the song.
+ * @param title         the title of the song.
+ * @param label         the label of the song.
+ * @param genre         the genre of the song.
+ * @param length        the length of the song.
+ * @param reviewCount   the number of reviews of the song.
+ * @param averageRating the average rating of the song, or null if it has no reviews.
+ */
+public record ArtistSong(int id, String title, String label, String genre, int length,
+                         long reviewCount, Double averageRating) {
+}
@@ -0,0 +1,83 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufCodec;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import static nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufFields.*;
+
+/**
+ * Protobuf codec for albums, see protobuf/album.proto. Like the JSON body of a request, a message that is read
+ * does not set the statistics; the album service computes those.
+ */
+@Component
+public class AlbumProtobufCodec implements ProtobufCodec<Album> {
+    static final int ID = 1;
+    static final int TITLE = 2;
+    static final int ARTIST = 3;
+    static final int GENRE = 4;
+    static final int RELEASE_DATE = 5;
+    static final int SONG_IDS = 6;
+    static final int TOTAL_DURATION = 7;
+    static final int TRACK_COUNT = 8;
+    static final int LONGEST_TRACK = 9;
+    static final int SHORTEST_TRACK = 10;
+
+    @Override
+    public Class<Album> type() {
+        return Album.class;
+    }
+
+    @Override
+    public int size(Album album) {
+        return optionalInt32Size(ID, album.getId())
+                + stringSize(TITLE, album.getTitle())
+                + stringSize(ARTIST, album.getArtist())
+                + stringSize(GENRE, album.getGenre())
+                + dateSize(RELEASE_DATE, album.getReleaseDate())
+                + packedInt32Size(SONG_IDS, album.getSongIds())
+                + int32Size(TOTAL_DURATION, album.getTotalDuration())
+                + int32Size(TRACK_COUNT, album.getTrackCount())
+                + optionalInt32Size(LONGEST_TRACK, album.getLongestTrack())
+                + optionalInt32Size(SHORTEST_TRACK, album.getShortestTrack());
+    }
+
+    @Override
+    public void write(Album album, CodedOutputStream out) throws IOException {
+        writeOptionalInt32(out, ID, album.getId());
+        writeString(out, TITLE, album.getTitle());
+        writeString(out, ARTIST, album.getArtist());
+        writeString(out, GENRE, album.getGenre());
+        writeDate(out, RELEASE_DATE, album.getReleaseDate());
+        writePackedInt32(out, SONG_IDS, album.getSongIds());
+        writeInt32(out, TOTAL_DURATION, album.getTotalDuration());
+        writeInt32(out, TRACK_COUNT, album.getTrackCount());
+        writeOptionalInt32(out, LONGEST_TRACK, album.getLongestTrack());
+        writeOptionalInt32(out, SHORTEST_TRACK, album.getShortestTrack());
+    }
+
+    @Override
+    public Album read(CodedInputStream in) throws IOException {
+        Album album = new Album();
+        album.setSongIds(new ArrayList<>());
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case ID -> album.setId(in.readInt32());
+                case TITLE -> album.setTitle(in.readStringRequireUtf8());
+                case ARTIST -> album.setArtist(in.readStringRequireUtf8());
+                case GENRE -> album.setGenre(in.readStringRequireUtf8());
+                case RELEASE_DATE -> album.setReleaseDate(readDate(in));
+                case SONG_IDS -> readRepeatedInt32(in, tag, album.getSongIds());
+                default -> in.skipField(tag);
+            }
+        }
+        return album;
+    }
+}
@@ -0,0 +1,60 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.AlbumRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufCodec;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+import static nl.rug.advancedprogramming.BookReviewAPI.Albums.protobuf.AlbumProtobufCodec.*;
+import static nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufFields.*;
+
+/**
+ * Protobuf codec for albums read as records. They use the same Album message as the entities.
+ */
+@Component
+public class AlbumRecordProtobufCodec implements ProtobufCodec<AlbumRecord> {
+    private final AlbumProtobufCodec albums = new AlbumProtobufCodec();
+
+    @Override
+    public Class<AlbumRecord> type() {
+        return AlbumRecord.class;
+    }
+
+    @Override
+    public int size(AlbumRecord album) {
+        return optionalInt32Size(ID, album.id())
+                + stringSize(TITLE, album.title())
+                + stringSize(ARTIST, album.artist())
+                + stringSize(GENRE, album.genre())
+                + dateSize(RELEASE_DATE, album.releaseDate())
+                + packedInt32Size(SONG_IDS, album.songIds())
+                + int32Size(TOTAL_DURATION, album.totalDuration())
+                + int32Size(TRACK_COUNT, album.trackCount())
+                + optionalInt32Size(LONGEST_TRACK, album.longestTrack())
+                + optionalInt32Size(SHORTEST_TRACK, album.shortestTrack());
+    }
+
+    @Override
+    public void write(AlbumRecord album, CodedOutputStream out) throws IOException {
+        writeOptionalInt32(out, ID, album.id());
+        writeString(out, TITLE, album.title());
+        writeString(out, ARTIST, album.artist());
+        writeString(out, GENRE, album.genre());
+        writeDate(out, RELEASE_DATE, album.releaseDate());
+        writePackedInt32(out, SONG_IDS, album.songIds());
+        writeInt32(out, TOTAL_DURATION, album.totalDuration());
+        writeInt32(out, TRACK_COUNT, album.trackCount());
+        writeOptionalInt32(out, LONGEST_TRACK, album.longestTrack());
+        writeOptionalInt32(out, SHORTEST_TRACK, album.shortestTrack());
+    }
+
+    @Override
+    public AlbumRecord read(CodedInputStream in) throws IOException {
+        Album album = albums.read(in);
+        return AlbumRecord.of(album, album.getSongIds());
+    }
+}
@@ -1,14 +1,55 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Albums.repositories;
 
+import jakarta.persistence.QueryHint;
 import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.AlbumRecord;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
- * Repository interface for Album entities, providing CRUD operations and custom query methods.
+ * Repository interface for Album entities, providing CRUD operations and custom query methods. The listings and
+ * searches select the album columns into {@link AlbumRecord}s instead of loading entities; the song lists of the
+ * albums come from the {@link nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumSongIndex}. The results
+ * of the property searches are kept in the "albums.queries" region of the query cache until an album is written.
  */
 @Repository
-public interface AlbumRepository extends CrudRepository<Album, Integer> {
+public interface AlbumRepository extends CrudRepository<Album, Integer>, PagingAndSortingRepository<Album, Integer>,
+        AlbumRepositoryCustom {
+
+    /**
+     * Selects albums into {@link AlbumRecord}s, without their song lists.
+     */
+    String SELECT_RECORD = "SELECT new nl.rug.advancedprogramming.BookReviewAPI.Albums.models.AlbumRecord("
+            + "a.id, a.title, a.artist, a.genre, a.releaseDate, a.totalDuration, a.trackCount, a.longestTrack, "
+            + "a.shortestTrack) FROM Album a";
+
+    /**
+     * Retrieves all albums in the given order.
+     *
+     * @param sort the order of the albums.
+     * @return all albums, without their song lists.
+     */
+    @Query(SELECT_RECORD)
+    List<AlbumRecord> findAllRecords(Sort sort);
+
+    /**
+     * Retrieves the albums with the given IDs.
+     *
+     * @param ids the IDs of the albums.
+     * @return the albums that exist, ordered by ID, without their song lists.
+     */
+    @Query(SELECT_RECORD + " WHERE a.id IN :ids ORDER BY a.id")
+    List<AlbumRecord> findRecordsByIdIn(@Param("ids") Collection<Integer> ids);
 
     /**
      * Retrieves all albums with the specified title.
@@ -16,7 +57,10 @@ public interface AlbumRepository extends CrudRepository<Album, Integer> {
      * @param title the title of the albums to retrieve.
      * @return an iterable collection of albums with the specified title.
      */
-    Iterable<Album> getByTitle(String title);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "albums.queries")})
+    @Query(SELECT_RECORD + " WHERE a.title = :title")
+    Iterable<AlbumRecord> getByTitle(@Param("title") String title);
 
     /**
      * Retrieves all albums by the specified artist.
@@ -24,7 +68,10 @@ public interface AlbumRepository extends CrudRepository<Album, Integer> {
      * @param artist the artist of the albums to retrieve.
      * @return an iterable collection of albums by the specified artist.
      */
-    Iterable<Album> getByArtist(String artist);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "albums.queries")})
+    @Query(SELECT_RECORD + " WHERE a.artist = :artist")
+    Iterable<AlbumRecord> getByArtist(@Param("artist") String artist);
 
     /**
      * Retrieves all albums with the specified genre.
@@ -32,5 +79,79 @@ public interface AlbumRepository extends CrudRepository<Album, Integer> {
      * @param genre the genre of the albums to retrieve.
      * @return an iterable collection of albums with the specified genre.
      */
-    Iterable<Album> getByGenre(String genre);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "albums.queries")})
+    @Query(SELECT_RECORD + " WHERE a.genre = :genre")
+    Iterable<AlbumRecord> getByGenre(@Param("genre") String genre);
+
+    /**
+     * Retrieves all albums with the specified title in the given order.
+     *
+     * @param title the title of the albums to retrieve.
+     * @param sort the order of the albums.
+     * @return an iterable collection of albums with the specified title.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "albums.queries")})
+    @Query(SELECT_RECORD + " WHERE a.title = :title")
+    Iterable<AlbumRecord> getByTitle(@Param("title") String title, Sort sort);
+
+    /**
+     * Retrieves all albums by the specified artist in the given order.
+     *
+     * @param artist the artist of the albums to retrieve.
+     * @param sort the order of the albums.
+     * @return an iterable collection of albums by the specified artist.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "albums.queries")})
+    @Query(SELECT_RECORD + " WHERE a.artist = :artist")
+    Iterable<AlbumRecord> getByArtist(@Param("artist") String artist, Sort sort);
+
+    /**
+     * Retrieves all albums with the specified genre in the given order.
+     *
+     * @param genre the genre of the albums to retrieve.
+     * @param sort the order of the albums.
+     * @return an iterable collection of albums with the specified genre.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "albums.queries")})
+    @Query(SELECT_RECORD + " WHERE a.genre = :genre")
+    Iterable<AlbumRecord> getByGenre(@Param("genre") String genre, Sort sort);
+
+    /**
+     * One entry of an album's song list.
+     */
+    interface AlbumSongRow {
+        int getAlbumId();
+
+        int getSongId();
+    }
+
+    /**
+     * Retrieves the song lists of all albums, used to build the {@link nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumSongIndex}.
+     *
+     * @return one row per song listed on an album.
+     */
+    @Query(value = "SELECT album_id AS albumId, song_ids AS songId FROM album_song_ids", nativeQuery = true)
+    List<AlbumSongRow> findAllAlbumSongs();
+
+    /**
+     * Retrieves the song list of one album, used to refresh the album song index when another replica changed it.
+     *
+     * @param id the ID of the album.
+     * @return the IDs of the songs the album lists, empty if the album does not exist or has no songs.
+     */
+    @Query(value = "SELECT song_ids FROM album_song_ids WHERE album_id = :id", nativeQuery = true)
+    List<Integer> findSongIdsByAlbumId(@Param("id") int id);
+
+    /**
+     * Retrieves the artist of an album without loading the album.
+     *
+     * @param id the ID of the album.
+     * @return the artist, or empty if the album does not exist or has no artist.
+     */
+    @Query("SELECT a.artist FROM Album a WHERE a.id = :id")
+    Optional<String> findArtistById(@Param("id") int id);
 }
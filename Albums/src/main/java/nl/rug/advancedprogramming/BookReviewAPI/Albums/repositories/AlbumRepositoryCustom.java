@@ -0,0 +1,20 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.repositories;
+
+import java.util.Map;
+
+/**
+ * Album repository methods that are implemented by hand instead of derived by the framework.
+ */
+public interface AlbumRepositoryCustom {
+
+    /**
+     * Updates only the given fields of an album with a single UPDATE statement. The song list and the
+     * statistics derived from it cannot be changed this way.
+     *
+     * @param id the ID of the album.
+     * @param changes the new values by field name (title, artist, genre or releaseDate).
+     * @return the number of updated rows, 0 if the album does not exist.
+     * @throws IllegalArgumentException if a field cannot be updated or a value has the wrong type.
+     */
+    int patch(int id, Map<String, Object> changes);
+}
@@ -0,0 +1,33 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.repositories;
+
+import jakarta.persistence.EntityManager;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.repository.PartialUpdate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation of the hand-written album repository methods. Picked up by the framework through its name.
+ */
+public class AlbumRepositoryCustomImpl implements AlbumRepositoryCustom {
+    private static final Set<String> UPDATABLE = Set.of("title", "artist", "genre", "releaseDate");
+
+    private final EntityManager entityManager;
+
+    /**
+     * Constructs a new AlbumRepositoryCustomImpl.
+     *
+     * @param entityManager entity manager used for the partial updates.
+     */
+    public AlbumRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int patch(int id, Map<String, Object> changes) {
+        return PartialUpdate.apply(entityManager, Album.class, "id", id, changes, UPDATABLE);
+    }
+}
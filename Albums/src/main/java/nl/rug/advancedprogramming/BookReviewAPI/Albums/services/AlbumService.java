@@ -2,41 +2,102 @@ package nl.rug.advancedprogramming.BookReviewAPI.Albums.services;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.events.AlbumChangedEvent;
 import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.AlbumRecord;
 import nl.rug.advancedprogramming.BookReviewAPI.Albums.repositories.AlbumRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.CacheChangeLog;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.SingleFlight;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.events.ReviewChangedEvent;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReview;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewTarget;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.AlbumReviewRepository;
-import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
-import nl.rug.advancedprogramming.BookReviewAPI.Songs.repository.SongRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.service.AlbumReviewService;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.events.SongChangedEvent;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.service.SongIndex;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class for managing albums, providing CRUD operations and data manipulation.
  */
 @Service
 public class AlbumService {
+    /** Kind of the cache changes of albums, keyed by ID, see {@link CacheChangeLog}. */
+    public static final String CACHE_KIND = "album";
+
     private final AlbumRepository albumRepository;
     private final AlbumReviewRepository albumReviewRepository;
-    private final SongRepository songRepository;
+    private final SongIndex songIndex;
+    private final AlbumSongIndex albumSongIndex;
+    private final ApplicationEventPublisher events;
+    private final RowMetrics rowMetrics;
+    private final SingleFlight singleFlight;
+    private final CacheChangeLog cacheChanges;
+
+    /** Album fields the album listing can be sorted by. */
+    private static final Set<String> SORTABLE_FIELDS = Set.of(
+            "id", "title", "artist", "genre", "releaseDate",
+            "totalDuration", "trackCount", "longestTrack", "shortestTrack");
 
     /**
      * Constructs a new AlbumService.
      *
      * @param albumRepository repository for Album entities.
      * @param albumReviewRepository repository for AlbumReview entities.
-     * @param songRepository repository for Song entities.
+     * @param songIndex in-memory index the songs of albums are resolved from.
+     * @param albumSongIndex in-memory index of which songs are on which albums, updated when a write commits.
+     * @param events publisher for {@link AlbumChangedEvent}s.
+     * @param rowMetrics counts the exported albums.
+     * @param singleFlight collapses concurrent calculations of the same album rating.
+     * @param cacheChanges records the writes for the caches of the other replicas.
      */
-    public AlbumService(AlbumRepository albumRepository, AlbumReviewRepository albumReviewRepository, SongRepository songRepository) {
+    public AlbumService(AlbumRepository albumRepository, AlbumReviewRepository albumReviewRepository, SongIndex songIndex,
+                        AlbumSongIndex albumSongIndex, ApplicationEventPublisher events, RowMetrics rowMetrics,
+                        SingleFlight singleFlight, CacheChangeLog cacheChanges) {
         this.albumRepository = albumRepository;
         this.albumReviewRepository = albumReviewRepository;
-        this.songRepository = songRepository;
+        this.songIndex = songIndex;
+        this.albumSongIndex = albumSongIndex;
+        this.events = events;
+        this.rowMetrics = rowMetrics;
+        this.singleFlight = singleFlight;
+        this.cacheChanges = cacheChanges;
+
+        // Albums and album ratings changed by other replicas. The second-level cache goes first, as the song list
+        // is read again right away.
+        cacheChanges.registerEntity(CACHE_KIND, Album.class, Integer::valueOf);
+        cacheChanges.register(CACHE_KIND, id -> {
+            if (id != null) {
+                albumSongIndex.reloadAlbum(Integer.parseInt(id));
+            } else {
+                albumSongIndex.clear();
+            }
+        });
+        cacheChanges.register(AlbumReviewService.RATING_CACHE_KIND, id -> {
+            if (id != null) {
+                singleFlight.forget("album-rating", Integer.parseInt(id));
+            } else {
+                singleFlight.forgetAll("album-rating");
+            }
+        });
     }
 
     /**
@@ -44,8 +105,33 @@ public class AlbumService {
      *
      * @return an iterable of all albums.
      */
-    public Iterable<Album> getAllAlbums() {
-        return albumRepository.findAll();
+    public Iterable<AlbumRecord> getAllAlbums() {
+        return withSongs(albumRepository.findAllRecords(Sort.unsorted()));
+    }
+
+    /**
+     * Retrieves all albums in the given order.
+     *
+     * @param sort the order of the albums, see {@link #sortBy(String, String)}.
+     * @return an iterable of all albums.
+     */
+    public Iterable<AlbumRecord> getAllAlbums(Sort sort) {
+        return withSongs(albumRepository.findAllRecords(sort));
+    }
+
+    /**
+     * Builds the order for an album listing.
+     *
+     * @param field the album field to sort by, e.g. totalDuration or trackCount.
+     * @param direction "asc" or "desc".
+     * @return the order, or null if the field cannot be sorted by or the direction is invalid.
+     */
+    public static Sort sortBy(String field, String direction) {
+        if (!SORTABLE_FIELDS.contains(field)) {
+            return null;
+        }
+        Optional<Sort.Direction> dir = Sort.Direction.fromOptionalString(direction);
+        return dir.map(d -> Sort.by(d, field)).orElse(null);
     }
 
     /**
@@ -55,17 +141,25 @@ public class AlbumService {
      * @return the saved album.
      */
     public Album createAlbum(Album album) {
-        return albumRepository.save(album);
+        refreshStats(album);
+        Album saved = albumRepository.save(album);
+        albumSongIndex.setAlbum(saved.getId(), saved.getSongIds());
+        cacheChanges.record(CACHE_KIND, saved.getId());
+        events.publishEvent(new AlbumChangedEvent(saved.getId(), null, saved.getArtist()));
+        return saved;
     }
 
     /**
-     * Retrieves an album by its ID.
+     * Retrieves an album by its ID. The album usually comes from the second-level cache, so unlike the listings it
+     * is loaded as an entity; its song list is taken from the album song index.
      *
      * @param id the ID of the album.
      * @return the album if found, otherwise null.
      */
-    public Album getAlbumById(int id) {
-        return albumRepository.findById(id).orElse(null);
+    public AlbumRecord getAlbumById(int id) {
+        return albumRepository.findById(id)
+                .map(album -> AlbumRecord.of(album, albumSongIndex.songsOf(id)))
+                .orElse(null);
     }
 
     /**
@@ -75,13 +169,47 @@ public class AlbumService {
      * @param value the value of the property.
      * @return an iterable of albums matching the criteria, or null if the property is invalid.
      */
-    public Iterable<Album> getAlbumsByProperty(String property, String value) {
-        return switch (property) {
+    public Iterable<AlbumRecord> getAlbumsByProperty(String property, String value) {
+        return withSongs(switch (property) {
             case "title" -> albumRepository.getByTitle(value);
             case "artist" -> albumRepository.getByArtist(value);
             case "genre" -> albumRepository.getByGenre(value);
             default -> null;
-        };
+        });
+    }
+
+    /**
+     * Retrieves albums by a specified property and value in the given order.
+     *
+     * @param property the property to filter by (e.g., title, artist, genre).
+     * @param value the value of the property.
+     * @param sort the order of the albums, see {@link #sortBy(String, String)}.
+     * @return an iterable of albums matching the criteria, or null if the property is invalid.
+     */
+    public Iterable<AlbumRecord> getAlbumsByProperty(String property, String value, Sort sort) {
+        return withSongs(switch (property) {
+            case "title" -> albumRepository.getByTitle(value, sort);
+            case "artist" -> albumRepository.getByArtist(value, sort);
+            case "genre" -> albumRepository.getByGenre(value, sort);
+            default -> null;
+        });
+    }
+
+    /**
+     * Adds the song lists from the album song index to albums selected by the repository.
+     *
+     * @param albums the albums without their song lists, or null.
+     * @return the albums with their song lists, or null if no albums were given.
+     */
+    private List<AlbumRecord> withSongs(Iterable<AlbumRecord> albums) {
+        if (albums == null) {
+            return null;
+        }
+        List<AlbumRecord> result = new ArrayList<>();
+        for (AlbumRecord album : albums) {
+            result.add(album.withSongIds(albumSongIndex.songsOf(album.id())));
+        }
+        return result;
     }
 
     /**
@@ -91,23 +219,48 @@ public class AlbumService {
      * @param updatedAlbum the updated album details.
      * @return true if the album was updated, false if the album does not exist.
      */
+    @Transactional
     public boolean updateAlbum(int id, Album updatedAlbum) {
         Optional<Album> toBeUpdated = albumRepository.findById(id);
         if (toBeUpdated.isPresent()) {
             Album existing = toBeUpdated.get();
-            existing.setId(updatedAlbum.getId());
+            String previousArtist = existing.getArtist();
             existing.setTitle(updatedAlbum.getTitle());
             existing.setArtist(updatedAlbum.getArtist());
             existing.setGenre(updatedAlbum.getGenre());
             existing.setReleaseDate(updatedAlbum.getReleaseDate());
             existing.setSongIds(updatedAlbum.getSongIds());
+            refreshStats(existing);
             albumRepository.save(existing);
+            List<Integer> songIds = new ArrayList<>(existing.getSongIds());
+            afterCommit(() -> albumSongIndex.setAlbum(id, songIds));
+            cacheChanges.record(CACHE_KIND, id);
+            events.publishEvent(new AlbumChangedEvent(id, previousArtist, existing.getArtist()));
             return true;
         } else {
             return false;
         }
     }
 
+    /**
+     * Updates only the given fields of an album, without loading and saving the whole album and its song list.
+     *
+     * @param id the ID of the album to update.
+     * @param changes the new values by field name (title, artist, genre or releaseDate).
+     * @return true if the album was updated, false if the album does not exist.
+     * @throws IllegalArgumentException if a field cannot be updated or a value has the wrong type.
+     */
+    public boolean patchAlbum(int id, Map<String, Object> changes) {
+        String previousArtist = albumRepository.findArtistById(id).orElse(null);
+        if (albumRepository.patch(id, changes) == 0) {
+            return false;
+        }
+        String artist = changes.containsKey("artist") ? Objects.toString(changes.get("artist"), null) : previousArtist;
+        cacheChanges.record(CACHE_KIND, id);
+        events.publishEvent(new AlbumChangedEvent(id, previousArtist, artist));
+        return true;
+    }
+
     /**
      * Deletes an album by its ID.
      *
@@ -115,8 +268,12 @@ public class AlbumService {
      * @return true if the album was deleted, false if the album does not exist.
      */
     public boolean deleteAlbum(int id) {
-        if (albumRepository.existsById(id)) {
+        Optional<Album> toBeDeleted = albumRepository.findById(id);
+        if (toBeDeleted.isPresent()) {
             albumRepository.deleteById(id);
+            afterCommit(() -> albumSongIndex.removeAlbum(id));
+            cacheChanges.record(CACHE_KIND, id);
+            events.publishEvent(new AlbumChangedEvent(id, toBeDeleted.get().getArtist(), null));
             return true;
         } else {
             return false;
@@ -124,11 +281,12 @@ public class AlbumService {
     }
 
     /**
-     * Adds a song to an album by song ID.
+     * Adds a song to an album by song ID. Runs in one transaction, as the song list of the album is loaded lazily.
      *
      * @param id the ID of the album.
      * @param songId the ID of the song to add.
      */
+    @Transactional
     public void addSongToAlbum(int id, int songId) {
         Album album = albumRepository.findById(id).get();
         album.getSongIds().add(songId);
@@ -136,11 +294,13 @@ public class AlbumService {
     }
 
     /**
-     * Removes a song from an album by song ID.
+     * Removes a song from an album by song ID. Runs in one transaction, as the song list of the album is loaded
+     * lazily.
      *
      * @param id the ID of the album.
      * @param songId the ID of the song to remove.
      */
+    @Transactional
     public void removeSongFromAlbum(int id, int songId) {
         Album album = albumRepository.findById(id).get();
         album.getSongIds().remove((Integer) songId);
@@ -148,20 +308,156 @@ public class AlbumService {
     }
 
     /**
-     * Calculates the average rating for an album based on its reviews.
+     * Retrieves the albums a song appears on.
+     *
+     * @param songId the ID of the song.
+     * @return the albums listing the song, or null if the song does not exist.
+     */
+    public Iterable<AlbumRecord> getAlbumsContainingSong(int songId) {
+        if (songIndex.get(songId) == null) {
+            return null;
+        }
+        List<Integer> albumIds = albumSongIndex.albumsOf(songId);
+        if (albumIds.isEmpty()) {
+            return List.of();
+        }
+        return withSongs(albumRepository.findRecordsByIdIn(albumIds));
+    }
+
+    /**
+     * Removes a deleted song from every album listing it, and recomputes the statistics of every album
+     * listing a song whose length changed.
+     *
+     * @param event the change of the song.
+     */
+    @EventListener
+    @Transactional
+    public void onSongChanged(SongChangedEvent event) {
+        boolean deleted = event.after() == null;
+        if (!deleted && !event.lengthChanged()) {
+            return;
+        }
+        for (Album album : albumRepository.findAllById(albumSongIndex.albumsOf(event.id()))) {
+            if (deleted) {
+                album.getSongIds().removeIf(songId -> songId == event.id());
+            }
+            refreshStats(album);
+            albumRepository.save(album);
+            indexAfterCommit(album);
+            cacheChanges.record(CACHE_KIND, album.getId());
+            events.publishEvent(new AlbumChangedEvent(album.getId(), album.getArtist(), album.getArtist()));
+        }
+    }
+
+    /**
+     * Indexes the song lists of imported albums and publishes their creation.
+     *
+     * @param albums the saved albums.
+     */
+    private void publishImported(List<Album> albums) {
+        for (Album album : albums) {
+            indexAfterCommit(album);
+            cacheChanges.record(CACHE_KIND, album.getId());
+            events.publishEvent(new AlbumChangedEvent(album.getId(), null, album.getArtist()));
+        }
+    }
+
+    /**
+     * Indexes the song list of a saved album once the transaction saving it commits.
+     *
+     * @param album the saved album.
+     */
+    private void indexAfterCommit(Album album) {
+        int id = album.getId();
+        List<Integer> songIds = new ArrayList<>(album.getSongIds());
+        afterCommit(() -> albumSongIndex.setAlbum(id, songIds));
+    }
+
+    /**
+     * Runs a change of the album song index once the current transaction commits, or right away outside one. Every
+     * album read takes its song list from the index, so it must not show a song list that is not committed yet or
+     * is rolled back.
+     *
+     * @param action the change of the index.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Recomputes the duration and track statistics of an album from its songs.
+     * Songs that do not exist count as tracks but not towards the length statistics.
+     *
+     * @param album the album to update.
+     */
+    private void refreshStats(Album album) {
+        if (album.getSongIds() == null) {
+            album.setSongIds(new ArrayList<>());
+        }
+        List<Integer> songIds = album.getSongIds();
+        int[] ids = new int[songIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = songIds.get(i);
+        }
+
+        int total = 0;
+        Integer longest = null;
+        Integer shortest = null;
+        for (SongRecord song : songIndex.getAll(ids)) {
+            if (song == null) {
+                continue;
+            }
+            total += song.length();
+            longest = longest == null ? song.length() : Math.max(longest, song.length());
+            shortest = shortest == null ? song.length() : Math.min(shortest, song.length());
+        }
+
+        album.setTrackCount(ids.length);
+        album.setTotalDuration(total);
+        album.setLongestTrack(longest);
+        album.setShortestTrack(shortest);
+    }
+
+    /**
+     * Calculates the average rating for an album based on its reviews. Concurrent requests for the same album share
+     * one calculation.
      *
      * @param id the ID of the album.
      * @return the average rating, or NaN if there are no reviews.
      */
     public double getAlbumRating(int id) {
-        List<AlbumReview> reviews = albumReviewRepository.findByAlbumId(id);
-        double avgRating = 0;
-        int cnt = 0;
-        for (AlbumReview review : reviews) {
-            avgRating += review.getRating();
-            cnt++;
+        return singleFlight.read("album-rating", id, () -> {
+            List<AlbumReview> reviews = albumReviewRepository.findByAlbumId(id);
+            double avgRating = 0;
+            int cnt = 0;
+            for (AlbumReview review : reviews) {
+                avgRating += review.getRating();
+                cnt++;
+            }
+            return avgRating / cnt;
+        });
+    }
+
+    /**
+     * Makes requests for the rating of an album whose reviews changed wait for a new calculation, instead of one
+     * that started before the change was committed.
+     *
+     * @param event the change of the reviews.
+     */
+    @EventListener
+    public void onReviewChanged(ReviewChangedEvent event) {
+        if (event.target() == ReviewTarget.ALBUM) {
+            singleFlight.forget("album-rating", event.targetId());
         }
-        return avgRating / cnt;
     }
 
     /**
@@ -175,7 +471,11 @@ public class AlbumService {
         ObjectMapper objectMapper = new ObjectMapper();
         List<Album> albums;
         albums = objectMapper.readValue(data, new TypeReference<ArrayList<Album>>() {});
+        for (Album album : albums) {
+            refreshStats(album);
+        }
         albumRepository.saveAll(albums);
+        publishImported(albums);
         return albums;
     }
 
@@ -207,6 +507,7 @@ public class AlbumService {
             }
         }
         albumRepository.saveAll(reviews);
+        publishImported(reviews);
         return reviews;
     }
 
@@ -216,20 +517,42 @@ public class AlbumService {
      * @return a JSON string representing all albums.
      */
     public String exportAlbumsJSON() {
-        List<Album> toBeExported = (List<Album>) getAllAlbums();
+        List<Album> toBeExported = (List<Album>) albumRepository.findAll();
+
+        // Resolve the songs of all albums in one batch instead of one lookup per track. The song lists come from
+        // the album song index rather than the lazy collections of the albums.
+        List<List<Integer>> albumSongIds = new ArrayList<>(toBeExported.size());
+        int total = 0;
+        for (Album album : toBeExported) {
+            List<Integer> ids = albumSongIndex.songsOf(album.getId());
+            albumSongIds.add(ids);
+            total += ids.size();
+        }
+        int[] songIds = new int[total];
+        int next = 0;
+        for (List<Integer> ids : albumSongIds) {
+            for (Integer songId : ids) {
+                songIds[next++] = songId;
+            }
+        }
+        SongRecord[] songs = songIndex.getAll(songIds);
+
         StringBuilder sb = new StringBuilder();
         sb.append("[\n");
-        for (Album album : toBeExported) {
-            sb.append(album.toJSON());
+        next = 0;
+        for (int a = 0; a < toBeExported.size(); a++) {
+            sb.append(toBeExported.get(a).toJSON());
             sb.append("\t\t\"songs\": [\n");
-            List<Integer> songIds = album.getSongIds();
-            for (Integer songId : songIds) {
-                Optional<Song> song = songRepository.findById(songId.toString());
-                sb.append("\t\t\t").append(song.get().getTitle()).append(",\n");
+            for (int i = 0; i < albumSongIds.get(a).size(); i++) {
+                SongRecord song = songs[next++];
+                if (song != null) {
+                    sb.append("\t\t\t").append(song.title()).append(",\n");
+                }
             }
             sb.append("\t\t]\n");
         }
         sb.append("]");
+        rowMetrics.exported("albums-json", toBeExported.size());
         return sb.toString();
     }
 
@@ -239,12 +562,13 @@ public class AlbumService {
      * @return a CSV string representing all albums.
      */
     public String exportAlbumsCSV() {
-        List<Album> toBeExported = (List<Album>) getAllAlbums();
+        List<Album> toBeExported = (List<Album>) albumRepository.findAll();
         StringBuilder sb = new StringBuilder();
         sb.append("id,title,artist,genre,releaseDate\n");
         for (Album album : toBeExported) {
             sb.append(album.toCSV());
         }
+        rowMetrics.exported("albums-csv", toBeExported.size());
         return sb.toString();
     }
 }
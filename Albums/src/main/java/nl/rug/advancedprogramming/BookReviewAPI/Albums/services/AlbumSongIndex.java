@@ -0,0 +1,213 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.services;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.repositories.AlbumRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory bidirectional multimap between albums and the songs they list, answering both "which songs are on
+ * album X" and "which albums contain song X" without a query. It is loaded from the album_song_ids table on first
+ * use and {@link AlbumService} updates it when a write to an album's song list commits, so reads never see a song
+ * list that is not committed or is rolled back. Albums changed by other replicas are read again from the table.
+ */
+@Component
+public class AlbumSongIndex {
+    private final AlbumRepository albumRepository;
+    private final Map<Integer, List<Integer>> songsByAlbum = new HashMap<>();
+    private final Map<Integer, Set<Integer>> albumsBySong = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean loaded;
+    // Incremented on every write, so a song list read from the table while the album is written is not indexed.
+    private long writeEpoch;
+
+    /**
+     * Constructs a new AlbumSongIndex.
+     *
+     * @param albumRepository repository the index is loaded from.
+     */
+    public AlbumSongIndex(AlbumRepository albumRepository) {
+        this.albumRepository = albumRepository;
+    }
+
+    /**
+     * Retrieves the IDs of the albums that list a song.
+     *
+     * @param songId the ID of the song.
+     * @return the IDs of the albums in ascending order, empty if no album lists the song.
+     */
+    public List<Integer> albumsOf(int songId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Set<Integer> albums = albumsBySong.get(songId);
+            if (albums == null) {
+                return List.of();
+            }
+            List<Integer> result = new ArrayList<>(albums);
+            Collections.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the IDs of the songs an album lists.
+     *
+     * @param albumId the ID of the album.
+     * @return the IDs of the songs in album order, empty if the album does not exist or has no songs.
+     */
+    public List<Integer> songsOf(int albumId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return List.copyOf(songsByAlbum.getOrDefault(albumId, List.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the song list of an album. Called after the album has been saved and committed.
+     *
+     * @param albumId the ID of the album.
+     * @param songIds the songs the album lists now.
+     */
+    public void setAlbum(int albumId, List<Integer> songIds) {
+        lock.writeLock().lock();
+        try {
+            // Until the index is loaded the table is the only source, the load will pick the change up.
+            if (loaded) {
+                unlink(albumId);
+                link(albumId, songIds);
+            }
+            writeEpoch++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an album from the index. Called after the deletion of the album has been committed.
+     *
+     * @param albumId the ID of the deleted album.
+     */
+    public void removeAlbum(int albumId) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                unlink(albumId);
+            }
+            writeEpoch++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the song list of an album again from the table, e.g. after another replica changed the album.
+     *
+     * @param albumId the ID of the album.
+     */
+    public void reloadAlbum(int albumId) {
+        while (true) {
+            long epoch;
+            lock.readLock().lock();
+            try {
+                if (!loaded) {
+                    // The load will read the album as it is now
+                    return;
+                }
+                epoch = writeEpoch;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            List<Integer> songIds = albumRepository.findSongIdsByAlbumId(albumId);
+            lock.writeLock().lock();
+            try {
+                // Read again if this instance wrote in the meantime, the list read may be older than its write
+                if (epoch == writeEpoch) {
+                    unlink(albumId);
+                    link(albumId, songIds);
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Empties the index, e.g. when any album may have been changed by another replica. It is loaded again on the
+     * next use.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            songsByAlbum.clear();
+            albumsBySong.clear();
+            loaded = false;
+            writeEpoch++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the whole album_song_ids table on first use. Writers wait for the load, so no change committed
+     * while it runs is lost.
+     */
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            for (AlbumRepository.AlbumSongRow row : albumRepository.findAllAlbumSongs()) {
+                songsByAlbum.computeIfAbsent(row.getAlbumId(), k -> new ArrayList<>()).add(row.getSongId());
+                albumsBySong.computeIfAbsent(row.getSongId(), k -> new HashSet<>()).add(row.getAlbumId());
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void link(int albumId, List<Integer> songIds) {
+        if (songIds == null || songIds.isEmpty()) {
+            return;
+        }
+        songsByAlbum.put(albumId, new ArrayList<>(songIds));
+        for (Integer songId : songIds) {
+            albumsBySong.computeIfAbsent(songId, k -> new HashSet<>()).add(albumId);
+        }
+    }
+
+    private void unlink(int albumId) {
+        List<Integer> previous = songsByAlbum.remove(albumId);
+        if (previous == null) {
+            return;
+        }
+        for (Integer songId : previous) {
+            Set<Integer> albums = albumsBySong.get(songId);
+            if (albums != null) {
+                albums.remove(albumId);
+                if (albums.isEmpty()) {
+                    albumsBySong.remove(songId);
+                }
+            }
+        }
+    }
+}
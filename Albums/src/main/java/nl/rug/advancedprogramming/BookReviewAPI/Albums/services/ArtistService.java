@@ -0,0 +1,320 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums.services;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.events.AlbumChangedEvent;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.AlbumRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.ArtistAlbum;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.ArtistPage;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.ArtistSong;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.repositories.AlbumRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.CacheChangeLog;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.events.ReviewChangedEvent;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewTarget;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.AlbumReviewRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.RatingSummary;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.SongReviewRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.service.AlbumReviewService;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.service.SongReviewService;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.events.SongChangedEvent;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.events.SongsImportedEvent;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.repository.SongRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.service.SongService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Service building the page of an artist from the Songs, Albums and Reviews modules.
+ * The songs and albums of the artist are loaded in parallel on virtual threads, and the ratings of all of them
+ * are fetched with one grouped query per kind. Built pages are cached until a song, album or review
+ * they contain changes; writes made in a transaction invalidate the cache once they are committed. A song or album
+ * changed by another replica drops all pages, as only its ID is known, a changed rating only the page showing it.
+ */
+@Service
+public class ArtistService {
+    private final SongRepository songRepository;
+    private final AlbumRepository albumRepository;
+    private final SongReviewRepository songReviewRepository;
+    private final AlbumReviewRepository albumReviewRepository;
+
+    // Least recently used pages are evicted first. All cache state is guarded by the lock of this service.
+    private final Map<String, ArtistPage> pages;
+    // Which artist page a song or album is shown on, to find the page to drop when one of its reviews changes.
+    private final Map<Integer, String> songArtists = new HashMap<>();
+    private final Map<Integer, String> albumArtists = new HashMap<>();
+    // Incremented on every invalidation, so pages built concurrently with a write are not cached.
+    private long generation;
+
+    /**
+     * Constructs a new ArtistService.
+     *
+     * @param songRepository repository for Song entities.
+     * @param albumRepository repository for Album entities.
+     * @param songReviewRepository repository for SongReview entities.
+     * @param albumReviewRepository repository for AlbumReview entities.
+     * @param cacheChanges the changes of other replicas, which drop the pages they affect.
+     * @param maxCachedArtists the maximum number of artist pages kept in the cache.
+     */
+    public ArtistService(SongRepository songRepository, AlbumRepository albumRepository,
+                         SongReviewRepository songReviewRepository, AlbumReviewRepository albumReviewRepository,
+                         CacheChangeLog cacheChanges,
+                         @Value("${artists.cache.max-entries:1000}") int maxCachedArtists) {
+        this.songRepository = songRepository;
+        this.albumRepository = albumRepository;
+        this.songReviewRepository = songReviewRepository;
+        this.albumReviewRepository = albumReviewRepository;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ArtistPage> eldest) {
+                if (size() > maxCachedArtists) {
+                    forget(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        cacheChanges.register(SongService.CACHE_KIND, id -> invalidateAll());
+        cacheChanges.register(AlbumService.CACHE_KIND, id -> invalidateAll());
+        cacheChanges.register(SongReviewService.RATING_CACHE_KIND, id -> invalidateRating(ReviewTarget.SONG, id));
+        cacheChanges.register(AlbumReviewService.RATING_CACHE_KIND, id -> invalidateRating(ReviewTarget.ALBUM, id));
+    }
+
+    /**
+     * Retrieves the page of an artist.
+     *
+     * @param name the name of the artist.
+     * @return the songs and albums of the artist with their ratings, or null if the artist has neither.
+     */
+    public ArtistPage getArtistPage(String name) {
+        long startGeneration;
+        synchronized (this) {
+            ArtistPage cached = pages.get(name);
+            if (cached != null) {
+                return cached;
+            }
+            startGeneration = generation;
+        }
+
+        ArtistPage page;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<ArtistSong>> songs = executor.submit(() -> loadSongs(name));
+            Future<List<ArtistAlbum>> albums = executor.submit(() -> loadAlbums(name));
+            page = new ArtistPage(name, join(songs), join(albums));
+        }
+        if (page.songs().isEmpty() && page.albums().isEmpty()) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (generation == startGeneration) {
+                pages.put(name, page);
+                for (ArtistSong song : page.songs()) {
+                    songArtists.put(song.id(), name);
+                }
+                for (ArtistAlbum album : page.albums()) {
+                    albumArtists.put(album.id(), name);
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Drops the cached pages of the old and new artist of a changed song.
+     *
+     * @param event the change of the song.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSongChanged(SongChangedEvent event) {
+        if (event.before() != null) {
+            invalidate(event.before().artist());
+        }
+        if (event.after() != null) {
+            invalidate(event.after().artist());
+        }
+    }
+
+    /**
+     * Drops the cached pages of the artists that gained songs through an import.
+     *
+     * @param event the import of the songs.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSongsImported(SongsImportedEvent event) {
+        for (String artist : event.artists()) {
+            invalidate(artist);
+        }
+    }
+
+    /**
+     * Drops the cached pages of the old and new artist of a changed album.
+     *
+     * @param event the change of the album.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlbumChanged(AlbumChangedEvent event) {
+        invalidate(event.artistBefore());
+        invalidate(event.artistAfter());
+    }
+
+    /**
+     * Drops the cached page showing the rating of a song or album whose reviews changed.
+     *
+     * @param event the change of the review.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        String artist;
+        synchronized (this) {
+            artist = switch (event.target()) {
+                case SONG -> songArtists.get(event.targetId());
+                case ALBUM -> albumArtists.get(event.targetId());
+                default -> null;
+            };
+        }
+        invalidate(artist);
+    }
+
+    /**
+     * Drops the cached page showing a rating another replica changed.
+     *
+     * @param target the kind of item whose rating changed.
+     * @param id the ID of the item as recorded, or null if any rating of the kind may have changed.
+     */
+    private void invalidateRating(ReviewTarget target, String id) {
+        if (id == null) {
+            invalidateAll();
+            return;
+        }
+        onReviewChanged(new ReviewChangedEvent(target, Integer.parseInt(id)));
+    }
+
+    /**
+     * Removes all pages from the cache.
+     */
+    private synchronized void invalidateAll() {
+        generation++;
+        pages.clear();
+        songArtists.clear();
+        albumArtists.clear();
+    }
+
+    /**
+     * Removes the page of an artist from the cache. Pages that are being built while this is called are not
+     * cached, even if the artist is unknown, as the page may contain an item whose lookup entry is not there yet.
+     *
+     * @param artist the name of the artist, may be null.
+     */
+    private synchronized void invalidate(String artist) {
+        generation++;
+        if (artist == null) {
+            return;
+        }
+        ArtistPage removed = pages.remove(artist);
+        if (removed != null) {
+            forget(removed);
+        }
+    }
+
+    /**
+     * Removes the songs and albums of a page that is dropped from the cache from the lookup maps.
+     *
+     * @param page the dropped page.
+     */
+    private void forget(ArtistPage page) {
+        for (ArtistSong song : page.songs()) {
+            songArtists.remove(song.id(), page.name());
+        }
+        for (ArtistAlbum album : page.albums()) {
+            albumArtists.remove(album.id(), page.name());
+        }
+    }
+
+    /**
+     * Loads the songs of an artist together with their ratings.
+     *
+     * @param name the name of the artist.
+     * @return the songs of the artist.
+     */
+    private List<ArtistSong> loadSongs(String name) {
+        List<SongRecord> songs = new ArrayList<>();
+        songRepository.getByArtist(name).forEach(songs::add);
+        if (songs.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> ids = new ArrayList<>(songs.size());
+        for (SongRecord song : songs) {
+            ids.add(song.id());
+        }
+        Map<Integer, RatingSummary> ratings = byTargetId(songReviewRepository.summarizeBySongIdIn(ids));
+
+        List<ArtistSong> result = new ArrayList<>(songs.size());
+        for (SongRecord song : songs) {
+            RatingSummary rating = ratings.get(song.id());
+            result.add(new ArtistSong(song.id(), song.title(), song.label(), song.genre(), song.length(),
+                    rating == null ? 0 : rating.getReviewCount(),
+                    rating == null ? null : rating.getAverageRating()));
+        }
+        return result;
+    }
+
+    /**
+     * Loads the albums of an artist together with their ratings.
+     *
+     * @param name the name of the artist.
+     * @return the albums of the artist.
+     */
+    private List<ArtistAlbum> loadAlbums(String name) {
+        List<AlbumRecord> albums = new ArrayList<>();
+        albumRepository.getByArtist(name).forEach(albums::add);
+        if (albums.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> ids = new ArrayList<>(albums.size());
+        for (AlbumRecord album : albums) {
+            ids.add(album.id());
+        }
+        Map<Integer, RatingSummary> ratings = byTargetId(albumReviewRepository.summarizeByAlbumIdIn(ids));
+
+        List<ArtistAlbum> result = new ArrayList<>(albums.size());
+        for (AlbumRecord album : albums) {
+            RatingSummary rating = ratings.get(album.id());
+            result.add(new ArtistAlbum(album.id(), album.title(), album.genre(), album.releaseDate(),
+                    album.totalDuration(), album.trackCount(),
+                    rating == null ? 0 : rating.getReviewCount(),
+                    rating == null ? null : rating.getAverageRating()));
+        }
+        return result;
+    }
+
+    private static Map<Integer, RatingSummary> byTargetId(List<RatingSummary> summaries) {
+        Map<Integer, RatingSummary> result = new HashMap<>();
+        for (RatingSummary summary : summaries) {
+            result.put(summary.getTargetId(), summary);
+        }
+        return result;
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading artist page", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Loading artist page failed", e.getCause());
+        }
+    }
+}
@@ -3,17 +3,22 @@ package nl.rug.advancedprogramming.BookReviewAPI.Application;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @ComponentScan(basePackages = {
+		"nl.rug.advancedprogramming.BookReviewAPI.Common",
 		"nl.rug.advancedprogramming.BookReviewAPI.Books",
 		"nl.rug.advancedprogramming.BookReviewAPI.Reviews",
 		"nl.rug.advancedprogramming.BookReviewAPI.Songs",
 		"nl.rug.advancedprogramming.BookReviewAPI.Application.configuration",
+		"nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics",
+		"nl.rug.advancedprogramming.BookReviewAPI.Application.admission",
 		"nl.rug.advancedprogramming.BookReviewAPI.Albums",
 })
 @EnableJpaRepositories(basePackages = {
+		"nl.rug.advancedprogramming.BookReviewAPI.Common.*",
 		"nl.rug.advancedprogramming.BookReviewAPI.Books.*",
 		"nl.rug.advancedprogramming.BookReviewAPI.Reviews.*",
 		"nl.rug.advancedprogramming.BookReviewAPI.Songs",
@@ -21,6 +26,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 		"nl.rug.advancedprogramming.BookReviewAPI.Albums.*"
 })
 @EntityScan(basePackages = {
+		"nl.rug.advancedprogramming.BookReviewAPI.Common.*",
 		"nl.rug.advancedprogramming.BookReviewAPI.Books.*",
 		"nl.rug.advancedprogramming.BookReviewAPI.Reviews.*",
 		"nl.rug.advancedprogramming.BookReviewAPI.Songs",
@@ -30,9 +36,13 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication()
 public class BookReviewApiApplication {
+	// Enough for every startup step of the application, see StartupReport
+	private static final int STARTUP_STEPS = 8192;
 
 	public static void main(String[] args) {
-		SpringApplication.run(BookReviewApiApplication.class, args);
+		SpringApplication application = new SpringApplication(BookReviewApiApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		application.run(args);
 	}
 
 }
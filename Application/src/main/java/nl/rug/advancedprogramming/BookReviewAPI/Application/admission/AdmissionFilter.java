@@ -0,0 +1,111 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.admission;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits every request through the {@link Bulkhead} of its {@link RequestClass}, so that bulk imports and exports
+ * cannot take the threads and connections of the interactive reads. A request that gets no place is answered with
+ * 503 Service Unavailable and a Retry-After header. Streamed exports keep their place until the response is
+ * complete, not just until the controller returns.
+ */
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+    private final Bulkheads bulkheads;
+
+    /**
+     * Constructor for the AdmissionFilter.
+     *
+     * @param bulkheads the bulkheads of the request classes
+     */
+    public AdmissionFilter(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestClass requestClass = RequestClass.of(request);
+        if (requestClass == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Bulkhead bulkhead = bulkheads.get(requestClass);
+        boolean admitted;
+        try {
+            admitted = bulkhead.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        bulkheads.count(requestClass, admitted);
+        if (!admitted) {
+            reject(response, requestClass, bulkhead);
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release(System.nanoTime() - start);
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private static void reject(HttpServletResponse response, RequestClass requestClass, Bulkhead bulkhead)
+            throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(bulkhead.retryAfterSeconds()));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many " + requestClass.getName() + " requests, try again later");
+    }
+
+    /**
+     * Gives back the place of an asynchronous request, such as a streamed export, once it has ended.
+     */
+    private record ReleasingListener(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Still the same request
+        }
+    }
+}
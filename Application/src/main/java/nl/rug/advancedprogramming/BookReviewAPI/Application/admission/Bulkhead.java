@@ -0,0 +1,162 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.admission;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits how many requests of one class run at the same time. A request over the limit waits in a bounded queue
+ * for a bounded time and is rejected when the queue is full or the time is up.
+ * <p>
+ * A request holds at most one database connection at a time, so the limit is also the number of connections the
+ * class can take from the pool. The limit can be changed while requests run, see {@link Bulkheads}. Waiting uses a
+ * lock instead of {@code synchronized}, so waiting virtual threads do not pin their carrier thread.
+ * </p>
+ */
+public class Bulkhead {
+    // Weight of the latest request in the mean duration
+    private static final double SMOOTHING = 0.1;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final int maxQueue;
+    private final Duration maxWait;
+    private int limit;
+    private int active;
+    private int waiting;
+    private double meanNanos;
+
+    /**
+     * Constructor for the Bulkhead.
+     *
+     * @param limit    the number of requests that may run at the same time
+     * @param maxQueue the number of requests that may wait for one of them to finish, 0 to reject right away
+     * @param maxWait  how long a request waits before it is rejected
+     */
+    public Bulkhead(int limit, int maxQueue, Duration maxWait) {
+        this.limit = limit;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Takes a place for a request, waiting for one if the bulkhead is full. Requests that find others waiting
+     * queue behind them.
+     *
+     * @return whether the request got a place; if so it has to call {@link #release(long)} when it is done
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public boolean acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (active < limit && waiting == 0) {
+                active++;
+                return true;
+            }
+            if (waiting >= maxQueue) {
+                return false;
+            }
+            waiting++;
+            try {
+                long nanos = maxWait.toNanos();
+                while (active >= limit) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = released.awaitNanos(nanos);
+                }
+                active++;
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back the place of a request and lets the next waiting request in.
+     *
+     * @param nanos how long the request ran, for the Retry-After estimate
+     */
+    public void release(long nanos) {
+        lock.lock();
+        try {
+            active--;
+            meanNanos = meanNanos == 0 ? nanos : meanNanos + SMOOTHING * (nanos - meanNanos);
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the number of requests that may run at the same time. Lowering it does not stop running requests,
+     * new ones wait until enough of them are done.
+     *
+     * @param limit the new limit
+     */
+    public void setLimit(int limit) {
+        lock.lock();
+        try {
+            this.limit = limit;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Estimates when a rejected request can expect a place: the time the queue and the request itself need to get
+     * through, from the mean duration of the requests so far.
+     *
+     * @return the number of seconds to send in the Retry-After header, at least 1
+     */
+    public long retryAfterSeconds() {
+        lock.lock();
+        try {
+            double nanos = meanNanos * (waiting + 1) / Math.max(limit, 1);
+            return Math.max(1, (long) Math.ceil(nanos / TimeUnit.SECONDS.toNanos(1)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests that may run at the same time
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests running
+     */
+    public int getActive() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests waiting for a place
+     */
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.configuration.DBConnection;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ImportJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Holds one {@link Bulkhead} per {@link RequestClass} and adapts their limits to the latency of the database.
+ * <p>
+ * Every class has a minimum and a maximum concurrency, set in application.properties:
+ * <ul>
+ *     <li>admission.&lt;class&gt;.max-concurrency: the limit while the database keeps up, the number of requests
+ *     and connections the class gets at most</li>
+ *     <li>admission.&lt;class&gt;.min-concurrency: the limit never goes below this</li>
+ *     <li>admission.&lt;class&gt;.max-queue: requests that may wait for a place, more are rejected right away</li>
+ *     <li>admission.&lt;class&gt;.max-wait: how long a request waits for a place, e.g. 500ms</li>
+ * </ul>
+ * Each interval the mean time of the repository calls in that interval is compared with the usual mean, which
+ * follows drops right away and rises only slowly. If it is more than {@code admission.latency.tolerance} times the
+ * usual mean, the database is falling behind: the limits of exports, imports and writes are cut by a quarter, down
+ * to their minimum, and only when all of them are at their minimum the limit of reads is cut as well. Otherwise
+ * every limit grows by one, up to its maximum.
+ * </p>
+ * <p>
+ * A request holds at most one connection at a time, so writes, imports and exports together take at most the sum of
+ * their maximum concurrency from the pool of the primary ({@code DB_POOL_SIZE}). The import bulkhead only covers
+ * copying the request body, the jobs then run on {@code imports.jobs.workers} threads of the
+ * {@link ImportJobService}, each holding a connection per chunk. That sum, plus the workers, plus the minimum
+ * concurrency of reads has to fit the pool, so the other classes can never take the connections reads need. The
+ * application does not start otherwise. Reads over their minimum share the connections the others leave.
+ * </p>
+ * Metrics, tagged with the class: {@code admission.limit}, {@code admission.active}, {@code admission.waiting} and
+ * {@code admission.requests}, the latter also with the outcome "admitted" or "rejected".
+ */
+@Component
+public class Bulkheads {
+    private static final Logger log = LoggerFactory.getLogger(Bulkheads.class);
+    private static final String PREFIX = "admission.";
+    // Repository calls needed in an interval to judge the latency of the database
+    private static final long MIN_CALLS = 20;
+    // How fast the usual latency follows a higher one
+    private static final double BASELINE_RISE = 0.05;
+
+    // Class -> default minimum and maximum concurrency, queue length and wait
+    private static final Map<RequestClass, Settings> DEFAULTS = new EnumMap<>(RequestClass.class);
+
+    static {
+        DEFAULTS.put(RequestClass.READ, new Settings(3, 64, 256, Duration.ofSeconds(1)));
+        DEFAULTS.put(RequestClass.WRITE, new Settings(1, 2, 64, Duration.ofSeconds(2)));
+        DEFAULTS.put(RequestClass.IMPORT, new Settings(1, 1, 0, Duration.ZERO));
+        DEFAULTS.put(RequestClass.EXPORT, new Settings(1, 2, 4, Duration.ofSeconds(5)));
+    }
+
+    // Cut first when the database falls behind
+    private static final RequestClass[] SHED_ORDER = {
+            RequestClass.EXPORT, RequestClass.IMPORT, RequestClass.WRITE
+    };
+
+    private final Map<RequestClass, Bulkhead> bulkheads = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Settings> settings = new EnumMap<>(RequestClass.class);
+    private final MeterRegistry registry;
+    private final double tolerance;
+    private long lastCalls;
+    private double lastNanos;
+    private double baselineNanos;
+
+    private record Settings(int minConcurrency, int maxConcurrency, int maxQueue, Duration maxWait) {
+    }
+
+    /**
+     * Constructor for the Bulkheads. Every class starts at its maximum concurrency.
+     *
+     * @param environment the environment the settings and the pool size are read from
+     * @param registry    the registry the metrics are registered in, and the repository timers are read from
+     * @throws IllegalStateException if the limits and the import job workers do not leave reads their minimum
+     *                               concurrency in the pool
+     */
+    public Bulkheads(Environment environment, MeterRegistry registry) {
+        this.registry = registry;
+        this.tolerance = environment.getProperty(PREFIX + "latency.tolerance", Double.class, 2.0);
+
+        for (RequestClass requestClass : RequestClass.values()) {
+            String prefix = PREFIX + requestClass.getName() + ".";
+            Settings defaults = DEFAULTS.get(requestClass);
+            int max = environment.getProperty(prefix + "max-concurrency", Integer.class,
+                    defaults.maxConcurrency());
+            int min = Math.min(max, environment.getProperty(prefix + "min-concurrency", Integer.class,
+                    defaults.minConcurrency()));
+            Settings classSettings = new Settings(min, max,
+                    environment.getProperty(prefix + "max-queue", Integer.class, defaults.maxQueue()),
+                    environment.getProperty(prefix + "max-wait", Duration.class, defaults.maxWait()));
+            Bulkhead bulkhead = new Bulkhead(max, classSettings.maxQueue(), classSettings.maxWait());
+            settings.put(requestClass, classSettings);
+            bulkheads.put(requestClass, bulkhead);
+
+            gauge("admission.limit", "Requests of the class that may run at the same time", requestClass,
+                    bulkhead, Bulkhead::getLimit);
+            gauge("admission.active", "Requests of the class that are running", requestClass,
+                    bulkhead, Bulkhead::getActive);
+            gauge("admission.waiting", "Requests of the class waiting for a place", requestClass,
+                    bulkhead, Bulkhead::getWaiting);
+        }
+        checkPoolSize(environment.getProperty("DB_POOL_SIZE", Integer.class, DBConnection.DEFAULT_POOL_SIZE),
+                environment.getProperty("imports.jobs.workers", Integer.class, ImportJobService.DEFAULT_WORKERS));
+    }
+
+    /**
+     * Retrieves the bulkhead of a class.
+     *
+     * @param requestClass the class
+     * @return the bulkhead
+     */
+    public Bulkhead get(RequestClass requestClass) {
+        return bulkheads.get(requestClass);
+    }
+
+    /**
+     * Counts a request of a class that was admitted or rejected.
+     *
+     * @param requestClass the class
+     * @param admitted     whether it got a place
+     */
+    public void count(RequestClass requestClass, boolean admitted) {
+        Counter.builder("admission.requests")
+                .description("Requests by class and whether they were admitted or rejected")
+                .tag("class", requestClass.getName())
+                .tag("outcome", admitted ? "admitted" : "rejected")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Adapts the limits to the latency of the repository calls since the last run.
+     */
+    @Scheduled(fixedDelayString = "${admission.adjust-interval-ms:1000}")
+    public void adjust() {
+        long calls = 0;
+        double nanos = 0;
+        for (Timer timer : registry.find("spring.data.repository.invocations").timers()) {
+            calls += timer.count();
+            nanos += timer.totalTime(TimeUnit.NANOSECONDS);
+        }
+        long intervalCalls = calls - lastCalls;
+        if (intervalCalls < MIN_CALLS) {
+            // Too few calls to tell, keep collecting. Nobody waiting means the database is quiet rather than stuck.
+            if (bulkheads.values().stream().allMatch(bulkhead -> bulkhead.getWaiting() == 0)) {
+                grow();
+            }
+            return;
+        }
+        double mean = (nanos - lastNanos) / intervalCalls;
+        lastCalls = calls;
+        lastNanos = nanos;
+
+        boolean congested = baselineNanos > 0 && mean > tolerance * baselineNanos;
+        baselineNanos = baselineNanos == 0 || mean < baselineNanos
+                ? mean
+                : baselineNanos + BASELINE_RISE * (mean - baselineNanos);
+        if (congested) {
+            shed(mean);
+        } else {
+            grow();
+        }
+    }
+
+    private void checkPoolSize(int poolSize, int importWorkers) {
+        int needed = settings.get(RequestClass.READ).minConcurrency() + importWorkers;
+        for (RequestClass requestClass : SHED_ORDER) {
+            needed += settings.get(requestClass).maxConcurrency();
+        }
+        if (needed > poolSize) {
+            throw new IllegalStateException("The maximum concurrency of writes, imports and exports plus the import "
+                    + "job workers and the minimum concurrency of reads is " + needed + ", more than the " + poolSize
+                    + " connections of the pool (DB_POOL_SIZE). Lower admission.<class>.max-concurrency or "
+                    + "imports.jobs.workers, or raise DB_POOL_SIZE.");
+        }
+    }
+
+    private void grow() {
+        for (RequestClass requestClass : RequestClass.values()) {
+            Bulkhead bulkhead = bulkheads.get(requestClass);
+            int limit = bulkhead.getLimit();
+            if (limit < settings.get(requestClass).maxConcurrency()) {
+                bulkhead.setLimit(limit + 1);
+            }
+        }
+    }
+
+    private void shed(double meanNanos) {
+        boolean cut = false;
+        for (RequestClass requestClass : SHED_ORDER) {
+            cut |= cut(requestClass);
+        }
+        if (!cut) {
+            cut(RequestClass.READ);
+        }
+        log.debug("Repository calls took {} ms on average, usual is {} ms, limits now {}",
+                TimeUnit.NANOSECONDS.toMillis((long) meanNanos), TimeUnit.NANOSECONDS.toMillis((long) baselineNanos),
+                limits());
+    }
+
+    /**
+     * Cuts the limit of a class by a quarter, but not below its minimum.
+     *
+     * @return whether the limit was lowered
+     */
+    private boolean cut(RequestClass requestClass) {
+        Bulkhead bulkhead = bulkheads.get(requestClass);
+        int limit = bulkhead.getLimit();
+        int cutLimit = Math.max(settings.get(requestClass).minConcurrency(), limit * 3 / 4);
+        if (cutLimit >= limit) {
+            return false;
+        }
+        bulkhead.setLimit(cutLimit);
+        return true;
+    }
+
+    private Map<RequestClass, Integer> limits() {
+        Map<RequestClass, Integer> limits = new EnumMap<>(RequestClass.class);
+        bulkheads.forEach((requestClass, bulkhead) -> limits.put(requestClass, bulkhead.getLimit()));
+        return limits;
+    }
+
+    private void gauge(String name, String description, RequestClass requestClass, Bulkhead bulkhead,
+                       ToIntFunction<Bulkhead> value) {
+        Gauge.builder(name, bulkhead, b -> value.applyAsInt(b))
+                .description(description)
+                .tag("class", requestClass.getName())
+                .register(registry);
+    }
+}
@@ -0,0 +1,66 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The classes of requests that get their own {@link Bulkhead}, so that one class cannot use up the threads and
+ * connections the others need.
+ */
+public enum RequestClass {
+    /**
+     * Interactive reads, every GET that is not an export.
+     */
+    READ("read"),
+    /**
+     * Single creates, updates and deletes.
+     */
+    WRITE("write"),
+    /**
+     * Bulk imports, {@code .../import/...}.
+     */
+    IMPORT("import"),
+    /**
+     * Bulk exports, {@code .../export/...}.
+     */
+    EXPORT("export");
+
+    private final String name;
+
+    RequestClass(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the name of the class, as used in the settings and the metrics.
+     *
+     * @return the name, e.g. "import"
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Determines the class of a request from its path and method.
+     *
+     * @param request the request
+     * @return the class, or null for requests that are always admitted: the actuator and diagnostics endpoints
+     */
+    public static RequestClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/actuator") || path.startsWith("/diagnostics")) {
+            return null;
+        }
+        for (String segment : path.split("/")) {
+            if (segment.equals("import")) {
+                return IMPORT;
+            }
+            if (segment.equals("export")) {
+                return EXPORT;
+            }
+        }
+        return switch (request.getMethod()) {
+            case "GET", "HEAD", "OPTIONS" -> READ;
+            default -> WRITE;
+        };
+    }
+}
@@ -1,27 +1,90 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Application.configuration;
 
-import org.springframework.boot.jdbc.DataSourceBuilder;
+import com.zaxxer.hikari.HikariDataSource;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics.StatementCountingDataSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Builds the connection pools from the environment.
+ * <p>
+ * Without {@code DB_REPLICA_HOSTS} all traffic goes to the database at {@code DB_HOST}:{@code DB_PORT}. With it,
+ * read-only transactions of the services go to the listed replicas, see {@link ReadWriteRoutingDataSource}. The
+ * statements of every request are counted on the way, see {@link StatementCountingDataSource}.
+ * </p>
+ * Environment variables:
+ * <ul>
+ *     <li>DB_HOST, DB_PORT, DB_DATABASE, DB_USER, DB_PASSWORD: the primary database, replicas use the same
+ *     database name and credentials</li>
+ *     <li>DB_POOL_SIZE: maximum connections to the primary (default 10)</li>
+ *     <li>DB_REPLICA_HOSTS: comma separated replicas as host or host:port, the port defaults to DB_PORT</li>
+ *     <li>DB_REPLICA_POOL_SIZE: maximum connections to each replica (default 10)</li>
+ *     <li>DB_REPLICA_MAX_LAG: seconds a replica may be behind before reads fall back to the primary (default 5)</li>
+ *     <li>DB_REPLICA_CHECK_INTERVAL: seconds between replica lag checks (default 5)</li>
+ * </ul>
+ */
 @Configuration
 public class DBConnection {
+    /**
+     * Maximum connections to the primary without DB_POOL_SIZE.
+     */
+    public static final int DEFAULT_POOL_SIZE = 10;
 
     @Bean
     public static DataSource dataSource() {
-        DataSourceBuilder<?> dataSourceBuilder = DataSourceBuilder.create()
-                .driverClassName("org.mariadb.jdbc.Driver")
-                .url("jdbc:mariadb://"
-                        + System.getenv("DB_HOST")
-                        + ":" + System.getenv("DB_PORT")
-                        + "/"
-                        + System.getenv("DB_DATABASE")
-                )
-                .username(System.getenv("DB_USER"))
-                .password(System.getenv("DB_PASSWORD"));
-
-        return dataSourceBuilder.build();
+        String port = System.getenv("DB_PORT");
+        HikariDataSource primary = pool("primary", System.getenv("DB_HOST"), port, intEnv("DB_POOL_SIZE", DEFAULT_POOL_SIZE));
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        String replicaHosts = System.getenv("DB_REPLICA_HOSTS");
+        if (replicaHosts != null) {
+            int poolSize = intEnv("DB_REPLICA_POOL_SIZE", 10);
+            for (String replica : replicaHosts.split(",")) {
+                replica = replica.trim();
+                if (replica.isEmpty()) {
+                    continue;
+                }
+                int colon = replica.lastIndexOf(':');
+                String host = colon < 0 ? replica : replica.substring(0, colon);
+                String replicaPort = colon < 0 ? port : replica.substring(colon + 1);
+                replicas.add(pool("replica-" + (replicas.size() + 1), host, replicaPort, poolSize));
+            }
+        }
+        if (replicas.isEmpty()) {
+            return new StatementCountingDataSource(primary);
+        }
+
+        return new StatementCountingDataSource(new ReadWriteRoutingDataSource(primary, replicas,
+                Duration.ofSeconds(intEnv("DB_REPLICA_MAX_LAG", 5)),
+                Duration.ofSeconds(intEnv("DB_REPLICA_CHECK_INTERVAL", 5))));
+    }
+
+    private static HikariDataSource pool(String name, String host, String port, int maximumPoolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setDriverClassName("org.mariadb.jdbc.Driver");
+        dataSource.setJdbcUrl("jdbc:mariadb://"
+                + host
+                + ":" + port
+                + "/"
+                + System.getenv("DB_DATABASE")
+        );
+        dataSource.setUsername(System.getenv("DB_USER"));
+        dataSource.setPassword(System.getenv("DB_PASSWORD"));
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        return dataSource;
+    }
+
+    private static int intEnv(String name, int fallback) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        return Integer.parseInt(value.trim());
     }
 }
@@ -0,0 +1,55 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.configuration;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufCodec;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufEntityConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary encodings of the API, picked by the {@code Accept} header (or {@code Content-Type} of a request body):
+ * <ul>
+ *     <li>{@code application/cbor}: CBOR</li>
+ *     <li>{@code application/x-jackson-smile}: Smile</li>
+ *     <li>{@code application/x-protobuf}: Protocol Buffers, with the schemas in protobuf/*.proto of the modules</li>
+ * </ul>
+ * CBOR and Smile use the same Jackson settings as JSON, so they have the same fields. All three are added after the
+ * JSON converter, so clients that accept anything still get JSON.
+ */
+@Configuration
+public class MessageFormatConfiguration implements WebMvcConfigurer {
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> jacksonBuilders;
+    private final List<ProtobufCodec<?>> protobufCodecs;
+
+    /**
+     * Constructor for the MessageFormatConfiguration.
+     *
+     * @param jacksonBuilders Spring Boot's ObjectMapper builders, with the spring.jackson settings applied
+     * @param protobufCodecs  the Protobuf codecs of all modules
+     */
+    public MessageFormatConfiguration(ObjectProvider<Jackson2ObjectMapperBuilder> jacksonBuilders,
+                                      List<ProtobufCodec<?>> protobufCodecs) {
+        this.jacksonBuilders = jacksonBuilders;
+        this.protobufCodecs = protobufCodecs;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring MVC registers CBOR and Smile itself when they are on the classpath, but without Boot's settings
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                jacksonBuilders.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                jacksonBuilders.getObject().factory(new SmileFactory()).build()));
+        converters.add(new ProtobufEntityConverter(protobufCodecs));
+    }
+}
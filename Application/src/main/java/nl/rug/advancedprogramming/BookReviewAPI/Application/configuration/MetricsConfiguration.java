@@ -0,0 +1,129 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics.StatementCountingDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Metrics that Spring Boot does not register by itself.
+ * <p>
+ * Request timers ({@code http.server.requests}, per route) and repository timers
+ * ({@code spring.data.repository.invocations}, per repository method) come from Spring Boot, their histograms are
+ * switched on in application.properties. Boot only sees connection pools that are beans, so the pools behind
+ * {@link ReadWriteRoutingDataSource} get their gauges here, as do the regions of the second-level cache.
+ * </p>
+ * The pools also report how long connections are held, {@code hikaricp.connections.usage}: with open-in-view off a
+ * read request holds its connection for its queries only, not for the whole request.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Registers {@code db.pool.connections} gauges, tagged with the pool and the state of the connections,
+     * and {@code db.pool.connections.max} for every connection pool. Also hands the registry to the pools, which
+     * then time how long each connection is held ({@code hikaricp.connections.usage}) and waited for
+     * ({@code hikaricp.connections.acquire}).
+     *
+     * @param dataSource the DataSource of the application
+     * @return the binder registering the gauges
+     */
+    @Bean
+    public MeterBinder connectionPoolMetrics(DataSource dataSource) {
+        if (dataSource instanceof StatementCountingDataSource counting) {
+            dataSource = counting.getTargetDataSource();
+        }
+        List<HikariDataSource> pools;
+        if (dataSource instanceof ReadWriteRoutingDataSource routing) {
+            pools = routing.getPools();
+        } else if (dataSource instanceof HikariDataSource pool) {
+            pools = List.of(pool);
+        } else {
+            pools = List.of();
+        }
+
+        return registry -> {
+            for (HikariDataSource pool : pools) {
+                if (pool.getMetricRegistry() == null && pool.getMetricsTrackerFactory() == null) {
+                    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+                connections(registry, pool, "active", HikariPoolMXBean::getActiveConnections);
+                connections(registry, pool, "idle", HikariPoolMXBean::getIdleConnections);
+                connections(registry, pool, "pending", HikariPoolMXBean::getThreadsAwaitingConnection);
+                Gauge.builder("db.pool.connections.max", pool, HikariDataSource::getMaximumPoolSize)
+                        .description("Maximum number of connections in the pool")
+                        .tag("pool", pool.getPoolName())
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Registers {@code hibernate.cache.requests} counters, tagged with the region and whether the request was a hit
+     * or a miss, and {@code hibernate.cache.puts} for every region of the second-level cache. Query cache regions
+     * count the cached searches, not the entities in their results.
+     *
+     * @param entityManagerFactory    the entity manager factory collecting the statistics
+     * @param secondLevelCacheManager the cache manager holding the regions
+     * @return the binder registering the counters
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory,
+                                               CacheManager secondLevelCacheManager) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (String region : secondLevelCacheManager.getCacheNames()) {
+                cacheCounter("hibernate.cache.requests", statistics, region, CacheRegionStatistics::getHitCount)
+                        .description("Requests to the second-level cache region by result")
+                        .tag("result", "hit")
+                        .register(registry);
+                cacheCounter("hibernate.cache.requests", statistics, region, CacheRegionStatistics::getMissCount)
+                        .description("Requests to the second-level cache region by result")
+                        .tag("result", "miss")
+                        .register(registry);
+                cacheCounter("hibernate.cache.puts", statistics, region, CacheRegionStatistics::getPutCount)
+                        .description("Entries put into the second-level cache region")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static FunctionCounter.Builder<Statistics> cacheCounter(String name, Statistics statistics, String region,
+                                                                   ToLongFunction<CacheRegionStatistics> count) {
+        return FunctionCounter.builder(name, statistics, s -> {
+                    // Query cache regions only exist once the first query has used them
+                    CacheRegionStatistics regionStatistics = s.getCacheRegionStatistics(region);
+                    return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+                })
+                .tag("region", region);
+    }
+
+    private static void connections(MeterRegistry registry, HikariDataSource pool, String state,
+                                    ToIntFunction<HikariPoolMXBean> value) {
+        Gauge.builder("db.pool.connections", pool, p -> {
+                    // The pool only exists after the first connection has been requested
+                    HikariPoolMXBean bean = p.getHikariPoolMXBean();
+                    return bean == null ? 0 : value.applyAsInt(bean);
+                })
+                .description("Connections of the pool by state, pending counts the threads waiting for one")
+                .tag("pool", pool.getPoolName())
+                .tag("state", state)
+                .register(registry);
+    }
+}
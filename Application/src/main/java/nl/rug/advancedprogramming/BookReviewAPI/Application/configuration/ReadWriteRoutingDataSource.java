@@ -0,0 +1,193 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource that sends the read-only transactions of the services to read replicas and everything else to the
+ * primary.
+ * <p>
+ * The physical connection is only taken when the first statement runs, after the transaction manager has marked it
+ * read-only for {@code @Transactional(readOnly = true)}, so the pool can be picked per transaction. Spring Data runs
+ * its own repository reads in read-only transactions as well; those stay on the primary, because the services read
+ * back through repositories right after writing, e.g. to refresh the song index, and a replica may not have the
+ * write yet.
+ * </p>
+ * <p>
+ * A background task polls {@code SHOW REPLICA STATUS} on every replica. A replica that is more than the maximum lag
+ * behind, has stopped replicating or cannot be reached is skipped until it catches up again; without any usable
+ * replica reads go to the primary.
+ * </p>
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService lagChecker;
+
+    /**
+     * Constructor for the ReadWriteRoutingDataSource. Starts checking the replicas right away.
+     *
+     * @param primary       the pool of the primary database
+     * @param replicas      the pools of the read replicas
+     * @param maxLag        how far a replica may be behind the primary and still serve reads
+     * @param checkInterval the time between two lag checks
+     */
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Duration maxLag,
+                                      Duration checkInterval) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        for (HikariDataSource replica : replicas) {
+            this.replicas.add(new Replica(replica));
+        }
+        setTargetDataSource(primary);
+        setReadOnlyDataSource(new ReplicaSelector());
+        // The MariaDB defaults; without them the proxy opens a connection here to look them up
+        setDefaultAutoCommit(true);
+        setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        afterPropertiesSet();
+
+        lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkReplicas, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Retrieves the connection pools this DataSource routes between.
+     *
+     * @return the pool of the primary followed by the pools of the replicas
+     */
+    public List<HikariDataSource> getPools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        pools.add(primary);
+        for (Replica replica : replicas) {
+            pools.add(replica.pool);
+        }
+        return pools;
+    }
+
+    /**
+     * Stops the lag checks and closes all pools.
+     */
+    @Override
+    public void close() {
+        lagChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+        primary.close();
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            String problem = lagProblem(replica.pool);
+            boolean usable = problem == null;
+            if (usable != replica.usable) {
+                if (usable) {
+                    log.info("Sending reads to replica {} again", replica.pool.getPoolName());
+                } else {
+                    log.warn("Not sending reads to replica {}: {}", replica.pool.getPoolName(), problem);
+                }
+                replica.usable = usable;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a replica is close enough to the primary to serve reads.
+     *
+     * @return why the replica cannot be used, or null if it can
+     */
+    private String lagProblem(HikariDataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) {
+                return "it is not replicating from a primary";
+            }
+            long lag = status.getLong("Seconds_Behind_Master");
+            if (status.wasNull()) {
+                return "replication is stopped";
+            }
+            if (lag > maxLag.toSeconds()) {
+                return "it is " + lag + " s behind the primary";
+            }
+            return null;
+        } catch (SQLException e) {
+            return "lag check failed: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Whether the current transaction was started by a Spring Data repository rather than by a service.
+     */
+    private static boolean startedByRepository() {
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return name == null || name.startsWith("org.springframework.data.");
+    }
+
+    private static class Replica {
+        private final HikariDataSource pool;
+        // Not used until the first lag check has passed
+        private volatile boolean usable;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+
+    /**
+     * Hands out connections for read-only transactions: round-robin over the usable replicas, falling back to the
+     * primary.
+     */
+    private class ReplicaSelector extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!startedByRepository()) {
+                int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+                for (int i = 0; i < replicas.size(); i++) {
+                    Replica replica = replicas.get((start + i) % replicas.size());
+                    if (!replica.usable) {
+                        continue;
+                    }
+                    try {
+                        return replica.pool.getConnection();
+                    } catch (SQLException e) {
+                        replica.usable = false;
+                        log.warn("Not sending reads to replica {}: {}", replica.pool.getPoolName(), e.getMessage());
+                    }
+                }
+            }
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the {@code @Scheduled} background tasks of the modules, such as the compaction of the review rollups.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
@@ -0,0 +1,113 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.configuration;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds the regions of the Hibernate second-level cache, an Ehcache behind the JCache API.
+ * <p>
+ * Books, songs, albums and the song lists of albums are cached by ID, so {@code findById} and loading the songs of
+ * an album need no query. The results of the property searches ({@code getByTitle} etc.) are cached per repository
+ * in the query cache. Hibernate keeps both up to date itself on every write that goes through it: saved and deleted
+ * entities are replaced in or removed from their region, and partial updates empty the region of their entity type.
+ * A cached search is only used if none of its tables was written after it was cached. The song import writes with
+ * plain JDBC and invalidates the song searches itself, see {@code SongRepositoryCustomImpl}.
+ * </p>
+ * Every region has a maximum number of entries and a time to live, set in application.properties:
+ * <ul>
+ *     <li>catalog.cache.&lt;region&gt;.max-entries: entries kept in memory, the least recently used go first</li>
+ *     <li>catalog.cache.&lt;region&gt;.ttl: how long an entry is kept after it was written, e.g. 10m, 0 to keep it
+ *     until it is evicted</li>
+ * </ul>
+ * Hibernate refuses to start if an entity or query uses a region that is not created here. Hit, miss and put
+ * counts per region are registered as metrics by {@link MetricsConfiguration}.
+ */
+@Configuration
+public class SecondLevelCacheConfiguration {
+    private static final String PREFIX = "catalog.cache.";
+
+    /**
+     * Where Hibernate records when a table was last written. Query results are only valid as long as the entries of
+     * their tables are in here, so it holds one entry per table and never expires.
+     */
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    // Region -> default maximum entries and time to live
+    private static final Map<String, Region> REGIONS = new LinkedHashMap<>();
+
+    static {
+        REGIONS.put("books", new Region(10_000, Duration.ofHours(1)));
+        REGIONS.put("songs", new Region(50_000, Duration.ofHours(1)));
+        REGIONS.put("albums", new Region(10_000, Duration.ofHours(1)));
+        REGIONS.put("albums.songIds", new Region(10_000, Duration.ofHours(1)));
+        REGIONS.put("books.queries", new Region(1_000, Duration.ofMinutes(10)));
+        REGIONS.put("songs.queries", new Region(5_000, Duration.ofMinutes(10)));
+        REGIONS.put("albums.queries", new Region(1_000, Duration.ofMinutes(10)));
+        // Used by cacheable queries that do not name a region
+        REGIONS.put("default-query-results-region", new Region(1_000, Duration.ofMinutes(10)));
+    }
+
+    private record Region(long maxEntries, Duration ttl) {
+    }
+
+    /**
+     * Creates the cache manager holding the regions.
+     *
+     * @param environment the environment the region settings are read from
+     * @return the cache manager, closed with the application context
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(Environment environment) {
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        for (Map.Entry<String, Region> region : REGIONS.entrySet()) {
+            String name = region.getKey();
+            long maxEntries = environment.getProperty(PREFIX + name + ".max-entries", Long.class,
+                    region.getValue().maxEntries());
+            Duration ttl = environment.getProperty(PREFIX + name + ".ttl", Duration.class, region.getValue().ttl());
+            create(cacheManager, name, maxEntries, ttl);
+        }
+        create(cacheManager, TIMESTAMPS_REGION, 1_000, Duration.ZERO);
+        return cacheManager;
+    }
+
+    /**
+     * Hands the cache manager to Hibernate. The other cache settings are in application.properties.
+     *
+     * @param secondLevelCacheManager the cache manager holding the regions
+     * @return the customizer adding the cache manager to the Hibernate settings
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private static void create(CacheManager cacheManager, String name, long maxEntries, Duration ttl) {
+        if (cacheManager.getCache(name) != null) {
+            // Left over from an application context that was not closed, e.g. a devtools restart
+            cacheManager.destroyCache(name);
+        }
+        CacheConfigurationBuilder<Object, Object> configuration = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ttl.isZero()
+                        ? ExpiryPolicyBuilder.noExpiration()
+                        : ExpiryPolicyBuilder.timeToLiveExpiration(ttl));
+        cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+    }
+}
@@ -0,0 +1,36 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Support for the training run that records the class data sharing archive of the startup-optimized image (see the
+ * Dockerfile). That run starts the application context without a database and exits after the refresh, so it
+ * must not migrate. This is decided at runtime, because the Spring AOT build fixes which beans exist; a property
+ * that switches Flyway off would have no effect there.
+ */
+@Configuration
+public class StartupConfiguration {
+    private static final Logger log = LoggerFactory.getLogger(StartupConfiguration.class);
+
+    /**
+     * Runs the Flyway migrations on startup, except in the training run.
+     *
+     * @param training whether this is the training run, from the startup.training property
+     * @return the migration strategy
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${startup.training:false}") boolean training) {
+        return flyway -> {
+            if (training) {
+                log.info("Training run, not migrating the database");
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Logs how long after the start of the JVM the first request was answered: the startup time a client, or the
+ * readiness probe of an autoscaler, actually sees. After the first request it only costs one volatile read.
+ */
+@Component
+public class FirstRequestTimer extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(FirstRequestTimer.class);
+
+    private final AtomicBoolean answered = new AtomicBoolean();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, response);
+        if (!answered.get() && answered.compareAndSet(false, true)) {
+            long millis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            log.info("First request {} {} answered with {} {} ms after JVM start",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(), millis);
+        }
+    }
+}
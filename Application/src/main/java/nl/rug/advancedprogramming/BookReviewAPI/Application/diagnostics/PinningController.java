@@ -0,0 +1,47 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Exposes the virtual thread pinning statistics collected by the {@link PinningMonitor}.
+ */
+@RestController
+@RequestMapping("/diagnostics/pinning")
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class PinningController {
+    private final PinningMonitor monitor;
+
+    /**
+     * Constructor for the PinningController.
+     *
+     * @param monitor the monitor collecting the pinning events
+     */
+    public PinningController(PinningMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * Retrieves where virtual threads pinned their carrier thread so far.
+     *
+     * @return {@link ResponseEntity} with one report per pinning site, most pinned time first, and a 200 OK status.
+     */
+    @GetMapping
+    public ResponseEntity<List<PinningReport>> getPinning() {
+        return ResponseEntity.ok(monitor.getReports());
+    }
+
+    /**
+     * Clears the pinning statistics, e.g. between benchmark runs.
+     *
+     * @return {@link ResponseEntity} with a 204 NO CONTENT status.
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> resetPinning() {
+        monitor.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,144 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects virtual threads pinning their carrier thread, e.g. by blocking on JDBC I/O inside a synchronized block
+ * in the MariaDB driver or in Hibernate. Pinned virtual threads hold on to one of the few carrier threads, so under
+ * load they can stall every other request. The monitor streams the JFR {@code jdk.VirtualThreadPinned} event
+ * in-process, groups the events by the innermost driver, Hibernate, pool or application frame, and logs each
+ * site the first time it pins. Only active when virtual threads are enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class PinningMonitor {
+    private static final Logger log = LoggerFactory.getLogger(PinningMonitor.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int REPORTED_FRAMES = 12;
+
+    // Package prefix -> component name, checked from the innermost frame outwards
+    private static final String[][] COMPONENTS = {
+            {"org.mariadb.", "mariadb-driver"},
+            {"org.hibernate.", "hibernate"},
+            {"com.zaxxer.hikari.", "hikari"},
+            {"nl.rug.advancedprogramming.", "application"},
+    };
+
+    private final Duration threshold;
+    private final Map<String, PinningSite> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    /**
+     * Constructor for the PinningMonitor.
+     *
+     * @param threshold pinning events shorter than this are not recorded
+     */
+    public PinningMonitor(@Value("${diagnostics.pinning.threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Starts streaming pinning events once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::record);
+        stream.startAsync();
+        log.info("Reporting virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+
+    /**
+     * Stops streaming pinning events.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    /**
+     * Retrieves the pinning statistics recorded so far.
+     *
+     * @return one report per pinning site, the site with the most pinned time first
+     */
+    public List<PinningReport> getReports() {
+        List<PinningReport> reports = new ArrayList<>();
+        for (PinningSite site : sites.values()) {
+            reports.add(site.toReport());
+        }
+        reports.sort(Comparator.comparingDouble(PinningReport::totalMillis).reversed());
+        return reports;
+    }
+
+    /**
+     * Forgets the statistics recorded so far, e.g. before a benchmark run.
+     */
+    public void reset() {
+        sites.clear();
+    }
+
+    private void record(RecordedEvent event) {
+        RecordedStackTrace trace = event.getStackTrace();
+        List<RecordedFrame> frames = trace == null ? List.of() : trace.getFrames();
+
+        String site = "unknown";
+        String component = "other";
+        search:
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            for (String[] candidate : COMPONENTS) {
+                if (type.startsWith(candidate[0])) {
+                    site = describe(frame);
+                    component = candidate[1];
+                    break search;
+                }
+            }
+        }
+        if (site.equals("unknown") && !frames.isEmpty()) {
+            site = describe(frames.get(0));
+        }
+
+        String siteName = site;
+        String componentName = component;
+        PinningSite stats = sites.computeIfAbsent(component + " " + site,
+                k -> new PinningSite(siteName, componentName, topFrames(frames)));
+        if (stats.record(event.getDuration().toNanos())) {
+            log.warn("Virtual thread pinned its carrier for {} ms in {} at {}; further pinning here is only counted",
+                    event.getDuration().toMillis(), component, site);
+        }
+    }
+
+    private static List<String> topFrames(List<RecordedFrame> frames) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < frames.size() && i < REPORTED_FRAMES; i++) {
+            result.add(describe(frames.get(i)));
+        }
+        return result;
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
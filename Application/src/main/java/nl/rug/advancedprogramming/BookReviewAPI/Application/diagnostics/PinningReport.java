@@ -0,0 +1,18 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics;
+
+import java.util.List;
+
+/**
+ * How often and how long virtual threads pinned their carrier thread at one place in the code.
+ *
+ * @param site        the innermost frame of the component that pinned, e.g. a MariaDB driver method
+ * @param component   the library or code base the site belongs to: mariadb-driver, hibernate, hikari, application
+ *                    or other
+ * @param count       the number of pinning events at this site
+ * @param totalMillis the summed duration of those events
+ * @param maxMillis   the duration of the longest event
+ * @param stack       the top frames of the stack of the first event
+ */
+public record PinningReport(String site, String component, long count, double totalMillis, double maxMillis,
+                            List<String> stack) {
+}
@@ -0,0 +1,39 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the pinning events recorded at one place in the code. Thread safe.
+ */
+class PinningSite {
+    private final String site;
+    private final String component;
+    private final List<String> stack;
+    private final AtomicLong count = new AtomicLong();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    PinningSite(String site, String component, List<String> stack) {
+        this.site = site;
+        this.component = component;
+        this.stack = stack;
+    }
+
+    /**
+     * Counts one pinning event.
+     *
+     * @param nanos how long the carrier thread was pinned
+     * @return true if this was the first event at this site
+     */
+    boolean record(long nanos) {
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        return count.incrementAndGet() == 1;
+    }
+
+    PinningReport toReport() {
+        return new PinningReport(site, component, count.get(), totalNanos.sum() / 1e6, maxNanos.get() / 1e6, stack);
+    }
+}
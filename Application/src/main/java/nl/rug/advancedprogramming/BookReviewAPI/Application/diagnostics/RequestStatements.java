@@ -0,0 +1,112 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The JDBC statements one HTTP request has run: how many, how long they took and what they looked like. The
+ * {@link StatementBudgetFilter} opens a tally for every request and {@link StatementCountingDataSource} adds the
+ * statements the request thread executes to it. Statements of other threads, such as streamed exports, import jobs
+ * and scheduled tasks, are not part of any request.
+ */
+public class RequestStatements {
+    /** Request attribute holding the tally once the request has been handled, e.g. for tests. */
+    public static final String ATTRIBUTE = RequestStatements.class.getName();
+
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+    // Distinct statements kept per request; a request running more is reported by the ones it ran first
+    private static final int MAX_STATEMENTS = 200;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int count;
+    private long nanos;
+    // By SQL as executed; most statements are prepared from the same few strings, so they are only normalized
+    // into shapes when they are reported
+    private final Map<String, Shape> statements = new HashMap<>();
+
+    /**
+     * How often a statement of one shape was executed by a request and how long it took altogether.
+     *
+     * @param sql   the statement with its literals and parameter lists replaced by placeholders
+     * @param count the number of executions
+     * @param nanos the time spent executing them
+     */
+    public record Shape(String sql, int count, long nanos) {
+
+        private Shape add(int count, long nanos) {
+            return new Shape(sql, this.count + count, this.nanos + nanos);
+        }
+    }
+
+    static RequestStatements start() {
+        RequestStatements statements = new RequestStatements();
+        CURRENT.set(statements);
+        return statements;
+    }
+
+    static RequestStatements current() {
+        return CURRENT.get();
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    void record(String sql, long elapsedNanos) {
+        count++;
+        nanos += elapsedNanos;
+        String key = sql == null ? "(batch)" : sql;
+        Shape shape = statements.get(key);
+        if (shape != null) {
+            statements.put(key, shape.add(1, elapsedNanos));
+        } else if (statements.size() < MAX_STATEMENTS) {
+            statements.put(key, new Shape(key, 1, elapsedNanos));
+        }
+    }
+
+    /**
+     * @return the number of statements executed, a batch counts as one
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the time spent executing the statements, in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Groups the executed statements by shape, so that e.g. one query per album shows up as one shape executed once
+     * per album.
+     *
+     * @return the shapes, most executed first
+     */
+    public List<Shape> getShapes() {
+        Map<String, Shape> shapes = new HashMap<>();
+        for (Shape statement : statements.values()) {
+            String sql = shapeOf(statement.sql());
+            shapes.merge(sql, new Shape(sql, statement.count(), statement.nanos()),
+                    (a, b) -> a.add(b.count(), b.nanos()));
+        }
+        List<Shape> sorted = new ArrayList<>(shapes.values());
+        sorted.sort(Comparator.comparingInt(Shape::count).reversed().thenComparing(Shape::sql));
+        return sorted;
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?, ...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
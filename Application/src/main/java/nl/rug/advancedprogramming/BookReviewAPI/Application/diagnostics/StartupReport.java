@@ -0,0 +1,112 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Logs where the startup time went once the application is ready, from the steps recorded by the
+ * {@link BufferingApplicationStartup} that the main class installs:
+ * <ul>
+ *     <li>the time from JVM start to the main method, which class data sharing shortens</li>
+ *     <li>the Spring Boot and Spring Framework phases in the order they started, e.g. reading the configuration
+ *     classes (component scanning), the repository scan and the context refresh</li>
+ *     <li>the well-known slow parts: Hibernate, Flyway and the initialization of the repositories</li>
+ *     <li>the slowest beans, including the beans they depend on</li>
+ * </ul>
+ * Nested phases are part of the phase they run in, so the durations do not add up. With the deferred repository
+ * bootstrap Hibernate builds its metamodel in the background; the time the repositories wait for it shows up under
+ * their initialization. The time to the first request is logged by {@link FirstRequestTimer}.
+ */
+@Component
+public class StartupReport {
+    private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+    private static final int SLOWEST_BEANS = 10;
+
+    // Bean name or step name -> what it is
+    private static final Map<String, String> KNOWN_PARTS = Map.of(
+            "entityManagerFactory", "Hibernate metamodel (entityManagerFactory)",
+            "flywayInitializer", "Flyway validation and migration (flywayInitializer)",
+            "spring.data.repository.init", "Spring Data repository initialization",
+            "spring.data.repository.scanning", "Spring Data repository scanning");
+
+    /**
+     * Logs the report.
+     *
+     * @param event the event published when the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+        StartupTimeline timeline = startup.getBufferedTimeline();
+        Instant jvmStart = Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+
+        StringBuilder report = new StringBuilder("Startup report\n");
+        line(report, "JVM start to main", Duration.between(jvmStart, timeline.getStartTime()));
+        line(report, "JVM start to ready", Duration.between(jvmStart, Instant.now()));
+        line(report, "main to ready", event.getTimeTaken());
+
+        // Phase name -> total duration, in the order the phases first started
+        Map<String, Duration> phases = new LinkedHashMap<>();
+        Map<String, Duration> known = new LinkedHashMap<>();
+        List<StartupTimeline.TimelineEvent> beans = new ArrayList<>();
+        List<StartupTimeline.TimelineEvent> events = new ArrayList<>(timeline.getEvents());
+        events.sort(Comparator.comparing(StartupTimeline.TimelineEvent::getStartTime));
+        for (StartupTimeline.TimelineEvent step : events) {
+            String name = step.getStartupStep().getName();
+            if (name.equals(BEAN_STEP)) {
+                beans.add(step);
+                String bean = beanName(step.getStartupStep());
+                if (KNOWN_PARTS.containsKey(bean)) {
+                    known.merge(KNOWN_PARTS.get(bean), step.getDuration(), Duration::plus);
+                }
+            } else {
+                phases.merge(name, step.getDuration(), Duration::plus);
+                if (KNOWN_PARTS.containsKey(name)) {
+                    known.merge(KNOWN_PARTS.get(name), step.getDuration(), Duration::plus);
+                }
+            }
+        }
+
+        report.append("Phases:\n");
+        phases.forEach((name, duration) -> line(report, name, duration));
+        report.append("Known slow parts:\n");
+        known.forEach((name, duration) -> line(report, name, duration));
+        report.append("Slowest beans, with their dependencies:\n");
+        beans.sort(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed());
+        for (int i = 0; i < beans.size() && i < SLOWEST_BEANS; i++) {
+            line(report, beanName(beans.get(i).getStartupStep()), beans.get(i).getDuration());
+        }
+        log.info(report.toString().stripTrailing());
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (tag.getKey().equals("beanName")) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+
+    private static void line(StringBuilder report, String name, Duration duration) {
+        report.append(String.format("  %-60s %8d ms%n", name, duration.toMillis()));
+    }
+}
@@ -0,0 +1,163 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the JDBC statements and the database time of every request and holds each route to a statement budget,
+ * so that N+1 queries, e.g. loading the song list of every album one by one, show up as soon as they are
+ * introduced.
+ * <p>
+ * Every request records {@code db.request.statements} and {@code db.request.time}, tagged with the method and the
+ * route. A request running more statements than the budget of its route ({@code statements.budget.routes}, or
+ * {@code statements.budget.default}) counts in {@code db.request.budget.exceeded} and is logged with its most
+ * frequent statement shapes, at most once per route per {@code statements.budget.log-interval}. With
+ * {@code statements.budget.enforce} on, as in tests, such a request fails instead.
+ * </p>
+ * The tally of a request is left in the {@link RequestStatements#ATTRIBUTE} request attribute.
+ */
+@Component
+public class StatementBudgetFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(StatementBudgetFilter.class);
+    private static final int LOGGED_SHAPES = 5;
+
+    private final MeterRegistry registry;
+    private final int defaultBudget;
+    private final Map<String, Integer> routeBudgets;
+    private final boolean enforce;
+    private final long logIntervalNanos;
+    private final Map<String, AtomicLong> lastLogged = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for the StatementBudgetFilter.
+     *
+     * @param registry      the registry for the statement metrics
+     * @param defaultBudget the statements a request may run if its route has no budget of its own
+     * @param routeBudgets  budgets per route as {@code METHOD /route=statements}, separated by commas
+     * @param enforce       whether a request over its budget fails instead of being logged
+     * @param logInterval   how often a route over its budget is logged at most
+     */
+    public StatementBudgetFilter(MeterRegistry registry,
+                                 @Value("${statements.budget.default:10}") int defaultBudget,
+                                 @Value("${statements.budget.routes:}") String routeBudgets,
+                                 @Value("${statements.budget.enforce:false}") boolean enforce,
+                                 @Value("${statements.budget.log-interval:1m}") Duration logInterval) {
+        this.registry = registry;
+        this.defaultBudget = defaultBudget;
+        this.routeBudgets = parseBudgets(routeBudgets);
+        this.enforce = enforce;
+        this.logIntervalNanos = logInterval.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestStatements statements = RequestStatements.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestStatements.end();
+            request.setAttribute(RequestStatements.ATTRIBUTE, statements);
+        }
+
+        // Only known once the request has been mapped to a controller
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        DistributionSummary.builder("db.request.statements")
+                .description("JDBC statements executed per request")
+                .tags("method", method, "uri", uri)
+                .register(registry)
+                .record(statements.getCount());
+        Timer.builder("db.request.time")
+                .description("Time spent executing JDBC statements per request")
+                .tags("method", method, "uri", uri)
+                .register(registry)
+                .record(statements.getNanos(), TimeUnit.NANOSECONDS);
+
+        String route = method + " " + uri;
+        int budget = budgetOf(route);
+        if (statements.getCount() > budget) {
+            overBudget(route, method, uri, budget, statements);
+        }
+    }
+
+    /**
+     * Retrieves the statement budget of a route.
+     *
+     * @param route the method and the route pattern, e.g. "GET /albums/{id}"
+     * @return the statements a request of the route may run
+     */
+    public int budgetOf(String route) {
+        return routeBudgets.getOrDefault(route, defaultBudget);
+    }
+
+    private void overBudget(String route, String method, String uri, int budget, RequestStatements statements) {
+        Counter.builder("db.request.budget.exceeded")
+                .description("Requests that executed more JDBC statements than the budget of their route")
+                .tags("method", method, "uri", uri)
+                .register(registry)
+                .increment();
+
+        if (enforce) {
+            throw new IllegalStateException(describe(route, budget, statements));
+        }
+        long now = System.nanoTime();
+        AtomicLong last = lastLogged.computeIfAbsent(route, r -> new AtomicLong(now - logIntervalNanos));
+        long previous = last.get();
+        if (now - previous >= logIntervalNanos && last.compareAndSet(previous, now)) {
+            log.warn("{}", describe(route, budget, statements));
+        }
+    }
+
+    private static String describe(String route, int budget, RequestStatements statements) {
+        StringBuilder message = new StringBuilder()
+                .append(route).append(" executed ").append(statements.getCount())
+                .append(" statements in ").append(TimeUnit.NANOSECONDS.toMillis(statements.getNanos()))
+                .append(" ms, its budget is ").append(budget).append(". Most executed:");
+        List<RequestStatements.Shape> shapes = statements.getShapes();
+        for (RequestStatements.Shape shape : shapes.subList(0, Math.min(LOGGED_SHAPES, shapes.size()))) {
+            message.append("\n  ").append(shape.count()).append("x, ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(shape.nanos())).append(" ms: ").append(shape.sql());
+        }
+        return message.toString();
+    }
+
+    private static Map<String, Integer> parseBudgets(String budgets) {
+        Map<String, Integer> parsed = new HashMap<>();
+        for (String budget : budgets.split(",")) {
+            budget = budget.trim();
+            if (budget.isEmpty()) {
+                continue;
+            }
+            int equals = budget.lastIndexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Statement budget without a number: " + budget);
+            }
+            String route = budget.substring(0, equals).trim().replaceAll("\\s+", " ");
+            parsed.put(route, Integer.parseInt(budget.substring(equals + 1).trim()));
+        }
+        return parsed;
+    }
+}
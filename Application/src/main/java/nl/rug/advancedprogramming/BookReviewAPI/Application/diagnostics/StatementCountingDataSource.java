@@ -0,0 +1,91 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource that adds every statement executed on its connections to the {@link RequestStatements} of the current
+ * request. Connections and statements are wrapped in proxies that time the {@code execute} calls; outside a request
+ * they only pass the calls on. Wraps the whole DataSource, so statements to the primary and to the replicas, and
+ * statements from Hibernate and from plain JDBC, are all counted.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource implements Closeable {
+
+    /**
+     * Constructor for the StatementCountingDataSource.
+     *
+     * @param target the DataSource handing out the connections
+     */
+    public StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    /**
+     * Closes the target, so its pools are shut down with the application.
+     */
+    @Override
+    public void close() throws IOException {
+        if (obtainTargetDataSource() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    Class<?> type = method.getReturnType();
+                    if (result instanceof Statement statement && Statement.class.isAssignableFrom(type)) {
+                        // prepareStatement and prepareCall take the SQL up front, createStatement when executing
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        return wrap(statement, type, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private static Statement wrap(Statement statement, Class<?> type, String preparedSql) {
+        return (Statement) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, (proxy, method, args) -> {
+                    RequestStatements current = RequestStatements.current();
+                    if (current == null || !method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    String sql = preparedSql != null ? preparedSql
+                            : args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        current.record(sql, System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,2 @@
+ALTER TABLE import_checkpoint
+    ADD COLUMN record_offset BIGINT NOT NULL DEFAULT 0;
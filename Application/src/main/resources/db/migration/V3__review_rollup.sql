@@ -0,0 +1,41 @@
+CREATE TABLE review_rollup
+(
+    target_type  VARCHAR(16) NOT NULL,
+    target_id    INT         NOT NULL,
+    granularity  VARCHAR(8)  NOT NULL,
+    bucket_start datetime    NOT NULL,
+    review_count BIGINT      NOT NULL,
+    rating_sum   DOUBLE      NOT NULL,
+    CONSTRAINT pk_review_rollup PRIMARY KEY (target_type, granularity, bucket_start, target_id)
+);
+
+-- Backfill the rollups from the reviews that already exist. Reviews without a date can not be bucketed.
+INSERT INTO review_rollup (target_type, target_id, granularity, bucket_start, review_count, rating_sum)
+SELECT 'BOOK', book_id, 'HOUR', DATE_FORMAT(date, '%Y-%m-%d %H:00:00'), COUNT(*), SUM(rating)
+FROM review WHERE date IS NOT NULL
+GROUP BY book_id, DATE_FORMAT(date, '%Y-%m-%d %H:00:00');
+
+INSERT INTO review_rollup (target_type, target_id, granularity, bucket_start, review_count, rating_sum)
+SELECT 'BOOK', book_id, 'DAY', DATE(date), COUNT(*), SUM(rating)
+FROM review WHERE date IS NOT NULL
+GROUP BY book_id, DATE(date);
+
+INSERT INTO review_rollup (target_type, target_id, granularity, bucket_start, review_count, rating_sum)
+SELECT 'ALBUM', album_id, 'HOUR', DATE_FORMAT(date, '%Y-%m-%d %H:00:00'), COUNT(*), SUM(rating)
+FROM album_review WHERE date IS NOT NULL
+GROUP BY album_id, DATE_FORMAT(date, '%Y-%m-%d %H:00:00');
+
+INSERT INTO review_rollup (target_type, target_id, granularity, bucket_start, review_count, rating_sum)
+SELECT 'ALBUM', album_id, 'DAY', DATE(date), COUNT(*), SUM(rating)
+FROM album_review WHERE date IS NOT NULL
+GROUP BY album_id, DATE(date);
+
+INSERT INTO review_rollup (target_type, target_id, granularity, bucket_start, review_count, rating_sum)
+SELECT 'SONG', song_id, 'HOUR', DATE_FORMAT(date, '%Y-%m-%d %H:00:00'), COUNT(*), SUM(rating)
+FROM song_review WHERE date IS NOT NULL
+GROUP BY song_id, DATE_FORMAT(date, '%Y-%m-%d %H:00:00');
+
+INSERT INTO review_rollup (target_type, target_id, granularity, bucket_start, review_count, rating_sum)
+SELECT 'SONG', song_id, 'DAY', DATE(date), COUNT(*), SUM(rating)
+FROM song_review WHERE date IS NOT NULL
+GROUP BY song_id, DATE(date);
@@ -0,0 +1,10 @@
+CREATE TABLE import_checkpoint
+(
+    import_id   VARCHAR(255) NOT NULL,
+    import_type VARCHAR(64)  NULL,
+    byte_offset BIGINT       NOT NULL,
+    row_count   BIGINT       NOT NULL,
+    completed   BIT(1)       NOT NULL,
+    updated_at  datetime     NULL,
+    CONSTRAINT pk_import_checkpoint PRIMARY KEY (import_id)
+);
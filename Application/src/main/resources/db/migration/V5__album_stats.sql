@@ -0,0 +1,23 @@
+ALTER TABLE album
+    ADD COLUMN total_duration INT NOT NULL DEFAULT 0,
+    ADD COLUMN track_count    INT NOT NULL DEFAULT 0,
+    ADD COLUMN longest_track  INT NULL,
+    ADD COLUMN shortest_track INT NULL;
+
+-- Track count covers every listed song, the length statistics only the songs that exist.
+UPDATE album a
+    JOIN (SELECT s.album_id,
+                 COUNT(*)         AS track_count,
+                 COALESCE(SUM(song.length), 0) AS total_duration,
+                 MAX(song.length) AS longest_track,
+                 MIN(song.length) AS shortest_track
+          FROM album_song_ids s
+                   LEFT JOIN song ON song.id = s.song_ids
+          GROUP BY s.album_id) stats ON stats.album_id = a.id
+SET a.track_count    = stats.track_count,
+    a.total_duration = stats.total_duration,
+    a.longest_track  = stats.longest_track,
+    a.shortest_track = stats.shortest_track;
+
+CREATE INDEX idx_album_total_duration ON album (total_duration);
+CREATE INDEX idx_album_track_count ON album (track_count);
@@ -0,0 +1,2 @@
+-- Lets "which albums contain song X" use an index instead of scanning the table.
+CREATE INDEX idx_album_song_ids_song_ids ON album_song_ids (song_ids);
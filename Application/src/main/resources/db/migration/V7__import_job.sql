@@ -0,0 +1,18 @@
+CREATE TABLE import_job
+(
+    id            VARCHAR(255)  NOT NULL,
+    type          VARCHAR(64)   NOT NULL,
+    status        VARCHAR(16)   NOT NULL,
+    input         VARCHAR(1024) NOT NULL,
+    spooled       BIT(1)        NOT NULL,
+    rows_parsed   BIGINT        NOT NULL,
+    rows_rejected BIGINT        NOT NULL,
+    rows_written  BIGINT        NOT NULL,
+    error         VARCHAR(1024) NULL,
+    created_at    datetime      NOT NULL,
+    started_at    datetime      NULL,
+    finished_at   datetime      NULL,
+    CONSTRAINT pk_import_job PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_import_job_status ON import_job (status, created_at);
@@ -0,0 +1,11 @@
+CREATE TABLE cache_change
+(
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    kind       VARCHAR(32)  NOT NULL,
+    entity_key VARCHAR(255) NULL,
+    origin     VARCHAR(64)  NOT NULL,
+    created_at DATETIME(6)  NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    CONSTRAINT pk_cache_change PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_cache_change_created_at ON cache_change (created_at);
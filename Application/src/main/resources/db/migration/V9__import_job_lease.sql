@@ -0,0 +1,3 @@
+ALTER TABLE import_job
+    ADD COLUMN owner        VARCHAR(64) NULL,
+    ADD COLUMN heartbeat_at datetime    NULL;
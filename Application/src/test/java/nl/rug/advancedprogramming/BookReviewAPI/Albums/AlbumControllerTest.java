@@ -3,18 +3,22 @@ package nl.rug.advancedprogramming.BookReviewAPI.Albums;
 import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumService;
 import nl.rug.advancedprogramming.BookReviewAPI.Application.BookReviewApiApplication;
 import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.AlbumRecord;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,7 +37,8 @@ public class AlbumControllerTest {
     void testGetAllAlbums_NoParams() throws Exception {
         Date date = new Date();
         Album album = new Album("Whenever You Need Somebody", "Rick Astley", "Pop", date);
-        when(albumService.getAllAlbums()).thenReturn(Collections.singletonList(album));
+        when(albumService.getAllAlbums())
+                .thenReturn(Collections.singletonList(AlbumRecord.of(album, album.getSongIds())));
 
         mockMvc.perform(get("/albums"))
                 .andExpect(status().isOk())
@@ -46,7 +51,7 @@ public class AlbumControllerTest {
         Date date = new Date();
         Album album = new Album("Whenever You Need Somebody", "Rick Astley", "Pop", date);
         when(albumService.getAlbumsByProperty("title", "Whenever You Need Somebody"))
-                .thenReturn(Collections.singletonList(album));
+                .thenReturn(Collections.singletonList(AlbumRecord.of(album, album.getSongIds())));
 
         mockMvc.perform(get("/albums")
                         .param("property", "title")
@@ -55,6 +60,61 @@ public class AlbumControllerTest {
                 .andExpect(jsonPath("$[0].title").value("Whenever You Need Somebody"));
     }
 
+    @Test
+    void testGetAllAlbums_SortedByTotalDuration() throws Exception {
+        Album album = new Album("Whenever You Need Somebody", "Rick Astley", "Pop", new Date());
+        album.setTotalDuration(2580);
+        album.setTrackCount(10);
+        when(albumService.getAllAlbums(Sort.by(Sort.Direction.DESC, "totalDuration")))
+                .thenReturn(Collections.singletonList(AlbumRecord.of(album, album.getSongIds())));
+
+        mockMvc.perform(get("/albums")
+                        .param("sort", "totalDuration")
+                        .param("direction", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].totalDuration").value(2580))
+                .andExpect(jsonPath("$[0].trackCount").value(10));
+    }
+
+    @Test
+    void testGetAllAlbums_InvalidSort() throws Exception {
+        mockMvc.perform(get("/albums")
+                        .param("sort", "songIds"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testPatchAlbum() throws Exception {
+        when(albumService.patchAlbum(eq(1), anyMap())).thenReturn(true);
+
+        mockMvc.perform(patch("/albums/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"genre\":\"Dance-pop\"}"))
+                .andExpect(status().isNoContent());
+
+        verify(albumService).patchAlbum(1, Map.of("genre", "Dance-pop"));
+    }
+
+    @Test
+    void testGetAlbumsOfSong() throws Exception {
+        Album album = new Album("Whenever You Need Somebody", "Rick Astley", "Pop", new Date());
+        album.getSongIds().add(100);
+        when(albumService.getAlbumsContainingSong(100))
+                .thenReturn(Collections.singletonList(AlbumRecord.of(album, album.getSongIds())));
+
+        mockMvc.perform(get("/songs/100/albums"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Whenever You Need Somebody"));
+    }
+
+    @Test
+    void testGetAlbumsOfSong_SongNotFound() throws Exception {
+        when(albumService.getAlbumsContainingSong(100)).thenReturn(null);
+
+        mockMvc.perform(get("/songs/100/albums"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testAddAlbum() throws Exception {
         Date date = new Date();
@@ -72,7 +132,7 @@ public class AlbumControllerTest {
     void testGetAlbumById_Found() throws Exception {
         Date date = new Date();
         Album album = new Album("Whenever You Need Somebody", "Rick Astley", "Pop", date);
-        when(albumService.getAlbumById(1)).thenReturn(album);
+        when(albumService.getAlbumById(1)).thenReturn(AlbumRecord.of(album, album.getSongIds()));
 
         mockMvc.perform(get("/albums/1"))
                 .andExpect(status().isOk())
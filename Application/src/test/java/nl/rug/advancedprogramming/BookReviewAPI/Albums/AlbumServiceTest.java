@@ -0,0 +1,124 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.repositories.AlbumRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumService;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumSongIndex;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.CacheChangeLog;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.SingleFlight;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.AlbumReviewRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.service.SongIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AlbumServiceTest {
+
+    private final AlbumRepository albumRepository = mock(AlbumRepository.class);
+    private final SongIndex songIndex = mock(SongIndex.class);
+    private final AlbumSongIndex albumSongIndex = new AlbumSongIndex(albumRepository);
+    private final TransactionTemplate transaction = new TransactionTemplate(new NoOpTransactionManager());
+    private AlbumService albumService;
+
+    // Runs the transaction synchronization without a database
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        Album album = new Album("Album", "Artist", "Pop", new Date());
+        album.setId(1);
+        album.setSongIds(new ArrayList<>(List.of(1, 2)));
+        when(albumRepository.findAllAlbumSongs()).thenReturn(List.of(new Row(1, 1), new Row(1, 2)));
+        when(albumRepository.findById(1)).thenAnswer(invocation -> Optional.of(copy(album)));
+        when(albumRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(songIndex.getAll(any()))
+                .thenAnswer(invocation -> new SongRecord[((int[]) invocation.getArgument(0)).length]);
+
+        albumService = new AlbumService(albumRepository, mock(AlbumReviewRepository.class), songIndex, albumSongIndex,
+                mock(ApplicationEventPublisher.class), new RowMetrics(new SimpleMeterRegistry()),
+                mock(SingleFlight.class), mock(CacheChangeLog.class));
+    }
+
+    @Test
+    void testRolledBackUpdateLeavesSongListUnchanged() {
+        assertEquals(List.of(1, 2), albumService.getAlbumById(1).songIds());
+
+        transaction.executeWithoutResult(status -> {
+            assertTrue(albumService.updateAlbum(1, changed(3)));
+            // Not committed yet, other requests still see the old song list
+            assertEquals(List.of(1, 2), albumService.getAlbumById(1).songIds());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(1, 2), albumService.getAlbumById(1).songIds());
+    }
+
+    @Test
+    void testCommittedUpdateChangesSongList() {
+        assertEquals(List.of(1, 2), albumService.getAlbumById(1).songIds());
+
+        transaction.executeWithoutResult(status -> assertTrue(albumService.updateAlbum(1, changed(3))));
+
+        assertEquals(List.of(3), albumService.getAlbumById(1).songIds());
+        assertEquals(List.of(1), albumSongIndex.albumsOf(3));
+        assertEquals(List.of(), albumSongIndex.albumsOf(1));
+    }
+
+    private static Album changed(int songId) {
+        Album album = new Album("Album", "Artist", "Pop", new Date());
+        album.setSongIds(new ArrayList<>(List.of(songId)));
+        return album;
+    }
+
+    private static Album copy(Album album) {
+        Album copy = new Album(album.getTitle(), album.getArtist(), album.getGenre(), album.getReleaseDate());
+        copy.setId(album.getId());
+        copy.setSongIds(new ArrayList<>(album.getSongIds()));
+        return copy;
+    }
+
+    private record Row(int albumId, int songId) implements AlbumRepository.AlbumSongRow {
+        @Override
+        public int getAlbumId() {
+            return albumId;
+        }
+
+        @Override
+        public int getSongId() {
+            return songId;
+        }
+    }
+}
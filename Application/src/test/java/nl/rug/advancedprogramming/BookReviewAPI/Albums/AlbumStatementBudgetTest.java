@@ -0,0 +1,84 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumService;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.BookReviewApiApplication;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics.RequestStatements;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics.StatementBudgetFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Holds the album listing and exports to their statement budgets against the database, so loading the song lists
+ * album by album fails the build. With enforcement on, a request over its budget fails in the filter.
+ */
+@SpringBootTest(classes = BookReviewApiApplication.class, properties = "statements.budget.enforce=true")
+@AutoConfigureMockMvc
+public class AlbumStatementBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AlbumService albumService;
+
+    @Autowired
+    private StatementBudgetFilter budgetFilter;
+
+    private final List<Integer> albums = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // More albums than the budget of the listing, each with its own song list
+        for (int i = 0; i < 5; i++) {
+            Album album = new Album("Budget Album " + i, "Budget Artist", "Pop", new Date());
+            album.getSongIds().addAll(List.of(1, 2, 3));
+            albums.add(albumService.createAlbum(album).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        albums.forEach(albumService::deleteAlbum);
+    }
+
+    @Test
+    void testListingStaysWithinBudget() throws Exception {
+        assertWithinBudget("GET /albums", "/albums");
+    }
+
+    @Test
+    void testJsonExportStaysWithinBudget() throws Exception {
+        assertWithinBudget("GET /albums/export/json", "/albums/export/json");
+    }
+
+    @Test
+    void testCsvExportStaysWithinBudget() throws Exception {
+        assertWithinBudget("GET /albums/export/csv", "/albums/export/csv");
+    }
+
+    private void assertWithinBudget(String route, String uri) throws Exception {
+        MvcResult result = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Object statements = result.getRequest().getAttribute(RequestStatements.ATTRIBUTE);
+        int count = ((RequestStatements) statements).getCount();
+        assertTrue(count > 0, route + " ran no statements, the database was not reached");
+        assertTrue(count <= budgetFilter.budgetOf(route), route + " ran " + count + " statements");
+    }
+}
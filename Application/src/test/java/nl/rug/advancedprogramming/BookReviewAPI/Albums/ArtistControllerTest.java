@@ -0,0 +1,53 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Albums;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.ArtistAlbum;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.ArtistPage;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.ArtistSong;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.ArtistService;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.BookReviewApiApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = BookReviewApiApplication.class)
+@AutoConfigureMockMvc
+public class ArtistControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ArtistService artistService;
+
+    @Test
+    void testGetArtistPage() throws Exception {
+        ArtistPage page = new ArtistPage("Rick Astley",
+                List.of(new ArtistSong(1, "Never Gonna Give You Up", "RCA", "Pop", 213, 2, 4.5)),
+                List.of(new ArtistAlbum(1, "Whenever You Need Somebody", "Pop", new Date(), 213, 1, 0, null)));
+        when(artistService.getArtistPage("Rick Astley")).thenReturn(page);
+
+        mockMvc.perform(get("/artists/Rick Astley"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.songs[0].title").value("Never Gonna Give You Up"))
+                .andExpect(jsonPath("$.songs[0].averageRating").value(4.5))
+                .andExpect(jsonPath("$.albums[0].trackCount").value(1));
+    }
+
+    @Test
+    void testGetArtistPage_NotFound() throws Exception {
+        when(artistService.getArtistPage("Unknown")).thenReturn(null);
+
+        mockMvc.perform(get("/artists/Unknown"))
+                .andExpect(status().isNotFound());
+    }
+}
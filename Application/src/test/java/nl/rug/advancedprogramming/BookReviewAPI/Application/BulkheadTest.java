@@ -0,0 +1,116 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.admission.Bulkhead;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.admission.Bulkheads;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.admission.RequestClass;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testFullQueueRejectsRightAway() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofSeconds(10));
+        assertTrue(bulkhead.acquire());
+        Future<Boolean> queued = executor.submit(bulkhead::acquire);
+        awaitWaiting(bulkhead, 1);
+
+        long start = System.nanoTime();
+        assertFalse(bulkhead.acquire());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        bulkhead.release(0);
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, bulkhead.getActive());
+        assertEquals(0, bulkhead.getWaiting());
+    }
+
+    @Test
+    void testWaitTimesOut() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofMillis(100));
+        assertTrue(bulkhead.acquire());
+
+        long start = System.nanoTime();
+        assertFalse(bulkhead.acquire());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(1, bulkhead.getActive());
+        assertEquals(0, bulkhead.getWaiting());
+    }
+
+    @Test
+    void testSetLimitWhileRequestsRun() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(2, 2, Duration.ofSeconds(10));
+        assertTrue(bulkhead.acquire());
+        assertTrue(bulkhead.acquire());
+
+        // Lowering the limit keeps both running, the next one waits until the active requests are below it
+        bulkhead.setLimit(1);
+        Future<Boolean> queued = executor.submit(bulkhead::acquire);
+        awaitWaiting(bulkhead, 1);
+        bulkhead.release(0);
+        Thread.sleep(100);
+        assertFalse(queued.isDone());
+        bulkhead.release(0);
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+
+        // Raising it lets a waiting request in right away
+        Future<Boolean> raised = executor.submit(bulkhead::acquire);
+        awaitWaiting(bulkhead, 1);
+        bulkhead.setLimit(2);
+        assertTrue(raised.get(5, TimeUnit.SECONDS));
+        assertEquals(2, bulkhead.getActive());
+    }
+
+    @Test
+    void testDefaultLimitsFitDefaultPool() {
+        Bulkheads bulkheads = new Bulkheads(new MockEnvironment(), new SimpleMeterRegistry());
+        assertEquals(64, bulkheads.get(RequestClass.READ).getLimit());
+    }
+
+    @Test
+    void testLimitsOverPoolSizeFailStartup() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("DB_POOL_SIZE", "10")
+                .withProperty("admission.write.max-concurrency", "8");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new Bulkheads(environment, new SimpleMeterRegistry()));
+        assertTrue(e.getMessage().contains("16"));
+    }
+
+    @Test
+    void testImportWorkersCountTowardsPoolSize() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("DB_POOL_SIZE", "10")
+                .withProperty("imports.jobs.workers", "3");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new Bulkheads(environment, new SimpleMeterRegistry()));
+        assertTrue(e.getMessage().contains("11"));
+    }
+
+    private static void awaitWaiting(Bulkhead bulkhead, int waiting) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bulkhead.getWaiting() < waiting) {
+            assertTrue(System.nanoTime() < deadline, "No request waiting");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Application.admission.RequestClass;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestClassTest {
+
+    @Test
+    void testReadsAndWritesByMethod() {
+        assertEquals(RequestClass.READ, classOf("GET", "/songs/1"));
+        assertEquals(RequestClass.READ, classOf("HEAD", "/albums"));
+        assertEquals(RequestClass.WRITE, classOf("POST", "/songs"));
+        assertEquals(RequestClass.WRITE, classOf("PATCH", "/songs/1"));
+        assertEquals(RequestClass.WRITE, classOf("DELETE", "/albums/1"));
+    }
+
+    @Test
+    void testBulkEndpointsByPath() {
+        assertEquals(RequestClass.IMPORT, classOf("POST", "/songs/import/csv"));
+        assertEquals(RequestClass.EXPORT, classOf("GET", "/songs/export/json"));
+        // Only whole segments count
+        assertEquals(RequestClass.READ, classOf("GET", "/books/exporter"));
+    }
+
+    @Test
+    void testContextPathIsIgnored() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/export/songs");
+        request.setContextPath("/api");
+        assertEquals(RequestClass.EXPORT, RequestClass.of(request));
+
+        request = new MockHttpServletRequest("GET", "/import/actuator/health");
+        request.setContextPath("/import");
+        assertNull(RequestClass.of(request));
+    }
+
+    @Test
+    void testActuatorAndDiagnosticsAreAlwaysAdmitted() {
+        assertNull(classOf("GET", "/actuator/prometheus"));
+        assertNull(classOf("GET", "/diagnostics/pinning"));
+    }
+
+    private static RequestClass classOf(String method, String uri) {
+        return RequestClass.of(new MockHttpServletRequest(method, uri));
+    }
+}
@@ -0,0 +1,102 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics.RequestStatements;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics.StatementBudgetFilter;
+import nl.rug.advancedprogramming.BookReviewAPI.Application.diagnostics.StatementCountingDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StatementBudgetFilterTest {
+
+    private final DataSource target = mock(DataSource.class);
+    private final StatementCountingDataSource dataSource = new StatementCountingDataSource(target);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+    }
+
+    @Test
+    void testCountsStatementsOfRequest() throws Exception {
+        MockHttpServletRequest request = albumsRequest();
+        filter(true).doFilter(request, new MockHttpServletResponse(), listAlbums(1));
+
+        RequestStatements statements = (RequestStatements) request.getAttribute(RequestStatements.ATTRIBUTE);
+        assertEquals(2, statements.getCount());
+    }
+
+    @Test
+    void testEnforcedBudgetFailsNPlusOne() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> filter(true).doFilter(albumsRequest(), new MockHttpServletResponse(), listAlbums(3)));
+
+        // The song list queries of the three albums are reported as one shape
+        assertTrue(e.getMessage().startsWith("GET /albums executed 4 statements"));
+        assertTrue(e.getMessage().contains("3x"));
+        assertTrue(e.getMessage().contains("where album_id = ?"));
+    }
+
+    @Test
+    void testBudgetOnlyLogsWhenNotEnforced() throws Exception {
+        MockHttpServletRequest request = albumsRequest();
+        filter(false).doFilter(request, new MockHttpServletResponse(), listAlbums(3));
+
+        RequestStatements statements = (RequestStatements) request.getAttribute(RequestStatements.ATTRIBUTE);
+        assertEquals(4, statements.getCount());
+    }
+
+    @Test
+    void testStatementsOutsideRequestsAreNotCounted() throws Exception {
+        listAlbums(3).doFilter(null, null);
+
+        MockHttpServletRequest request = albumsRequest();
+        filter(true).doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+        RequestStatements statements = (RequestStatements) request.getAttribute(RequestStatements.ATTRIBUTE);
+        assertEquals(0, statements.getCount());
+    }
+
+    private static StatementBudgetFilter filter(boolean enforce) {
+        return new StatementBudgetFilter(new SimpleMeterRegistry(), 10, "GET /albums=2", enforce,
+                Duration.ofMinutes(1));
+    }
+
+    private static MockHttpServletRequest albumsRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/albums");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/albums");
+        return request;
+    }
+
+    // Lists the albums and then loads the song list of every album with a query of its own
+    private FilterChain listAlbums(int albums) {
+        return (request, response) -> {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.prepareStatement("select * from album").executeQuery();
+                for (int id = 1; id <= albums; id++) {
+                    connection.prepareStatement("select song_ids from album_song_ids where album_id = " + id)
+                            .executeQuery();
+                }
+            } catch (SQLException e) {
+                throw new ServletException(e);
+            }
+        };
+    }
+}
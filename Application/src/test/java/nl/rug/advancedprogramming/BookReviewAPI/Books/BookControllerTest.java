@@ -2,6 +2,7 @@ package nl.rug.advancedprogramming.BookReviewAPI.Books;
 
 import nl.rug.advancedprogramming.BookReviewAPI.Application.BookReviewApiApplication;
 import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.BookRecord;
 import nl.rug.advancedprogramming.BookReviewAPI.Books.services.BookService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,10 +12,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
-import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -31,7 +35,7 @@ public class BookControllerTest {
 
     @Test
     void testGetBooks_NoParams() throws Exception {
-        Book book = new Book("Sample Book", "Author Name", "Publisher", "1234567890", "Genre", 29.99);
+        BookRecord book = new BookRecord("Sample Book", "Author Name", "Publisher", "1234567890", "Genre", 29.99);
         when(bookService.getAllBooks()).thenReturn(Collections.singletonList(book));
 
         mockMvc.perform(get("/api/books"))
@@ -42,7 +46,7 @@ public class BookControllerTest {
 
     @Test
     void testGetBooks_WithValidProperty() throws Exception {
-        Book book = new Book("Sample Book", "Author Name", "Publisher", "1234567890", "Genre", 29.99);
+        BookRecord book = new BookRecord("Sample Book", "Author Name", "Publisher", "1234567890", "Genre", 29.99);
         when(bookService.getByProperty("author", "Author Name")).thenReturn(Collections.singletonList(book));
 
         mockMvc.perform(get("/api/books")
@@ -91,16 +95,23 @@ public class BookControllerTest {
 
     @Test
     void testImportBooks_Success() throws Exception {
-        mockMvc.perform(post("/api/books/import")
-                        .param("filePath", "test/path/to/file.json"))
-                .andExpect(status().isOk());  // Expect 200 OK
+        Path file = Files.createTempFile("books", ".json");
+        try {
+            mockMvc.perform(post("/api/books/import")
+                            .param("filePath", file.toString())
+                            .param("importId", "books-1"))
+                    .andExpect(status().isAccepted())  // Expect 202 ACCEPTED, the import runs as a job
+                    .andExpect(header().string("Location", "/jobs/books-1"));
+
+            verify(bookService, timeout(5000)).importBooks("books-1", file.toString());
+        } finally {
+            Files.deleteIfExists(file);
+        }
     }
 
     @Test
     void testImportBooks_FileNotFound() throws Exception {
-        // Mock the service to throw FileNotFoundException when importBooks is called
-        doThrow(new FileNotFoundException()).when(bookService).importBooks("h");
-        // Perform the request
+        // The file "h" does not exist, so no job is submitted
         mockMvc.perform(post("/api/books/import")
                         .param("filePath", "h"))
                 .andExpect(status().isBadRequest());  // Expect 400 BAD REQUEST
@@ -141,4 +152,14 @@ public class BookControllerTest {
                         .param("format", "txt"))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void testPatchBook_NotFound() throws Exception {
+        when(bookService.patchBook(eq("1234567890"), anyMap())).thenReturn(false);
+
+        mockMvc.perform(patch("/api/books/1234567890")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":19.99}"))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,174 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.CacheChangeLog;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.SecondLevelCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CacheChangeLogTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SecondLevelCache secondLevelCache = mock(SecondLevelCache.class);
+    // The cache_change table, written by another replica
+    private final List<Row> table = new CopyOnWriteArrayList<>();
+    private final List<String> invalidated = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger queries = new AtomicInteger();
+    private CacheChangeLog log;
+
+    private record Row(long id, ResultSet resultSet) {
+    }
+
+    @AfterEach
+    void tearDown() {
+        log.stop();
+    }
+
+    @Test
+    void testAppliesChangesOfOtherReplicas() {
+        start(Duration.ofSeconds(10));
+        table.add(change(1, "song", "7"));
+        table.add(change(2, "album", "3"));
+        table.add(change(3, "song", null));
+
+        // Album changes have no cache registered in this test
+        awaitInvalidated(2);
+        assertEquals(List.of("song:7", "song:null"), invalidated);
+        verify(secondLevelCache, never()).evictAll();
+    }
+
+    @Test
+    void testChangeCommittedOutOfOrderIsWaitedFor() {
+        start(Duration.ofSeconds(10));
+        table.add(change(2, "song", "2"));
+        awaitInvalidated(1);
+
+        // Change 1 was inserted first but committed last
+        table.add(0, change(1, "song", "1"));
+        awaitInvalidated(2);
+        assertEquals(List.of("song:2", "song:1"), invalidated);
+        verify(secondLevelCache, never()).evictAll();
+    }
+
+    @Test
+    void testReadsOnPastGapLargerThanBatch() throws InterruptedException {
+        start(Duration.ofSeconds(10), 2);
+        for (long id = 2; id <= 6; id++) {
+            table.add(change(id, "song", String.valueOf(id)));
+        }
+        awaitInvalidated(5);
+
+        // Waiting for change 1 takes a lookup and a page per poll, not a tight loop
+        int before = queries.get();
+        Thread.sleep(200);
+        assertTrue(queries.get() - before < 100, (queries.get() - before) + " queries in 200 ms");
+
+        table.add(change(1, "song", "1"));
+        awaitInvalidated(6);
+        assertEquals(List.of("song:2", "song:3", "song:4", "song:5", "song:6", "song:1"), invalidated);
+        verify(secondLevelCache, never()).evictAll();
+    }
+
+    @Test
+    void testGapFlushesAllCaches() {
+        start(Duration.ofMillis(100));
+        table.add(change(1, "song", "1"));
+        // Change 2 rolled back
+        table.add(change(3, "song", "3"));
+
+        verify(secondLevelCache, timeout(5000)).evictAll();
+        assertTrue(invalidated.contains("song:null"));
+    }
+
+    @Test
+    void testChangesAndFlushesAreAppliedAgainAfterReplicaLag() throws InterruptedException {
+        start(Duration.ofMillis(100), 1000, Duration.ofMillis(300));
+        table.add(change(1, "song", "1"));
+        awaitInvalidated(1);
+
+        // A read replica behind the primary may have put the song back in the meantime
+        Thread.sleep(100);
+        assertEquals(List.of("song:1"), invalidated);
+        awaitInvalidated(2);
+        assertEquals(List.of("song:1", "song:1"), invalidated);
+
+        // Change 2 rolled back
+        table.add(change(3, "song", "3"));
+        verify(secondLevelCache, timeout(5000).times(2)).evictAll();
+    }
+
+    private void start(Duration gapTimeout) {
+        start(gapTimeout, 1000);
+    }
+
+    private void start(Duration gapTimeout, int batchSize) {
+        start(gapTimeout, batchSize, Duration.ZERO);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void start(Duration gapTimeout, int batchSize, Duration reapplyAfter) {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any())).thenReturn(0L);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            List<Object> args = List.of((Object[]) invocation.getRawArguments()[2]);
+            queries.incrementAndGet();
+            List<Object> rows = new ArrayList<>();
+            for (Row row : table.stream().sorted(Comparator.comparingLong(Row::id)).toList()) {
+                // Either the missing changes by ID, or a page after the position
+                boolean selected = sql.contains(" IN ")
+                        ? args.contains(row.id())
+                        : row.id() > ((Number) args.get(0)).longValue() && rows.size() < (int) args.get(1);
+                if (selected) {
+                    rows.add(mapper.mapRow(row.resultSet(), rows.size()));
+                }
+            }
+            return rows;
+        });
+
+        log = new CacheChangeLog(jdbcTemplate, secondLevelCache, new SimpleMeterRegistry(), true,
+                Duration.ofMillis(10), batchSize, gapTimeout, Duration.ofHours(1), Duration.ofHours(1), reapplyAfter);
+        log.register("song", key -> invalidated.add("song:" + key));
+        log.start();
+    }
+
+    private static Row change(long id, String kind, String key) {
+        ResultSet resultSet = mock(ResultSet.class);
+        try {
+            when(resultSet.getLong(1)).thenReturn(id);
+            when(resultSet.getString(2)).thenReturn(kind);
+            when(resultSet.getString(3)).thenReturn(key);
+            when(resultSet.getString(4)).thenReturn("other-replica");
+            when(resultSet.getLong(5)).thenReturn(1000L);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return new Row(id, resultSet);
+    }
+
+    private void awaitInvalidated(int count) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (invalidated.size() < count) {
+            assertTrue(System.nanoTime() < deadline, "Only invalidated " + invalidated);
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportCheckpoint;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.repository.ImportCheckpointRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ChunkedImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ChunkedImportServiceTest {
+
+    private static final String CSV = """
+            title,author
+            "Short",A
+            "Two
+            lines",B
+
+            "Three, with \"\"quotes\"\"",C
+            Rejected
+            """;
+
+    private final ImportCheckpointRepository checkpoints = mock(ImportCheckpointRepository.class);
+    private final List<String> written = new ArrayList<>();
+    private ChunkedImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(checkpoints.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        importService = new ChunkedImportService(checkpoints, transactionManager,
+                new RowMetrics(new SimpleMeterRegistry()), 2);
+    }
+
+    @Test
+    void testQuotedFieldsMaySpanLines() throws IOException {
+        ImportCheckpoint checkpoint = importService.importCsvRecords("books-1", "books-csv", input(), true,
+                ChunkedImportServiceTest::parse, written::addAll);
+
+        assertEquals(List.of("Short by A", "Two\nlines by B", "Three, with \"quotes\" by C"), written);
+        assertEquals(3, checkpoint.getRowCount());
+        assertTrue(checkpoint.isCompleted());
+    }
+
+    @Test
+    void testResumesAfterCommittedRecords() throws IOException {
+        // The first chunk of two rows was committed: the header, two records and nothing else
+        ImportCheckpoint committed = new ImportCheckpoint("books-1", "books-csv");
+        committed.setRowCount(2);
+        committed.setRecordOffset(3);
+        when(checkpoints.findById("books-1")).thenReturn(Optional.of(committed));
+
+        ImportCheckpoint checkpoint = importService.importCsvRecords("books-1", "books-csv", input(), true,
+                ChunkedImportServiceTest::parse, written::addAll);
+
+        assertEquals(List.of("Three, with \"quotes\" by C"), written);
+        assertEquals(3, checkpoint.getRowCount());
+    }
+
+    private static InputStream input() {
+        return new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String parse(String[] record) {
+        return record.length < 2 ? null : record[0] + " by " + record[1];
+    }
+}
@@ -0,0 +1,155 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJob;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.repository.ImportJobRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ChunkedImportService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ImportJobService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ImportProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ImportJobServiceTest {
+
+    private final ImportJobRepository jobs = mock(ImportJobRepository.class);
+    private final ChunkedImportService importService = mock(ChunkedImportService.class);
+    private final ImportProgress progress = new ImportProgress();
+    @TempDir
+    Path directory;
+    private ImportJobService service;
+
+    @BeforeEach
+    void setUp() {
+        when(importService.track(anyString())).thenReturn(progress);
+        when(jobs.start(anyString(), anyString(), any())).thenReturn(1);
+        when(jobs.finish(anyString(), anyString(), any(), any(), any(), anyLong(), anyLong(), anyLong())).thenReturn(1);
+        service = new ImportJobService(jobs, importService, 1, 10, directory, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void testOnlyStaleRunningJobsAreTakenOver() throws InterruptedException {
+        ImportJob live = job("live", ImportJobStatus.RUNNING);
+        ImportJob stale = job("stale", ImportJobStatus.RUNNING);
+        when(jobs.findByStatusInOrderByCreatedAt(any())).thenReturn(List.of(live, stale));
+        when(jobs.reclaim(eq("live"), any())).thenReturn(0);
+        when(jobs.reclaim(eq("stale"), any())).thenReturn(1);
+        when(jobs.findById("stale")).thenReturn(Optional.of(stale));
+        CountDownLatch ran = new CountDownLatch(1);
+        service.register("songs-csv", (id, input) -> {
+            ran.countDown();
+            return 0;
+        });
+
+        service.resume();
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        verify(jobs, timeout(5000)).start(eq("stale"), anyString(), any());
+        verify(jobs, never()).start(eq("live"), anyString(), any());
+    }
+
+    @Test
+    void testJobTakenOverByAnotherInstanceStopsWithoutFinishing() throws InterruptedException {
+        ImportJob job = job("songs-1", ImportJobStatus.QUEUED);
+        when(jobs.findByStatusInOrderByCreatedAt(any())).thenReturn(List.of(job));
+        when(jobs.findById("songs-1")).thenReturn(Optional.of(job));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        service.register("songs-csv", (id, input) -> {
+            started.countDown();
+            // Runs until cancelled, as a chunked import checks before every chunk
+            while (!progress.isCancelled()) {
+                Thread.onSpinWait();
+            }
+            stopped.countDown();
+            throw new CancellationException();
+        });
+        service.resume();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // The lease ran out during a pause, another instance runs the job now
+        when(jobs.heartbeat(eq("songs-1"), anyString(), any(), anyLong(), anyLong(), anyLong())).thenReturn(0);
+        service.heartbeat();
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        verify(importService, timeout(5000)).untrack("songs-1");
+        verify(jobs, never()).save(any());
+    }
+
+    @Test
+    void testJobReclaimedBeforeFinishingIsLeftToItsNewOwner() throws IOException {
+        ImportJob job = job("songs-1", ImportJobStatus.QUEUED);
+        Files.writeString(Path.of(job.getInput()), "data");
+        ImportJob reclaimed = job("songs-1", ImportJobStatus.QUEUED);
+        when(jobs.findByStatusInOrderByCreatedAt(any())).thenReturn(List.of(job));
+        when(jobs.findById("songs-1")).thenReturn(Optional.of(job), Optional.of(reclaimed));
+        // Another instance took the job over after the last heartbeat
+        when(jobs.finish(eq("songs-1"), anyString(), any(), any(), any(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(0);
+        service.register("songs-csv", (id, input) -> 10);
+
+        service.resume();
+
+        verify(jobs, timeout(5000)).finish(eq("songs-1"), anyString(), eq(ImportJobStatus.SUCCEEDED), isNull(),
+                any(), eq(10L), eq(0L), eq(10L));
+        verify(importService, timeout(5000)).untrack("songs-1");
+        verify(jobs, never()).save(any());
+        // The new owner still needs the input
+        assertTrue(Files.exists(Path.of(job.getInput())));
+    }
+
+    @Test
+    void testSpoolFailureIsNotTheClientsFault() throws IOException {
+        service.register("songs-csv", (id, input) -> 0);
+        InputStream unreadable = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Client went away");
+            }
+        };
+        assertThrows(IOException.class, () -> service.submit("songs-1", "songs-csv", unreadable));
+
+        // The directory cannot be created, e.g. a full or read-only volume
+        Path file = Files.writeString(directory.resolve("file"), "");
+        ImportJobService broken = new ImportJobService(jobs, importService, 1, 10, file, Duration.ofMinutes(1));
+        broken.register("songs-csv", (id, input) -> 0);
+        try {
+            assertThrows(UncheckedIOException.class,
+                    () -> broken.submit("songs-1", "songs-csv", new ByteArrayInputStream(new byte[1])));
+        } finally {
+            broken.stop();
+        }
+        verify(jobs, never()).save(any());
+    }
+
+    private ImportJob job(String id, ImportJobStatus status) {
+        ImportJob job = new ImportJob(id, "songs-csv", directory.resolve(id).toString(), true);
+        job.setStatus(status);
+        job.setCreatedAt(new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)));
+        return job;
+    }
+}
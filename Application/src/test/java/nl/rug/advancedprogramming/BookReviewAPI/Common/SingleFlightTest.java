@@ -0,0 +1,192 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.SingleFlight;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger reads = new AtomicInteger();
+    private SingleFlight singleFlight;
+
+    // A read that blocks until released, so callers can be lined up behind it
+    private final class BlockingRead {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final Object result = new Object();
+        private RuntimeException failure;
+
+        Object get() {
+            reads.incrementAndGet();
+            started.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+
+        Future<Object> start(Object key) throws InterruptedException {
+            Future<Object> future = executor.submit(() -> singleFlight.read("rating", key, this::get));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            return future;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        singleFlight = new SingleFlight(transactionManager, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void testJoinersShareOneResult() throws Exception {
+        BlockingRead read = new BlockingRead();
+        Future<Object> first = read.start(1);
+        Future<Object> second = join(1, 1);
+        Future<Object> third = join(1, 2);
+
+        read.release.countDown();
+        assertSame(read.result, first.get(5, TimeUnit.SECONDS));
+        assertSame(read.result, second.get(5, TimeUnit.SECONDS));
+        assertSame(read.result, third.get(5, TimeUnit.SECONDS));
+        assertEquals(1, reads.get());
+        assertEquals(1, count("executed"));
+    }
+
+    @Test
+    void testExceptionReachesEveryWaiter() throws Exception {
+        BlockingRead read = new BlockingRead();
+        read.failure = new IllegalStateException("Database gone");
+        Future<Object> first = read.start(1);
+        Future<Object> second = join(1, 1);
+
+        read.release.countDown();
+        for (Future<Object> caller : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+            assertSame(read.failure, e.getCause());
+        }
+
+        // The failed read is not kept
+        assertEquals("next", singleFlight.read("rating", 1, () -> "next"));
+    }
+
+    @Test
+    void testForgetTakesEffectAfterCommit() throws Exception {
+        BlockingRead read = new BlockingRead();
+        Future<Object> first = read.start(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        singleFlight.forget("rating", 1);
+        // Not committed yet, the running read cannot have missed the change
+        Future<Object> beforeCommit = join(1, 1);
+
+        commit();
+        // Committed, a new caller must not get a result read before the change
+        assertEquals("after", singleFlight.read("rating", 1, () -> "after"));
+
+        read.release.countDown();
+        assertSame(read.result, first.get(5, TimeUnit.SECONDS));
+        assertSame(read.result, beforeCommit.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testForgetAllTakesEffectAfterCommitForEveryKey() throws Exception {
+        BlockingRead one = new BlockingRead();
+        BlockingRead two = new BlockingRead();
+        Future<Object> first = one.start(1);
+        Future<Object> second = two.start(2);
+
+        TransactionSynchronizationManager.initSynchronization();
+        singleFlight.forgetAll("rating");
+        Future<Object> beforeCommit = join(2, 1);
+        commit();
+
+        assertEquals("after 1", singleFlight.read("rating", 1, () -> "after 1"));
+        assertEquals("after 2", singleFlight.read("rating", 2, () -> "after 2"));
+        one.release.countDown();
+        two.release.countDown();
+        assertSame(one.result, first.get(5, TimeUnit.SECONDS));
+        assertSame(two.result, second.get(5, TimeUnit.SECONDS));
+        assertSame(two.result, beforeCommit.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCallersInTransactionBypass() throws Exception {
+        BlockingRead read = new BlockingRead();
+        Future<Object> first = read.start(1);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        // Runs its own read at once instead of waiting for the running one
+        assertEquals("own", singleFlight.read("rating", 1, () -> "own"));
+        assertEquals(1, count("bypassed"));
+        assertEquals(0, count("joined"));
+
+        read.release.countDown();
+        assertSame(read.result, first.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Starts a caller of a key and waits until it has joined the running read.
+     */
+    private Future<Object> join(Object key, int joined) throws InterruptedException {
+        Future<Object> future = executor.submit(() -> singleFlight.read("rating", key, () -> {
+            throw new AssertionError("Did not join the running read of " + key);
+        }));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("joined") < joined) {
+            assertTrue(System.nanoTime() < deadline, "Caller did not join");
+            Thread.sleep(5);
+        }
+        return future;
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+
+    private long count(String outcome) {
+        return (long) registry.find("singleflight.calls").tag("outcome", outcome).counters().stream()
+                .mapToDouble(counter -> counter.count()).sum();
+    }
+}
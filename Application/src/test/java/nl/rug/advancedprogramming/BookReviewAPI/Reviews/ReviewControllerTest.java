@@ -3,6 +3,7 @@ package nl.rug.advancedprogramming.BookReviewAPI.Reviews;
 import nl.rug.advancedprogramming.BookReviewAPI.Application.BookReviewApiApplication;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.service.ReviewService;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewRecord;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,7 +37,7 @@ public class ReviewControllerTest {
     @Test
     void testGetReview() throws Exception {
         // Mock the service response
-        when(reviewService.getReview(1)).thenReturn(Optional.of(new Review(1, 4, "Great book!", new Date())));
+        when(reviewService.getReview(1)).thenReturn(Optional.of(new ReviewRecord(1, 1, 4, "Great book!", new Date())));
 
         // Test the GET endpoint
         mockMvc.perform(get("/reviews/1"))
@@ -48,11 +49,11 @@ public class ReviewControllerTest {
 
     @Test
     void testGetBookReviews() throws Exception {
-        Review review1 = new Review(1, 4, "Great book!", new Date());
-        Review review2 = new Review(1, 5, "Amazing!", new Date());
+        ReviewRecord review1 = new ReviewRecord(1, 1, 4, "Great book!", new Date());
+        ReviewRecord review2 = new ReviewRecord(2, 1, 5, "Amazing!", new Date());
 
         // Mock the service to return the list of reviews when bookId=1 is passed
-        when(reviewService.getAllReviews(1)).thenReturn(Arrays.asList(review1, review2));
+        when(reviewService.getReviewRecords(1)).thenReturn(Arrays.asList(review1, review2));
 
         // Perform the request
         mockMvc.perform(get("/reviews").param("bookId", "1")
@@ -108,7 +109,7 @@ public class ReviewControllerTest {
         mockMvc.perform(post("/reviews/import/json")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("[{\"bookId\":1,\"rating\":5,\"comment\":\"Excellent!\",\"date\":\"2023-10-10\"}]"))
-                .andExpect(status().isCreated());
+                .andExpect(status().isAccepted());
 
     }
 
@@ -117,7 +118,7 @@ public class ReviewControllerTest {
         mockMvc.perform(post("/reviews/import/csv")
                         .contentType(MediaType.TEXT_PLAIN)
                         .content("bookId,rating,comment,reviewDate\n1,5,\"Excellent!\",\"2023-10-10\"\n"))
-                .andExpect(status().isCreated());
+                .andExpect(status().isAccepted());
     }
 
     @Test
@@ -0,0 +1,63 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Application.BookReviewApiApplication;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewTarget;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.TrendingItem;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.service.ReviewRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = BookReviewApiApplication.class)
+@AutoConfigureMockMvc
+public class TrendingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReviewRollupService rollupService;
+
+    @Test
+    void testGetTrending() throws Exception {
+        when(rollupService.getTrending(ReviewTarget.BOOK, "week", 10))
+                .thenReturn(List.of(new TrendingItem(7, 12, 4.5), new TrendingItem(3, 5, 3.0)));
+
+        mockMvc.perform(get("/trending").param("type", "book").param("window", "week"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].targetId").value(7))
+                .andExpect(jsonPath("$[0].reviewCount").value(12))
+                .andExpect(jsonPath("$[0].averageRating").value(4.5));
+    }
+
+    @Test
+    void testGetTrending_InvalidType() throws Exception {
+        mockMvc.perform(get("/trending").param("type", "movie"))
+                .andExpect(status().isBadRequest());
+
+        verify(rollupService, never()).getTrending(any(), anyString(), anyInt());
+    }
+
+    @Test
+    void testGetTrending_InvalidWindow() throws Exception {
+        when(rollupService.getTrending(ReviewTarget.SONG, "decade", 10)).thenReturn(null);
+
+        mockMvc.perform(get("/trending").param("type", "song").param("window", "decade"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -2,18 +2,37 @@
 
 package nl.rug.advancedprogramming.BookReviewAPI.Songs;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.google.protobuf.CodedInputStream;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJob;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufEntityConverter;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ImportJobService;
 import nl.rug.advancedprogramming.BookReviewAPI.Songs.controller.SongController;
 import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongBatch;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.protobuf.SongBatchProtobufCodec;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.protobuf.SongProtobufCodec;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.protobuf.SongRecordProtobufCodec;
 import nl.rug.advancedprogramming.BookReviewAPI.Songs.service.SongService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -25,6 +44,9 @@ class SongControllerTest {
     @Mock
     private SongService songService;
 
+    @Mock
+    private ImportJobService importJobService;
+
     @InjectMocks
     private SongController songController;
 
@@ -76,7 +98,7 @@ class SongControllerTest {
         song2.length = 250;
         songs.add(song2);
 
-        when(songService.getAllSongs()).thenReturn(songs);
+        when(songService.getAllSongs()).thenReturn(records(songs));
 
         // Act & Assert
         mockMvc.perform(get("/songs"))
@@ -122,7 +144,7 @@ class SongControllerTest {
     void testGetByProperty_NoProperty() throws Exception {
         // Arrange
         List<Song> songs = new ArrayList<>();
-        when(songService.getAllSongs()).thenReturn(songs);
+        when(songService.getAllSongs()).thenReturn(records(songs));
 
         // Act & Assert
         mockMvc.perform(get("/songs/search"))
@@ -155,7 +177,7 @@ class SongControllerTest {
         song.length = 300;
         songs.add(song);
 
-        when(songService.getByProperty("title", "Test Song")).thenReturn(songs);
+        when(songService.getByProperty("title", "Test Song")).thenReturn(records(songs));
 
         // Act & Assert
         mockMvc.perform(get("/songs/search")
@@ -181,6 +203,165 @@ class SongControllerTest {
         verify(songService, times(1)).getByProperty("invalidProperty", "value");
     }
 
+    @Test
+    void testGetSongsByIds() throws Exception {
+        SongRecord second = new SongRecord(2, "Second", "Test Artist", "Test Label", "Test Genre", 200);
+        SongRecord first = new SongRecord(1, "First", "Test Artist", "Test Label", "Test Genre", 100);
+        when(songService.getSongsByIds(List.of(2, 1, 3)))
+                .thenReturn(new SongBatch(List.of(second, first), List.of(3)));
+
+        mockMvc.perform(get("/songs").param("ids", "2,1,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.songs[0].id").value(2))
+                .andExpect(jsonPath("$.songs[1].id").value(1))
+                .andExpect(jsonPath("$.missingIds[0]").value(3));
+
+        verify(songService, never()).getAllSongs();
+    }
+
+    @Test
+    void testGetSongsByIdsRejectsEmptyId() throws Exception {
+        when(songService.getSongsByIds(any())).thenThrow(new IllegalArgumentException("ID 2 is missing"));
+
+        mockMvc.perform(get("/songs").param("ids", "1,,2"))
+                .andExpect(status().isBadRequest());
+
+        verify(songService).getSongsByIds(Arrays.asList(1, null, 2));
+    }
+
+    @Test
+    void testGetAllSongsAsProtobuf() throws Exception {
+        Song song = new Song(1, "Test Song", "Test Artist", "Test Label", "Test Genre", 300);
+        when(songService.getAllSongs()).thenReturn(List.of(SongRecord.of(song)));
+
+        byte[] body = binaryMockMvc().perform(get("/songs").accept(ProtobufEntityConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProtobufEntityConverter.PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<Song> songs = new SongProtobufCodec().readList(CodedInputStream.newInstance(body));
+        assertEquals(1, songs.size());
+        assertEquals(1, songs.get(0).id);
+        assertEquals("Test Song", songs.get(0).title);
+        assertEquals(300, songs.get(0).length);
+    }
+
+    @Test
+    void testGetSongsByIdsAsProtobuf() throws Exception {
+        SongRecord song = new SongRecord(2, "Second", "Test Artist", "Test Label", "Test Genre", 200);
+        when(songService.getSongsByIds(List.of(2, 3))).thenReturn(new SongBatch(List.of(song), List.of(3)));
+
+        byte[] body = binaryMockMvc().perform(get("/songs").param("ids", "2,3")
+                        .accept(ProtobufEntityConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        SongBatch batch = new SongBatchProtobufCodec().read(CodedInputStream.newInstance(body));
+        assertEquals(List.of(song), batch.songs());
+        assertEquals(List.of(3), batch.missingIds());
+    }
+
+    @Test
+    void testGetAllSongsAsCbor() throws Exception {
+        Song song = new Song(1, "Test Song", "Test Artist", "Test Label", "Test Genre", 300);
+        when(songService.getAllSongs()).thenReturn(List.of(SongRecord.of(song)));
+
+        byte[] body = binaryMockMvc().perform(get("/songs").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<Song> songs = new CBORMapper().readValue(body, new TypeReference<List<Song>>() {});
+        assertEquals("Test Song", songs.get(0).title);
+    }
+
+    @Test
+    void testGetAllSongsDefaultsToJson() throws Exception {
+        when(songService.getAllSongs()).thenReturn(List.of());
+
+        binaryMockMvc().perform(get("/songs").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void testPatchSong() throws Exception {
+        when(songService.patchSong(eq(1), eq(Map.of("length", 215)))).thenReturn(true);
+
+        mockMvc.perform(patch("/songs/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"length\":215}"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void testPatchSong_InvalidField() throws Exception {
+        when(songService.patchSong(eq(1), anyMap())).thenThrow(new IllegalArgumentException("Field cannot be updated: id"));
+
+        mockMvc.perform(patch("/songs/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":2}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testImportSongsCSV() throws Exception {
+        when(importJobService.submit(eq("songs-1"), eq("songs-csv"), any(InputStream.class)))
+                .thenReturn(new ImportJob("songs-1", "songs-csv", "songs-1.csv", true));
+
+        mockMvc.perform(post("/songs/import/csv")
+                        .param("importId", "songs-1")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("id,title,artist,label,genre,length\n0,\"Test Song\",\"Test Artist\",\"Test Label\",\"Test Genre\",300\n"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Import-Id", "songs-1"))
+                .andExpect(header().string("Location", "/jobs/songs-1"))
+                .andExpect(jsonPath("$.id").value("songs-1"));
+
+        verify(importJobService, times(1)).register(eq("songs-csv"), any());
+    }
+
+    @Test
+    void testImportSongsJSONQueueFull() throws Exception {
+        when(importJobService.submit(anyString(), eq("songs-json"), any(InputStream.class)))
+                .thenThrow(new RejectedExecutionException("queue full"));
+
+        mockMvc.perform(post("/songs/import/json")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void testExportSongsCSV() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("id,title,artist,label,genre,length\n1,\"Test Song\",\"Test Artist\",\"Test Label\",\"Test Genre\",300\n".getBytes());
+            return null;
+        }).when(songService).exportCSV(any());
+
+        MvcResult result = mockMvc.perform(get("/songs/export/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("1,\"Test Song\"")));
+    }
+
+    /**
+     * MockMvc with the JSON converter followed by the binary ones, in the order the application registers them.
+     */
+    private MockMvc binaryMockMvc() {
+        return MockMvcBuilders.standaloneSetup(songController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(),
+                        new MappingJackson2CborHttpMessageConverter(),
+                        new ProtobufEntityConverter(List.of(new SongProtobufCodec(), new SongRecordProtobufCodec(),
+                                new SongBatchProtobufCodec())))
+                .build();
+    }
+
     // Helper methods to convert Song objects to JSON
     private String songToJson(Song song) {
         return "{" +
@@ -205,6 +386,14 @@ class SongControllerTest {
         return json.toString();
     }
 
+    private static List<SongRecord> records(List<Song> songs) {
+        List<SongRecord> records = new ArrayList<>();
+        for (Song song : songs) {
+            records.add(SongRecord.of(song));
+        }
+        return records;
+    }
+
     private String escapeJson(String value) {
         if (value == null) return "";
         return value.replace("\"", "\\\"");
@@ -0,0 +1,54 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.CacheChangeLog;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongBatch;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.repository.SongRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.service.SongIndex;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.service.SongService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SongServiceTest {
+
+    private final SongIndex songIndex = mock(SongIndex.class);
+    private SongService songService;
+
+    @BeforeEach
+    void setUp() {
+        songService = new SongService(mock(SongRepository.class), songIndex, null, event -> { },
+                new RowMetrics(new SimpleMeterRegistry()), mock(CacheChangeLog.class), 1000, 3);
+    }
+
+    @Test
+    void testGetSongsByIds() {
+        SongRecord song = new SongRecord(1, "First", "Test Artist", "Test Label", "Test Genre", 100);
+        when(songIndex.getAll(new int[]{1, 2})).thenReturn(new SongRecord[]{song, null});
+
+        SongBatch batch = songService.getSongsByIds(List.of(1, 2));
+
+        assertEquals(List.of(song), batch.songs());
+        assertEquals(List.of(2), batch.missingIds());
+    }
+
+    @Test
+    void testGetSongsByIdsRejectsMissingId() {
+        assertThrows(IllegalArgumentException.class, () -> songService.getSongsByIds(Arrays.asList(1, null, 2)));
+        verifyNoInteractions(songIndex);
+    }
+
+    @Test
+    void testGetSongsByIdsRejectsTooManyIds() {
+        assertThrows(IllegalArgumentException.class, () -> songService.getSongsByIds(Collections.nCopies(4, 1)));
+        verifyNoInteractions(songIndex);
+    }
+}
@@ -0,0 +1,60 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Benchmarks;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.repositories.AlbumRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumService;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumSongIndex;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReview;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.AlbumReviewRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.ReviewRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.service.ReviewService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The loops averaging the ratings of a book and of an album over their loaded reviews.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class AveragingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int reviews;
+
+    private ReviewService reviewService;
+    private AlbumService albumService;
+
+    @Setup
+    public void setUp() {
+        List<Review> bookReviews = BenchmarkData.reviews(reviews, 1);
+        ReviewRepository reviewRepository = Stubs.repository(ReviewRepository.class, Map.of(
+                "findByBookId", args -> bookReviews));
+        reviewService = new ReviewService(reviewRepository, null, null, event -> { }, Stubs.rowMetrics(),
+                Stubs.singleFlight(), Stubs.cacheChanges());
+
+        List<AlbumReview> albumReviews = BenchmarkData.albumReviews(reviews, 1);
+        AlbumReviewRepository albumReviewRepository = Stubs.repository(AlbumReviewRepository.class, Map.of(
+                "findByAlbumId", args -> albumReviews));
+        AlbumRepository albumRepository = Stubs.repository(AlbumRepository.class, Map.of());
+        albumService = new AlbumService(albumRepository, albumReviewRepository, null,
+                new AlbumSongIndex(albumRepository), event -> { }, Stubs.rowMetrics(), Stubs.singleFlight(),
+                Stubs.cacheChanges());
+    }
+
+    @Benchmark
+    public float bookAverageRating() {
+        return reviewService.calculateAverageRating(1);
+    }
+
+    @Benchmark
+    public double albumAverageRating() {
+        return albumService.getAlbumRating(1);
+    }
+}
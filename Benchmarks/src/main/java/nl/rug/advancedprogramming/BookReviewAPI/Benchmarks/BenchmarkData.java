@@ -0,0 +1,162 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Benchmarks;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReview;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the data the benchmarks run on. Every generator starts from the same seed, so all runs, and the runs
+ * before and after an optimization, measure the same data. Sizes and text lengths follow what the API stores:
+ * titles of a few words, review comments of one or two sentences, some of them containing commas and quotes.
+ */
+final class BenchmarkData {
+    private static final long SEED = 20241019L;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long START = 946684800000L; // 2000-01-01
+
+    private static final String[] WORDS = {
+            "the", "night", "river", "of", "silent", "stars", "a", "journey", "through", "broken", "glass", "summer",
+            "city", "and", "the", "last", "light", "golden", "hour", "paper", "hearts", "under", "winter", "sky",
+            "midnight", "garden", "echoes", "from", "distant", "shores", "wild", "fire", "blue", "horizon", "song",
+            "memory", "ocean", "falling", "rain", "shadow", "kingdom", "secret", "voices", "electric", "dream"
+    };
+    private static final String[] NAMES = {
+            "Anna Jansen", "Mark de Vries", "Sophie Bakker", "Lucas Visser", "Emma Smit", "Daan Meijer",
+            "Julia de Boer", "Sem Mulder", "Lotte de Groot", "Finn Bos", "The Northern Lights", "Glass Animals"
+    };
+    private static final String[] GENRES = {
+            "Fiction", "Fantasy", "Science Fiction", "Mystery", "Romance", "History", "Pop", "Rock", "Jazz", "Indie"
+    };
+    private static final String[] PUBLISHERS = {
+            "Penguin", "HarperCollins", "Simon & Schuster", "Macmillan", "Hachette", "Atlas Contact"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static List<Book> books(int count) {
+        Random random = new Random(SEED);
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(new Book(words(random, 2, 6), pick(random, NAMES), pick(random, PUBLISHERS),
+                    String.valueOf(9780000000000L + i), pick(random, GENRES), 5 + random.nextInt(4500) / 100.0));
+        }
+        return books;
+    }
+
+    static List<Song> songs(int count) {
+        Random random = new Random(SEED);
+        List<Song> songs = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            songs.add(new Song(i, words(random, 1, 5), pick(random, NAMES), pick(random, PUBLISHERS),
+                    pick(random, GENRES), 120 + random.nextInt(300)));
+        }
+        return songs;
+    }
+
+    /**
+     * Generates albums with IDs 1 to count, listing songs with IDs between 1 and songCount.
+     */
+    static List<Album> albums(int count, int tracksPerAlbum, int songCount) {
+        Random random = new Random(SEED);
+        List<Album> albums = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Album album = new Album(words(random, 1, 4), pick(random, NAMES), pick(random, GENRES), date(random));
+            album.setId(i);
+            for (int t = 0; t < tracksPerAlbum; t++) {
+                album.getSongIds().add(1 + random.nextInt(songCount));
+            }
+            album.setTrackCount(tracksPerAlbum);
+            album.setTotalDuration(tracksPerAlbum * 210);
+            albums.add(album);
+        }
+        return albums;
+    }
+
+    static List<Review> reviews(int count, int books) {
+        Random random = new Random(SEED);
+        List<Review> reviews = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reviews.add(new Review(1 + random.nextInt(books), rating(random), comment(random), date(random)));
+        }
+        return reviews;
+    }
+
+    static List<AlbumReview> albumReviews(int count, int albumId) {
+        Random random = new Random(SEED);
+        List<AlbumReview> reviews = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reviews.add(new AlbumReview(albumId, rating(random), comment(random), date(random)));
+        }
+        return reviews;
+    }
+
+    /**
+     * Generates rows in the format of the review CSV import: bookId,rating,"comment",yyyy-MM-dd.
+     */
+    static List<String> reviewCSVRows(int count) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        List<String> rows = new ArrayList<>(count);
+        for (Review review : reviews(count, 1000)) {
+            rows.add(review.getBookId() + "," + review.getRating() + ",\"" + review.getComment() + "\","
+                    + dateFormat.format(review.getDate()));
+        }
+        return rows;
+    }
+
+    /**
+     * Generates a complete album CSV import, header included: title,artist,genre,yyyy-MM-dd.
+     */
+    static String albumCSV(int count) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        StringBuilder csv = new StringBuilder("title,artist,genre,releaseDate\n");
+        for (Album album : albums(count, 0, 1)) {
+            csv.append(album.getTitle()).append(',')
+                    .append(album.getArtist()).append(',')
+                    .append(album.getGenre()).append(',')
+                    .append(dateFormat.format(album.getReleaseDate())).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String comment(Random random) {
+        StringBuilder comment = new StringBuilder(words(random, 6, 30));
+        comment.setCharAt(0, Character.toUpperCase(comment.charAt(0)));
+        if (random.nextInt(3) == 0) {
+            comment.append(", ").append(words(random, 3, 12));
+        }
+        return comment.append('.').toString();
+    }
+
+    private static float rating(Random random) {
+        return 1 + random.nextInt(9) / 2f;
+    }
+
+    private static Date date(Random random) {
+        return new Date(START + random.nextInt(9000) * DAY);
+    }
+
+    private static String words(Random random, int min, int max) {
+        int count = min + random.nextInt(max - min + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(pick(random, WORDS));
+        }
+        return text.toString();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,158 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Benchmarks;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.repositories.AlbumRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumService;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumSongIndex;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.services.BookService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.AlbumReviewRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.ReviewRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.service.ReviewService;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.repository.SongRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.service.SongIndex;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.service.SongService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The complete export builders of books, albums, reviews and songs, from the list of entities to the finished
+ * document. The repositories are replaced by in-memory stubs; the album JSON export resolves its songs through a
+ * warm song index, as it does in a running application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ExportBenchmark {
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private List<Book> books;
+    private BookService bookService;
+    private AlbumService albumService;
+    private ReviewService reviewService;
+    private SongService songService;
+
+    @Setup
+    public void setUp() {
+        RowMetrics rowMetrics = Stubs.rowMetrics();
+
+        books = BenchmarkData.books(rows);
+        bookService = new BookService(null, null, rowMetrics, Stubs.singleFlight(), Stubs.cacheChanges());
+
+        List<Review> reviews = BenchmarkData.reviews(rows, 1000);
+        ReviewRepository reviewRepository = Stubs.repository(ReviewRepository.class, Map.of(
+                "findAll", args -> reviews));
+        reviewService = new ReviewService(reviewRepository, null, null, event -> { }, rowMetrics,
+                Stubs.singleFlight(), Stubs.cacheChanges());
+
+        List<Song> songs = BenchmarkData.songs(rows);
+        List<SongRecord> records = new ArrayList<>(songs.size());
+        for (Song song : songs) {
+            records.add(SongRecord.of(song));
+        }
+        SongRepository songRepository = Stubs.repository(SongRepository.class, Map.of(
+                "findAllById", args -> findAllById(songs, (Iterable<?>) args[0]),
+                "findRecordsAfter", args -> recordsAfter(records, (int) args[0], (Limit) args[1])));
+        SongIndex songIndex = new SongIndex(songRepository, false);
+        songService = new SongService(songRepository, songIndex, null, event -> { }, rowMetrics, Stubs.cacheChanges(),
+                1000, 1000);
+
+        List<Album> albums = BenchmarkData.albums(rows, 12, rows);
+        AlbumRepository albumRepository = Stubs.repository(AlbumRepository.class, Map.of(
+                "findAll", args -> albums,
+                "findAllAlbumSongs", args -> albumSongs(albums)));
+        albumService = new AlbumService(albumRepository, Stubs.repository(AlbumReviewRepository.class, Map.of()),
+                songIndex, new AlbumSongIndex(albumRepository), event -> { }, rowMetrics, Stubs.singleFlight(),
+                Stubs.cacheChanges());
+        albumService.exportAlbumsJSON(); // Warms the song indexes
+    }
+
+    @Benchmark
+    public String bookExportCSV() {
+        return bookService.exportCSV(books);
+    }
+
+    @Benchmark
+    public String bookExportJSON() {
+        return bookService.exportJSON(books);
+    }
+
+    @Benchmark
+    public String albumExportCSV() {
+        return albumService.exportAlbumsCSV();
+    }
+
+    @Benchmark
+    public String albumExportJSON() {
+        return albumService.exportAlbumsJSON();
+    }
+
+    @Benchmark
+    public String reviewExportCSV() {
+        return reviewService.exportReviewsCSV(0);
+    }
+
+    @Benchmark
+    public String reviewExportJSON() {
+        return reviewService.exportReviewsJSON(0);
+    }
+
+    @Benchmark
+    public void songExportCSV() throws IOException {
+        songService.exportCSV(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void songExportJSON() throws IOException {
+        songService.exportJSON(OutputStream.nullOutputStream());
+    }
+
+    private static List<Song> findAllById(List<Song> songs, Iterable<?> ids) {
+        List<Song> found = new ArrayList<>();
+        for (Object id : ids) {
+            found.add(songs.get((Integer) id - 1)); // Song IDs run from 1
+        }
+        return found;
+    }
+
+    private static List<AlbumRepository.AlbumSongRow> albumSongs(List<Album> albums) {
+        List<AlbumRepository.AlbumSongRow> rows = new ArrayList<>();
+        for (Album album : albums) {
+            for (int songId : album.getSongIds()) {
+                rows.add(new AlbumRepository.AlbumSongRow() {
+                    @Override
+                    public int getAlbumId() {
+                        return album.getId();
+                    }
+
+                    @Override
+                    public int getSongId() {
+                        return songId;
+                    }
+                });
+            }
+        }
+        return rows;
+    }
+
+    private static List<SongRecord> recordsAfter(List<SongRecord> records, int id, Limit limit) {
+        int from = Math.min(id, records.size());
+        return records.subList(from, Math.min(from + limit.max(), records.size()));
+    }
+}
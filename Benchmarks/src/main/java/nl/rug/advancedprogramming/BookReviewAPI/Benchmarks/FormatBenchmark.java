@@ -0,0 +1,107 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Benchmarks;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of the list responses in every format the API negotiates: what the server spends on
+ * {@code GET /api/books}, {@code /songs}, {@code /albums} and {@code /reviews}, and what a client spends reading
+ * them. The encoded sizes are printed by {@link FormatSizes}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class FormatBenchmark {
+
+    @Param({"JSON", "SMILE", "CBOR", "PROTOBUF"})
+    public MessageFormat format;
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private List<Book> books;
+    private List<Song> songs;
+    private List<Album> albums;
+    private List<Review> reviews;
+    private byte[] encodedBooks;
+    private byte[] encodedSongs;
+    private byte[] encodedAlbums;
+    private byte[] encodedReviews;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+
+    @Setup
+    public void setUp() throws IOException {
+        books = BenchmarkData.books(rows);
+        songs = BenchmarkData.songs(rows);
+        albums = BenchmarkData.albums(rows, 12, 10_000);
+        reviews = BenchmarkData.reviews(rows, 1000);
+        encodedBooks = encode(books, Book.class);
+        encodedSongs = encode(songs, Song.class);
+        encodedAlbums = encode(albums, Album.class);
+        encodedReviews = encode(reviews, Review.class);
+    }
+
+    private <T> byte[] encode(List<T> values, Class<T> type) throws IOException {
+        out.reset();
+        format.write(values, type, out);
+        return out.toByteArray();
+    }
+
+    private <T> int encodeInto(List<T> values, Class<T> type) throws IOException {
+        // Reuses the buffer, like a response buffer, so only the encoding itself is measured
+        out.reset();
+        format.write(values, type, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int encodeBooks() throws IOException {
+        return encodeInto(books, Book.class);
+    }
+
+    @Benchmark
+    public List<Book> decodeBooks() throws IOException {
+        return format.read(encodedBooks, Book.class);
+    }
+
+    @Benchmark
+    public int encodeSongs() throws IOException {
+        return encodeInto(songs, Song.class);
+    }
+
+    @Benchmark
+    public List<Song> decodeSongs() throws IOException {
+        return format.read(encodedSongs, Song.class);
+    }
+
+    @Benchmark
+    public int encodeAlbums() throws IOException {
+        return encodeInto(albums, Album.class);
+    }
+
+    @Benchmark
+    public List<Album> decodeAlbums() throws IOException {
+        return format.read(encodedAlbums, Album.class);
+    }
+
+    @Benchmark
+    public int encodeReviews() throws IOException {
+        return encodeInto(reviews, Review.class);
+    }
+
+    @Benchmark
+    public List<Review> decodeReviews() throws IOException {
+        return format.read(encodedReviews, Review.class);
+    }
+}
@@ -0,0 +1,44 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Benchmarks;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prints the encoded size of the list responses of {@link FormatBenchmark} per format, plain and gzipped, for the
+ * data the benchmark runs on:
+ *
+ * <pre>
+ * java -cp Benchmarks/target/benchmarks.jar nl.rug.advancedprogramming.BookReviewAPI.Benchmarks.FormatSizes 10000
+ * </pre>
+ */
+public class FormatSizes {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        System.out.printf("%-8s %-9s %12s %12s %10s%n", "entity", "format", "bytes", "gzip bytes", "bytes/row");
+        print("books", BenchmarkData.books(rows), Book.class);
+        print("songs", BenchmarkData.songs(rows), Song.class);
+        print("albums", BenchmarkData.albums(rows, 12, 10_000), Album.class);
+        print("reviews", BenchmarkData.reviews(rows, 1000), Review.class);
+    }
+
+    private static <T> void print(String entity, List<T> values, Class<T> type) throws IOException {
+        for (MessageFormat format : MessageFormat.values()) {
+            ByteArrayOutputStream plain = new ByteArrayOutputStream();
+            format.write(values, type, plain);
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                plain.writeTo(gzip);
+            }
+            System.out.printf("%-8s %-9s %12d %12d %10.1f%n", entity, format, plain.size(), gzipped.size(),
+                    plain.size() / (double) values.size());
+        }
+    }
+}
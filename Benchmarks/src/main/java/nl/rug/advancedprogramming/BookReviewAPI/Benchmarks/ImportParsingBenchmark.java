@@ -0,0 +1,71 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Benchmarks;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.repositories.AlbumRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumService;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumSongIndex;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.AlbumReviewRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.service.ReviewService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The regex-based CSV parsers of the review and album imports. The review import parses row by row inside the
+ * chunked import, so the benchmark runs the row parser over a whole file the way the import does; the album import
+ * parses the complete upload at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ImportParsingBenchmark {
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private List<String> reviewRows;
+    private String albumCSV;
+    private AlbumService albumService;
+
+    @Setup
+    public void setUp() {
+        reviewRows = BenchmarkData.reviewCSVRows(rows);
+        albumCSV = BenchmarkData.albumCSV(rows);
+
+        int[] nextId = {0};
+        AlbumRepository albumRepository = Stubs.repository(AlbumRepository.class, Map.of(
+                "saveAll", args -> {
+                    // Saving assigns the IDs the import hands on to the song index
+                    Iterable<?> albums = (Iterable<?>) args[0];
+                    for (Object album : albums) {
+                        ((Album) album).setId(++nextId[0]);
+                    }
+                    return albums;
+                }));
+        albumService = new AlbumService(albumRepository, Stubs.repository(AlbumReviewRepository.class, Map.of()),
+                null, new AlbumSongIndex(albumRepository), event -> { }, Stubs.rowMetrics(), Stubs.singleFlight(),
+                Stubs.cacheChanges());
+    }
+
+    @Benchmark
+    public void reviewCSVRows(Blackhole blackhole) {
+        // One date format per import, as in ReviewService.importReviewsCSV
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        for (String row : reviewRows) {
+            blackhole.consume(ReviewService.parseCSVRow(row, dateFormat));
+        }
+    }
+
+    @Benchmark
+    public Iterable<Album> albumImportCSV() throws IOException {
+        return albumService.importAlbumsCSV(albumCSV);
+    }
+}
@@ -0,0 +1,73 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.protobuf.AlbumProtobufCodec;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.protobuf.BookProtobufCodec;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufCodec;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.protobuf.ReviewProtobufCodec;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.protobuf.SongProtobufCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * The response encodings of the list endpoints, set up the way the application sets them up: the Jackson formats
+ * with Spring Boot's defaults, Protobuf with the codecs of the modules, buffered like the message converter.
+ * Public because JMH sets it as a benchmark parameter.
+ */
+public enum MessageFormat {
+    JSON(JsonMapper.builder()),
+    SMILE(SmileMapper.builder()),
+    CBOR(CBORMapper.builder()),
+    PROTOBUF(null);
+
+    private static final List<ProtobufCodec<?>> CODECS = List.of(new BookProtobufCodec(), new SongProtobufCodec(),
+            new AlbumProtobufCodec(), new ReviewProtobufCodec());
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ObjectMapper mapper;
+
+    MessageFormat(MapperBuilder<?, ?> builder) {
+        this.mapper = builder == null ? null : builder
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    <T> void write(List<T> values, Class<T> type, OutputStream out) throws IOException {
+        if (mapper != null) {
+            mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, type))
+                    .writeValue(out, values);
+            return;
+        }
+        CodedOutputStream coded = CodedOutputStream.newInstance(out, BUFFER_SIZE);
+        codec(type).writeList(values, coded);
+        coded.flush();
+    }
+
+    <T> List<T> read(byte[] data, Class<T> type) throws IOException {
+        if (mapper != null) {
+            return mapper.readerForListOf(type).readValue(data);
+        }
+        return codec(type).readList(CodedInputStream.newInstance(data));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ProtobufCodec<T> codec(Class<T> type) {
+        for (ProtobufCodec<?> codec : CODECS) {
+            if (codec.type() == type) {
+                return (ProtobufCodec<T>) codec;
+            }
+        }
+        throw new IllegalArgumentException("No Protobuf codec for " + type);
+    }
+}
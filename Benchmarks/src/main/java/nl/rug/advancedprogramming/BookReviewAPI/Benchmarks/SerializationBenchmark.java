@@ -0,0 +1,70 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Benchmarks;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of single entities with their {@code toJSON} and {@code toCSV} methods, the innermost loop of every
+ * export. Each invocation serializes the next of {@value #ITEMS} generated entities, so the measurement is not
+ * skewed by one short or long title.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SerializationBenchmark {
+    private static final int ITEMS = 1024; // A power of two, so the next index is a mask
+
+    private Book[] books;
+    private Album[] albums;
+    private Review[] reviews;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        books = BenchmarkData.books(ITEMS).toArray(new Book[0]);
+        albums = BenchmarkData.albums(ITEMS, 12, 10_000).toArray(new Album[0]);
+        reviews = BenchmarkData.reviews(ITEMS, 1000).toArray(new Review[0]);
+    }
+
+    private int next() {
+        next = (next + 1) & (ITEMS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public String bookToJSON() {
+        return books[next()].toJSON();
+    }
+
+    @Benchmark
+    public String bookToCSV() {
+        return books[next()].toCSV();
+    }
+
+    @Benchmark
+    public String albumToJSON() {
+        return albums[next()].toJSON();
+    }
+
+    @Benchmark
+    public String albumToCSV() {
+        return albums[next()].toCSV();
+    }
+
+    @Benchmark
+    public String reviewToJSON() {
+        return reviews[next()].toJSON();
+    }
+
+    @Benchmark
+    public String reviewToCSV() {
+        return reviews[next()].toCSV();
+    }
+}
@@ -0,0 +1,76 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.CacheChangeLog;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.SingleFlight;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for the dependencies of the services, so the benchmarks measure the services' own code and
+ * not a database.
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    /**
+     * Creates a repository that answers the given methods and fails on every other one.
+     *
+     * @param type    the repository interface
+     * @param answers per method name, the function computing the result from the arguments
+     * @param <R>     the repository type
+     * @return the stub repository
+     */
+    static <R> R repository(Class<R> type, Map<String, Function<Object[], Object>> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+        }));
+    }
+
+    /**
+     * Creates row counters backed by an in-memory registry, as cheap as the real ones.
+     */
+    static RowMetrics rowMetrics() {
+        return new RowMetrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Creates a single flight whose transactions do nothing. A benchmark thread never waits for another one's
+     * read, so it measures the overhead of the single flight on every call.
+     */
+    static SingleFlight singleFlight() {
+        PlatformTransactionManager transactions = repository(PlatformTransactionManager.class, Map.of(
+                "getTransaction", args -> new SimpleTransactionStatus(),
+                "commit", args -> null,
+                "rollback", args -> null));
+        return new SingleFlight(transactions, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Creates a cache change log that is turned off: the services can register their caches, but their writes are
+     * not recorded and no other replica is followed.
+     */
+    static CacheChangeLog cacheChanges() {
+        return new CacheChangeLog(null, null, new SimpleMeterRegistry(), false, Duration.ofMillis(200), 1000,
+                Duration.ofSeconds(2), Duration.ofHours(1), Duration.ofMinutes(1), Duration.ZERO);
+    }
+}
@@ -1,23 +1,37 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Books.controllers;
 
 import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.BookRecord;
 import nl.rug.advancedprogramming.BookReviewAPI.Books.services.BookService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.controller.ImportJobController;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJob;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ImportJobService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
+    private static final String IMPORT = "books";
+
     private final BookService _bookService;
+    private final ImportJobService _importJobService;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, ImportJobService importJobService) {
         _bookService = bookService;
+        _importJobService = importJobService;
+        _importJobService.register(IMPORT,
+                (importId, file) -> _bookService.importBooks(importId, file.toString()).getRowCount());
     }
 
     /**
@@ -31,7 +45,7 @@ public class BookController {
      * @return A {@link ResponseEntity} containing books that match given key/value with 200 OK status code. 400 BADREQUEST if malformed request.
      */
     @GetMapping("")
-    public ResponseEntity<Iterable<Book>> getBooks(@RequestParam Optional<String> property, @RequestParam Optional<String> value) {
+    public ResponseEntity<Iterable<BookRecord>> getBooks(@RequestParam Optional<String> property, @RequestParam Optional<String> value) {
 
         // We don't want to query by property. So get all books
         if (property.isEmpty()) {
@@ -43,7 +57,7 @@ public class BookController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
 
-        Iterable<Book> result = _bookService.getByProperty(property.get(), value.get());
+        Iterable<BookRecord> result = _bookService.getByProperty(property.get(), value.get());
         if (result == null) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
@@ -89,21 +103,47 @@ public class BookController {
     }
 
     /**
-     * Imports books from a JSON or CSV file to add to database. It's recommended to put an absolute path, like
-     * C:\Users\Julian\Desktop\testing.json etc.
+     * Updates only the supplied fields of a book in database.
      *
-     * @param filePath Name of the filePath to import the books from.
-     * @return A {@link ResponseEntity} with 200 OK HTTP status code. 400 BADREQUEST if filePath is not found.
+     * @param isbn    ISBN of the Book to update.
+     * @param changes Fields to change (title, author, publisher, genre or price) and their new values.
+     * @return A {@link ResponseEntity} with 204 NO CONTENT HTTP status code, 404 NOT FOUND if there is no book
+     * with the ISBN, or 400 BAD REQUEST if a field cannot be updated or has an invalid value.
      */
-    @PostMapping("/import")
-    public ResponseEntity<Iterable<Book>> importBooks(@RequestParam String filePath) {
+    @PatchMapping("/{isbn}")
+    public ResponseEntity<Void> patchBook(@PathVariable String isbn, @RequestBody Map<String, Object> changes) {
         try {
-            _bookService.importBooks(filePath);
-        } catch (FileNotFoundException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+            if (!_bookService.patchBook(isbn, changes)) {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+        return ResponseEntity.noContent().build();
+    }
 
-        return ResponseEntity.ok(null);
+    /**
+     * Imports books from a JSON or CSV file to add to database as a background job. It's recommended to put an
+     * absolute path, like C:\Users\Julian\Desktop\testing.json etc. The books are committed in chunks; if the job
+     * fails or is cancelled, importing the same file again with the same importId resumes after the last committed
+     * chunk.
+     *
+     * @param filePath Name of the filePath to import the books from.
+     * @param importId Optional ID of the import and its job. A new one is generated if not given.
+     * @return A {@link ResponseEntity} with 202 ACCEPTED HTTP status code, the job and its location in the Location
+     * header. 400 BADREQUEST if filePath is not found, 409 CONFLICT if the import is still running, 503 SERVICE
+     * UNAVAILABLE if too many imports are waiting.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportJob> importBooks(@RequestParam String filePath, @RequestParam Optional<String> importId) {
+        String id = importId.orElseGet(() -> UUID.randomUUID().toString());
+        return ImportJobController.accept(() -> {
+            Path file = Path.of(filePath);
+            if (!Files.isRegularFile(file)) {
+                throw new FileNotFoundException(filePath);
+            }
+            return _importJobService.submit(id, IMPORT, file);
+        });
     }
 
     /**
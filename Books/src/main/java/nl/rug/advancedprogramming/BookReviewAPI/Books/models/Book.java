@@ -1,16 +1,22 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Books.models;
 
 import com.google.gson.Gson;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import lombok.Getter;
 import lombok.Setter;
 import nl.rug.advancedprogramming.BookReviewAPI.Books.interfaces.ExportToCSV;
 import nl.rug.advancedprogramming.BookReviewAPI.Books.interfaces.ExportToJSON;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Setter
 @Getter
 @Entity
+// Kept in the second-level cache, see SecondLevelCacheConfiguration
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "books")
 public class Book implements ExportToCSV, ExportToJSON {
 
     public String title;
@@ -0,0 +1,26 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Books.models;
+
+/**
+ * Read-only view of a book as returned by the book searches. It is selected column by column instead of loading
+ * {@link Book} entities, so nothing is left to load once the query has returned and the connection is back in the
+ * pool before the response is written.
+ *
+ * @param title     the title of the book
+ * @param author    the author of the book
+ * @param publisher the publisher of the book
+ * @param isbn      the ISBN of the book
+ * @param genre     the genre of the book
+ * @param price     the price of the book
+ */
+public record BookRecord(String title, String author, String publisher, String isbn, String genre, double price) {
+
+    /**
+     * Takes a snapshot of a book entity.
+     *
+     * @param book the book to take a snapshot of
+     * @return the snapshot
+     */
+    public static BookRecord of(Book book) {
+        return new BookRecord(book.title, book.author, book.publisher, book.isbn, book.genre, book.price);
+    }
+}
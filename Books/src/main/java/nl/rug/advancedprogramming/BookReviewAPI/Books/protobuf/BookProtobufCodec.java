@@ -0,0 +1,68 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Books.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufCodec;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+import static nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufFields.*;
+
+/**
+ * Protobuf codec for books, see protobuf/book.proto.
+ */
+@Component
+public class BookProtobufCodec implements ProtobufCodec<Book> {
+    static final int TITLE = 1;
+    static final int AUTHOR = 2;
+    static final int PUBLISHER = 3;
+    static final int ISBN = 4;
+    static final int GENRE = 5;
+    static final int PRICE = 6;
+
+    @Override
+    public Class<Book> type() {
+        return Book.class;
+    }
+
+    @Override
+    public int size(Book book) {
+        return stringSize(TITLE, book.title)
+                + stringSize(AUTHOR, book.author)
+                + stringSize(PUBLISHER, book.publisher)
+                + stringSize(ISBN, book.isbn)
+                + stringSize(GENRE, book.genre)
+                + doubleSize(PRICE, book.price);
+    }
+
+    @Override
+    public void write(Book book, CodedOutputStream out) throws IOException {
+        writeString(out, TITLE, book.title);
+        writeString(out, AUTHOR, book.author);
+        writeString(out, PUBLISHER, book.publisher);
+        writeString(out, ISBN, book.isbn);
+        writeString(out, GENRE, book.genre);
+        writeDouble(out, PRICE, book.price);
+    }
+
+    @Override
+    public Book read(CodedInputStream in) throws IOException {
+        Book book = new Book();
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case TITLE -> book.title = in.readStringRequireUtf8();
+                case AUTHOR -> book.author = in.readStringRequireUtf8();
+                case PUBLISHER -> book.publisher = in.readStringRequireUtf8();
+                case ISBN -> book.isbn = in.readStringRequireUtf8();
+                case GENRE -> book.genre = in.readStringRequireUtf8();
+                case PRICE -> book.price = in.readDouble();
+                default -> in.skipField(tag);
+            }
+        }
+        return book;
+    }
+}
@@ -0,0 +1,50 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Books.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.BookRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufCodec;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+import static nl.rug.advancedprogramming.BookReviewAPI.Books.protobuf.BookProtobufCodec.*;
+import static nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufFields.*;
+
+/**
+ * Protobuf codec for books read as records. They use the same Book message as the entities.
+ */
+@Component
+public class BookRecordProtobufCodec implements ProtobufCodec<BookRecord> {
+    private final BookProtobufCodec books = new BookProtobufCodec();
+
+    @Override
+    public Class<BookRecord> type() {
+        return BookRecord.class;
+    }
+
+    @Override
+    public int size(BookRecord book) {
+        return stringSize(TITLE, book.title())
+                + stringSize(AUTHOR, book.author())
+                + stringSize(PUBLISHER, book.publisher())
+                + stringSize(ISBN, book.isbn())
+                + stringSize(GENRE, book.genre())
+                + doubleSize(PRICE, book.price());
+    }
+
+    @Override
+    public void write(BookRecord book, CodedOutputStream out) throws IOException {
+        writeString(out, TITLE, book.title());
+        writeString(out, AUTHOR, book.author());
+        writeString(out, PUBLISHER, book.publisher());
+        writeString(out, ISBN, book.isbn());
+        writeString(out, GENRE, book.genre());
+        writeDouble(out, PRICE, book.price());
+    }
+
+    @Override
+    public BookRecord read(CodedInputStream in) throws IOException {
+        return BookRecord.of(books.read(in));
+    }
+}
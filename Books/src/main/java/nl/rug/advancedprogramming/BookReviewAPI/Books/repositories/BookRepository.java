@@ -1,15 +1,34 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Books.repositories;
 
+import jakarta.persistence.QueryHint;
 import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.BookRecord;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface BookRepository extends CrudRepository<Book, String> {
+public interface BookRepository extends CrudRepository<Book, String>, BookRepositoryCustom {
+
+    // The searches select the columns of the response into BookRecords instead of loading Book entities.
+    // The results of the property searches are kept in the query cache. Hibernate drops them when a book is
+    // written, see SecondLevelCacheConfiguration.
+
+    String SELECT_RECORD = "SELECT new nl.rug.advancedprogramming.BookReviewAPI.Books.models.BookRecord("
+            + "b.title, b.author, b.publisher, b.isbn, b.genre, b.price) FROM Book b";
 
-    // The framework will automagically recognise these names and create the right queries in the implementation that it feeds the beans.
-    // See https://docs.spring.io/spring-data/data-jpa/docs/1.0.0.M1/reference/html/#jpa.query-methods.query-creation
-    // paragraph 2.1.2
+    /**
+     * Retrieves all books in database.
+     *
+     * @return {@link List} of all books.
+     */
+    @Query(SELECT_RECORD)
+    List<BookRecord> findAllRecords();
 
     /**
      * Retrieves books in database of given title.
@@ -17,7 +36,10 @@ public interface BookRepository extends CrudRepository<Book, String> {
      * @param title Title to query by.
      * @return {@link Iterable} of books that match given title.
      */
-    Iterable<Book> getByTitle(String title);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "books.queries")})
+    @Query(SELECT_RECORD + " WHERE b.title = :title")
+    Iterable<BookRecord> getByTitle(@Param("title") String title);
 
     /**
      * Retrieves books in database of given author.
@@ -25,7 +47,10 @@ public interface BookRepository extends CrudRepository<Book, String> {
      * @param author Author to query by.
      * @return {@link Iterable} of books that match given title.
      */
-    Iterable<Book> getByAuthor(String author);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "books.queries")})
+    @Query(SELECT_RECORD + " WHERE b.author = :author")
+    Iterable<BookRecord> getByAuthor(@Param("author") String author);
 
     /**
      * Retrieves books in database of given publisher.
@@ -33,7 +58,10 @@ public interface BookRepository extends CrudRepository<Book, String> {
      * @param publisher Publisher to query by.
      * @return {@link Iterable} of books that match given title.
      */
-    Iterable<Book> getByPublisher(String publisher);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "books.queries")})
+    @Query(SELECT_RECORD + " WHERE b.publisher = :publisher")
+    Iterable<BookRecord> getByPublisher(@Param("publisher") String publisher);
 
     /**
      * Retrieves books in database of given ISBN.
@@ -41,7 +69,10 @@ public interface BookRepository extends CrudRepository<Book, String> {
      * @param isbn ISBN to query by.
      * @return {@link Iterable} of books that match given title.
      */
-    Iterable<Book> getByIsbn(String isbn);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "books.queries")})
+    @Query(SELECT_RECORD + " WHERE b.isbn = :isbn")
+    Iterable<BookRecord> getByIsbn(@Param("isbn") String isbn);
 
     /**
      * Retrieves books in database of given genre.
@@ -49,7 +80,10 @@ public interface BookRepository extends CrudRepository<Book, String> {
      * @param genre Genre to query by.
      * @return {@link Iterable} of books that match given title.
      */
-    Iterable<Book> getByGenre(String genre);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "books.queries")})
+    @Query(SELECT_RECORD + " WHERE b.genre = :genre")
+    Iterable<BookRecord> getByGenre(@Param("genre") String genre);
 
     /**
      * Retrieves books in database of given price.
@@ -57,5 +91,8 @@ public interface BookRepository extends CrudRepository<Book, String> {
      * @param price Price to query by. Must be an exact match.
      * @return {@link Iterable} of books that match given title.
      */
-    Iterable<Book> getByPrice(double price);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "books.queries")})
+    @Query(SELECT_RECORD + " WHERE b.price = :price")
+    Iterable<BookRecord> getByPrice(@Param("price") double price);
 }
@@ -0,0 +1,19 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Books.repositories;
+
+import java.util.Map;
+
+/**
+ * Book repository methods that are implemented by hand instead of derived by the framework.
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * Updates only the given fields of a book with a single UPDATE statement.
+     *
+     * @param isbn    ISBN of the book.
+     * @param changes New values by field name (title, author, publisher, genre or price).
+     * @return Number of updated rows, 0 if the book does not exist.
+     * @throws IllegalArgumentException if a field cannot be updated or a value has the wrong type.
+     */
+    int patch(String isbn, Map<String, Object> changes);
+}
@@ -0,0 +1,34 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Books.repositories;
+
+import jakarta.persistence.EntityManager;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.repository.PartialUpdate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation of the hand-written book repository methods. Picked up by the framework through its name.
+ */
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+    // The ISBN is the primary key, so it is not in here
+    private static final Set<String> UPDATABLE = Set.of("title", "author", "publisher", "genre", "price");
+
+    private final EntityManager _entityManager;
+
+    /**
+     * Constructor for BookRepositoryCustomImpl.
+     *
+     * @param entityManager Entity manager used for the partial updates.
+     */
+    public BookRepositoryCustomImpl(EntityManager entityManager) {
+        _entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int patch(String isbn, Map<String, Object> changes) {
+        return PartialUpdate.apply(_entityManager, Book.class, "isbn", isbn, changes, UPDATABLE);
+    }
+}
@@ -1,28 +1,50 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Books.services;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
 import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.BookRecord;
 import nl.rug.advancedprogramming.BookReviewAPI.Books.repositories.BookRepository;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportCheckpoint;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.CacheChangeLog;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ChunkedImportService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.net.URLConnection;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Scanner;
 
 @Service
 public class BookService {
+    private static final Logger log = LoggerFactory.getLogger(BookService.class);
+    /** Kind of the cache changes of books, keyed by ISBN, see {@link CacheChangeLog}. */
+    public static final String CACHE_KIND = "book";
+    // Single flight group of the property searches, forgotten as a whole on every write as any book can match
+    private static final String SEARCH = "books-by-property";
+
     private final BookRepository _books;
+    private final ChunkedImportService _importService;
+    private final RowMetrics _rowMetrics;
+    private final SingleFlight _singleFlight;
+    private final CacheChangeLog _cacheChanges;
 
     @Autowired
-    public BookService(BookRepository _books) {
+    public BookService(BookRepository _books, ChunkedImportService _importService, RowMetrics _rowMetrics,
+                       SingleFlight _singleFlight, CacheChangeLog _cacheChanges) {
         this._books = _books;
+        this._importService = _importService;
+        this._rowMetrics = _rowMetrics;
+        this._singleFlight = _singleFlight;
+        this._cacheChanges = _cacheChanges;
+
+        // Books written by other replicas
+        _cacheChanges.registerEntity(CACHE_KIND, Book.class, isbn -> isbn);
+        _cacheChanges.register(CACHE_KIND, isbn -> _singleFlight.forgetAll(SEARCH));
     }
 
     /**
@@ -30,20 +52,21 @@ public class BookService {
      *
      * @return an {@link Iterable} containing all books in the database.
      */
-    public Iterable<Book> getAllBooks() {
-        return _books.findAll();
+    public Iterable<BookRecord> getAllBooks() {
+        return _books.findAllRecords();
     }
 
     /**
-     * Retrieves books from database based on specified property/key and its value.
+     * Retrieves books from database based on specified property/key and its value. Concurrent identical searches
+     * share one query and its result, which must not be modified.
      *
      * @param key The property to search by
      * @param value The value of the property
      * @return an {@link Iterable} containing books that match given key/value
      */
-    public Iterable<Book> getByProperty(String key, String value) {
+    public Iterable<BookRecord> getByProperty(String key, String value) {
         // Parse property names into the right repository function
-        return switch (key) {
+        return _singleFlight.read(SEARCH, key + "=" + value, () -> switch (key) {
             case "title" -> _books.getByTitle(value);
             case "author" -> _books.getByAuthor(value);
             case "publisher" -> _books.getByPublisher(value);
@@ -51,7 +74,7 @@ public class BookService {
             case "genre" -> _books.getByGenre(value);
             case "price" -> _books.getByPrice(Double.parseDouble(value));
             default -> null;
-        };
+        });
     }
 
     /**
@@ -61,6 +84,8 @@ public class BookService {
      */
     public void addBook(Book book) {
         _books.save(book);
+        _singleFlight.forgetAll(SEARCH);
+        _cacheChanges.record(CACHE_KIND, book.isbn);
     }
 
     /**
@@ -70,6 +95,8 @@ public class BookService {
      */
     public void deleteBook(String isbn) {
         _books.deleteById(isbn);
+        _singleFlight.forgetAll(SEARCH);
+        _cacheChanges.record(CACHE_KIND, isbn);
     }
 
     /**
@@ -82,15 +109,38 @@ public class BookService {
     {
         book.isbn = isbn;
         _books.save(book);
+        _singleFlight.forgetAll(SEARCH);
+        _cacheChanges.record(CACHE_KIND, isbn);
     }
 
     /**
-     * Imports books from a JSON or CSV file to add to database.
+     * Updates only the given fields of a book in database, without loading and saving the whole book.
      *
+     * @param isbn    ISBN of the book to update
+     * @param changes New values by field name (title, author, publisher, genre or price)
+     * @return true if the book was updated, false if it does not exist
+     * @throws IllegalArgumentException if a field cannot be updated or a value has the wrong type
+     */
+    public boolean patchBook(String isbn, Map<String, Object> changes) {
+        boolean patched = _books.patch(isbn, changes) > 0;
+        _singleFlight.forgetAll(SEARCH);
+        if (patched) {
+            _cacheChanges.record(CACHE_KIND, isbn);
+        }
+        return patched;
+    }
+
+    /**
+     * Imports books from a JSON or CSV file to add to database. The books are committed in chunks together with
+     * a checkpoint, so importing the same file again with the same import ID resumes after the last committed chunk.
+     *
+     * @param importId ID of the import, used to resume it
      * @param fileName Name of the file to import the books from
+     * @return the checkpoint of the finished import
      * @throws FileNotFoundException if the fileName does not point to a valid file to import from.
+     * @throws UncheckedIOException if the file cannot be read or is not valid CSV or JSON.
      */
-    public void importBooks(String fileName) throws FileNotFoundException {
+    public ImportCheckpoint importBooks(String importId, String fileName) throws FileNotFoundException {
 
         File file = new File(fileName);
 
@@ -98,51 +148,64 @@ public class BookService {
         String mimeType = URLConnection.guessContentTypeFromName(fileName);
         if (Objects.equals(mimeType, "text/csv"))
         {
-            try (CSVReader csvReader = new CSVReader(new FileReader(file))) {
-                List<String[]> csvData = csvReader.readAll();
-                List<Book> books = new ArrayList<>();
-
-                // Format: title:author:isbn:publisher:genre:price
-                for (int i = 1; i < csvData.size(); i++) { // Note that it skips the header row.
-                    String[] row = csvData.get(i);
-
-                    if (row.length == 7) {
-                        Book book = new Book();
-                        book.title = row[0];
-                        book.author = row[1];
-                        book.isbn = row[2];
-                        book.publisher = row[3];
-                        book.genre = row[4];
-                        book.price = Double.parseDouble(row[5]);
-
-                        books.add(book);
-                    }
-                }
-
-                _books.saveAll(books);
-
-            } catch (IOException | CsvException e) {
-                e.printStackTrace();
-                throw new RuntimeException("Error processing CSV file");
+            try (InputStream in = new FileInputStream(file)) {
+                // Format: title,author,isbn,publisher,genre,price. Note that it skips the header row.
+                return _importService.importCsvRecords(importId, "books-csv", in, true, BookService::parseCSVRow, this::saveImported);
+            } catch (FileNotFoundException e) {
+                throw e;
+            } catch (IOException e) {
+                log.warn("Could not import the books of CSV file {}", fileName, e);
+                throw new UncheckedIOException(e);
             }
         } else if (Objects.equals(mimeType, "application/json"))
         {
-            StringBuilder contents = new StringBuilder();
-            Scanner scanner = new Scanner(file);
-            while (scanner.hasNextLine()) {
-                contents.append(scanner.nextLine());
+            try (InputStream in = new FileInputStream(file)) {
+                return _importService.importJsonArray(importId, "books-json", in, Book.class, this::saveImported);
+            } catch (FileNotFoundException e) {
+                throw e;
+            } catch (IOException e) {
+                log.warn("Could not import the books of JSON file {}", fileName, e);
+                throw new UncheckedIOException(e);
             }
-            scanner.close();
-            Gson gson = new Gson();
-
-            List<Book> books = gson.fromJson(contents.toString(), new TypeToken<List<Book>>(){}.getType());
-
-            _books.saveAll(books);
         } else {
             throw new FileNotFoundException();
         }
     }
 
+    /**
+     * Saves a chunk of imported books. Runs inside the transaction of the chunk, so searches are forgotten and the
+     * other replicas learn about the chunk when it commits.
+     *
+     * @param books The imported books.
+     */
+    private void saveImported(List<Book> books) {
+        _books.saveAll(books);
+        _singleFlight.forgetAll(SEARCH);
+        // Any book may have been replaced, recorded once per chunk instead of once per book
+        _cacheChanges.record(CACHE_KIND, null);
+    }
+
+    /**
+     * Parses one record of a book CSV import.
+     *
+     * @param row The fields of the record, unquoted.
+     * @return The parsed book, or null if the record does not have enough fields.
+     */
+    public static Book parseCSVRow(String[] row) {
+        if (row.length < 6) {
+            return null;
+        }
+
+        Book book = new Book();
+        book.title = row[0];
+        book.author = row[1];
+        book.isbn = row[2];
+        book.publisher = row[3];
+        book.genre = row[4];
+        book.price = Double.parseDouble(row[5]);
+        return book;
+    }
+
     /**
      * Exports given books in CSV format.
      *
@@ -154,10 +217,13 @@ public class BookService {
 
         // Header row
         builder.append("title,author,isbn,publisher,genre,price\n");
+        int rows = 0;
         for (Book book : books) {
             builder.append(book.toCSV()).append("\n");
+            rows++;
         }
 
+        _rowMetrics.exported("books-csv", rows);
         return builder.toString();
     }
 
@@ -172,15 +238,18 @@ public class BookService {
         builder.append("[\n"); // Start JSON array
 
         boolean first = true; // Little trick to have proper comma placement without trailing comma
+        int rows = 0;
         for (Book book : books) {
             if (!first) {
                 builder.append(",\n"); // We place the comma before each linebreak exc. the first iteration.
             }
             builder.append(book.toJSON());
             first = false;
+            rows++;
         }
 
         builder.append("\n]\n"); // End JSON array with linebreak on end.
+        _rowMetrics.exported("books-json", rows);
         return builder.toString();
     }
 
@@ -0,0 +1,35 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.controller;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportCheckpoint;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ChunkedImportService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller class for looking up the progress of bulk imports.
+ */
+@RestController
+@RequestMapping("/imports")
+public class ImportCheckpointController {
+    private final ChunkedImportService importService;
+
+    /**
+     * Constructor to initialize the ChunkedImportService.
+     *
+     * @param importService Service layer for chunked imports.
+     */
+    public ImportCheckpointController(ChunkedImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * Retrieves the checkpoint of an import: how many rows and bytes have been committed and whether it completed.
+     *
+     * @param importId ID of the import, as returned in the Import-Id header of the import request.
+     * @return ResponseEntity containing the checkpoint, or 404 if nothing of the import has been committed.
+     */
+    @GetMapping("/{importId}")
+    public ResponseEntity<ImportCheckpoint> getCheckpoint(@PathVariable String importId) {
+        return importService.getCheckpoint(importId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
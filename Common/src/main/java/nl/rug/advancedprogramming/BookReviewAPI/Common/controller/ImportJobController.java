@@ -0,0 +1,99 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.controller;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJob;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ChunkedImportService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ImportJobService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Controller class for following and cancelling background import jobs.
+ */
+@RestController
+@RequestMapping("/jobs")
+public class ImportJobController {
+    // Seconds a client is asked to wait when the job queue is full
+    private static final String RETRY_AFTER = "30";
+
+    private final ImportJobService importJobService;
+
+    /**
+     * Submits an import job, as done by the import endpoints of the modules.
+     */
+    @FunctionalInterface
+    public interface Submission {
+        ImportJob submit() throws IOException;
+    }
+
+    /**
+     * Constructor to initialize the ImportJobService.
+     *
+     * @param importJobService Service layer for import jobs.
+     */
+    public ImportJobController(ImportJobService importJobService) {
+        this.importJobService = importJobService;
+    }
+
+    /**
+     * Retrieves an import job: its status, the rows parsed, rejected and written so far, its throughput and why it
+     * failed.
+     *
+     * @param id ID of the job, as returned by the import request.
+     * @return ResponseEntity containing the job, or 404 if there is no such job.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJob> getJob(@PathVariable String id) {
+        return importJobService.getJob(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancels an import job. A running job stops before its next chunk; the rows committed so far stay, and
+     * submitting the same data with the same import ID resumes it.
+     *
+     * @param id ID of the job.
+     * @return ResponseEntity with 202 and the job, 409 if it has already finished, or 404 if there is no such job.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ImportJob> cancelJob(@PathVariable String id) {
+        return importJobService.getJob(id)
+                .map(job -> job.getStatus().isFinished()
+                        ? ResponseEntity.status(HttpStatus.CONFLICT).body(job)
+                        : ResponseEntity.accepted().body(importJobService.cancel(id).orElse(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Turns the submission of an import job into the response of an import endpoint.
+     *
+     * @param submission submits the job.
+     * @return ResponseEntity with 202, the job and its location and the import ID in the Location and Import-Id
+     * headers; 400 if the data or the import type is invalid, 409 if a job with the same ID is still queued or
+     * running, 503 with a Retry-After header if too many jobs are waiting, or 500 if the data cannot be stored.
+     */
+    public static ResponseEntity<ImportJob> accept(Submission submission) {
+        try {
+            ImportJob job = submission.submit();
+            return ResponseEntity.accepted()
+                    .location(UriComponentsBuilder.fromPath("/jobs/{id}").buildAndExpand(job.getId()).encode().toUri())
+                    .header(ChunkedImportService.IMPORT_ID_HEADER, job.getId())
+                    .body(job);
+        } catch (IOException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (UncheckedIOException e) {
+            // The import jobs directory is full or cannot be written
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the rows that go through the imports and exports, tagged with what was imported or exported,
+ * e.g. "songs-csv". Exposed as {@code imports.rows} and {@code exports.rows}.
+ */
+@Component
+public class RowMetrics {
+    private final MeterRegistry registry;
+
+    /**
+     * Constructor for RowMetrics.
+     *
+     * @param registry the registry the counters are registered in
+     */
+    public RowMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Counts rows written by an import.
+     *
+     * @param type what was imported, e.g. "reviews-csv"
+     * @param rows the number of rows
+     */
+    public void imported(String type, long rows) {
+        counter("imports.rows", "Rows written by imports", type).increment(rows);
+    }
+
+    /**
+     * Counts rows written by an export.
+     *
+     * @param type what was exported, e.g. "songs-json"
+     * @param rows the number of rows
+     */
+    public void exported(String type, long rows) {
+        counter("exports.rows", "Rows written by exports", type).increment(rows);
+    }
+
+    private Counter counter(String name, String description, String type) {
+        // The registry returns the existing counter for the same name and tags
+        return Counter.builder(name)
+                .description(description)
+                .tag("type", type)
+                .register(registry);
+    }
+}
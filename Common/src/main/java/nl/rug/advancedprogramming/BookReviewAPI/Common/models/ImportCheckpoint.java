@@ -0,0 +1,50 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Durable progress of a bulk import. The checkpoint is written in the same transaction as the chunk of rows
+ * it covers, so after a failure it points exactly at the first row that has not been committed yet.
+ */
+@Entity
+@Getter
+@Setter
+public class ImportCheckpoint {
+    /** The ID chosen by the client (or generated) to identify the import across retries. */
+    @Id
+    private String importId;
+    /** What is being imported, e.g. "reviews-csv". Used to refuse resuming an import with another importer. */
+    private String importType;
+    /** Number of bytes of the input that have been committed. Only meaningful for line-based formats. */
+    private long byteOffset;
+    /** Number of CSV records of the input that have been committed, the header and rejected records included. */
+    private long recordOffset;
+    /** Number of rows that have been committed. */
+    private long rowCount;
+    private boolean completed;
+    private Date updatedAt;
+
+    /**
+     * Constructor to start a new checkpoint at the beginning of the input.
+     *
+     * @param importId   the ID of the import.
+     * @param importType what is being imported.
+     */
+    public ImportCheckpoint(String importId, String importType) {
+        this.importId = importId;
+        this.importType = importType;
+        this.updatedAt = new Date();
+    }
+
+    /**
+     * Default constructor required by the framework.
+     */
+    public ImportCheckpoint() {
+
+    }
+}
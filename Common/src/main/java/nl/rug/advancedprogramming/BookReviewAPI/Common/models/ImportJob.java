@@ -0,0 +1,89 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * A bulk import that runs in the background, see {@code ImportJobService}. The ID of the job is the ID of its
+ * import, so the {@link ImportCheckpoint} of a job that was interrupted, e.g. by a restart, lets it resume after the
+ * last committed chunk.
+ */
+@Entity
+@Getter
+@Setter
+public class ImportJob {
+    @Id
+    private String id;
+    /** What is being imported, e.g. "reviews-csv". Picks the importer that runs the job. */
+    private String type;
+    @Enumerated(EnumType.STRING)
+    private ImportJobStatus status;
+    /** Path of the file the job imports. */
+    @JsonIgnore
+    private String input;
+    /** Whether the input is a copy of the request body, deleted when the job has finished. */
+    @JsonIgnore
+    private boolean spooled;
+    /** Rows read from the input, including rows already committed before the job was resumed. */
+    private long rowsParsed;
+    /** Lines that could not be turned into a row and were skipped. */
+    private long rowsRejected;
+    /** Rows committed to the database. */
+    private long rowsWritten;
+    /** Why the job failed. */
+    private String error;
+    /** The application instance running the job. */
+    @JsonIgnore
+    private String owner;
+    /** When the owner last reported that the job is still running. */
+    @JsonIgnore
+    private Date heartbeatAt;
+    private Date createdAt;
+    private Date startedAt;
+    private Date finishedAt;
+
+    /**
+     * Constructor for a new job waiting for a worker.
+     *
+     * @param id      the ID of the job and its import.
+     * @param type    what is being imported.
+     * @param input   the path of the file to import.
+     * @param spooled whether the file is a copy that can be deleted when the job has finished.
+     */
+    public ImportJob(String id, String type, String input, boolean spooled) {
+        this.id = id;
+        this.type = type;
+        this.input = input;
+        this.spooled = spooled;
+        this.status = ImportJobStatus.QUEUED;
+        this.createdAt = new Date();
+    }
+
+    /**
+     * Default constructor required by the framework.
+     */
+    public ImportJob() {
+
+    }
+
+    /**
+     * Calculates how fast the job has been writing rows.
+     *
+     * @return the rows written per second since the job started, or 0 if it has not started
+     */
+    public double getRowsPerSecond() {
+        if (startedAt == null) {
+            return 0;
+        }
+        long end = finishedAt != null ? finishedAt.getTime() : System.currentTimeMillis();
+        long millis = Math.max(end - startedAt.getTime(), 1);
+        return rowsWritten * 1000.0 / millis;
+    }
+}
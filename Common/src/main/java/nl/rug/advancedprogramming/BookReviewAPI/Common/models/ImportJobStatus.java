@@ -0,0 +1,26 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.models;
+
+/**
+ * Where an {@link ImportJob} is in its life.
+ */
+public enum ImportJobStatus {
+    /** Waiting for a worker. */
+    QUEUED,
+    /** A worker is importing it. */
+    RUNNING,
+    /** Every row has been committed. */
+    SUCCEEDED,
+    /** The import stopped with an error; the committed chunks stay. */
+    FAILED,
+    /** The import was cancelled; the committed chunks stay. */
+    CANCELLED;
+
+    /**
+     * Whether a job in this status will not change anymore.
+     *
+     * @return true for succeeded, failed and cancelled jobs
+     */
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,98 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes one type as a Protocol Buffers message without generated classes, so the entities themselves can be
+ * written and read. The message layout of every codec is described by a .proto schema in the resources of its
+ * module, under {@code protobuf/}, which clients can generate their own classes from.
+ * <p>
+ * A list is encoded as a message with the items as repeated field 1, e.g. {@code message BookList { repeated Book
+ * items = 1; }}. Every item is written as soon as its size is known, so a list never has to be encoded in memory
+ * as a whole.
+ * </p>
+ *
+ * @param <T> the type of the encoded values.
+ */
+public interface ProtobufCodec<T> {
+
+    /** The field number of the items in a list message. */
+    int LIST_FIELD = 1;
+
+    /**
+     * Retrieves the type this codec encodes.
+     *
+     * @return the type.
+     */
+    Class<T> type();
+
+    /**
+     * Computes the encoded size of a value, without its tag and length prefix.
+     *
+     * @param value the value.
+     * @return the size in bytes.
+     */
+    int size(T value);
+
+    /**
+     * Writes the fields of a value.
+     *
+     * @param value the value.
+     * @param out   the stream to write to.
+     * @throws IOException if writing fails.
+     */
+    void write(T value, CodedOutputStream out) throws IOException;
+
+    /**
+     * Reads the fields of a value up to the end of the stream or its current limit. Unknown fields are skipped.
+     *
+     * @param in the stream to read from.
+     * @return the value.
+     * @throws IOException if reading fails or the input is not a valid message.
+     */
+    T read(CodedInputStream in) throws IOException;
+
+    /**
+     * Writes a list message.
+     *
+     * @param values the items of the list.
+     * @param out    the stream to write to.
+     * @throws IOException if writing fails.
+     */
+    default void writeList(Iterable<? extends T> values, CodedOutputStream out) throws IOException {
+        for (T value : values) {
+            out.writeTag(LIST_FIELD, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(size(value));
+            write(value, out);
+        }
+    }
+
+    /**
+     * Reads a list message.
+     *
+     * @param in the stream to read from.
+     * @return the items of the list.
+     * @throws IOException if reading fails or the input is not a valid message.
+     */
+    default List<T> readList(CodedInputStream in) throws IOException {
+        List<T> values = new ArrayList<>();
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            if (WireFormat.getTagFieldNumber(tag) == LIST_FIELD
+                    && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                values.add(read(in));
+                in.popLimit(limit);
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return values;
+    }
+}
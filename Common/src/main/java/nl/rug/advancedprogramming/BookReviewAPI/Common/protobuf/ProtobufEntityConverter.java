@@ -0,0 +1,144 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes and reads the types that have a {@link ProtobufCodec}, and lists of them, as Protocol Buffers messages for
+ * clients that send {@code Accept: application/x-protobuf}. Lists are written item by item straight to the response,
+ * like the JSON converter does.
+ */
+public class ProtobufEntityConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Map<Class<?>, ProtobufCodec<?>> codecs = new HashMap<>();
+
+    /**
+     * Constructor for the ProtobufEntityConverter.
+     *
+     * @param codecs the codecs of all types that can be written and read.
+     */
+    public ProtobufEntityConverter(List<? extends ProtobufCodec<?>> codecs) {
+        super(PROTOBUF, new MediaType("application", "protobuf"));
+        for (ProtobufCodec<?> codec : codecs) {
+            this.codecs.put(codec.type(), codec);
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return codecFor(clazz) != null;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        // Content negotiation only passes the class, e.g. ArrayList, the item type is checked by canWrite
+        return supports(clazz) || Iterable.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return canRead(mediaType) && (codecFor(type) != null || codecFor(elementType(type)) != null);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (codecFor(clazz) != null) {
+            return true;
+        }
+        return Iterable.class.isAssignableFrom(clazz) && codecFor(elementType(type != null ? type : clazz)) != null;
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody(), BUFFER_SIZE);
+        ProtobufCodec<Object> codec = codecFor(value.getClass());
+        if (codec != null) {
+            codec.write(value, out);
+        } else {
+            Iterable<?> values = (Iterable<?>) value;
+            codec = codecFor(elementType(type));
+            if (codec == null) {
+                // Raw or wildcard declared type, go by the items themselves
+                Iterator<?> items = values.iterator();
+                codec = items.hasNext() ? codecFor(items.next().getClass()) : null;
+            }
+            if (codec != null) {
+                codec.writeList(values, out);
+            }
+        }
+        out.flush();
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(inputMessage.getBody());
+        ProtobufCodec<?> codec = codecFor(type);
+        if (codec != null) {
+            return codec.read(in);
+        }
+        codec = codecFor(elementType(type));
+        if (codec == null) {
+            throw new HttpMessageNotReadableException("No Protobuf codec for " + type, inputMessage);
+        }
+        return codec.readList(in);
+    }
+
+    private ProtobufCodec<Object> codecFor(Type type) {
+        if (type == null) {
+            return null;
+        }
+        return codecFor(ResolvableType.forType(type).resolve());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProtobufCodec<Object> codecFor(Class<?> clazz) {
+        if (clazz == null) {
+            return null;
+        }
+        ProtobufCodec<?> codec = codecs.get(clazz);
+        if (codec == null) {
+            // Subclasses, e.g. proxies of entities
+            for (ProtobufCodec<?> candidate : codecs.values()) {
+                if (candidate.type().isAssignableFrom(clazz)) {
+                    codec = candidate;
+                    break;
+                }
+            }
+        }
+        return (ProtobufCodec<Object>) codec;
+    }
+
+    /**
+     * Resolves the item type of an Iterable type, or null if the type is no Iterable or the item type is unknown.
+     */
+    private static Class<?> elementType(Type type) {
+        if (type == null) {
+            return null;
+        }
+        ResolvableType iterable = ResolvableType.forType(type).as(Iterable.class);
+        return iterable == ResolvableType.NONE ? null : iterable.getGeneric(0).resolve();
+    }
+}
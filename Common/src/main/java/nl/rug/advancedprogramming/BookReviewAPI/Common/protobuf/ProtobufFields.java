@@ -0,0 +1,133 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Size computation and writing of the field types the codecs use, following the proto3 rules: null values of
+ * {@code optional} fields and zero values of plain scalar fields are left out. Dates are written as milliseconds
+ * since the epoch in an int64 field.
+ */
+public final class ProtobufFields {
+
+    private ProtobufFields() {
+    }
+
+    public static int stringSize(int field, String value) {
+        return value == null ? 0 : CodedOutputStream.computeStringSize(field, value);
+    }
+
+    public static void writeString(CodedOutputStream out, int field, String value) throws IOException {
+        if (value != null) {
+            out.writeString(field, value);
+        }
+    }
+
+    public static int int32Size(int field, int value) {
+        return value == 0 ? 0 : CodedOutputStream.computeInt32Size(field, value);
+    }
+
+    public static void writeInt32(CodedOutputStream out, int field, int value) throws IOException {
+        if (value != 0) {
+            out.writeInt32(field, value);
+        }
+    }
+
+    public static int optionalInt32Size(int field, Integer value) {
+        return value == null ? 0 : CodedOutputStream.computeInt32Size(field, value);
+    }
+
+    public static void writeOptionalInt32(CodedOutputStream out, int field, Integer value) throws IOException {
+        if (value != null) {
+            out.writeInt32(field, value);
+        }
+    }
+
+    public static int floatSize(int field, float value) {
+        return value == 0 ? 0 : CodedOutputStream.computeFloatSize(field, value);
+    }
+
+    public static void writeFloat(CodedOutputStream out, int field, float value) throws IOException {
+        if (value != 0) {
+            out.writeFloat(field, value);
+        }
+    }
+
+    public static int doubleSize(int field, double value) {
+        return value == 0 ? 0 : CodedOutputStream.computeDoubleSize(field, value);
+    }
+
+    public static void writeDouble(CodedOutputStream out, int field, double value) throws IOException {
+        if (value != 0) {
+            out.writeDouble(field, value);
+        }
+    }
+
+    public static int dateSize(int field, Date value) {
+        return value == null ? 0 : CodedOutputStream.computeInt64Size(field, value.getTime());
+    }
+
+    public static void writeDate(CodedOutputStream out, int field, Date value) throws IOException {
+        if (value != null) {
+            out.writeInt64(field, value.getTime());
+        }
+    }
+
+    public static Date readDate(CodedInputStream in) throws IOException {
+        return new Date(in.readInt64());
+    }
+
+    public static int packedInt32Size(int field, Collection<Integer> values) {
+        if (values == null || values.isEmpty()) {
+            return 0;
+        }
+        int size = packedInt32DataSize(values);
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    public static void writePackedInt32(CodedOutputStream out, int field, Collection<Integer> values)
+            throws IOException {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        out.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        out.writeUInt32NoTag(packedInt32DataSize(values));
+        for (int value : values) {
+            out.writeInt32NoTag(value);
+        }
+    }
+
+    /**
+     * Reads a repeated int32 field, packed or not, depending on the wire type of the tag that was just read.
+     *
+     * @param in     the stream, positioned after the tag.
+     * @param tag    the tag that was read.
+     * @param values the collection to add the values to.
+     * @throws IOException if reading fails.
+     */
+    public static void readRepeatedInt32(CodedInputStream in, int tag, Collection<Integer> values)
+            throws IOException {
+        if (WireFormat.getTagWireType(tag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+            values.add(in.readInt32());
+            return;
+        }
+        int limit = in.pushLimit(in.readRawVarint32());
+        while (in.getBytesUntilLimit() > 0) {
+            values.add(in.readInt32());
+        }
+        in.popLimit(limit);
+    }
+
+    private static int packedInt32DataSize(Collection<Integer> values) {
+        int size = 0;
+        for (int value : values) {
+            size += CodedOutputStream.computeInt32SizeNoTag(value);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,12 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.repository;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportCheckpoint;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the checkpoints of bulk imports.
+ */
+@Repository
+public interface ImportCheckpointRepository extends CrudRepository<ImportCheckpoint, String> {
+}
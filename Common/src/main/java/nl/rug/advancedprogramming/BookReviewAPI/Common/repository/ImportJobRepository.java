@@ -0,0 +1,155 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.repository;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJob;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository for the background import jobs.
+ */
+@Repository
+public interface ImportJobRepository extends CrudRepository<ImportJob, String> {
+
+    /**
+     * Retrieves the jobs in the given statuses, oldest first.
+     *
+     * @param statuses the statuses to look for
+     * @return the jobs in submission order
+     */
+    List<ImportJob> findByStatusInOrderByCreatedAt(Collection<ImportJobStatus> statuses);
+
+    /**
+     * Marks a queued job as running by an application instance. A job that was cancelled or started by another
+     * instance in the meantime is left alone, so two workers and a cancellation cannot take the same job.
+     *
+     * @param id        the ID of the job
+     * @param owner     the instance that runs it
+     * @param startedAt when the worker started it
+     * @return 1 if the job was queued and is now running, 0 if not
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update ImportJob j
+            set j.status = nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus.RUNNING,
+                j.owner = :owner,
+                j.startedAt = :startedAt,
+                j.heartbeatAt = :startedAt
+            where j.id = :id
+              and j.status = nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus.QUEUED""")
+    int start(String id, String owner, Date startedAt);
+
+    /**
+     * Reports that a running job is still running and stores its progress, so every instance can report it.
+     *
+     * @param id           the ID of the job
+     * @param owner        the instance running it
+     * @param heartbeatAt  when it was last seen running
+     * @param rowsParsed   rows read so far
+     * @param rowsRejected lines skipped so far
+     * @param rowsWritten  rows committed so far
+     * @return 1 if the job is still running and owned by the instance, 0 if it was cancelled or reclaimed
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update ImportJob j
+            set j.heartbeatAt = :heartbeatAt,
+                j.rowsParsed = :rowsParsed,
+                j.rowsRejected = :rowsRejected,
+                j.rowsWritten = :rowsWritten
+            where j.id = :id
+              and j.owner = :owner
+              and j.status = nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus.RUNNING""")
+    int heartbeat(String id, String owner, Date heartbeatAt, long rowsParsed, long rowsRejected, long rowsWritten);
+
+    /**
+     * Stores the outcome of a running job. A job that was cancelled or reclaimed by another instance since the last
+     * heartbeat of its owner is left alone, so the owner cannot overwrite the cancellation or the new owner.
+     *
+     * @param id           the ID of the job
+     * @param owner        the instance running it
+     * @param status       SUCCEEDED, FAILED or CANCELLED
+     * @param error        why it failed, or null
+     * @param finishedAt   when it finished
+     * @param rowsParsed   rows read
+     * @param rowsRejected lines skipped
+     * @param rowsWritten  rows committed
+     * @return 1 if the job was running and owned by the instance and is now finished, 0 if not
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update ImportJob j
+            set j.status = :status,
+                j.error = :error,
+                j.finishedAt = :finishedAt,
+                j.rowsParsed = :rowsParsed,
+                j.rowsRejected = :rowsRejected,
+                j.rowsWritten = :rowsWritten
+            where j.id = :id
+              and j.owner = :owner
+              and j.status = nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus.RUNNING""")
+    int finish(String id, String owner, ImportJobStatus status, String error, Date finishedAt, long rowsParsed,
+               long rowsRejected, long rowsWritten);
+
+    /**
+     * Queues a running job again whose owner has stopped reporting it, e.g. because the instance was stopped.
+     *
+     * @param id          the ID of the job
+     * @param staleBefore heartbeats before this are stale
+     * @return 1 if the job was running with a stale heartbeat and is now queued, 0 if not
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update ImportJob j
+            set j.status = nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus.QUEUED,
+                j.owner = null
+            where j.id = :id
+              and j.status = nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus.RUNNING
+              and (j.heartbeatAt is null or j.heartbeatAt < :staleBefore)""")
+    int reclaim(String id, Date staleBefore);
+
+    /**
+     * Marks a queued job as cancelled, unless a worker has started it in the meantime.
+     *
+     * @param id         the ID of the job
+     * @param finishedAt when it was cancelled
+     * @return 1 if the job was queued and is now cancelled, 0 if not
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update ImportJob j
+            set j.status = nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus.CANCELLED,
+                j.finishedAt = :finishedAt
+            where j.id = :id
+              and j.status = nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus.QUEUED""")
+    int cancelQueued(String id, Date finishedAt);
+
+    /**
+     * Marks a running job as cancelled. Its owner stops it with its next heartbeat.
+     *
+     * @param id         the ID of the job
+     * @param finishedAt when it was cancelled
+     * @return 1 if the job was running and is now cancelled, 0 if not
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update ImportJob j
+            set j.status = nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus.CANCELLED,
+                j.finishedAt = :finishedAt
+            where j.id = :id
+              and j.status = nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus.RUNNING""")
+    int cancelRunning(String id, Date finishedAt);
+}
@@ -0,0 +1,69 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a partial update (e.g. the body of a PATCH request) to one entity with a single
+ * {@code UPDATE ... SET} statement that only touches the supplied columns. Unlike loading the entity and
+ * saving it again, this needs no SELECT, leaves the other columns and element collections alone and
+ * keeps the row locked only for the one statement.
+ */
+public final class PartialUpdate {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private PartialUpdate() {
+    }
+
+    /**
+     * Updates the given fields of one entity. Has to be called inside a transaction. The update bypasses the
+     * persistence context, so entities of the same type that are already loaded in it are not refreshed. If the
+     * entity type is in the second-level cache, Hibernate empties its region when the transaction ends.
+     *
+     * @param entityManager the entity manager to run the update with
+     * @param type          the entity class
+     * @param idAttribute   the name of the ID attribute of the entity
+     * @param id            the ID of the entity to update
+     * @param changes       the new values by attribute name, converted to the attribute types the way JSON is
+     * @param updatable     the attributes that may be changed
+     * @param <T>           the entity type
+     * @return the number of updated rows, 0 if the entity does not exist
+     * @throws IllegalArgumentException if there are no changes, an attribute may not be changed, or a value
+     *                                  cannot be converted to the type of its attribute
+     */
+    public static <T> int apply(EntityManager entityManager, Class<T> type, String idAttribute, Object id,
+                                Map<String, Object> changes, Set<String> updatable) {
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+
+        EntityType<T> entity = entityManager.getMetamodel().entity(type);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = builder.createCriteriaUpdate(type);
+        Root<T> root = update.from(type);
+
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String name = change.getKey();
+            if (!updatable.contains(name)) {
+                throw new IllegalArgumentException("Field cannot be updated: " + name);
+            }
+            Attribute<? super T, ?> attribute = entity.getAttribute(name);
+            Class<?> javaType = attribute.getJavaType();
+            if (change.getValue() == null && javaType.isPrimitive()) {
+                throw new IllegalArgumentException("Field cannot be null: " + name);
+            }
+            update.set(name, MAPPER.convertValue(change.getValue(), javaType));
+        }
+        update.where(builder.equal(root.get(idAttribute), id));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
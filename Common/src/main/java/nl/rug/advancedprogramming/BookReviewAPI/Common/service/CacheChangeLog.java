@@ -0,0 +1,461 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Keeps the in-process caches of all replicas of the API coherent, such as the second-level cache, the song index
+ * and the artist pages. Every replica updates its own caches when it writes, but would keep serving what it cached
+ * before another replica wrote.
+ * <p>
+ * The services {@link #record(String, Object) record} every write in the {@code cache_change} table, in the
+ * transaction of the write, right before it commits. Every replica tails the table on a thread of its own, every
+ * {@code cache.changes.poll-interval}, and hands the changes other replicas made to the invalidators the caches
+ * registered for their kind, e.g. "song".
+ * </p>
+ * <p>
+ * IDs are handed out when a change is inserted, but become visible when its transaction commits, so a change can
+ * show up after changes with a higher ID. The tail reads on past such a gap and looks the missing IDs up separately,
+ * for {@code cache.changes.gap-timeout}. If one has not shown up by then, e.g. because its transaction rolled back
+ * while committing, all caches are flushed, as the tail cannot tell what it missed. They are flushed as well when
+ * more changes are missing than are read at a time ({@code cache.changes.batch-size}), and when a replica could not
+ * read the table for longer than the changes are kept ({@code cache.changes.retention}).
+ * </p>
+ * <p>
+ * Read-only transactions may go to a read replica that is behind the primary, see ReadWriteRoutingDataSource. A
+ * cache that reloads an entry right after dropping it may then load it from such a replica as it was before the
+ * write, and keep it until its entries expire. So every change, those of this replica included, is applied a
+ * second time once {@code cache.changes.reapply-after} has passed since it was read, and every flush is repeated
+ * as well. That is the longest a replica that still serves reads can be behind: {@code DB_REPLICA_MAX_LAG} plus the
+ * {@code DB_REPLICA_CHECK_INTERVAL} in which it can fall further behind before its next lag check. A write is
+ * therefore visible on every replica at most the propagation time plus {@code cache.changes.reapply-after} after it
+ * committed; without read replicas it can be 0, which turns the second application off.
+ * </p>
+ * Counted in {@code cache.changes.recorded} and {@code cache.changes.applied} per kind, and
+ * {@code cache.changes.flushes} per reason. {@code cache.changes.propagation} is the time from recording a change
+ * to applying it on another replica, measured with the clock of the database.
+ */
+@Service
+public class CacheChangeLog {
+    private static final Logger log = LoggerFactory.getLogger(CacheChangeLog.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int PURGE_CHUNK_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCache secondLevelCache;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final Duration retention;
+    private final Duration purgeInterval;
+    private final Duration reapplyAfter;
+    // Identifies the changes of this instance, which it has applied to its own caches already
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, List<Invalidator>> invalidators = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService tailer;
+    private final Timer propagation;
+
+    // Tail state, only used by the tailer thread. Every change up to the position has been read, except the missing
+    // ones, which are kept with the time they were found missing.
+    private long position = -1;
+    private final Map<Long, Long> missing = new LinkedHashMap<>();
+    private long lastPolled;
+    private boolean failing;
+    // Changes to apply again once a lagging read replica has caught up with them, in the order they are due
+    private final Deque<Reapply> reapply = new ArrayDeque<>();
+    private long flushAgainAt;
+    private boolean flushAgain;
+
+    /**
+     * Drops the entries another replica changed from a cache.
+     */
+    @FunctionalInterface
+    public interface Invalidator {
+        /**
+         * Drops a changed entry.
+         *
+         * @param key the key of the changed entry as it was recorded, or null if any entry of the kind may have
+         *            changed, e.g. after an import or when all caches are flushed
+         */
+        void invalidate(String key);
+    }
+
+    private record Change(long id, String kind, String key, String origin, long ageMicros) {
+    }
+
+    private record Pending(String kind, String key) {
+    }
+
+    private record Reapply(String kind, String key, long dueAt) {
+    }
+
+    /**
+     * Constructor for the CacheChangeLog.
+     *
+     * @param jdbcTemplate     the template the changes are written and read with
+     * @param secondLevelCache the second-level cache, emptied when all caches are flushed
+     * @param registry         the registry for the change metrics
+     * @param enabled          whether writes are recorded and the changes of other replicas applied
+     * @param pollInterval     the time between two reads of the change table
+     * @param batchSize        the maximum number of changes read at a time
+     * @param gapTimeout       how long a missing change is waited for before all caches are flushed
+     * @param retention        how long changes are kept in the table
+     * @param purgeInterval    the time between two purges of changes older than the retention
+     * @param reapplyAfter     how long after a change is read it is applied again, the maximum lag of a read
+     *                         replica; 0 to apply it once
+     */
+    public CacheChangeLog(JdbcTemplate jdbcTemplate, SecondLevelCache secondLevelCache, MeterRegistry registry,
+                          @Value("${cache.changes.enabled:true}") boolean enabled,
+                          @Value("${cache.changes.poll-interval:200ms}") Duration pollInterval,
+                          @Value("${cache.changes.batch-size:1000}") int batchSize,
+                          @Value("${cache.changes.gap-timeout:2s}") Duration gapTimeout,
+                          @Value("${cache.changes.retention:1h}") Duration retention,
+                          @Value("${cache.changes.purge-interval:1m}") Duration purgeInterval,
+                          @Value("${cache.changes.reapply-after:10s}") Duration reapplyAfter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.secondLevelCache = secondLevelCache;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+        this.purgeInterval = purgeInterval;
+        this.reapplyAfter = reapplyAfter;
+        // Not the shared scheduler, a long scheduled task must not hold up the invalidations
+        this.tailer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-changes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.propagation = Timer.builder("cache.changes.propagation")
+                .description("Time from recording a cache change to applying it on another replica")
+                .register(registry);
+    }
+
+    /**
+     * Registers a cache for the changes of a kind. A kind can have several invalidators.
+     *
+     * @param kind        what changed, e.g. "song"
+     * @param invalidator drops the changed entries from the cache
+     */
+    public void register(String kind, Invalidator invalidator) {
+        invalidators.computeIfAbsent(kind, k -> new CopyOnWriteArrayList<>()).add(invalidator);
+    }
+
+    /**
+     * Registers the second-level cache of an entity type for the changes of a kind.
+     *
+     * @param kind    what changed, e.g. "song"
+     * @param entity  the type of the entity cached under the key of the change
+     * @param idOfKey turns the recorded key back into the ID of the entity, e.g. {@code Integer::valueOf}
+     */
+    public void registerEntity(String kind, Class<?> entity, Function<String, ?> idOfKey) {
+        register(kind, key -> secondLevelCache.evict(entity, key == null ? null : idOfKey.apply(key)));
+    }
+
+    /**
+     * Records a write for the other replicas. Inside a transaction the change is written right before the
+     * transaction commits, once per kind and key, so it is only seen together with the write and not at all if the
+     * write rolls back. Outside a transaction it is written right away, the write has been committed already.
+     *
+     * @param kind what changed, e.g. "song"
+     * @param key  the key of the changed entry, e.g. the ID of the song, or null if any entry of the kind may have
+     *             changed, e.g. after an import
+     */
+    public void record(String kind, Object key) {
+        if (!enabled) {
+            return;
+        }
+        String recorded = key == null ? null : String.valueOf(key);
+        // A key that does not fit is recorded as a change of any entry, not cut off into the key of another one
+        Pending change = new Pending(kind, recorded != null && recorded.length() <= MAX_KEY_LENGTH ? recorded : null);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(change));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Pending> pending = (Set<Pending>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Pending> changes = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheChangeLog.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.add(change);
+    }
+
+    /**
+     * Starts tailing the change table once the application is ready, at the changes that may still be committing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        tailer.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        tailer.scheduleWithFixedDelay(this::purge, purgeInterval.toMillis(), purgeInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops tailing the change table.
+     */
+    @PreDestroy
+    public void stop() {
+        tailer.shutdownNow();
+    }
+
+    /**
+     * Empties all caches: the second-level cache and every registered cache, and once more after
+     * {@code cache.changes.reapply-after}.
+     *
+     * @param reason why, tags {@code cache.changes.flushes}
+     */
+    private void flush(String reason) {
+        emptyCaches(reason);
+        if (!reapplyAfter.isZero()) {
+            // Entries reloaded from a lagging replica right after the flush may miss what the flush was for
+            flushAgain = true;
+            flushAgainAt = System.nanoTime() + reapplyAfter.toNanos();
+        }
+    }
+
+    private void emptyCaches(String reason) {
+        secondLevelCache.evictAll();
+        for (List<Invalidator> kind : invalidators.values()) {
+            for (Invalidator invalidator : kind) {
+                invalidator.invalidate(null);
+            }
+        }
+        Counter.builder("cache.changes.flushes")
+                .description("Times all caches were emptied because changes of other replicas may have been missed")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    private void insert(Iterable<Pending> changes) {
+        List<Pending> batch = new ArrayList<>();
+        changes.forEach(batch::add);
+        jdbcTemplate.batchUpdate("INSERT INTO cache_change (kind, entity_key, origin) VALUES (?, ?, ?)",
+                batch, batch.size(), (statement, change) -> {
+                    statement.setString(1, change.kind());
+                    statement.setString(2, change.key());
+                    statement.setString(3, origin);
+                });
+        for (Pending change : batch) {
+            Counter.builder("cache.changes.recorded")
+                    .description("Writes recorded for the caches of the other replicas")
+                    .tag("kind", change.kind())
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    private void poll() {
+        try {
+            long now = System.nanoTime();
+            applyDue(now);
+            if (position >= 0 && now - lastPolled > retention.toNanos()) {
+                // Changes this replica has not read yet may have been purged
+                log.warn("Could not read the cache changes for longer than {}, flushing all caches", retention);
+                flush("stale");
+                position = -1;
+                missing.clear();
+            }
+            if (position < 0) {
+                position = startPosition();
+                lastPolled = now;
+            }
+
+            if (!missing.isEmpty()) {
+                for (Change change : query("id IN (" + "?,".repeat(missing.size() - 1) + "?)",
+                        missing.keySet().toArray())) {
+                    missing.remove(change.id());
+                    applyIfOther(change);
+                }
+            }
+            List<Change> changes;
+            do {
+                changes = query("id > ? ORDER BY id LIMIT ?", position, batchSize);
+                long readAt = System.nanoTime();
+                for (Change change : changes) {
+                    if (missing.size() + change.id() - position - 1 > batchSize) {
+                        // More than can be looked up at a time
+                        giveUp();
+                    } else {
+                        for (long id = position + 1; id < change.id(); id++) {
+                            missing.put(id, readAt);
+                        }
+                    }
+                    position = change.id();
+                    applyIfOther(change);
+                }
+                expireMissing();
+            } while (changes.size() == batchSize);
+
+            lastPolled = System.nanoTime();
+            if (failing) {
+                log.info("Reading the cache changes again");
+                failing = false;
+            }
+        } catch (DataAccessException e) {
+            if (!failing) {
+                log.warn("Could not read the cache changes, retrying every {}", pollInterval, e);
+                failing = true;
+            }
+        } catch (RuntimeException e) {
+            // A cache that failed to drop an entry may keep serving it
+            log.warn("Could not apply the cache changes, flushing all caches", e);
+            try {
+                flush("error");
+            } catch (RuntimeException flushFailed) {
+                // Thrown out of the task, it would never be scheduled again
+                log.error("Could not flush the caches", flushFailed);
+            }
+        }
+    }
+
+    /**
+     * Finds where to start tailing: right before the changes recorded within the gap timeout, which may still be
+     * committing with lower IDs than changes that have committed, or after the last change if there are none.
+     */
+    private long startPosition() {
+        Long start = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MIN(CASE WHEN created_at >= NOW(6) - INTERVAL ? MICROSECOND THEN id END) - 1, " +
+                        "MAX(id), 0) FROM cache_change",
+                Long.class, TimeUnit.NANOSECONDS.toMicros(gapTimeout.toNanos()));
+        return start == null ? 0 : start;
+    }
+
+    private List<Change> query(String condition, Object... args) {
+        return jdbcTemplate.query(
+                "SELECT id, kind, entity_key, origin, TIMESTAMPDIFF(MICROSECOND, created_at, NOW(6)) " +
+                        "FROM cache_change WHERE " + condition,
+                (row, i) -> new Change(row.getLong(1), row.getString(2), row.getString(3), row.getString(4),
+                        row.getLong(5)),
+                args);
+    }
+
+    /**
+     * Applies a change of another replica. Changes of this replica have been applied to its caches already, but
+     * like the others are applied again once a lagging read replica has caught up with them.
+     */
+    private void applyIfOther(Change change) {
+        if (!origin.equals(change.origin())) {
+            apply(change);
+        }
+        if (!reapplyAfter.isZero()) {
+            reapply.add(new Reapply(change.kind(), change.key(), System.nanoTime() + reapplyAfter.toNanos()));
+        }
+    }
+
+    /**
+     * Applies the changes again and repeats the flush once the lag of the read replicas has passed.
+     */
+    private void applyDue(long now) {
+        if (flushAgain && now - flushAgainAt >= 0) {
+            flushAgain = false;
+            emptyCaches("reapply");
+        }
+        while (!reapply.isEmpty() && now - reapply.peekFirst().dueAt() >= 0) {
+            Reapply change = reapply.pollFirst();
+            invalidate(change.kind(), change.key());
+        }
+    }
+
+    private void apply(Change change) {
+        invalidate(change.kind(), change.key());
+        propagation.record(Math.max(change.ageMicros(), 0), TimeUnit.MICROSECONDS);
+        Counter.builder("cache.changes.applied")
+                .description("Changes of other replicas applied to the caches of this replica")
+                .tag("kind", change.kind())
+                .register(registry)
+                .increment();
+    }
+
+    private void invalidate(String kind, String key) {
+        List<Invalidator> registered = invalidators.get(kind);
+        if (registered != null) {
+            for (Invalidator invalidator : registered) {
+                invalidator.invalidate(key);
+            }
+        }
+    }
+
+    /**
+     * Gives up on the missing changes once the first of them has been missing for the gap timeout. They are found
+     * missing in ID order, so the first one has been missing longest.
+     */
+    private void expireMissing() {
+        if (!missing.isEmpty() && System.nanoTime() - missing.values().iterator().next() >= gapTimeout.toNanos()) {
+            log.warn("{} cache changes from {} on did not show up within {}, flushing all caches", missing.size(),
+                    missing.keySet().iterator().next(), gapTimeout);
+            giveUp();
+        }
+    }
+
+    /**
+     * Flushes all caches, as the changes that are still missing cannot be applied, and stops looking them up.
+     */
+    private void giveUp() {
+        flush("gap");
+        missing.clear();
+    }
+
+    private void purge() {
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(
+                        "DELETE FROM cache_change WHERE created_at < NOW(6) - INTERVAL ? SECOND LIMIT ?",
+                        retention.toSeconds(), PURGE_CHUNK_SIZE);
+            } while (deleted == PURGE_CHUNK_SIZE);
+        } catch (DataAccessException e) {
+            log.warn("Could not purge the cache changes", e);
+        }
+    }
+}
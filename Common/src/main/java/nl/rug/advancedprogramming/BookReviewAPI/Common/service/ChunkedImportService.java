@@ -0,0 +1,300 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportCheckpoint;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.repository.ImportCheckpointRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs bulk imports in chunks. Every chunk of rows is written in its own transaction together with the
+ * {@link ImportCheckpoint} of the import, so a failed import can be resumed from the last committed chunk
+ * by running it again with the same import ID and the same input.
+ * <p>
+ * Line-based inputs resume by skipping the committed bytes. CSV records can span lines in quoted fields, so they
+ * resume by reading and skipping the committed records, like JSON arrays, which can not be entered halfway, resume
+ * by parsing and skipping the committed rows without writing them.
+ * </p>
+ * Imports that run as jobs are tracked: their {@link ImportProgress} is updated as rows are read and committed, and
+ * cancelling it stops the import before its next chunk.
+ */
+@Service
+public class ChunkedImportService {
+    /** Response header in which import endpoints return the ID to resume an import with. */
+    public static final String IMPORT_ID_HEADER = "Import-Id";
+
+    private final ImportCheckpointRepository checkpoints;
+    private final TransactionTemplate transactionTemplate;
+    private final RowMetrics rowMetrics;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int chunkSize;
+    private final Map<String, ImportProgress> tracked = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for the ChunkedImportService.
+     *
+     * @param checkpoints        the repository for the import checkpoints
+     * @param transactionManager the transaction manager used to commit every chunk separately
+     * @param rowMetrics         counts the committed rows per import type
+     * @param chunkSize          the number of rows committed per transaction
+     */
+    public ChunkedImportService(ImportCheckpointRepository checkpoints, PlatformTransactionManager transactionManager,
+                                RowMetrics rowMetrics, @Value("${imports.chunk-size:1000}") int chunkSize) {
+        this.checkpoints = checkpoints;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rowMetrics = rowMetrics;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Retrieves the checkpoint of an import.
+     *
+     * @param importId the ID of the import
+     * @return an Optional containing the checkpoint if the import has committed anything, or empty if not
+     */
+    public Optional<ImportCheckpoint> getCheckpoint(String importId) {
+        return checkpoints.findById(importId);
+    }
+
+    /**
+     * Starts tracking the progress of an import, before it runs.
+     *
+     * @param importId the ID of the import
+     * @return the progress, updated while the import runs
+     */
+    public ImportProgress track(String importId) {
+        ImportProgress progress = new ImportProgress();
+        tracked.put(importId, progress);
+        return progress;
+    }
+
+    /**
+     * Stops tracking the progress of an import, after it has run.
+     *
+     * @param importId the ID of the import
+     */
+    public void untrack(String importId) {
+        tracked.remove(importId);
+    }
+
+    /**
+     * Retrieves the progress of a tracked import.
+     *
+     * @param importId the ID of the import
+     * @return an Optional containing the progress if the import is tracked, or empty if not
+     */
+    public Optional<ImportProgress> getProgress(String importId) {
+        return Optional.ofNullable(tracked.get(importId));
+    }
+
+    /**
+     * Imports a line-based input, such as CSV, in chunks.
+     *
+     * @param importId   the ID of the import, used to resume it
+     * @param importType what is being imported, e.g. "reviews-csv"
+     * @param in         the complete input; the part that has already been committed is skipped
+     * @param hasHeader  whether the first line is a header that has to be skipped
+     * @param parser     function turning one line into a row, or null to skip the line
+     * @param writer     function writing one chunk of rows to the database; called inside the chunk's transaction
+     * @param <T>        the row type
+     * @return the checkpoint of the finished import
+     * @throws IOException if reading the input fails
+     */
+    public <T> ImportCheckpoint importLines(String importId, String importType, InputStream in, boolean hasHeader,
+                                            Function<String, T> parser, Consumer<List<T>> writer) throws IOException {
+        ImportCheckpoint checkpoint = start(importId, importType);
+        ImportProgress progress = progress(importId, checkpoint);
+        if (checkpoint.isCompleted()) {
+            return checkpoint;
+        }
+
+        in.skipNBytes(checkpoint.getByteOffset());
+        CountingLineReader reader = new CountingLineReader(in, checkpoint.getByteOffset());
+        if (hasHeader && checkpoint.getByteOffset() == 0) {
+            reader.readLine();
+        }
+
+        List<T> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            T row = parser.apply(line);
+            if (row != null) {
+                chunk.add(row);
+                progress.parsed();
+            } else {
+                progress.rejected();
+            }
+            if (chunk.size() == chunkSize) {
+                checkpoint = commit(checkpoint, chunk, writer, reader.getOffset(), 0, false, progress);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        return commit(checkpoint, chunk, writer, reader.getOffset(), 0, true, progress);
+    }
+
+    /**
+     * Imports CSV in chunks, record by record, so quoted fields may contain line breaks.
+     *
+     * @param importId   the ID of the import, used to resume it
+     * @param importType what is being imported, e.g. "books-csv"
+     * @param in         the complete UTF-8 input; the records that have already been committed are skipped
+     * @param hasHeader  whether the first record is a header that has to be skipped
+     * @param parser     function turning the fields of one record into a row, or null to skip the record
+     * @param writer     function writing one chunk of rows to the database; called inside the chunk's transaction
+     * @param <T>        the row type
+     * @return the checkpoint of the finished import
+     * @throws IOException if reading the input fails or it is not valid CSV
+     */
+    public <T> ImportCheckpoint importCsvRecords(String importId, String importType, InputStream in,
+                                                 boolean hasHeader, Function<String[], T> parser,
+                                                 Consumer<List<T>> writer) throws IOException {
+        ImportCheckpoint checkpoint = start(importId, importType);
+        ImportProgress progress = progress(importId, checkpoint);
+        if (checkpoint.isCompleted()) {
+            return checkpoint;
+        }
+
+        try (CSVReader reader = new CSVReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            long toSkip = Math.max(checkpoint.getRecordOffset(), hasHeader ? 1 : 0);
+            long records = 0;
+            List<T> chunk = new ArrayList<>(chunkSize);
+            String[] record;
+            while ((record = readNext(reader)) != null) {
+                records++;
+                if (records <= toSkip || record.length == 1 && record[0].isBlank()) {
+                    continue;
+                }
+                T row = parser.apply(record);
+                if (row != null) {
+                    chunk.add(row);
+                    progress.parsed();
+                } else {
+                    progress.rejected();
+                }
+                if (chunk.size() == chunkSize) {
+                    checkpoint = commit(checkpoint, chunk, writer, 0, records, false, progress);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            return commit(checkpoint, chunk, writer, 0, records, true, progress);
+        }
+    }
+
+    /**
+     * Imports a JSON array of objects in chunks.
+     *
+     * @param importId   the ID of the import, used to resume it
+     * @param importType what is being imported, e.g. "reviews-json"
+     * @param in         the complete input; the rows that have already been committed are skipped
+     * @param type       the class the objects of the array are read as
+     * @param writer     function writing one chunk of rows to the database; called inside the chunk's transaction
+     * @param <T>        the row type
+     * @return the checkpoint of the finished import
+     * @throws IOException if reading the input fails or it is not a JSON array
+     */
+    public <T> ImportCheckpoint importJsonArray(String importId, String importType, InputStream in, Class<T> type,
+                                                Consumer<List<T>> writer) throws IOException {
+        ImportCheckpoint checkpoint = start(importId, importType);
+        ImportProgress progress = progress(importId, checkpoint);
+        if (checkpoint.isCompleted()) {
+            return checkpoint;
+        }
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array");
+            }
+
+            long toSkip = checkpoint.getRowCount();
+            List<T> chunk = new ArrayList<>(chunkSize);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (toSkip > 0) {
+                    parser.skipChildren();
+                    toSkip--;
+                    continue;
+                }
+                chunk.add(parser.readValueAs(type));
+                progress.parsed();
+                if (chunk.size() == chunkSize) {
+                    checkpoint = commit(checkpoint, chunk, writer, parser.currentLocation().getByteOffset(), 0,
+                            false, progress);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            return commit(checkpoint, chunk, writer, parser.currentLocation().getByteOffset(), 0, true, progress);
+        }
+    }
+
+    private static String[] readNext(CSVReader reader) throws IOException {
+        try {
+            return reader.readNext();
+        } catch (CsvValidationException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private ImportCheckpoint start(String importId, String importType) {
+        ImportCheckpoint checkpoint = checkpoints.findById(importId).orElseGet(() -> new ImportCheckpoint(importId, importType));
+        if (!Objects.equals(checkpoint.getImportType(), importType)) {
+            throw new IllegalArgumentException("Import " + importId + " was started as " + checkpoint.getImportType());
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Retrieves the progress of an import if it runs as a job, or a progress nobody reads if not.
+     */
+    private ImportProgress progress(String importId, ImportCheckpoint checkpoint) {
+        ImportProgress progress = tracked.getOrDefault(importId, new ImportProgress());
+        progress.resumedAt(checkpoint.getRowCount());
+        return progress;
+    }
+
+    private <T> ImportCheckpoint commit(ImportCheckpoint checkpoint, List<T> chunk, Consumer<List<T>> writer,
+                                        long byteOffset, long recordOffset, boolean completed,
+                                        ImportProgress progress) {
+        if (progress.isCancelled()) {
+            // The rows read since the last checkpoint are dropped, a resumed import reads them again
+            throw new CancellationException("Import " + checkpoint.getImportId() + " was cancelled");
+        }
+        ImportCheckpoint saved = transactionTemplate.execute(status -> {
+            if (!chunk.isEmpty()) {
+                writer.accept(chunk);
+            }
+            checkpoint.setByteOffset(byteOffset);
+            checkpoint.setRecordOffset(recordOffset);
+            checkpoint.setRowCount(checkpoint.getRowCount() + chunk.size());
+            checkpoint.setCompleted(completed);
+            checkpoint.setUpdatedAt(new Date());
+            return checkpoints.save(checkpoint);
+        });
+        rowMetrics.imported(saved.getImportType(), chunk.size());
+        progress.written(chunk.size());
+        return saved;
+    }
+}
@@ -0,0 +1,60 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads UTF-8 lines from a stream while keeping track of the exact number of bytes consumed,
+ * which a {@link java.io.BufferedReader} can not tell because it decodes ahead.
+ */
+class CountingLineReader {
+    private final InputStream in;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+    private long offset;
+
+    /**
+     * Constructor for a reader that starts at the given offset of the input.
+     *
+     * @param in     the stream to read from, already positioned at the offset.
+     * @param offset the number of bytes of the input that come before the stream's position.
+     */
+    CountingLineReader(InputStream in, long offset) {
+        this.in = new BufferedInputStream(in, 64 * 1024);
+        this.offset = offset;
+    }
+
+    /**
+     * Reads the next line without its line terminator ("\n" or "\r\n").
+     *
+     * @return the next line, or null at the end of the input.
+     * @throws IOException if reading fails.
+     */
+    String readLine() throws IOException {
+        line.reset();
+        int b;
+        boolean any = false;
+        while ((b = in.read()) != -1) {
+            offset++;
+            any = true;
+            if (b == '\n') {
+                break;
+            }
+            line.write(b);
+        }
+        if (!any) {
+            return null;
+        }
+        String text = line.toString(StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    /**
+     * @return the number of bytes of the input consumed so far, including the offset the reader started at.
+     */
+    long getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,484 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.service;
+
+import jakarta.annotation.PreDestroy;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportCheckpoint;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJob;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJobStatus;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.repository.ImportJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs bulk imports as background jobs, so the import request returns right away instead of running into client
+ * and proxy timeouts.
+ * <p>
+ * Submitting a job copies the request body to a file in {@code imports.jobs.directory} and stores the job. A fixed
+ * number of workers ({@code imports.jobs.workers}) run the jobs in submission order; at most
+ * {@code imports.jobs.queue-capacity} jobs wait for one, more are refused. The ID of a job is the ID of its import,
+ * so a job that is run again resumes after its last committed chunk.
+ * </p>
+ * <p>
+ * Several instances of the application can share the jobs, as long as they share the directory. The instance running
+ * a job owns it and reports it every {@code imports.jobs.heartbeat-interval-ms}, together with its progress. A running
+ * job whose owner has not reported it for {@code imports.jobs.lease}, e.g. because the owner was stopped, is queued
+ * again by whichever instance notices first, and so are jobs that have been queued for that long. An owner that finds
+ * its job cancelled or taken over stops it without finishing it.
+ * </p>
+ * The modules register an importer per type of import, e.g. "reviews-csv", which the workers run with the ID and
+ * the file of the job.
+ */
+@Service
+public class ImportJobService {
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+    /** Jobs that run at the same time without imports.jobs.workers, each holds a connection per chunk. */
+    public static final int DEFAULT_WORKERS = 2;
+
+    private final ImportJobRepository jobs;
+    private final ChunkedImportService importService;
+    private final Path directory;
+    private final int queueCapacity;
+    private final Duration lease;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, Importer> importers = new ConcurrentHashMap<>();
+    // Identifies the jobs this instance runs
+    private final String owner = UUID.randomUUID().toString();
+    // Jobs queued or running on this instance
+    private final Set<String> local = ConcurrentHashMap.newKeySet();
+    private final Map<String, ImportProgress> running = new ConcurrentHashMap<>();
+    // Running jobs this instance no longer owns, which stop without finishing
+    private final Set<String> lost = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    /**
+     * Imports the file of a job.
+     */
+    @FunctionalInterface
+    public interface Importer {
+        /**
+         * Imports a file. Imports that go through the {@link ChunkedImportService} with the given ID report their
+         * progress while they run and can be cancelled and resumed.
+         *
+         * @param importId the ID of the job and its import
+         * @param input    the file to import
+         * @return the number of rows written
+         * @throws IOException if the file cannot be read or is not in the expected format
+         */
+        long run(String importId, Path input) throws IOException;
+    }
+
+    /**
+     * Runs a chunked import from a stream, as the import methods of the services do.
+     */
+    @FunctionalInterface
+    public interface ChunkedImporter {
+        ImportCheckpoint run(String importId, InputStream data) throws IOException;
+    }
+
+    /**
+     * Adapts a chunked import from a stream to an importer of job files.
+     *
+     * @param importer the chunked import, e.g. {@code reviewService::importReviewsCSV}
+     * @return the importer reading the file of the job
+     */
+    public static Importer chunked(ChunkedImporter importer) {
+        return (importId, input) -> {
+            try (InputStream data = Files.newInputStream(input)) {
+                return importer.run(importId, data).getRowCount();
+            }
+        };
+    }
+
+    /**
+     * Constructor for the ImportJobService.
+     *
+     * @param jobs          the repository for the jobs
+     * @param importService the service running the chunked imports, which tracks their progress
+     * @param workers       the number of jobs that run at the same time
+     * @param queueCapacity the number of jobs that may wait for a worker
+     * @param directory     where the request bodies are kept until their job has finished, shared by all instances
+     * @param lease         how long a job may go without a heartbeat of its owner before another instance takes it
+     */
+    public ImportJobService(ImportJobRepository jobs, ChunkedImportService importService,
+                            @Value("${imports.jobs.workers:" + DEFAULT_WORKERS + "}") int workers,
+                            @Value("${imports.jobs.queue-capacity:100}") int queueCapacity,
+                            @Value("${imports.jobs.directory:${java.io.tmpdir}/bookreviewapi-import-jobs}")
+                            Path directory,
+                            @Value("${imports.jobs.lease:1m}") Duration lease) {
+        this.jobs = jobs;
+        this.importService = importService;
+        this.directory = directory;
+        this.queueCapacity = queueCapacity;
+        this.lease = lease;
+        AtomicInteger threads = new AtomicInteger();
+        // Unbounded, so resuming after a restart never refuses a job; submissions are bounded in enqueue
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "import-job-" + threads.incrementAndGet()));
+    }
+
+    /**
+     * Registers the importer for a type of import.
+     *
+     * @param type     what is imported, e.g. "reviews-csv"
+     * @param importer runs the import of a job of this type
+     */
+    public void register(String type, Importer importer) {
+        importers.put(type, importer);
+    }
+
+    /**
+     * Submits a job importing a request body. The body is copied to a file first, so the request can end.
+     *
+     * @param id   the ID of the job and its import; a failed or cancelled job resumes when submitted again
+     * @param type what is imported
+     * @param body the data to import
+     * @return the queued job
+     * @throws IOException                if the body cannot be read
+     * @throws UncheckedIOException       if the body cannot be written to the directory, e.g. because it is full
+     * @throws IllegalStateException      if a job with the same ID is still queued or running
+     * @throws RejectedExecutionException if too many jobs are waiting already
+     */
+    public ImportJob submit(String id, String type, InputStream body) throws IOException {
+        checkSubmittable(id, type);
+        // Not named after the job alone, a resubmitted job must not overwrite the file of the previous attempt
+        Path input = directory.resolve(id.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + UUID.randomUUID());
+        try {
+            spool(body, input);
+        } catch (IOException | UncheckedIOException e) {
+            deleteSpooled(input);
+            throw e;
+        }
+        try {
+            return enqueue(new ImportJob(id, type, input.toString(), true));
+        } catch (RuntimeException e) {
+            deleteSpooled(input);
+            throw e;
+        }
+    }
+
+    /**
+     * Submits a job importing a file that already exists on the server.
+     *
+     * @param id    the ID of the job and its import
+     * @param type  what is imported
+     * @param input the file to import, which is kept
+     * @return the queued job
+     * @throws IllegalStateException      if a job with the same ID is still queued or running
+     * @throws RejectedExecutionException if too many jobs are waiting already
+     */
+    public ImportJob submit(String id, String type, Path input) {
+        checkSubmittable(id, type);
+        return enqueue(new ImportJob(id, type, input.toString(), false));
+    }
+
+    /**
+     * Retrieves a job, with the live progress if it is running on this instance, or the progress of the last
+     * heartbeat if it runs on another.
+     *
+     * @param id the ID of the job
+     * @return an Optional containing the job if it exists, or empty if not
+     */
+    public Optional<ImportJob> getJob(String id) {
+        return jobs.findById(id).map(job -> {
+            importService.getProgress(id).ifPresent(progress -> copyProgress(job, progress));
+            return job;
+        });
+    }
+
+    /**
+     * Cancels a job. A queued job will not run; a running job stops before it commits its next chunk, the chunks
+     * it has committed stay. A job running on another instance stops with the next heartbeat of that instance.
+     *
+     * @param id the ID of the job
+     * @return an Optional containing the job if it exists, or empty if not; a job running on this instance is only
+     * cancelled once its worker has stopped it
+     */
+    public Optional<ImportJob> cancel(String id) {
+        ImportProgress progress = running.get(id);
+        if (jobs.cancelQueued(id, new Date()) > 0) {
+            jobs.findById(id).ifPresent(this::deleteInput);
+        } else if (progress != null) {
+            progress.cancel();
+        } else {
+            jobs.cancelRunning(id, new Date());
+        }
+        return getJob(id);
+    }
+
+    /**
+     * Queues the jobs that were queued when the application stopped, in their original order, and the running jobs
+     * whose owner has stopped reporting them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        int resumed = takeOver(true);
+        if (resumed > 0) {
+            log.info("Resuming {} import jobs", resumed);
+        }
+        ready = true;
+    }
+
+    /**
+     * Reports the jobs running on this instance, stops the ones it no longer owns, and takes over the jobs of
+     * instances that have stopped.
+     */
+    @Scheduled(fixedDelayString = "${imports.jobs.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        if (!ready) {
+            return;
+        }
+        Date now = new Date();
+        running.forEach((id, progress) -> {
+            if (jobs.heartbeat(id, owner, now, progress.getRowsParsed(), progress.getRowsRejected(),
+                    progress.getRowsWritten()) == 0) {
+                log.warn("Import job {} was cancelled or taken over by another instance, stopping it", id);
+                lost.add(id);
+                progress.cancel();
+            }
+        });
+        int taken = takeOver(false);
+        if (taken > 0) {
+            log.info("Took over {} import jobs of other instances", taken);
+        }
+    }
+
+    /**
+     * Queues the unfinished jobs no instance is working on: running jobs whose heartbeat is older than the lease,
+     * and queued jobs, either all of them or only those waiting longer than the lease.
+     *
+     * @return the number of jobs queued on this instance
+     */
+    private int takeOver(boolean allQueued) {
+        Date staleBefore = new Date(System.currentTimeMillis() - lease.toMillis());
+        int taken = 0;
+        for (ImportJob job : jobs.findByStatusInOrderByCreatedAt(
+                List.of(ImportJobStatus.QUEUED, ImportJobStatus.RUNNING))) {
+            String id = job.getId();
+            if (local.contains(id)) {
+                continue;
+            }
+            if (job.getStatus() == ImportJobStatus.RUNNING) {
+                if (jobs.reclaim(id, staleBefore) == 0) {
+                    // Its owner is still working on it
+                    continue;
+                }
+            } else if (!allQueued && job.getCreatedAt().after(staleBefore)) {
+                // Waiting in the queue of the instance it was submitted to
+                continue;
+            }
+            // Another instance may queue it as well, only one of them can start it
+            local.add(id);
+            workers.execute(() -> run(id));
+            taken++;
+        }
+        return taken;
+    }
+
+    /**
+     * Stops the workers. Running imports are interrupted and resume from their last chunk once another instance, or
+     * this one after a restart, takes them over.
+     */
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Copies a request body to its file. Only a body that cannot be read is the client's fault, a file that cannot
+     * be written is the server's.
+     */
+    private void spool(InputStream body, Path input) throws IOException {
+        OutputStream out;
+        try {
+            Files.createDirectories(directory);
+            out = Files.newOutputStream(input, StandardOpenOption.CREATE_NEW);
+        } catch (IOException e) {
+            throw spoolFailed(input, e);
+        }
+        try (out) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = body.read(buffer)) >= 0) {
+                try {
+                    out.write(buffer, 0, read);
+                } catch (IOException e) {
+                    throw spoolFailed(input, e);
+                }
+            }
+        }
+    }
+
+    private static UncheckedIOException spoolFailed(Path input, IOException e) {
+        log.error("Could not write the import job input {}", input, e);
+        return new UncheckedIOException(e);
+    }
+
+    private void checkSubmittable(String id, String type) {
+        if (!importers.containsKey(type)) {
+            throw new IllegalArgumentException("No importer for " + type);
+        }
+        jobs.findById(id).ifPresent(job -> {
+            if (!job.getStatus().isFinished()) {
+                throw new IllegalStateException("Import job " + id + " is still " + job.getStatus());
+            }
+        });
+    }
+
+    private ImportJob enqueue(ImportJob job) {
+        if (workers.getQueue().size() >= queueCapacity) {
+            throw new RejectedExecutionException(workers.getQueue().size() + " import jobs are waiting already");
+        }
+        ImportJob saved = jobs.save(job);
+        local.add(saved.getId());
+        workers.execute(() -> run(saved.getId()));
+        return saved;
+    }
+
+    private void run(String id) {
+        try {
+            runLocal(id);
+        } finally {
+            local.remove(id);
+        }
+    }
+
+    private void runLocal(String id) {
+        // The chunked import reports its progress here
+        ImportProgress progress = importService.track(id);
+        try {
+            if (jobs.start(id, owner, new Date()) == 0) {
+                // Cancelled while it was queued, or started by another instance
+                return;
+            }
+            // A cancellation before this cancels the job in the table, and the first heartbeat stops it
+            running.put(id, progress);
+            runStarted(jobs.findById(id).orElseThrow(), progress);
+        } finally {
+            running.remove(id);
+            importService.untrack(id);
+        }
+    }
+
+    private void runStarted(ImportJob job, ImportProgress progress) {
+        String id = job.getId();
+        try {
+            Importer importer = importers.get(job.getType());
+            if (importer == null) {
+                throw new IllegalStateException("No importer for " + job.getType());
+            }
+            long written = importer.run(id, Path.of(job.getInput()));
+            if (stopLost(id)) {
+                return;
+            }
+            copyProgress(job, progress);
+            if (written > job.getRowsWritten()) {
+                // Not a chunked import, it only reports its rows at the end
+                job.setRowsParsed(Math.max(job.getRowsParsed(), written));
+                job.setRowsWritten(written);
+            }
+            finish(job, ImportJobStatus.SUCCEEDED, null);
+        } catch (CancellationException e) {
+            if (!stopLost(id)) {
+                copyProgress(job, progress);
+                finish(job, ImportJobStatus.CANCELLED, null);
+            }
+        } catch (Exception e) {
+            if (workers.isShutdown()) {
+                // Stopped by a shutdown, the job stays running and is taken over once its heartbeat is stale
+                return;
+            }
+            if (stopLost(id)) {
+                return;
+            }
+            log.warn("Import job {} failed", id, e);
+            copyProgress(job, progress);
+            finish(job, ImportJobStatus.FAILED, String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Leaves a job this instance no longer owns as it is. Its input is only deleted if the job was cancelled, an
+     * instance that took it over still needs it.
+     *
+     * @return whether the job was lost
+     */
+    private boolean stopLost(String id) {
+        if (!lost.remove(id)) {
+            return false;
+        }
+        leave(id);
+        return true;
+    }
+
+    private void leave(String id) {
+        jobs.findById(id).filter(job -> job.getStatus().isFinished()).ifPresent(this::deleteInput);
+    }
+
+    /**
+     * Stores the outcome of a job, unless another instance has cancelled or taken it over since the last heartbeat.
+     */
+    private void finish(ImportJob job, ImportJobStatus status, String error) {
+        job.setStatus(status);
+        job.setError(error == null || error.length() <= 1024 ? error : error.substring(0, 1024));
+        job.setFinishedAt(new Date());
+        if (jobs.finish(job.getId(), owner, status, job.getError(), job.getFinishedAt(), job.getRowsParsed(),
+                job.getRowsRejected(), job.getRowsWritten()) == 0) {
+            log.warn("Import job {} was cancelled or taken over by another instance, leaving it", job.getId());
+            leave(job.getId());
+            return;
+        }
+        deleteInput(job);
+    }
+
+    private void deleteInput(ImportJob job) {
+        if (!job.isSpooled()) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Path.of(job.getInput()));
+        } catch (IOException e) {
+            log.warn("Could not delete the input {} of import job {}", job.getInput(), job.getId(), e);
+        }
+    }
+
+    private static void deleteSpooled(Path input) {
+        try {
+            Files.deleteIfExists(input);
+        } catch (IOException e) {
+            log.warn("Could not delete the input {} of a refused import job", input, e);
+        }
+    }
+
+    private static void copyProgress(ImportJob job, ImportProgress progress) {
+        job.setRowsParsed(progress.getRowsParsed());
+        job.setRowsRejected(progress.getRowsRejected());
+        job.setRowsWritten(progress.getRowsWritten());
+    }
+}
@@ -0,0 +1,55 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live progress of an import that runs as a job, updated by {@link ChunkedImportService} while it reads the input
+ * and read by {@link ImportJobService} to report it. Also carries the request to cancel the import, which is checked
+ * before every chunk is committed.
+ */
+public class ImportProgress {
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private volatile boolean cancelled;
+
+    void resumedAt(long committedRows) {
+        rowsParsed.set(committedRows);
+        rowsWritten.set(committedRows);
+    }
+
+    void parsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    void rejected() {
+        rowsRejected.incrementAndGet();
+    }
+
+    void written(long rows) {
+        rowsWritten.addAndGet(rows);
+    }
+
+    /**
+     * Asks the import to stop before it commits its next chunk.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+}
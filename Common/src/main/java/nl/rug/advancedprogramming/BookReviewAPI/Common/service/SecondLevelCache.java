@@ -0,0 +1,77 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Evicts entries from the Hibernate second-level cache that were changed outside this application instance, e.g.
+ * by another replica of the API. Hibernate keeps the cache up to date itself for the writes it makes, but does not
+ * know about the writes of other instances.
+ */
+@Component
+public class SecondLevelCache {
+    private final SessionFactoryImplementor sessionFactory;
+
+    /**
+     * Constructor for SecondLevelCache.
+     *
+     * @param entityManagerFactory the factory whose second-level cache is evicted
+     */
+    public SecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    /**
+     * Evicts an entity and the collections it owns, e.g. the song list of an album, and stops the cached query
+     * results on its tables from being used, the way a write through Hibernate does.
+     *
+     * @param entity the type of the entity
+     * @param id     the ID of the entity, or null to evict every entity of the type
+     */
+    public void evict(Class<?> entity, Object id) {
+        CacheImplementor cache = sessionFactory.getCache();
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entity);
+        if (id != null) {
+            cache.evictEntityData(entity, id);
+        } else {
+            cache.evictEntityData(entity);
+        }
+        sessionFactory.getMappingMetamodel().forEachCollectionDescriptor(collection -> {
+            if (isOwnedBy(collection, persister)) {
+                if (id != null) {
+                    cache.evictCollectionData(collection.getRole(), id);
+                } else {
+                    cache.evictCollectionData(collection.getRole());
+                }
+            }
+        });
+
+        TimestampsCache timestamps = cache.getTimestampsCache();
+        if (timestamps != null) {
+            Serializable[] spaces = persister.getQuerySpaces();
+            try (SessionImplementor session = (SessionImplementor) sessionFactory.openSession()) {
+                timestamps.invalidate(Arrays.stream(spaces).map(String::valueOf).toArray(String[]::new), session);
+            }
+        }
+    }
+
+    /**
+     * Empties every region: entities, collections and query results.
+     */
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    private static boolean isOwnedBy(CollectionPersister collection, EntityPersister owner) {
+        return collection.hasCache() && collection.getOwnerEntityPersister() == owner;
+    }
+}
@@ -0,0 +1,150 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Common.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses identical reads that run at the same time into one. The first caller for a key runs the read, callers
+ * asking for the same key while it runs wait for it and get its result. Nothing is kept after the read is done: the
+ * next caller runs the read again, so a result is never older than the read the caller waited for.
+ * <p>
+ * Writes call {@link #forget(String, Object)} or {@link #forgetAll(String)} for the reads they change. Callers that
+ * arrive after the write has committed then start a new read instead of joining one that may have missed the write.
+ * </p>
+ * <p>
+ * The read runs in its own read-only transaction, which can be served by a read replica. Waiting callers hold no
+ * transaction and no connection. Callers that are already inside a transaction do not take part, as they may have to
+ * see their own uncommitted changes. Every caller gets the same result object, so results must not be modified.
+ * </p>
+ * Counted in {@code singleflight.calls}, tagged with the group and whether the caller ran the read ("executed"),
+ * waited for another caller's read ("joined") or ran it outside the single flight because of its transaction
+ * ("bypassed"). The collapse ratio is joined / (executed + joined).
+ */
+@Component
+public class SingleFlight {
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry registry;
+
+    private record Key(String group, Object key) {
+    }
+
+    /**
+     * Constructor for SingleFlight.
+     *
+     * @param transactionManager the transaction manager the reads run with
+     * @param registry           the registry the call counters are registered in
+     */
+    public SingleFlight(PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.registry = registry;
+    }
+
+    /**
+     * Runs a read, or waits for the same read that is already running.
+     *
+     * @param group the kind of read, e.g. "book-rating", used in the metrics
+     * @param key   what is read, e.g. the ID of the book; has to implement equals and hashCode
+     * @param read  the read
+     * @param <T>   the type of the result
+     * @return the result of the read, shared with the other callers of the same read
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(String group, Object key, Supplier<T> read) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            count(group, "bypassed");
+            return read.get();
+        }
+
+        Key flightKey = new Key(group, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, flight);
+        if (running != null) {
+            count(group, "joined");
+            return (T) await(running);
+        }
+
+        count(group, "executed");
+        T result;
+        try {
+            result = readOnlyTransaction.execute(status -> read.get());
+        } catch (Throwable e) {
+            inFlight.remove(flightKey, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // Removed before the waiters are released, so a caller arriving from now on starts a new read
+        inFlight.remove(flightKey, flight);
+        flight.complete(result);
+        return result;
+    }
+
+    /**
+     * Makes callers start a new read of a key instead of joining the one that is running. Inside a transaction this
+     * happens when the transaction ends, as the running read cannot miss changes that are not committed yet.
+     *
+     * @param group the kind of read
+     * @param key   what was changed
+     */
+    public void forget(String group, Object key) {
+        afterTransaction(() -> inFlight.remove(new Key(group, key)));
+    }
+
+    /**
+     * Makes callers start new reads for every key of a group, for writes that can change any of them, e.g. a search.
+     *
+     * @param group the kind of read
+     */
+    public void forgetAll(String group) {
+        afterTransaction(() -> inFlight.keySet().removeIf(key -> key.group().equals(group)));
+    }
+
+    private static void afterTransaction(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // Fail the same way as the caller that ran the read
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void count(String group, String outcome) {
+        // The registry returns the existing counter for the same name and tags
+        Counter.builder("singleflight.calls")
+                .description("Reads by whether the caller ran them, joined a running one or bypassed the single flight")
+                .tag("group", group)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,159 @@
+package nl.rug.advancedprogramming.BookReviewAPI.DataGenerator;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Generates the rows of a {@link CatalogSpec}, one partition at a time.
+ * <p>
+ * Reviews are spread over their books, songs or albums by a Zipf distribution, so a few targets have most of the
+ * reviews and most targets have only a handful, as in real catalogs. Artists and authors are skewed the same way.
+ * Album track counts are skewed as well: mostly regular albums of 8 to 16 tracks, some singles and EPs, and a few
+ * compilations of up to a few hundred tracks.
+ * </p>
+ */
+public class CatalogGenerator {
+    private static final int PUBLISHERS = 250;
+    private static final int LABELS = 400;
+    private static final int REVIEW_DAYS = 3 * 365;
+    private static final LocalDate FIRST_RELEASE = LocalDate.of(1960, 1, 1);
+    private static final String[] PUBLISHER_SUFFIXES = {" Press", " Books", " Publishing", " House"};
+
+    private final CatalogSpec spec;
+    private final ZipfSampler authors;
+    private final ZipfSampler artists;
+    private final ZipfSampler popularSongs;
+    private final ZipfSampler[] reviewTargets = new ZipfSampler[Entity.values().length];
+
+    /**
+     * Constructor for the CatalogGenerator.
+     *
+     * @param spec what to generate
+     * @throws IllegalArgumentException if reviews are asked for without anything to review
+     */
+    public CatalogGenerator(CatalogSpec spec) {
+        this.spec = spec;
+        this.authors = new ZipfSampler(poolSize(spec.count(Entity.BOOKS), 8), 0.8);
+        this.artists = new ZipfSampler(poolSize(spec.count(Entity.SONGS), 12), 0.8);
+        this.popularSongs = new ZipfSampler(poolSize(spec.count(Entity.SONGS), 1), spec.zipfExponent());
+        reviewTargets[Entity.REVIEWS.ordinal()] = targets(Entity.REVIEWS, Entity.BOOKS);
+        reviewTargets[Entity.SONG_REVIEWS.ordinal()] = targets(Entity.SONG_REVIEWS, Entity.SONGS);
+        reviewTargets[Entity.ALBUM_REVIEWS.ordinal()] = targets(Entity.ALBUM_REVIEWS, Entity.ALBUMS);
+    }
+
+    /**
+     * Generates one partition of an entity.
+     *
+     * @param entity    the entity
+     * @param partition the partition, from 0 to {@link CatalogSpec#partitions(Entity)}
+     * @param out       receives the rows in ID order
+     */
+    public void generate(Entity entity, int partition, RowWriter out) {
+        SplittableRandom random = new SplittableRandom(spec.seed()
+                ^ (entity.ordinal() + 1) * 0x9E3779B97F4A7C15L
+                ^ (partition + 1) * 0xBF58476D1CE4E5B9L);
+        long first = (long) partition * spec.partitionSize() + 1;
+        long last = Math.min(spec.count(entity), first + spec.partitionSize() - 1);
+        for (long id = first; id <= last; id++) {
+            out.write(switch (entity) {
+                case BOOKS -> book((int) id, random);
+                case SONGS -> song((int) id, random);
+                case ALBUMS -> album((int) id, random);
+                case REVIEWS, SONG_REVIEWS, ALBUM_REVIEWS -> review(entity, (int) id, random);
+            });
+        }
+    }
+
+    private Row.Book book(int number, SplittableRandom random) {
+        double price = Math.round(Math.exp(2.6 + 0.5 * random.nextGaussian()) * 100) / 100.0;
+        return new Row.Book(number, isbn(number), Text.title(random), Text.person(authors.next(random)),
+                publisher(1 + random.nextInt(PUBLISHERS)), Text.bookGenre(random), Math.max(0.99, price));
+    }
+
+    private Row.Song song(int id, SplittableRandom random) {
+        // Around three and a half minutes, with the occasional long track
+        int length = (int) Math.round(210 + 60 * random.nextGaussian());
+        if (random.nextInt(50) == 0) {
+            length += 300 + random.nextInt(1200);
+        }
+        return new Row.Song(id, Text.title(random), Text.person(artists.next(random)),
+                "Label " + (1 + random.nextInt(LABELS)), Text.genre(random), Math.max(30, length));
+    }
+
+    private Row.Album album(int id, SplittableRandom random) {
+        long songs = spec.count(Entity.SONGS);
+        int kind = random.nextInt(100);
+        int tracks;
+        if (kind < 15) {
+            tracks = 1 + random.nextInt(5);
+        } else if (kind < 95) {
+            tracks = 8 + random.nextInt(9);
+        } else {
+            // Compilations, Pareto tail
+            tracks = (int) Math.min(400, 20 / Math.pow(1 - random.nextDouble(), 1 / 1.5));
+        }
+
+        int[] songIds = new int[songs == 0 ? 0 : tracks];
+        if (kind < 95) {
+            // An artist's album: a run of neighbouring songs
+            long start = random.nextLong(songs == 0 ? 1 : songs);
+            for (int t = 0; t < songIds.length; t++) {
+                songIds[t] = (int) ((start + t) % songs) + 1;
+            }
+        } else {
+            // A compilation: mostly popular songs
+            for (int t = 0; t < songIds.length; t++) {
+                songIds[t] = popularSongs.next(random);
+            }
+        }
+
+        int releaseDays = (int) (spec.until().toEpochDay() - FIRST_RELEASE.toEpochDay());
+        // Skewed towards recent releases
+        LocalDate releaseDate = spec.until().minusDays((long) (releaseDays * Math.pow(random.nextDouble(), 2)));
+        return new Row.Album(id, Text.title(random), Text.person(artists.next(random)), Text.genre(random),
+                releaseDate, songIds);
+    }
+
+    private Row.Review review(Entity entity, int id, SplittableRandom random) {
+        int target = reviewTargets[entity.ordinal()].next(random);
+        // Every target has its own quality the ratings scatter around
+        double quality = 2.0 + 2.6 * new SplittableRandom(target * 0x94D049BB133111EBL).nextDouble();
+        float rating = (float) (Math.round(Math.max(1, Math.min(5, quality + 0.9 * random.nextGaussian())) * 2) / 2.0);
+        // Most reviews are recent
+        long daysBack = Math.min(REVIEW_DAYS, (long) (-Math.log(1 - random.nextDouble()) * 180));
+        return new Row.Review(entity, id, target, rating, Text.comment(random), spec.until().minusDays(daysBack));
+    }
+
+    private ZipfSampler targets(Entity reviews, Entity reviewed) {
+        if (spec.count(reviews) == 0) {
+            return null;
+        }
+        if (spec.count(reviewed) == 0) {
+            throw new IllegalArgumentException("Can not generate " + reviews.getFileName() + " without "
+                    + reviewed.getFileName());
+        }
+        return new ZipfSampler((int) spec.count(reviewed), spec.zipfExponent());
+    }
+
+    private static int poolSize(long rows, int rowsPerName) {
+        return (int) Math.max(1, rows / rowsPerName);
+    }
+
+    private static String publisher(int number) {
+        String word = Text.word(number);
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1)
+                + PUBLISHER_SUFFIXES[number % PUBLISHER_SUFFIXES.length];
+    }
+
+    /**
+     * A valid ISBN-13 in the 978 range, unique per book number.
+     */
+    static String isbn(int number) {
+        String digits = "978" + String.format("%09d", number);
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+}
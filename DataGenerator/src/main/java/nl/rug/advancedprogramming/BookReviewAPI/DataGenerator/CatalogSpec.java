@@ -0,0 +1,56 @@
+package nl.rug.advancedprogramming.BookReviewAPI.DataGenerator;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What to generate. Together with the seed this fully determines the data: the same spec always produces the same
+ * rows, whatever the output format or the number of threads.
+ *
+ * @param seed          seed of all random choices
+ * @param counts        number of rows per entity
+ * @param zipfExponent  skew of the reviews over their targets; 0 is uniform, around 1 a few targets get most reviews
+ * @param until         the latest review date, reviews go back about three years from here
+ * @param partitionSize rows per partition; every partition has its own random stream, so partitions can be
+ *                      generated in parallel
+ */
+public record CatalogSpec(long seed, Map<Entity, Long> counts, double zipfExponent, LocalDate until,
+                          int partitionSize) {
+
+    public CatalogSpec {
+        counts = new EnumMap<>(counts);
+        for (Entity entity : Entity.values()) {
+            counts.putIfAbsent(entity, 0L);
+            if (counts.get(entity) < 0 || counts.get(entity) > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The number of " + entity.getFileName() + " must fit the INT IDs");
+            }
+        }
+        if (zipfExponent < 0) {
+            throw new IllegalArgumentException("The Zipf exponent can not be negative");
+        }
+        if (partitionSize <= 0) {
+            throw new IllegalArgumentException("The partition size must be positive");
+        }
+    }
+
+    /**
+     * Retrieves how many rows of an entity to generate.
+     *
+     * @param entity the entity
+     * @return the number of rows
+     */
+    public long count(Entity entity) {
+        return counts.get(entity);
+    }
+
+    /**
+     * Retrieves in how many partitions an entity is generated.
+     *
+     * @param entity the entity
+     * @return the number of partitions, the last one may be smaller than the partition size
+     */
+    public int partitions(Entity entity) {
+        return (int) ((count(entity) + partitionSize - 1) / partitionSize);
+    }
+}
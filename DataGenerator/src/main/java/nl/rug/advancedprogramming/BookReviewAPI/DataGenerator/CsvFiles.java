@@ -0,0 +1,86 @@
+package nl.rug.advancedprogramming.BookReviewAPI.DataGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Writes every entity to its own CSV file in the format of its import endpoint, e.g. reviews.csv for
+ * POST /reviews/import/csv. The album CSV import has no tracks, so the albums lose their songs in this format;
+ * use JSON to keep them.
+ */
+public class CsvFiles implements RowWriter, Closeable {
+    private static final Map<Entity, String> HEADERS = Map.of(
+            Entity.BOOKS, "title,author,isbn,publisher,genre,price",
+            Entity.SONGS, "id,title,artist,label,genre,length",
+            Entity.ALBUMS, "title,artist,genre,releaseDate",
+            Entity.REVIEWS, "bookId,rating,comment,reviewDate",
+            Entity.SONG_REVIEWS, "songId,rating,comment,reviewDate",
+            Entity.ALBUM_REVIEWS, "albumId,rating,comment,reviewDate");
+
+    private final Path directory;
+    private final Map<Entity, Writer> files = new EnumMap<>(Entity.class);
+
+    /**
+     * Constructor for the CsvFiles.
+     *
+     * @param directory the directory the files are written to, existing files are overwritten
+     */
+    public CsvFiles(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void write(Row row) {
+        try {
+            switch (row) {
+                case Row.Book book -> file(Entity.BOOKS)
+                        .append(quote(book.title())).append(',').append(quote(book.author())).append(',')
+                        .append(book.isbn()).append(',').append(quote(book.publisher())).append(',')
+                        .append(quote(book.genre())).append(',').append(String.valueOf(book.price())).append('\n');
+                case Row.Song song -> file(Entity.SONGS)
+                        .append(String.valueOf(song.id())).append(',').append(quote(song.title())).append(',')
+                        .append(quote(song.artist())).append(',').append(quote(song.label())).append(',')
+                        .append(quote(song.genre())).append(',').append(String.valueOf(song.length())).append('\n');
+                case Row.Album album -> file(Entity.ALBUMS)
+                        .append(quote(album.title())).append(',').append(quote(album.artist())).append(',')
+                        .append(quote(album.genre())).append(',').append(album.releaseDate().toString()).append('\n');
+                case Row.Review review -> file(review.entity())
+                        .append(String.valueOf(review.targetId())).append(',')
+                        .append(String.valueOf(review.rating())).append(',')
+                        .append(quote(review.comment())).append(',')
+                        .append(review.date().toString()).append('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Writer file : files.values()) {
+            file.close();
+        }
+        files.clear();
+    }
+
+    private Writer file(Entity entity) throws IOException {
+        Writer file = files.get(entity);
+        if (file == null) {
+            file = Files.newBufferedWriter(directory.resolve(entity.getFileName() + ".csv"), StandardCharsets.UTF_8);
+            file.append(HEADERS.get(entity)).append('\n');
+            files.put(entity, file);
+        }
+        return file;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
@@ -0,0 +1,270 @@
+package nl.rug.advancedprogramming.BookReviewAPI.DataGenerator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes a generated catalog straight into the schema, bypassing the API and JPA.
+ * <p>
+ * The partitions are loaded in parallel, each over its own connection in its own transaction, with batched
+ * inserts and the unique and foreign key checks of the session turned off. The IDs are inserted explicitly, so
+ * the result does not depend on the order the partitions finish in. Afterwards the derived data the application
+ * keeps up to date on every write, the album track statistics and the review rollups, is computed in bulk with
+ * the same statements as the migrations that introduced them.
+ * </p>
+ * The tables must exist, start the application once to let Flyway create them, and must be empty.
+ */
+public class DatabaseLoader {
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] TABLES = {
+            "book", "song", "album", "album_song_ids", "review", "song_review", "album_review", "review_rollup"
+    };
+
+    // V5__album_stats.sql
+    private static final String ALBUM_STATS = """
+            UPDATE album a
+                JOIN (SELECT s.album_id,
+                             COUNT(*)         AS track_count,
+                             COALESCE(SUM(song.length), 0) AS total_duration,
+                             MAX(song.length) AS longest_track,
+                             MIN(song.length) AS shortest_track
+                      FROM album_song_ids s
+                               LEFT JOIN song ON song.id = s.song_ids
+                      GROUP BY s.album_id) stats ON stats.album_id = a.id
+            SET a.track_count    = stats.track_count,
+                a.total_duration = stats.total_duration,
+                a.longest_track  = stats.longest_track,
+                a.shortest_track = stats.shortest_track""";
+
+    // V3__review_rollup.sql, per target type and granularity
+    private static final String ROLLUP = """
+            INSERT INTO review_rollup (target_type, target_id, granularity, bucket_start, review_count, rating_sum)
+            SELECT '%1$s', %3$s, '%4$s', %5$s, COUNT(*), SUM(rating)
+            FROM %2$s WHERE date IS NOT NULL
+            GROUP BY %3$s, %5$s""";
+    private static final String[][] ROLLUP_TARGETS = {
+            {"BOOK", "review", "book_id"},
+            {"ALBUM", "album_review", "album_id"},
+            {"SONG", "song_review", "song_id"},
+    };
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    /**
+     * Constructor for the DatabaseLoader.
+     *
+     * @param url      the JDBC URL of the database
+     * @param user     the database user
+     * @param password the password of the user
+     */
+    public DatabaseLoader(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    /**
+     * Creates a loader for the database the application uses, from the DB_HOST, DB_PORT, DB_DATABASE, DB_USER and
+     * DB_PASSWORD environment variables.
+     *
+     * @return the loader
+     */
+    public static DatabaseLoader fromEnvironment() {
+        String url = "jdbc:mariadb://" + System.getenv("DB_HOST") + ":" + System.getenv("DB_PORT") + "/"
+                + System.getenv("DB_DATABASE") + "?useBulkStmts=true";
+        return new DatabaseLoader(url, System.getenv("DB_USER"), System.getenv("DB_PASSWORD"));
+    }
+
+    /**
+     * Generates the catalog into the database.
+     *
+     * @param generator the generator
+     * @param spec      what the generator generates
+     * @param threads   how many partitions to load at the same time
+     * @throws SQLException         if the tables are missing or not empty, or loading fails
+     * @throws InterruptedException if interrupted while waiting for the partitions
+     */
+    public void load(CatalogGenerator generator, CatalogSpec spec, int threads)
+            throws SQLException, InterruptedException {
+        checkEmpty();
+
+        AtomicLong rows = new AtomicLong();
+        long total = 0;
+        List<Future<?>> partitions = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Entity entity : Entity.values()) {
+                total += spec.count(entity);
+                for (int partition = 0; partition < spec.partitions(entity); partition++) {
+                    int number = partition;
+                    partitions.add(executor.submit(() -> {
+                        try (Connection connection = connect();
+                             PartitionWriter writer = new PartitionWriter(connection, entity)) {
+                            generator.generate(entity, number, writer);
+                            writer.finish();
+                            rows.addAndGet(writer.rows);
+                        }
+                        return null;
+                    }));
+                }
+            }
+            executor.shutdown();
+            long start = System.nanoTime();
+            while (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%,d of %,d rows, %,.0f rows/s%n", rows.get(), total, rows.get() / seconds);
+            }
+            for (Future<?> partition : partitions) {
+                partition.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof SQLException sql ? sql : new SQLException("Loading a partition failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.println("Computing album statistics and review rollups");
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate(ALBUM_STATS);
+            for (String[] target : ROLLUP_TARGETS) {
+                statement.executeUpdate(ROLLUP.formatted(target[0], target[1], target[2], "HOUR",
+                        "DATE_FORMAT(date, '%Y-%m-%d %H:00:00')"));
+                statement.executeUpdate(ROLLUP.formatted(target[0], target[1], target[2], "DAY", "DATE(date)"));
+            }
+        }
+    }
+
+    private void checkEmpty() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                try (ResultSet rows = statement.executeQuery("SELECT 1 FROM " + table + " LIMIT 1")) {
+                    if (rows.next()) {
+                        throw new SQLException("Table " + table + " is not empty, generate into an empty database");
+                    }
+                }
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    /**
+     * Inserts the rows of one partition in batches and commits them at the end.
+     */
+    private static class PartitionWriter implements RowWriter, AutoCloseable {
+        private final Connection connection;
+        private final PreparedStatement insert;
+        private final PreparedStatement tracks;
+        private int pending;
+        private long rows;
+
+        private PartitionWriter(Connection connection, Entity entity) throws SQLException {
+            this.connection = connection;
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET unique_checks = 0, foreign_key_checks = 0");
+            }
+            insert = connection.prepareStatement(switch (entity) {
+                case BOOKS -> "INSERT INTO book (isbn, title, author, publisher, genre, price) VALUES (?, ?, ?, ?, ?, ?)";
+                case SONGS -> "INSERT INTO song (id, title, artist, label, genre, length) VALUES (?, ?, ?, ?, ?, ?)";
+                case ALBUMS -> "INSERT INTO album (id, title, artist, genre, release_date) VALUES (?, ?, ?, ?, ?)";
+                case REVIEWS -> "INSERT INTO review (review_id, book_id, rating, comment, date) VALUES (?, ?, ?, ?, ?)";
+                case SONG_REVIEWS -> "INSERT INTO song_review (review_id, song_id, rating, comment, date) VALUES (?, ?, ?, ?, ?)";
+                case ALBUM_REVIEWS -> "INSERT INTO album_review (review_id, album_id, rating, comment, date) VALUES (?, ?, ?, ?, ?)";
+            });
+            tracks = entity == Entity.ALBUMS
+                    ? connection.prepareStatement("INSERT INTO album_song_ids (album_id, song_ids) VALUES (?, ?)")
+                    : null;
+        }
+
+        @Override
+        public void write(Row row) {
+            try {
+                switch (row) {
+                    case Row.Book book -> {
+                        insert.setString(1, book.isbn());
+                        insert.setString(2, book.title());
+                        insert.setString(3, book.author());
+                        insert.setString(4, book.publisher());
+                        insert.setString(5, book.genre());
+                        insert.setDouble(6, book.price());
+                    }
+                    case Row.Song song -> {
+                        insert.setInt(1, song.id());
+                        insert.setString(2, song.title());
+                        insert.setString(3, song.artist());
+                        insert.setString(4, song.label());
+                        insert.setString(5, song.genre());
+                        insert.setInt(6, song.length());
+                    }
+                    case Row.Album album -> {
+                        insert.setInt(1, album.id());
+                        insert.setString(2, album.title());
+                        insert.setString(3, album.artist());
+                        insert.setString(4, album.genre());
+                        insert.setDate(5, java.sql.Date.valueOf(album.releaseDate()));
+                        for (int songId : album.songIds()) {
+                            tracks.setInt(1, album.id());
+                            tracks.setInt(2, songId);
+                            tracks.addBatch();
+                        }
+                    }
+                    case Row.Review review -> {
+                        insert.setInt(1, review.id());
+                        insert.setInt(2, review.targetId());
+                        insert.setFloat(3, review.rating());
+                        insert.setString(4, review.comment());
+                        insert.setDate(5, java.sql.Date.valueOf(review.date()));
+                    }
+                }
+                insert.addBatch();
+                rows++;
+                if (++pending == BATCH_SIZE) {
+                    flush();
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Inserting " + row + " failed", e);
+            }
+        }
+
+        private void flush() throws SQLException {
+            insert.executeBatch();
+            if (tracks != null) {
+                tracks.executeBatch();
+            }
+            pending = 0;
+        }
+
+        /**
+         * Inserts the remaining rows and commits the partition.
+         */
+        private void finish() throws SQLException {
+            flush();
+            connection.commit();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            insert.close();
+            if (tracks != null) {
+                tracks.close();
+            }
+        }
+    }
+}
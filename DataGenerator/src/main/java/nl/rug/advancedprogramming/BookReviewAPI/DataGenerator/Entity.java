@@ -0,0 +1,28 @@
+package nl.rug.advancedprogramming.BookReviewAPI.DataGenerator;
+
+/**
+ * The kinds of rows the generator produces, in the order they are written.
+ */
+public enum Entity {
+    BOOKS("books"),
+    SONGS("songs"),
+    ALBUMS("albums"),
+    REVIEWS("reviews"),
+    SONG_REVIEWS("song-reviews"),
+    ALBUM_REVIEWS("album-reviews");
+
+    private final String fileName;
+
+    Entity(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Retrieves the name of the files this entity is written to, without extension.
+     *
+     * @return the file name, e.g. "song-reviews"
+     */
+    public String getFileName() {
+        return fileName;
+    }
+}
@@ -0,0 +1,98 @@
+package nl.rug.advancedprogramming.BookReviewAPI.DataGenerator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Generates a deterministic catalog of books, songs, albums and reviews for performance testing, either as import
+ * files or straight into the database.
+ * <pre>
+ * java -jar DataGenerator/target/DataGenerator-0.0.1-SNAPSHOT.jar --books=10000000 --reviews=50000000 --format=db
+ * </pre>
+ * Options:
+ * <ul>
+ *     <li>--seed: seed of the data (default 42)</li>
+ *     <li>--books, --songs, --albums: number of books, songs and albums (default 0)</li>
+ *     <li>--reviews, --song-reviews, --album-reviews: number of reviews of each kind (default 0)</li>
+ *     <li>--zipf: skew of the reviews over the reviewed items, 0 for uniform (default 1.0)</li>
+ *     <li>--until: date of the newest reviews, yyyy-MM-dd (default 2025-01-01)</li>
+ *     <li>--format: csv or json for import files, db to write into the database in the DB_* environment
+ *     variables (default csv)</li>
+ *     <li>--out: directory of the import files (default generated)</li>
+ *     <li>--threads: partitions loaded into the database at the same time (default the number of processors)</li>
+ *     <li>--partition-size: rows per partition (default 100000); part of the seed, the same spec with another
+ *     partition size generates other data</li>
+ * </ul>
+ */
+public class GenerateCatalog {
+
+    public static void main(String[] args) throws Exception {
+        long seed = 42;
+        Map<Entity, Long> counts = new EnumMap<>(Entity.class);
+        double zipf = 1.0;
+        LocalDate until = LocalDate.of(2025, 1, 1);
+        String format = "csv";
+        Path out = Path.of("generated");
+        int threads = Runtime.getRuntime().availableProcessors();
+        int partitionSize = 100_000;
+
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --option=value but got " + arg);
+            }
+            String value = arg.substring(equals + 1);
+            switch (arg.substring(0, equals)) {
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--books" -> counts.put(Entity.BOOKS, Long.parseLong(value));
+                case "--songs" -> counts.put(Entity.SONGS, Long.parseLong(value));
+                case "--albums" -> counts.put(Entity.ALBUMS, Long.parseLong(value));
+                case "--reviews" -> counts.put(Entity.REVIEWS, Long.parseLong(value));
+                case "--song-reviews" -> counts.put(Entity.SONG_REVIEWS, Long.parseLong(value));
+                case "--album-reviews" -> counts.put(Entity.ALBUM_REVIEWS, Long.parseLong(value));
+                case "--zipf" -> zipf = Double.parseDouble(value);
+                case "--until" -> until = LocalDate.parse(value);
+                case "--format" -> format = value;
+                case "--out" -> out = Path.of(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--partition-size" -> partitionSize = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+
+        CatalogSpec spec = new CatalogSpec(seed, counts, zipf, until, partitionSize);
+        CatalogGenerator generator = new CatalogGenerator(spec);
+        long start = System.nanoTime();
+        switch (format) {
+            case "csv" -> {
+                Files.createDirectories(out);
+                try (CsvFiles files = new CsvFiles(out)) {
+                    generateAll(generator, spec, files);
+                }
+            }
+            case "json" -> {
+                Files.createDirectories(out);
+                try (JsonFiles files = new JsonFiles(out)) {
+                    generateAll(generator, spec, files);
+                }
+            }
+            case "db" -> DatabaseLoader.fromEnvironment().load(generator, spec, threads);
+            default -> throw new IllegalArgumentException("--format is csv, json or db");
+        }
+        System.out.printf("Generated %s in %.1f s%n", spec.counts(), (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Generates all partitions in order into one writer.
+     */
+    private static void generateAll(CatalogGenerator generator, CatalogSpec spec, RowWriter out) {
+        for (Entity entity : Entity.values()) {
+            for (int partition = 0; partition < spec.partitions(entity); partition++) {
+                generator.generate(entity, partition, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package nl.rug.advancedprogramming.BookReviewAPI.DataGenerator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Writes every entity to its own file holding one JSON array, in the format of its import endpoint, e.g.
+ * albums.json for POST /albums/import/json. The rows are streamed, so the files can be far larger than the heap.
+ */
+public class JsonFiles implements RowWriter, Closeable {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final Path directory;
+    private final Map<Entity, JsonGenerator> files = new EnumMap<>(Entity.class);
+
+    /**
+     * Constructor for the JsonFiles.
+     *
+     * @param directory the directory the files are written to, existing files are overwritten
+     */
+    public JsonFiles(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void write(Row row) {
+        try {
+            switch (row) {
+                case Row.Book book -> {
+                    JsonGenerator json = file(Entity.BOOKS);
+                    json.writeStartObject();
+                    json.writeStringField("title", book.title());
+                    json.writeStringField("author", book.author());
+                    json.writeStringField("publisher", book.publisher());
+                    json.writeStringField("isbn", book.isbn());
+                    json.writeStringField("genre", book.genre());
+                    json.writeNumberField("price", book.price());
+                    json.writeEndObject();
+                }
+                case Row.Song song -> {
+                    JsonGenerator json = file(Entity.SONGS);
+                    json.writeStartObject();
+                    json.writeNumberField("id", song.id());
+                    json.writeStringField("title", song.title());
+                    json.writeStringField("artist", song.artist());
+                    json.writeStringField("label", song.label());
+                    json.writeStringField("genre", song.genre());
+                    json.writeNumberField("length", song.length());
+                    json.writeEndObject();
+                }
+                case Row.Album album -> {
+                    JsonGenerator json = file(Entity.ALBUMS);
+                    json.writeStartObject();
+                    json.writeStringField("title", album.title());
+                    json.writeStringField("artist", album.artist());
+                    json.writeStringField("genre", album.genre());
+                    json.writeStringField("releaseDate", album.releaseDate().toString());
+                    json.writeFieldName("songIds");
+                    json.writeArray(album.songIds(), 0, album.songIds().length);
+                    json.writeEndObject();
+                }
+                case Row.Review review -> {
+                    JsonGenerator json = file(review.entity());
+                    json.writeStartObject();
+                    json.writeNumberField(review.targetField(), review.targetId());
+                    json.writeNumberField("rating", review.rating());
+                    json.writeStringField("comment", review.comment());
+                    json.writeStringField("date", review.date().toString());
+                    json.writeEndObject();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (JsonGenerator file : files.values()) {
+            file.writeEndArray();
+            file.close();
+        }
+        files.clear();
+    }
+
+    private JsonGenerator file(Entity entity) throws IOException {
+        JsonGenerator file = files.get(entity);
+        if (file == null) {
+            file = JSON.createGenerator(Files.newBufferedWriter(directory.resolve(entity.getFileName() + ".json")));
+            file.writeStartArray();
+            files.put(entity, file);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,43 @@
+package nl.rug.advancedprogramming.BookReviewAPI.DataGenerator;
+
+import java.time.LocalDate;
+
+/**
+ * One generated row. IDs start at 1 and follow the generation order, so they match the IDs the database assigns
+ * when the rows are imported into empty tables.
+ */
+public sealed interface Row {
+
+    /**
+     * A book. Reviews refer to books by their number rather than by ISBN.
+     */
+    record Book(int number, String isbn, String title, String author, String publisher, String genre,
+                double price) implements Row {
+    }
+
+    record Song(int id, String title, String artist, String label, String genre, int length) implements Row {
+    }
+
+    record Album(int id, String title, String artist, String genre, LocalDate releaseDate,
+                 int[] songIds) implements Row {
+    }
+
+    /**
+     * A review of a book, song or album, depending on the entity.
+     */
+    record Review(Entity entity, int id, int targetId, float rating, String comment, LocalDate date) implements Row {
+
+        /**
+         * Retrieves the name of the field referring to the reviewed item in the import formats.
+         *
+         * @return bookId, songId or albumId
+         */
+        public String targetField() {
+            return switch (entity) {
+                case SONG_REVIEWS -> "songId";
+                case ALBUM_REVIEWS -> "albumId";
+                default -> "bookId";
+            };
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package nl.rug.advancedprogramming.BookReviewAPI.DataGenerator;
+
+/**
+ * Receives generated rows.
+ */
+@FunctionalInterface
+public interface RowWriter {
+
+    /**
+     * Writes one row.
+     *
+     * @param row the row
+     * @throws java.io.UncheckedIOException if writing to a file fails
+     * @throws IllegalStateException        if writing to the database fails
+     */
+    void write(Row row);
+}
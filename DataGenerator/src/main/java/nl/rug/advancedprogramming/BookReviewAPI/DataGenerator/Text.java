@@ -0,0 +1,112 @@
+package nl.rug.advancedprogramming.BookReviewAPI.DataGenerator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates titles, names and comments with lengths close to those of real catalog data: most titles are two to
+ * four words, most comments a sentence or two with a long tail up to the 255 characters the columns hold, and
+ * about one review in ten has no comment at all. The text never contains quotes, so it survives the import parsers
+ * that strip them.
+ */
+final class Text {
+    static final int MAX_LENGTH = 255;
+
+    private static final String[] WORDS = {
+            "night", "river", "silent", "stars", "journey", "broken", "glass", "summer", "city", "light", "golden",
+            "paper", "hearts", "winter", "midnight", "garden", "echoes", "distant", "shores", "fire", "horizon",
+            "shadow", "morning", "ocean", "dream", "storm", "wild", "velvet", "iron", "crimson", "empire", "letters",
+            "secret", "house", "road", "blue", "dance", "forgotten", "kingdom", "machine", "memory", "north", "rain",
+            "last", "first", "little", "electric", "hollow", "silver", "stone", "tide", "valley", "wolves", "years",
+            "between", "under", "beyond", "after", "every", "without", "small", "great", "lost", "found", "falling"
+    };
+    private static final String[] COMMENT_WORDS = {
+            "really", "enjoyed", "this", "the", "a", "and", "but", "was", "too", "long", "short", "great", "boring",
+            "characters", "story", "sound", "production", "ending", "beautiful", "slow", "start", "loved", "it",
+            "not", "my", "favourite", "would", "recommend", "again", "lyrics", "writing", "style", "pace", "second",
+            "half", "better", "than", "expected", "chorus", "voice", "plot", "twist", "worth", "money", "classic"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Ben", "Chloe", "Daan", "Emma", "Finn", "Grace", "Hugo", "Iris", "Jack", "Julia", "Lars", "Lena",
+            "Liam", "Maya", "Milan", "Noah", "Nora", "Olivia", "Oscar", "Ruby", "Sam", "Sara", "Tess", "Thomas",
+            "Vera", "Yara", "Zoe", "Adrian", "Bianca", "Carlos", "Dina", "Elias", "Fatima", "Goran", "Hana"
+    };
+    private static final String[] LAST_NAMES = {
+            "de Vries", "Jansen", "Smith", "Novak", "Garcia", "Kowalski", "Bakker", "Murphy", "Rossi", "Schmidt",
+            "Visser", "Nguyen", "Dubois", "Larsen", "Okafor", "Silva", "Tanaka", "Walsh", "Mulder", "Ivanova",
+            "Brown", "Khan", "Lopez", "Meijer", "Andersen", "Moreau", "Costa", "Fischer", "Horvat", "Lindqvist"
+    };
+    private static final String[] GENRES = {
+            "Pop", "Rock", "Jazz", "Indie", "Hip Hop", "Classical", "Electronic", "Folk", "Metal", "Soul"
+    };
+    private static final String[] BOOK_GENRES = {
+            "Fiction", "Fantasy", "Mystery", "Romance", "Science Fiction", "Biography", "History", "Thriller",
+            "Poetry", "Self-Help"
+    };
+
+    private Text() {
+    }
+
+    /**
+     * A title of one to eight capitalized words, most often two to four.
+     */
+    static String title(RandomGenerator random) {
+        int words = Math.min(8, 1 + (int) Math.round(Math.abs(random.nextGaussian() * 1.6) + random.nextDouble()));
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            String word = WORDS[random.nextInt(WORDS.length)];
+            title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return title.toString();
+    }
+
+    /**
+     * A review comment, empty for about one review in ten, otherwise log-normally distributed around 80
+     * characters and cut off at the column size.
+     */
+    static String comment(RandomGenerator random) {
+        if (random.nextInt(10) == 0) {
+            return "";
+        }
+        int length = (int) Math.min(MAX_LENGTH, Math.exp(4.2 + 0.8 * random.nextGaussian()));
+        StringBuilder comment = new StringBuilder(length + 16);
+        while (comment.length() < length) {
+            if (!comment.isEmpty()) {
+                comment.append(random.nextInt(8) == 0 ? ", " : " ");
+            }
+            comment.append(COMMENT_WORDS[random.nextInt(COMMENT_WORDS.length)]);
+        }
+        comment.setLength(Math.min(comment.length(), MAX_LENGTH));
+        comment.setCharAt(0, Character.toUpperCase(comment.charAt(0)));
+        return comment.toString().strip();
+    }
+
+    /**
+     * The name of the person with the given number. Every number has its own name; once the combinations of first
+     * and last names run out a number is added.
+     */
+    static String person(int number) {
+        int combinations = FIRST_NAMES.length * LAST_NAMES.length;
+        int index = number - 1;
+        // Spread neighbouring numbers over different first names
+        int combination = (int) ((index % combinations) * 7L % combinations);
+        String name = FIRST_NAMES[combination % FIRST_NAMES.length] + " "
+                + LAST_NAMES[combination / FIRST_NAMES.length];
+        int round = index / combinations;
+        return round == 0 ? name : name + " " + (round + 1);
+    }
+
+    static String genre(RandomGenerator random) {
+        return GENRES[random.nextInt(GENRES.length)];
+    }
+
+    static String bookGenre(RandomGenerator random) {
+        return BOOK_GENRES[random.nextInt(BOOK_GENRES.length)];
+    }
+
+    static String word(int number) {
+        return WORDS[Math.floorMod(number, WORDS.length)];
+    }
+}
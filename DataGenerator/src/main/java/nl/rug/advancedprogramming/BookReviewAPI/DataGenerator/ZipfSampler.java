@@ -0,0 +1,103 @@
+package nl.rug.advancedprogramming.BookReviewAPI.DataGenerator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws values from 1 to n where the value of rank k is drawn with a probability proportional to 1 / k^exponent.
+ * Uses rejection-inversion sampling (Hormann and Derflinger), which takes constant time and memory per sample, so
+ * it works for tens of millions of values without a lookup table.
+ * <p>
+ * The ranks are spread over the values by a fixed permutation, so the most popular values are not simply the
+ * lowest IDs, which would make them all hit the same index pages.
+ * </p>
+ */
+class ZipfSampler {
+    private static final double GOLDEN_RATIO = 0.6180339887498949;
+
+    private final int n;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+    private final long multiplier;
+
+    /**
+     * Constructor for the ZipfSampler.
+     *
+     * @param n        the number of values, at least 1
+     * @param exponent the skew, 0 draws uniformly
+     */
+    ZipfSampler(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("There must be something to sample from");
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+
+        // Neighbouring ranks land far apart, the multiplier must be coprime to n to visit every value
+        long m = Math.max(1, Math.round(n * GOLDEN_RATIO));
+        while (gcd(m, n) != 1) {
+            m++;
+        }
+        this.multiplier = m;
+    }
+
+    /**
+     * Draws a value.
+     *
+     * @param random the random source
+     * @return a value from 1 to n
+     */
+    int next(RandomGenerator random) {
+        return (int) ((rank(random) - 1) * multiplier % n) + 1;
+    }
+
+    /**
+     * Draws a rank, 1 being the most popular.
+     */
+    long rank(RandomGenerator random) {
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            long k = Math.max(1, Math.min(n, (long) (x + 0.5)));
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1 - exponent) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(-1, x * (1 - exponent));
+        return Math.exp(helper1(t) * x);
+    }
+
+    /**
+     * log(1 + x) / x, accurate around 0.
+     */
+    private static double helper1(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    /**
+     * (exp(x) - 1) / x, accurate around 0.
+     */
+    private static double helper2(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
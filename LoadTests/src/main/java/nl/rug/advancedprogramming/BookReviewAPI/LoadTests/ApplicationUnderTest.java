@@ -0,0 +1,160 @@
+package nl.rug.advancedprogramming.BookReviewAPI.LoadTests;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The API the load is sent to: either one that is already running, or the packaged application started as a child
+ * process, against the MariaDB configured in the DB_* environment variables or against an embedded MariaDB server.
+ */
+class ApplicationUnderTest implements AutoCloseable {
+    private static final String DATABASE = "bookreview";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final URI base;
+    private final Process process;
+    private final DB database;
+
+    private ApplicationUnderTest(URI base, Process process, DB database) {
+        this.base = base;
+        this.process = process;
+        this.database = database;
+    }
+
+    /**
+     * Uses an API that is already running.
+     *
+     * @param base the base URL of the API
+     */
+    static ApplicationUnderTest running(URI base) {
+        return new ApplicationUnderTest(base, null, null);
+    }
+
+    /**
+     * Starts the packaged application and waits until it is healthy.
+     *
+     * @param jar        the executable jar of the Application module
+     * @param appArgs    extra arguments for the application, e.g. --spring.profiles.active=virtual
+     * @param embeddedDb whether to start an empty embedded MariaDB instead of using the DB_* environment variables
+     * @param log        file the output of the application is written to
+     * @return the started application
+     * @throws IOException          if the database or the application can not be started
+     * @throws InterruptedException if interrupted while waiting for the application
+     */
+    static ApplicationUnderTest launch(Path jar, List<String> appArgs, boolean embeddedDb, Path log)
+            throws IOException, InterruptedException {
+        DB database = null;
+        Process process = null;
+        try {
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.add("-jar");
+            command.add(jar.toString());
+            command.addAll(appArgs);
+
+            int port = freePort();
+            ProcessBuilder builder = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile());
+            Map<String, String> environment = builder.environment();
+            environment.put("SERVER_PORT", String.valueOf(port));
+
+            if (embeddedDb) {
+                DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+                config.setPort(0); // Any free port
+                database = DB.newEmbeddedDB(config.build());
+                database.start();
+                database.createDB(DATABASE);
+                environment.put("DB_HOST", "localhost");
+                environment.put("DB_PORT", String.valueOf(database.getConfiguration().getPort()));
+                environment.put("DB_DATABASE", DATABASE);
+                environment.put("DB_USER", "root");
+                environment.put("DB_PASSWORD", "");
+                environment.remove("DB_REPLICA_HOSTS");
+            }
+
+            process = builder.start();
+            URI base = URI.create("http://localhost:" + port);
+            ApplicationUnderTest application = new ApplicationUnderTest(base, process, database);
+            application.awaitHealthy(log);
+            return application;
+        } catch (ManagedProcessException e) {
+            stop(process, database);
+            throw new IOException("Could not start the embedded database", e);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            stop(process, database);
+            throw e;
+        }
+    }
+
+    URI getBase() {
+        return base;
+    }
+
+    @Override
+    public void close() {
+        stop(process, database);
+    }
+
+    private void awaitHealthy(Path log) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(base.resolve("/actuator/health"))
+                .timeout(Duration.ofSeconds(5)).GET().build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("The application exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IOException("The application was not healthy within " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    private static void stop(Process process, DB database) {
+        if (process != null) {
+            process.destroy();
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (database != null) {
+            try {
+                database.stop();
+            } catch (ManagedProcessException e) {
+                System.err.println("Could not stop the embedded database: " + e.getMessage());
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
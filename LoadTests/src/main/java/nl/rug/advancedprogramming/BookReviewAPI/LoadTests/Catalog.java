@@ -0,0 +1,280 @@
+package nl.rug.advancedprogramming.BookReviewAPI.LoadTests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * The songs, albums and books the operations pick their parameters from. If the database is empty, a catalog of
+ * the size given by the workload is created through the API first; then the IDs and names are read back.
+ */
+public class Catalog {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String[] WORDS = {
+            "night", "river", "silent", "stars", "journey", "broken", "glass", "summer", "city", "light", "golden",
+            "paper", "hearts", "winter", "midnight", "garden", "echoes", "distant", "shores", "fire", "horizon"
+    };
+    private static final String[] GENRES = {"Pop", "Rock", "Jazz", "Indie", "Fiction", "Fantasy", "Mystery"};
+    private static final long JOB_POLL_INTERVAL_MS = 200;
+
+    private final int[] songIds;
+    private final String[] artists;
+    private final int[] albumIds;
+    private final String[] albumGenres;
+    private final String[] authors;
+    private final int bookCount;
+
+    private Catalog(int[] songIds, String[] artists, int[] albumIds, String[] albumGenres, String[] authors,
+                    int bookCount) {
+        this.songIds = songIds;
+        this.artists = artists;
+        this.albumIds = albumIds;
+        this.albumGenres = albumGenres;
+        this.authors = authors;
+        this.bookCount = bookCount;
+    }
+
+    /**
+     * Seeds the database if it has no songs yet and reads the catalog back.
+     *
+     * @param client the HTTP client
+     * @param base   the base URL of the API
+     * @param seed   how many songs, albums, books and reviews to create
+     * @param random the random source, seeded so every run creates the same catalog
+     * @return the catalog
+     * @throws IOException          if a request fails
+     * @throws InterruptedException if interrupted while waiting for a response
+     */
+    public static Catalog prepare(HttpClient client, URI base, Map<String, Integer> seed, Random random)
+            throws IOException, InterruptedException {
+        if (get(client, base, "/songs").isEmpty()) {
+            seedSongs(client, base, seed.get("songs"), random);
+            seedBooks(client, base, seed.get("books"), random);
+            seedAlbums(client, base, seed.get("albums"), ids(get(client, base, "/songs"), "id"), random);
+            seedReviews(client, base, seed.get("reviews"), seed.get("books"), random);
+        }
+
+        JsonNode songs = get(client, base, "/songs");
+        JsonNode albums = get(client, base, "/albums");
+        JsonNode books = get(client, base, "/api/books");
+        if (songs.isEmpty() || albums.isEmpty() || books.isEmpty()) {
+            throw new IllegalStateException("The workload needs songs, albums and books, seed them first");
+        }
+        return new Catalog(ids(songs, "id"), distinct(songs, "artist"), ids(albums, "id"), distinct(albums, "genre"),
+                distinct(books, "author"), books.size());
+    }
+
+    public int songId(Random random) {
+        return songIds[random.nextInt(songIds.length)];
+    }
+
+    public String artist(Random random) {
+        return artists[random.nextInt(artists.length)];
+    }
+
+    public int albumId(Random random) {
+        return albumIds[random.nextInt(albumIds.length)];
+    }
+
+    public String albumGenre(Random random) {
+        return albumGenres[random.nextInt(albumGenres.length)];
+    }
+
+    public String author(Random random) {
+        return authors[random.nextInt(authors.length)];
+    }
+
+    /**
+     * Picks a book ID for a review. Book reviews refer to books by number, not by ISBN.
+     */
+    public int bookId(Random random) {
+        return 1 + random.nextInt(bookCount);
+    }
+
+    /**
+     * Generates a CSV song import in the format of POST /songs/import/csv.
+     */
+    static String songCSV(int count, Random random) {
+        StringBuilder csv = new StringBuilder("id,title,artist,label,genre,length\n");
+        for (int i = 0; i < count; i++) {
+            csv.append("0,").append(words(random, 3)).append(',').append(name(random, 200)).append(',')
+                    .append("Label ").append(random.nextInt(20)).append(',').append(pick(random, GENRES)).append(',')
+                    .append(120 + random.nextInt(300)).append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Generates a CSV review import in the format of POST /reviews/import/csv.
+     */
+    static String reviewCSV(int count, int books, Random random) {
+        StringBuilder csv = new StringBuilder("bookId,rating,comment,reviewDate\n");
+        for (int i = 0; i < count; i++) {
+            csv.append(1 + random.nextInt(Math.max(books, 1))).append(',').append(rating(random)).append(",\"")
+                    .append(comment(random)).append("\",").append(date(random)).append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Generates the JSON body of a new review for the review endpoints.
+     *
+     * @param targetField the field naming what is reviewed, e.g. "bookId"
+     * @param targetId    the ID of what is reviewed
+     */
+    static String reviewJSON(String targetField, int targetId, Random random) {
+        ObjectNode review = JSON.createObjectNode();
+        review.put(targetField, targetId);
+        review.put("rating", rating(random));
+        review.put("comment", comment(random));
+        review.put("date", date(random));
+        return review.toString();
+    }
+
+    private static void seedSongs(HttpClient client, URI base, int count, Random random)
+            throws IOException, InterruptedException {
+        importCSV(client, base, "/songs/import/csv", songCSV(count, random));
+    }
+
+    private static void seedBooks(HttpClient client, URI base, int count, Random random)
+            throws IOException, InterruptedException {
+        for (int i = 0; i < count; i++) {
+            ObjectNode book = JSON.createObjectNode();
+            book.put("title", words(random, 3));
+            book.put("author", name(random, 100));
+            book.put("publisher", "Publisher " + random.nextInt(10));
+            book.put("isbn", String.valueOf(9780000000000L + i));
+            book.put("genre", pick(random, GENRES));
+            book.put("price", 5 + random.nextInt(4000) / 100.0);
+            postJSON(client, base, "/api/books", book.toString());
+        }
+    }
+
+    private static void seedAlbums(HttpClient client, URI base, int count, int[] songIds, Random random)
+            throws IOException, InterruptedException {
+        for (int i = 0; i < count; i++) {
+            ObjectNode album = JSON.createObjectNode();
+            album.put("title", words(random, 2));
+            album.put("artist", name(random, 200));
+            album.put("genre", pick(random, GENRES));
+            album.put("releaseDate", date(random));
+            ArrayNode tracks = album.putArray("songIds");
+            for (int t = 0, n = 8 + random.nextInt(8); t < n; t++) {
+                tracks.add(songIds[random.nextInt(songIds.length)]);
+            }
+            postJSON(client, base, "/albums", album.toString());
+        }
+    }
+
+    private static void seedReviews(HttpClient client, URI base, int count, int books, Random random)
+            throws IOException, InterruptedException {
+        importCSV(client, base, "/reviews/import/csv", reviewCSV(count, books, random));
+    }
+
+    /**
+     * Submits an import job and waits until it has finished, so what it imports can be read back.
+     */
+    private static void importCSV(HttpClient client, URI base, String path, String csv)
+            throws IOException, InterruptedException {
+        HttpResponse<String> submitted = send(client, HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(csv)).build());
+        String job = submitted.headers().firstValue("Location")
+                .orElseThrow(() -> new IOException("POST " + path + " returned no job"));
+        while (true) {
+            JsonNode status = get(client, base, job).get("status");
+            switch (status.asText()) {
+                case "SUCCEEDED" -> {
+                    return;
+                }
+                case "FAILED", "CANCELLED" -> throw new IOException("Import job " + job + " " + status.asText());
+                default -> Thread.sleep(JOB_POLL_INTERVAL_MS);
+            }
+        }
+    }
+
+    private static void postJSON(HttpClient client, URI base, String path, String body)
+            throws IOException, InterruptedException {
+        send(client, HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build());
+    }
+
+    private static HttpResponse<String> send(HttpClient client, HttpRequest request)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IOException(request.method() + " " + request.uri() + " returned " + response.statusCode());
+        }
+        return response;
+    }
+
+    private static JsonNode get(HttpClient client, URI base, String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve(path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IOException("GET " + path + " returned " + response.statusCode());
+        }
+        return JSON.readTree(response.body());
+    }
+
+    private static int[] ids(JsonNode items, String field) {
+        int[] ids = new int[items.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = items.get(i).get(field).asInt();
+        }
+        return ids;
+    }
+
+    private static String[] distinct(JsonNode items, String field) {
+        Set<String> values = new LinkedHashSet<>();
+        for (JsonNode item : items) {
+            JsonNode value = item.get(field);
+            if (value != null && !value.isNull()) {
+                values.add(value.asText());
+            }
+        }
+        return values.toArray(new String[0]);
+    }
+
+    private static String name(Random random, int distinct) {
+        return "Artist " + random.nextInt(distinct);
+    }
+
+    private static String comment(Random random) {
+        return words(random, 6 + random.nextInt(20));
+    }
+
+    private static float rating(Random random) {
+        return 1 + random.nextInt(9) / 2f;
+    }
+
+    private static String date(Random random) {
+        return String.format("%04d-%02d-%02d", 2000 + random.nextInt(25), 1 + random.nextInt(12), 1 + random.nextInt(28));
+    }
+
+    private static String words(Random random, int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(pick(random, WORDS));
+        }
+        return String.join(" ", words);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,92 @@
+package nl.rug.advancedprogramming.BookReviewAPI.LoadTests;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two results files of {@link LoadTest}, e.g. of the commit before and after a change, route by route.
+ * <pre>
+ * java -cp LoadTests/target/LoadTests-0.0.1-SNAPSHOT.jar \
+ *     -Dloader.main=nl.rug.advancedprogramming.BookReviewAPI.LoadTests.CompareResults \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher baseline.json candidate.json [--max-regression=10]
+ * </pre>
+ * With --max-regression the exit code is 1 if the p99 latency of any route grew by more than that percentage.
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Double maxRegression = null;
+        for (String arg : args) {
+            if (arg.startsWith("--max-regression=")) {
+                maxRegression = Double.parseDouble(arg.substring("--max-regression=".length()));
+            } else {
+                files.add(Path.of(arg));
+            }
+        }
+        if (files.size() != 2) {
+            throw new IllegalArgumentException("Expected a baseline and a candidate results file");
+        }
+
+        ObjectMapper json = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        RunResult baseline = json.readValue(files.get(0).toFile(), RunResult.class);
+        RunResult candidate = json.readValue(files.get(1).toFile(), RunResult.class);
+        if (!baseline.workload().equals(candidate.workload()) || baseline.users() != candidate.users()) {
+            System.out.println("Warning: comparing different workloads or user counts");
+        }
+        System.out.printf("%s (%s) -> %s (%s), workload %s%n", baseline.commit(), baseline.label(),
+                candidate.commit(), candidate.label(), candidate.workload());
+
+        Map<String, RouteResult> before = byRoute(baseline);
+        System.out.printf("%-28s %12s %12s %12s %12s%n", "route", "req/s", "p50", "p99", "p999");
+        boolean regressed = false;
+        for (RouteResult after : byRoute(candidate).values()) {
+            RouteResult previous = before.get(after.route());
+            if (previous == null) {
+                System.out.printf("%-28s %12s%n", after.route(), "new");
+                continue;
+            }
+            double p99Change = change(previous.p99(), after.p99());
+            System.out.printf("%-28s %12s %12s %12s %12s%n", after.route(),
+                    format(change(previous.throughput(), after.throughput())),
+                    format(change(previous.p50(), after.p50())),
+                    format(p99Change),
+                    format(change(previous.p999(), after.p999())));
+            if (maxRegression != null && p99Change > maxRegression) {
+                regressed = true;
+            }
+        }
+
+        if (regressed) {
+            System.out.printf("p99 latency regressed by more than %.1f%%%n", maxRegression);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, RouteResult> byRoute(RunResult result) {
+        Map<String, RouteResult> routes = new LinkedHashMap<>();
+        routes.put(result.total().route(), result.total());
+        for (RouteResult route : result.routes()) {
+            routes.put(route.route(), route);
+        }
+        return routes;
+    }
+
+    /**
+     * The relative change from before to after, in percent.
+     */
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    private static String format(double percent) {
+        return String.format("%+.1f%%", percent);
+    }
+}
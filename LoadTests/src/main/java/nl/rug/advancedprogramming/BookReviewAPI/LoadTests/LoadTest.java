@@ -0,0 +1,200 @@
+package nl.rug.advancedprogramming.BookReviewAPI.LoadTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a workload against the API from virtual users and writes throughput and latency percentiles per route to
+ * a JSON results file. Every virtual user is a virtual thread that sends one request, waits for the response and
+ * sends the next (a closed loop), so the number of users is the number of requests in flight.
+ * <p>
+ * Options:
+ * <ul>
+ *     <li>--workload: the workload file (default LoadTests/workloads/mixed.properties)</li>
+ *     <li>--base: URL of an API that is already running; without it the application jar is started</li>
+ *     <li>--app: the application jar (default Application/target/Application-0.0.1-SNAPSHOT.jar)</li>
+ *     <li>--app-arg: extra argument for the application, can be repeated, e.g. --app-arg=--spring.profiles.active=virtual</li>
+ *     <li>--db: embedded (default) for an empty embedded MariaDB, or env for the database in the DB_* variables</li>
+ *     <li>--users, --duration, --warmup: override the workload</li>
+ *     <li>--label: free text stored with the results</li>
+ *     <li>--commit: the commit stored with the results (default: git rev-parse --short HEAD)</li>
+ *     <li>--out: the results file (default LoadTests/results/&lt;workload&gt;-&lt;commit&gt;-&lt;time&gt;.json)</li>
+ * </ul>
+ * Compare two results files with {@link CompareResults}.
+ */
+public class LoadTest {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        Path workloadFile = Path.of("LoadTests/workloads/mixed.properties");
+        URI base = null;
+        Path app = Path.of("Application/target/Application-0.0.1-SNAPSHOT.jar");
+        List<String> appArgs = new ArrayList<>();
+        boolean embeddedDb = true;
+        Integer users = null;
+        Integer duration = null;
+        Integer warmup = null;
+        String label = "";
+        String commit = null;
+        Path out = null;
+
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --option=value but got " + arg);
+            }
+            String value = arg.substring(equals + 1);
+            switch (arg.substring(0, equals)) {
+                case "--workload" -> workloadFile = Path.of(value);
+                case "--base" -> base = URI.create(value);
+                case "--app" -> app = Path.of(value);
+                case "--app-arg" -> appArgs.add(value);
+                case "--db" -> embeddedDb = switch (value) {
+                    case "embedded" -> true;
+                    case "env" -> false;
+                    default -> throw new IllegalArgumentException("--db is embedded or env");
+                };
+                case "--users" -> users = Integer.parseInt(value);
+                case "--duration" -> duration = Integer.parseInt(value);
+                case "--warmup" -> warmup = Integer.parseInt(value);
+                case "--label" -> label = value;
+                case "--commit" -> commit = value;
+                case "--out" -> out = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+
+        Workload workload = Workload.load(workloadFile);
+        int userCount = users != null ? users : workload.getUsers();
+        int durationSeconds = duration != null ? duration : workload.getDurationSeconds();
+        int warmupSeconds = warmup != null ? warmup : workload.getWarmupSeconds();
+        if (commit == null) {
+            commit = gitCommit();
+        }
+        if (out == null) {
+            String time = Instant.now().truncatedTo(ChronoUnit.SECONDS).toString().replace(":", "");
+            out = Path.of("LoadTests/results", workload.getName() + "-" + commit + "-" + time + ".json");
+        }
+
+        Path log = Files.createTempFile("bookreviewapi-loadtest", ".log");
+        try (ApplicationUnderTest application = base != null
+                ? ApplicationUnderTest.running(base)
+                : ApplicationUnderTest.launch(app, appArgs, embeddedDb, log);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(CONNECT_TIMEOUT)
+                     .executor(executor)
+                     .build()) {
+            System.out.println("Load testing " + application.getBase() + " with workload " + workload.getName()
+                    + (base == null ? ", application log in " + log : ""));
+
+            Catalog catalog = Catalog.prepare(client, application.getBase(), workload.getSeed(), new Random(42));
+            RunResult result = run(client, executor, application.getBase(), catalog, workload, userCount,
+                    warmupSeconds, durationSeconds, commit, label);
+
+            print(result);
+            Files.createDirectories(out.toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), result);
+            System.out.println("Results written to " + out);
+        }
+    }
+
+    private static RunResult run(HttpClient client, ExecutorService executor, URI base, Catalog catalog,
+                                 Workload workload, int users, int warmupSeconds, int durationSeconds,
+                                 String commit, String label) throws InterruptedException {
+        Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+        RouteStats total = new RouteStats();
+        // Volatile flags the virtual users poll between requests
+        var phase = new Object() {
+            volatile boolean measuring;
+            volatile boolean running = true;
+        };
+
+        for (int user = 0; user < users; user++) {
+            executor.submit(() -> {
+                Random random = ThreadLocalRandom.current();
+                while (phase.running) {
+                    Operation operation = workload.pick(random);
+                    HttpRequest request = operation.request().create(base, catalog, random);
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    if (phase.measuring) {
+                        routes.computeIfAbsent(operation.route(), k -> new RouteStats()).record(elapsed, status);
+                        total.record(elapsed, status);
+                    }
+                }
+            });
+        }
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        String startedAt = Instant.now().toString();
+        phase.measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        phase.measuring = false;
+        long measured = System.nanoTime() - start;
+        phase.running = false;
+
+        List<RouteResult> results = new ArrayList<>();
+        routes.forEach((route, stats) -> results.add(stats.toResult(route, measured)));
+        results.sort(Comparator.comparingDouble(RouteResult::p99).reversed());
+        return new RunResult(commit, label, startedAt, workload.getName(), users, durationSeconds,
+                workload.getWeights(), total.toResult("total", measured), results);
+    }
+
+    private static void print(RunResult result) {
+        System.out.printf("%-28s %9s %7s %7s %10s %9s %9s %9s %9s %9s%n",
+                "route", "requests", "4xx", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+        List<RouteResult> rows = new ArrayList<>(result.routes());
+        rows.add(result.total());
+        for (RouteResult route : rows) {
+            System.out.printf("%-28s %9d %7d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    route.route(), route.requests(), route.clientErrors(), route.errors(), route.throughput(),
+                    route.p50(), route.p95(), route.p99(), route.p999(), route.max());
+        }
+    }
+
+    private static String gitCommit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String output = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return git.waitFor() == 0 ? output : "unknown";
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+}
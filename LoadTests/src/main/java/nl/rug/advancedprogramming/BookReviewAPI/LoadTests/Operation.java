@@ -0,0 +1,23 @@
+package nl.rug.advancedprogramming.BookReviewAPI.LoadTests;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Random;
+
+/**
+ * One kind of request of a workload.
+ *
+ * @param name    the name used in the workload weights, e.g. "album"
+ * @param route   the route template the results are grouped by, e.g. "GET /albums/{id}"
+ * @param request builds a concrete request against a base URL, picking its parameters from the catalog
+ */
+public record Operation(String name, String route, RequestFactory request) {
+
+    /**
+     * Builds the requests of an operation.
+     */
+    @FunctionalInterface
+    public interface RequestFactory {
+        HttpRequest create(URI base, Catalog catalog, Random random);
+    }
+}
@@ -0,0 +1,112 @@
+package nl.rug.advancedprogramming.BookReviewAPI.LoadTests;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * The operations workloads are mixed from, grouped as catalog reads, searches, review writes and imports.
+ */
+public final class Operations {
+    private static final int MULTI_GET_SIZE = 10;
+    private static final int IMPORT_ROWS = 50;
+    // Slower requests fail and count as errors
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private Operations() {
+    }
+
+    /**
+     * Retrieves all operations by name.
+     *
+     * @return the operations in declaration order
+     */
+    public static Map<String, Operation> byName() {
+        Map<String, Operation> operations = new LinkedHashMap<>();
+        for (Operation operation : all()) {
+            operations.put(operation.name(), operation);
+        }
+        return operations;
+    }
+
+    private static List<Operation> all() {
+        return List.of(
+                // Catalog reads
+                new Operation("song-multi-get", "GET /songs?ids=", (base, catalog, random) -> {
+                    StringJoiner ids = new StringJoiner(",");
+                    for (int i = 0; i < MULTI_GET_SIZE; i++) {
+                        ids.add(String.valueOf(catalog.songId(random)));
+                    }
+                    return get(base, "/songs?ids=" + ids);
+                }),
+                new Operation("album", "GET /albums/{id}",
+                        (base, catalog, random) -> get(base, "/albums/" + catalog.albumId(random))),
+                new Operation("song-albums", "GET /songs/{id}/albums",
+                        (base, catalog, random) -> get(base, "/songs/" + catalog.songId(random) + "/albums")),
+                new Operation("artist", "GET /artists/{name}",
+                        (base, catalog, random) -> get(base, "/artists/" + encodePath(catalog.artist(random)))),
+                new Operation("album-rating", "GET /albums/{id}/rating",
+                        (base, catalog, random) -> get(base, "/albums/" + catalog.albumId(random) + "/rating")),
+                new Operation("book-rating", "GET /reviews/averageRating",
+                        (base, catalog, random) -> get(base, "/reviews/averageRating?bookId=" + catalog.bookId(random))),
+                new Operation("trending", "GET /trending",
+                        (base, catalog, random) -> get(base, "/trending?type=book&window=week")),
+
+                // Searches
+                new Operation("song-search", "GET /songs/search",
+                        (base, catalog, random) -> get(base, "/songs/search?property=artist&value="
+                                + encode(catalog.artist(random)))),
+                new Operation("album-search", "GET /albums?property=",
+                        (base, catalog, random) -> get(base, "/albums?property=genre&value="
+                                + encode(catalog.albumGenre(random)) + "&sort=releaseDate&direction=desc")),
+                new Operation("book-search", "GET /api/books?property=",
+                        (base, catalog, random) -> get(base, "/api/books?property=author&value="
+                                + encode(catalog.author(random)))),
+
+                // Review writes
+                new Operation("review-write", "POST /reviews", (base, catalog, random) ->
+                        postJSON(base, "/reviews", Catalog.reviewJSON("bookId", catalog.bookId(random), random))),
+                new Operation("song-review-write", "POST /songReviews", (base, catalog, random) ->
+                        postJSON(base, "/songReviews", Catalog.reviewJSON("songId", catalog.songId(random), random))),
+                new Operation("album-review-write", "POST /albumReviews", (base, catalog, random) ->
+                        postJSON(base, "/albumReviews", Catalog.reviewJSON("albumId", catalog.albumId(random), random))),
+
+                // Imports, small enough to be mixed with interactive traffic; only the submission is timed, the
+                // import itself runs as a background job
+                new Operation("song-import", "POST /songs/import/csv", (base, catalog, random) ->
+                        postCSV(base, "/songs/import/csv", Catalog.songCSV(IMPORT_ROWS, random))),
+                new Operation("review-import", "POST /reviews/import/csv", (base, catalog, random) ->
+                        postCSV(base, "/reviews/import/csv", Catalog.reviewCSV(IMPORT_ROWS, 1000, random)))
+        );
+    }
+
+    private static HttpRequest get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT).GET().build();
+    }
+
+    private static HttpRequest postJSON(URI base, String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private static HttpRequest postCSV(URI base, String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT)
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String encodePath(String value) {
+        return encode(value).replace("+", "%20");
+    }
+}
@@ -0,0 +1,19 @@
+package nl.rug.advancedprogramming.BookReviewAPI.LoadTests;
+
+/**
+ * The measured behaviour of one route during a load test run, as written to the results file.
+ *
+ * @param route        the route, e.g. "GET /albums/{id}"
+ * @param requests     the number of completed requests, including those answered with 4xx
+ * @param clientErrors the number of requests answered with 4xx
+ * @param errors       the number of requests answered with 5xx or failed without a response
+ * @param throughput   completed requests per second
+ * @param p50          median latency in milliseconds
+ * @param p95          95th percentile latency in milliseconds
+ * @param p99          99th percentile latency in milliseconds
+ * @param p999         99.9th percentile latency in milliseconds
+ * @param max          highest latency in milliseconds
+ */
+public record RouteResult(String route, long requests, long clientErrors, long errors, double throughput,
+                          double p50, double p95, double p99, double p999, double max) {
+}
@@ -0,0 +1,56 @@
+package nl.rug.advancedprogramming.BookReviewAPI.LoadTests;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the requests to one route. Recorded concurrently by all virtual users.
+ */
+class RouteStats {
+    // Up to one hour at three significant digits
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.HOURS.toNanos(1), 3);
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Records one request.
+     *
+     * @param nanos  the time from sending the request to receiving the complete response
+     * @param status the HTTP status, or -1 if the request failed without a response
+     */
+    void record(long nanos, int status) {
+        if (status < 0 || status >= 500) {
+            errors.increment();
+            return;
+        }
+        if (status >= 400) {
+            clientErrors.increment();
+        }
+        latencies.recordValue(Math.min(nanos, latencies.getHighestTrackableValue()));
+    }
+
+    /**
+     * Summarizes the recorded requests.
+     *
+     * @param route          the route the requests went to
+     * @param measuredNanos  the length of the measurement
+     * @return the summary; latencies in milliseconds, throughput in requests per second
+     */
+    RouteResult toResult(String route, long measuredNanos) {
+        long requests = latencies.getTotalCount();
+        return new RouteResult(route, requests, clientErrors.sum(), errors.sum(),
+                requests / (measuredNanos / 1e9),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(95)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1e3) / 1e3;
+    }
+}
@@ -0,0 +1,22 @@
+package nl.rug.advancedprogramming.BookReviewAPI.LoadTests;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The results file of one load test run.
+ *
+ * @param commit          the commit the application was built from
+ * @param label           free text describing the run, e.g. "virtual threads"
+ * @param startedAt       when the measurement started, ISO-8601
+ * @param workload        the name of the workload
+ * @param users           the number of concurrent virtual users
+ * @param durationSeconds the length of the measurement
+ * @param weights         the operation weights of the workload
+ * @param total           all routes together
+ * @param routes          one entry per route, slowest p99 first
+ */
+public record RunResult(String commit, String label, String startedAt, String workload, int users,
+                        int durationSeconds, Map<String, Integer> weights, RouteResult total,
+                        List<RouteResult> routes) {
+}
@@ -0,0 +1,128 @@
+package nl.rug.advancedprogramming.BookReviewAPI.LoadTests;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * A workload definition, read from a properties file (see LoadTests/workloads):
+ * <ul>
+ *     <li>users: number of concurrent virtual users, each sending one request after the other</li>
+ *     <li>warmup, duration: unmeasured and measured seconds</li>
+ *     <li>seed.songs, seed.albums, seed.books, seed.reviews: catalog created first if the database is empty</li>
+ *     <li>weight.&lt;operation&gt;: relative share of an operation, see {@link Operations}</li>
+ * </ul>
+ */
+public class Workload {
+    private final String name;
+    private final int users;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final Map<String, Integer> seed = new LinkedHashMap<>();
+    private final Map<String, Integer> weights = new LinkedHashMap<>();
+    private final List<Operation> operations = new ArrayList<>();
+    private final int[] cumulativeWeights;
+
+    private Workload(String name, Properties properties) {
+        this.name = name;
+        this.users = intProperty(properties, "users", 100);
+        this.warmupSeconds = intProperty(properties, "warmup", 10);
+        this.durationSeconds = intProperty(properties, "duration", 60);
+        for (String kind : List.of("songs", "albums", "books", "reviews")) {
+            seed.put(kind, intProperty(properties, "seed." + kind, 0));
+        }
+
+        Map<String, Operation> known = Operations.byName();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (String key : properties.stringPropertyNames().stream().sorted().toList()) {
+            if (!key.startsWith("weight.")) {
+                continue;
+            }
+            String operationName = key.substring("weight.".length());
+            Operation operation = known.get(operationName);
+            if (operation == null) {
+                throw new IllegalArgumentException("Unknown operation " + operationName + ", known are " + known.keySet());
+            }
+            int weight = intProperty(properties, key, 0);
+            if (weight > 0) {
+                weights.put(operationName, weight);
+                operations.add(operation);
+                total += weight;
+                cumulative.add(total);
+            }
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("Workload " + name + " has no operation with a weight above 0");
+        }
+        cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Reads a workload definition.
+     *
+     * @param file the properties file
+     * @return the workload, named after the file
+     * @throws IOException if the file can not be read
+     */
+    public static Workload load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        String name = file.getFileName().toString().replaceFirst("\\.properties$", "");
+        return new Workload(name, properties);
+    }
+
+    /**
+     * Picks the next operation according to the weights.
+     *
+     * @param random the random source of the calling virtual user
+     * @return the operation to run
+     */
+    public Operation pick(Random random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operations.get(i);
+            }
+        }
+        throw new IllegalStateException("Weights do not add up");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public Map<String, Integer> getSeed() {
+        return seed;
+    }
+
+    public Map<String, Integer> getWeights() {
+        return weights;
+    }
+
+    private static int intProperty(Properties properties, String key, int fallback) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? fallback : Integer.parseInt(value.trim());
+    }
+}
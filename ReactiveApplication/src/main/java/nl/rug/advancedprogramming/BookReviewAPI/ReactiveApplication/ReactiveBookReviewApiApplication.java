@@ -0,0 +1,18 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Read-only variant of the API on WebFlux and R2DBC, against the schema of the servlet {@code Application}. Only
+ * the classes in this package are scanned; the entity classes of the modules are shared, their JPA services are
+ * not used. Writes, imports and the schema migrations stay with the servlet application.
+ */
+@SpringBootApplication
+public class ReactiveBookReviewApiApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveBookReviewApiApplication.class, args);
+	}
+
+}
@@ -0,0 +1,31 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.controller;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes exports as raw bytes, so the JSON encoder does not quote text that already is JSON.
+ */
+final class Exports {
+    // Rows written to the response at once
+    private static final int ROWS_PER_WRITE = 256;
+
+    private Exports() {
+    }
+
+    /**
+     * Turns the parts of an export into response chunks. The rows are only read from the database as fast as the
+     * client takes the chunks.
+     *
+     * @param parts the parts in order, e.g. a header followed by one part per row
+     * @return the chunks
+     */
+    static Flux<DataBuffer> stream(Flux<String> parts) {
+        return parts.buffer(ROWS_PER_WRITE)
+                .map(batch -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        String.join("", batch).getBytes(StandardCharsets.UTF_8)));
+    }
+}
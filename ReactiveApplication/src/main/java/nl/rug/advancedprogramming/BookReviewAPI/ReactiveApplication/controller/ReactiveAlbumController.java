@@ -0,0 +1,100 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.controller;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.services.AlbumService;
+import nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.repository.AlbumReader;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * The album read endpoints of the servlet AlbumController.
+ */
+@RestController
+@RequestMapping("/albums")
+public class ReactiveAlbumController {
+    private final AlbumReader albums;
+
+    public ReactiveAlbumController(AlbumReader albums) {
+        this.albums = albums;
+    }
+
+    /**
+     * Retrieves an album by its ID.
+     *
+     * @param id the ID of the album
+     * @return the album with a 200 OK status, or a 404 NOT FOUND if it does not exist
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Album>> getAlbumById(@PathVariable int id) {
+        return albums.findById(id).map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams all albums or the albums with a property equal to a value, optionally sorted by an album field.
+     *
+     * @param property  the property to filter by: title, artist or genre
+     * @param value     the value of the property to match
+     * @param sort      the album field to sort by
+     * @param direction the sort direction, "asc" (default) or "desc"
+     * @return the albums with a 200 OK status, or a 400 BAD REQUEST if the value is missing or the sort field or
+     * direction is invalid
+     */
+    @GetMapping
+    public ResponseEntity<Flux<Album>> getAlbums(@RequestParam Optional<String> property,
+                                                 @RequestParam Optional<String> value,
+                                                 @RequestParam Optional<String> sort,
+                                                 @RequestParam(defaultValue = "asc") String direction) {
+        Sort order = null;
+        if (sort.isPresent()) {
+            order = AlbumService.sortBy(sort.get(), direction);
+            if (order == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            }
+        }
+        if (property.isEmpty()) {
+            return ResponseEntity.ok(albums.findAll(order));
+        }
+        if (value.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        Flux<Album> result = albums.findByProperty(property.get(), value.get(), order);
+        // Like the servlet controller, an unknown property is not an error
+        return ResponseEntity.ok(result == null ? Flux.empty() : result);
+    }
+
+    /**
+     * Calculates the average rating of an album.
+     *
+     * @param id the ID of the album
+     * @return the average rating with a 200 OK status, or a 204 NO CONTENT if the album has no reviews
+     */
+    @GetMapping("/{id}/rating")
+    public Mono<ResponseEntity<Double>> getAlbumRating(@PathVariable int id) {
+        return albums.averageRating(id).map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.noContent().build());
+    }
+
+    /**
+     * Exports all albums as CSV, in the format of the servlet export, streamed as the albums are read.
+     *
+     * @return the CSV with a 200 OK status
+     */
+    @GetMapping("/export/csv")
+    public ResponseEntity<Flux<DataBuffer>> exportAlbumsCSV() {
+        Flux<String> csv = Flux.concat(
+                Flux.just("id,title,artist,genre,releaseDate\n"),
+                albums.findAllWithoutSongIds().map(Album::toCSV));
+        return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(Exports.stream(csv));
+    }
+}
@@ -0,0 +1,92 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.controller;
+
+import nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.repository.ReviewReader;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReview;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The album review read endpoints of the servlet AlbumReviewController.
+ */
+@RestController
+@RequestMapping("/albumReviews")
+public class ReactiveAlbumReviewController {
+    private final ReviewReader<AlbumReview> reviews;
+
+    public ReactiveAlbumReviewController(ReviewReader<AlbumReview> reviews) {
+        this.reviews = reviews;
+    }
+
+    /**
+     * Retrieves a review by its ID.
+     *
+     * @param id ID of the review
+     * @return the review with a 200 OK status, or a 404 NOT FOUND if it does not exist
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<AlbumReview>> getReview(@PathVariable int id) {
+        return reviews.findById(id).map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams all reviews or the reviews of one album.
+     *
+     * @param albumId optional ID of the album to filter the reviews by
+     * @return the reviews with a 200 OK status, or a 404 NOT FOUND if there are none
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<AlbumReview>>> getAllReviews(@RequestParam(value = "albumId", required = false) Integer albumId) {
+        int target = albumId == null ? 0 : albumId;
+        return reviews.existsByTarget(target).map(exists -> exists
+                ? ResponseEntity.ok(reviews.findByTarget(target))
+                : ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Calculates the average rating of an album.
+     *
+     * @param albumId ID of the album
+     * @return the average rating with a 200 OK status, or a 404 NOT FOUND if the album has no reviews
+     */
+    @GetMapping("/averageRating")
+    public Mono<ResponseEntity<Float>> calculateAverageRating(@RequestParam int albumId) {
+        return reviews.averageRating(albumId).map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Exports the reviews of an album as JSON, in the format of the servlet export, streamed as they are read.
+     *
+     * @param albumId ID of the album
+     * @return the JSON with a 200 OK status
+     */
+    @GetMapping("/export/json/{albumId}")
+    public ResponseEntity<Flux<DataBuffer>> exportReviewsToJSON(@PathVariable int albumId) {
+        Flux<String> json = Flux.concat(
+                Flux.just("[\n"),
+                reviews.findByTarget(albumId).map(AlbumReview::toJSON),
+                Flux.just("]"));
+        return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(Exports.stream(json));
+    }
+
+    /**
+     * Exports the reviews of an album as CSV, in the format of the servlet export, streamed as they are read.
+     *
+     * @param albumId ID of the album
+     * @return the CSV with a 200 OK status
+     */
+    @GetMapping("/export/csv/{albumId}")
+    public ResponseEntity<Flux<DataBuffer>> exportReviewsToCSV(@PathVariable int albumId) {
+        Flux<String> csv = Flux.concat(
+                Flux.just("reviewId,songId,rating,comment,reviewDate\n"),
+                reviews.findByTarget(albumId).map(AlbumReview::toCSV));
+        return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(Exports.stream(csv));
+    }
+}
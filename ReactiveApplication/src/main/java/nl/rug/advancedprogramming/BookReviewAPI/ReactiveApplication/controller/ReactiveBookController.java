@@ -0,0 +1,54 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.controller;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.repository.BookReader;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.Optional;
+
+/**
+ * The book read endpoints of the servlet BookController.
+ */
+@RestController
+@RequestMapping("/api/books")
+public class ReactiveBookController {
+    private final BookReader books;
+
+    public ReactiveBookController(BookReader books) {
+        this.books = books;
+    }
+
+    /**
+     * Streams all books, or the books with a property equal to a value.
+     *
+     * @param property the property to search by
+     * @param value    the value of the property
+     * @return the books with a 200 OK status, or a 400 BAD REQUEST if the property is unknown or has no value
+     */
+    @GetMapping("")
+    public ResponseEntity<Flux<Book>> getBooks(@RequestParam Optional<String> property,
+                                               @RequestParam Optional<String> value) {
+        if (property.isEmpty()) {
+            return ResponseEntity.ok(books.findAll());
+        }
+        if (value.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        Flux<Book> result;
+        try {
+            result = books.findByProperty(property.get(), value.get());
+        } catch (NumberFormatException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,92 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.controller;
+
+import nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.repository.ReviewReader;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The book review read endpoints of the servlet ReviewController.
+ */
+@RestController
+@RequestMapping("/reviews")
+public class ReactiveReviewController {
+    private final ReviewReader<Review> reviews;
+
+    public ReactiveReviewController(ReviewReader<Review> reviews) {
+        this.reviews = reviews;
+    }
+
+    /**
+     * Retrieves a review by its ID.
+     *
+     * @param id ID of the review
+     * @return the review with a 200 OK status, or a 404 NOT FOUND if it does not exist
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Review>> getReview(@PathVariable int id) {
+        return reviews.findById(id).map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams all reviews or the reviews of one book.
+     *
+     * @param bookId optional ID of the book to filter the reviews by
+     * @return the reviews with a 200 OK status, or a 404 NOT FOUND if there are none
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<Review>>> getAllReviews(@RequestParam(value = "bookId", required = false) Integer bookId) {
+        int target = bookId == null ? 0 : bookId;
+        return reviews.existsByTarget(target).map(exists -> exists
+                ? ResponseEntity.ok(reviews.findByTarget(target))
+                : ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Calculates the average rating of a book.
+     *
+     * @param bookId ID of the book
+     * @return the average rating with a 200 OK status, or a 404 NOT FOUND if the book has no reviews
+     */
+    @GetMapping("/averageRating")
+    public Mono<ResponseEntity<Float>> calculateAverageRating(@RequestParam int bookId) {
+        return reviews.averageRating(bookId).map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Exports the reviews of a book as JSON, in the format of the servlet export, streamed as they are read.
+     *
+     * @param bookId ID of the book
+     * @return the JSON with a 200 OK status
+     */
+    @GetMapping("/export/json/{bookId}")
+    public ResponseEntity<Flux<DataBuffer>> exportReviewsToJSON(@PathVariable int bookId) {
+        Flux<String> json = Flux.concat(
+                Flux.just("[\n"),
+                reviews.findByTarget(bookId).map(Review::toJSON),
+                Flux.just("]"));
+        return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(Exports.stream(json));
+    }
+
+    /**
+     * Exports the reviews of a book as CSV, in the format of the servlet export, streamed as they are read.
+     *
+     * @param bookId ID of the book
+     * @return the CSV with a 200 OK status
+     */
+    @GetMapping("/export/csv/{bookId}")
+    public ResponseEntity<Flux<DataBuffer>> exportReviewsToCSV(@PathVariable int bookId) {
+        Flux<String> csv = Flux.concat(
+                Flux.just("reviewId,bookId,rating,comment,reviewDate\n"),
+                reviews.findByTarget(bookId).map(Review::toCSV));
+        return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(Exports.stream(csv));
+    }
+}
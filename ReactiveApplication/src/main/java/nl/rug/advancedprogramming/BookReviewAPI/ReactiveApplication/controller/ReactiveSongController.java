@@ -0,0 +1,129 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.controller;
+
+import nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.repository.SongReader;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongBatch;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The song read endpoints of the servlet SongController.
+ */
+@RestController
+public class ReactiveSongController {
+    private final SongReader songs;
+
+    public ReactiveSongController(SongReader songs) {
+        this.songs = songs;
+    }
+
+    /**
+     * Streams all songs.
+     *
+     * @return the songs with a 200 OK status
+     */
+    @GetMapping("/songs")
+    public Flux<Song> getAllSongs() {
+        return songs.findAll();
+    }
+
+    /**
+     * Retrieves a list of songs by ID in one request.
+     *
+     * @param ids comma separated IDs of the songs
+     * @return the songs in the requested order and the IDs of songs that do not exist, with a 200 OK status
+     */
+    @GetMapping(value = "/songs", params = "ids")
+    public Mono<SongBatch> getSongsByIds(@RequestParam List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(new SongBatch(List.of(), List.of()));
+        }
+        return songs.findAllById(new LinkedHashSet<>(ids))
+                .collectMap(song -> song.id, SongRecord::of)
+                .map(found -> batch(ids, found));
+    }
+
+    /**
+     * Streams the songs with a property equal to a value, or all songs without a property.
+     *
+     * @param property the property to search by
+     * @param value    the value to search for
+     * @return the matching songs with a 200 OK status, or a 400 BAD REQUEST if the request is malformed
+     */
+    @GetMapping("/songs/search")
+    public ResponseEntity<Flux<Song>> getByProperty(@RequestParam Optional<String> property,
+                                                    @RequestParam Optional<String> value) {
+        if (property.isEmpty()) {
+            return ResponseEntity.ok(songs.findAll());
+        }
+        if (value.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        Flux<Song> result;
+        try {
+            result = songs.findByProperty(property.get(), value.get());
+        } catch (NumberFormatException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Exports all songs as CSV, in the format of the servlet export, streamed as the songs are read.
+     *
+     * @return the CSV with a 200 OK status
+     */
+    @GetMapping("/songs/export/csv")
+    public ResponseEntity<Flux<DataBuffer>> exportSongsCSV() {
+        Flux<String> csv = Flux.concat(
+                Flux.just("id,title,artist,label,genre,length\n"),
+                songs.findAll().map(song -> song.toCSV() + "\n"));
+        return ResponseEntity.ok().contentType(new MediaType("text", "csv")).body(Exports.stream(csv));
+    }
+
+    /**
+     * Exports all songs as a JSON array, in the format of the servlet export, streamed as the songs are read.
+     *
+     * @return the JSON with a 200 OK status
+     */
+    @GetMapping("/songs/export/json")
+    public ResponseEntity<Flux<DataBuffer>> exportSongsJSON() {
+        Flux<String> json = Flux.concat(
+                Flux.just("[\n"),
+                songs.findAll().index().map(song -> (song.getT1() == 0 ? "" : ",\n") + song.getT2().toJSON()),
+                Flux.just("\n]\n"));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(Exports.stream(json));
+    }
+
+    private static SongBatch batch(List<Integer> ids, Map<Integer, SongRecord> found) {
+        List<SongRecord> songList = new ArrayList<>(ids.size());
+        Set<Integer> missingIds = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            SongRecord song = found.get(id);
+            if (song != null) {
+                songList.add(song);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new SongBatch(songList, new ArrayList<>(missingIds));
+    }
+}
@@ -0,0 +1,92 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.controller;
+
+import nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.repository.ReviewReader;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.SongReview;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The song review read endpoints of the servlet SongReviewController.
+ */
+@RestController
+@RequestMapping("/songReviews")
+public class ReactiveSongReviewController {
+    private final ReviewReader<SongReview> reviews;
+
+    public ReactiveSongReviewController(ReviewReader<SongReview> reviews) {
+        this.reviews = reviews;
+    }
+
+    /**
+     * Retrieves a review by its ID.
+     *
+     * @param id ID of the review
+     * @return the review with a 200 OK status, or a 404 NOT FOUND if it does not exist
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<SongReview>> getReview(@PathVariable int id) {
+        return reviews.findById(id).map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams all reviews or the reviews of one song.
+     *
+     * @param songId optional ID of the song to filter the reviews by
+     * @return the reviews with a 200 OK status, or a 404 NOT FOUND if there are none
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<SongReview>>> getAllReviews(@RequestParam(value = "songId", required = false) Integer songId) {
+        int target = songId == null ? 0 : songId;
+        return reviews.existsByTarget(target).map(exists -> exists
+                ? ResponseEntity.ok(reviews.findByTarget(target))
+                : ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Calculates the average rating of a song.
+     *
+     * @param songId ID of the song
+     * @return the average rating with a 200 OK status, or a 404 NOT FOUND if the song has no reviews
+     */
+    @GetMapping("/averageRating")
+    public Mono<ResponseEntity<Float>> calculateAverageRating(@RequestParam int songId) {
+        return reviews.averageRating(songId).map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Exports the reviews of a song as JSON, in the format of the servlet export, streamed as they are read.
+     *
+     * @param songId ID of the song
+     * @return the JSON with a 200 OK status
+     */
+    @GetMapping("/export/json/{songId}")
+    public ResponseEntity<Flux<DataBuffer>> exportReviewsToJSON(@PathVariable int songId) {
+        Flux<String> json = Flux.concat(
+                Flux.just("[\n"),
+                reviews.findByTarget(songId).map(SongReview::toJSON),
+                Flux.just("]"));
+        return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(Exports.stream(json));
+    }
+
+    /**
+     * Exports the reviews of a song as CSV, in the format of the servlet export, streamed as they are read.
+     *
+     * @param songId ID of the song
+     * @return the CSV with a 200 OK status
+     */
+    @GetMapping("/export/csv/{songId}")
+    public ResponseEntity<Flux<DataBuffer>> exportReviewsToCSV(@PathVariable int songId) {
+        Flux<String> csv = Flux.concat(
+                Flux.just("reviewId,songId,rating,comment,reviewDate\n"),
+                reviews.findByTarget(songId).map(SongReview::toCSV));
+        return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(Exports.stream(csv));
+    }
+}
@@ -0,0 +1,146 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.repository;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import nl.rug.advancedprogramming.BookReviewAPI.Albums.models.Album;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Reads albums without blocking. The song IDs of an album live in their own table; listings fetch them for a batch
+ * of albums at a time instead of one query per album.
+ */
+@Repository
+public class AlbumReader {
+    private static final String SELECT = "SELECT id, title, artist, genre, release_date, total_duration, track_count,"
+            + " longest_track, shortest_track FROM album";
+    private static final Map<String, String> SEARCH_COLUMNS = Map.of(
+            "title", "title", "artist", "artist", "genre", "genre");
+
+    private final DatabaseClient db;
+    private final int batchSize;
+
+    public AlbumReader(DatabaseClient db, @Value("${albums.song-ids.batch-size:256}") int batchSize) {
+        this.db = db;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reads one album with its song IDs.
+     *
+     * @param id the ID of the album
+     * @return the album, or empty if it does not exist
+     */
+    public Mono<Album> findById(int id) {
+        return withSongIds(db.sql(SELECT + " WHERE id = :id").bind("id", id).map(AlbumReader::album).all()).next();
+    }
+
+    /**
+     * Streams all albums with their song IDs.
+     *
+     * @param sort the order, as built by the album service, or null for no particular order
+     * @return the albums
+     */
+    public Flux<Album> findAll(Sort sort) {
+        return withSongIds(db.sql(SELECT + orderBy(sort)).map(AlbumReader::album).all());
+    }
+
+    /**
+     * Streams all albums in ID order without reading their song IDs, for exports that do not list the songs.
+     *
+     * @return the albums, with empty song IDs
+     */
+    public Flux<Album> findAllWithoutSongIds() {
+        return db.sql(SELECT + " ORDER BY id").map(AlbumReader::album).all();
+    }
+
+    /**
+     * Streams the albums with a property equal to a value, with their song IDs.
+     *
+     * @param property the property: title, artist or genre
+     * @param value    the value to match
+     * @param sort     the order, as built by the album service, or null for no particular order
+     * @return the matching albums, or null if the albums can not be searched by the property
+     */
+    public Flux<Album> findByProperty(String property, String value, Sort sort) {
+        String column = SEARCH_COLUMNS.get(property);
+        if (column == null) {
+            return null;
+        }
+        return withSongIds(db.sql(SELECT + " WHERE " + column + " = :value" + orderBy(sort))
+                .bind("value", value).map(AlbumReader::album).all());
+    }
+
+    /**
+     * Calculates the average rating of an album.
+     *
+     * @param id the ID of the album
+     * @return the average, or empty if the album has no reviews
+     */
+    public Mono<Double> averageRating(int id) {
+        // Without reviews HAVING leaves no row, rather than a row with NULL
+        return db.sql("SELECT AVG(rating) AS average FROM album_review WHERE album_id = :id HAVING COUNT(*) > 0")
+                .bind("id", id)
+                .map((row, metadata) -> row.get("average", Double.class)).one();
+    }
+
+    /**
+     * Fills in the song IDs, one query per batch of albums. The order of the albums is kept.
+     */
+    private Flux<Album> withSongIds(Flux<Album> albums) {
+        return albums.buffer(batchSize).concatMap(batch -> {
+            Map<Integer, Album> byId = new HashMap<>();
+            for (Album album : batch) {
+                album.setSongIds(new ArrayList<>());
+                byId.put(album.getId(), album);
+            }
+            return db.sql("SELECT album_id, song_ids FROM album_song_ids WHERE album_id IN (:ids)")
+                    .bind("ids", byId.keySet())
+                    .map((row, metadata) -> {
+                        byId.get(row.get("album_id", Integer.class)).getSongIds().add(row.get("song_ids", Integer.class));
+                        return true;
+                    })
+                    .all()
+                    .thenMany(Flux.fromIterable(batch));
+        });
+    }
+
+    /**
+     * Turns the order of the album service into SQL. The fields have already been checked against the sortable
+     * fields, so they can be used as column names.
+     */
+    private static String orderBy(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return "";
+        }
+        StringJoiner orders = new StringJoiner(", ", " ORDER BY ", "");
+        for (Sort.Order order : sort) {
+            orders.add(order.getProperty().replaceAll("([A-Z])", "_$1").toLowerCase()
+                    + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return orders.toString();
+    }
+
+    private static Album album(Row row, RowMetadata metadata) {
+        LocalDateTime releaseDate = row.get("release_date", LocalDateTime.class);
+        Album album = new Album(row.get("title", String.class), row.get("artist", String.class),
+                row.get("genre", String.class), releaseDate == null ? null : Timestamp.valueOf(releaseDate));
+        album.setId(row.get("id", Integer.class));
+        album.setTotalDuration(row.get("total_duration", Integer.class));
+        album.setTrackCount(row.get("track_count", Integer.class));
+        album.setLongestTrack(row.get("longest_track", Integer.class));
+        album.setShortestTrack(row.get("shortest_track", Integer.class));
+        return album;
+    }
+}
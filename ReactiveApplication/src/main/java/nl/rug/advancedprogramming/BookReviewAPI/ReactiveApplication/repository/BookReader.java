@@ -0,0 +1,62 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.repository;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import nl.rug.advancedprogramming.BookReviewAPI.Books.models.Book;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * Reads books without blocking.
+ */
+@Repository
+public class BookReader {
+    private static final String SELECT = "SELECT isbn, title, author, publisher, genre, price FROM book";
+    // Property -> column; only these can be searched by
+    private static final Map<String, String> COLUMNS = Map.of(
+            "title", "title", "author", "author", "publisher", "publisher",
+            "isbn", "isbn", "genre", "genre", "price", "price");
+
+    private final DatabaseClient db;
+
+    public BookReader(DatabaseClient db) {
+        this.db = db;
+    }
+
+    /**
+     * Streams all books.
+     *
+     * @return the books, emitted as they are read
+     */
+    public Flux<Book> findAll() {
+        return db.sql(SELECT).map(BookReader::book).all();
+    }
+
+    /**
+     * Streams the books with a property equal to a value.
+     *
+     * @param property the property, e.g. author
+     * @param value    the value to match
+     * @return the matching books, or null if the books can not be searched by the property
+     * @throws NumberFormatException if the property is the price and the value is not a number
+     */
+    public Flux<Book> findByProperty(String property, String value) {
+        String column = COLUMNS.get(property);
+        if (column == null) {
+            return null;
+        }
+        Object parameter = column.equals("price") ? (Object) Double.parseDouble(value) : value;
+        return db.sql(SELECT + " WHERE " + column + " = :value").bind("value", parameter)
+                .map(BookReader::book).all();
+    }
+
+    private static Book book(Row row, RowMetadata metadata) {
+        Double price = row.get("price", Double.class);
+        return new Book(row.get("title", String.class), row.get("author", String.class),
+                row.get("publisher", String.class), row.get("isbn", String.class), row.get("genre", String.class),
+                price == null ? 0 : price);
+    }
+}
@@ -0,0 +1,103 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.repository;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Reads the reviews of one kind without blocking. The three review tables only differ in their name and the column
+ * referring to what is reviewed, see {@link ReviewReaders}.
+ *
+ * @param <T> the review entity
+ */
+public class ReviewReader<T> {
+    private final DatabaseClient db;
+    private final String select;
+    private final String targetColumn;
+    private final String table;
+    private final ReviewFactory<T> factory;
+
+    /**
+     * Creates the reviews of a row.
+     *
+     * @param <T> the review entity
+     */
+    @FunctionalInterface
+    public interface ReviewFactory<T> {
+        T create(int reviewId, int targetId, float rating, String comment, Date date);
+    }
+
+    ReviewReader(DatabaseClient db, String table, String targetColumn, ReviewFactory<T> factory) {
+        this.db = db;
+        this.table = table;
+        this.targetColumn = targetColumn;
+        this.factory = factory;
+        this.select = "SELECT review_id, " + targetColumn + ", rating, comment, date FROM " + table;
+    }
+
+    /**
+     * Reads one review.
+     *
+     * @param id the ID of the review
+     * @return the review, or empty if it does not exist
+     */
+    public Mono<T> findById(int id) {
+        return db.sql(select + " WHERE review_id = :id").bind("id", id).map(this::review).one();
+    }
+
+    /**
+     * Streams the reviews of an item, or all reviews, like the review services.
+     *
+     * @param targetId the ID of the reviewed item, below 1 for all reviews
+     * @return the reviews
+     */
+    public Flux<T> findByTarget(int targetId) {
+        if (targetId < 1) {
+            return db.sql(select).map(this::review).all();
+        }
+        return db.sql(select + " WHERE " + targetColumn + " = :target").bind("target", targetId)
+                .map(this::review).all();
+    }
+
+    /**
+     * Checks whether {@link #findByTarget(int)} has any reviews, without reading them.
+     *
+     * @param targetId the ID of the reviewed item, below 1 for all reviews
+     * @return whether there is at least one review
+     */
+    public Mono<Boolean> existsByTarget(int targetId) {
+        var query = targetId < 1
+                ? db.sql("SELECT 1 FROM " + table + " LIMIT 1")
+                : db.sql("SELECT 1 FROM " + table + " WHERE " + targetColumn + " = :target LIMIT 1")
+                .bind("target", targetId);
+        return query.map((row, metadata) -> true).first().hasElement();
+    }
+
+    /**
+     * Calculates the average rating of an item.
+     *
+     * @param targetId the ID of the reviewed item
+     * @return the average, or empty if the item has no reviews
+     */
+    public Mono<Float> averageRating(int targetId) {
+        // Without reviews HAVING leaves no row, rather than a row with NULL
+        return db.sql("SELECT AVG(rating) AS average FROM " + table + " WHERE " + targetColumn
+                        + " = :target HAVING COUNT(*) > 0")
+                .bind("target", targetId)
+                .map((row, metadata) -> row.get("average", Double.class).floatValue())
+                .one();
+    }
+
+    private T review(Row row, RowMetadata metadata) {
+        LocalDateTime date = row.get("date", LocalDateTime.class);
+        return factory.create(row.get("review_id", Integer.class), row.get(targetColumn, Integer.class),
+                row.get("rating", Float.class), row.get("comment", String.class),
+                date == null ? null : Timestamp.valueOf(date));
+    }
+}
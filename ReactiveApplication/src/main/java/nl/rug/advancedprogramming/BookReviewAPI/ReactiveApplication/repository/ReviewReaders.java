@@ -0,0 +1,42 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.repository;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReview;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.SongReview;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * The readers of the book, song and album reviews.
+ */
+@Configuration
+public class ReviewReaders {
+
+    @Bean
+    public ReviewReader<Review> bookReviewReader(DatabaseClient db) {
+        return new ReviewReader<>(db, "review", "book_id", (id, bookId, rating, comment, date) -> {
+            Review review = new Review(bookId, rating, comment, date);
+            review.setReviewId(id);
+            return review;
+        });
+    }
+
+    @Bean
+    public ReviewReader<SongReview> songReviewReader(DatabaseClient db) {
+        return new ReviewReader<>(db, "song_review", "song_id", (id, songId, rating, comment, date) -> {
+            SongReview review = new SongReview(songId, rating, comment, date);
+            review.setReviewId(id);
+            return review;
+        });
+    }
+
+    @Bean
+    public ReviewReader<AlbumReview> albumReviewReader(DatabaseClient db) {
+        return new ReviewReader<>(db, "album_review", "album_id", (id, albumId, rating, comment, date) -> {
+            AlbumReview review = new AlbumReview(albumId, rating, comment, date);
+            review.setReviewId(id);
+            return review;
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package nl.rug.advancedprogramming.BookReviewAPI.ReactiveApplication.repository;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reads songs without blocking.
+ */
+@Repository
+public class SongReader {
+    private static final String SELECT = "SELECT id, title, artist, label, genre, length FROM song";
+    // Property -> column; only these can be searched by
+    private static final Map<String, String> COLUMNS = Map.of(
+            "id", "id", "title", "title", "artist", "artist", "label", "label", "genre", "genre", "length", "length");
+
+    private final DatabaseClient db;
+
+    public SongReader(DatabaseClient db) {
+        this.db = db;
+    }
+
+    /**
+     * Streams all songs in ID order. The rows are read as the subscriber asks for them, so an export of every song
+     * holds only the rows in flight in memory.
+     *
+     * @return the songs
+     */
+    public Flux<Song> findAll() {
+        return db.sql(SELECT + " ORDER BY id").map(SongReader::song).all();
+    }
+
+    /**
+     * Streams the songs with the given IDs, in no particular order.
+     *
+     * @param ids the IDs, not empty
+     * @return the songs that exist
+     */
+    public Flux<Song> findAllById(Collection<Integer> ids) {
+        return db.sql(SELECT + " WHERE id IN (:ids)").bind("ids", ids).map(SongReader::song).all();
+    }
+
+    /**
+     * Streams the songs with a property equal to a value.
+     *
+     * @param property the property, e.g. artist
+     * @param value    the value to match
+     * @return the matching songs, or null if the songs can not be searched by the property
+     * @throws NumberFormatException if the property is the ID or length and the value is not a number
+     */
+    public Flux<Song> findByProperty(String property, String value) {
+        String column = COLUMNS.get(property);
+        if (column == null) {
+            return null;
+        }
+        Object parameter = column.equals("id") || column.equals("length") ? (Object) Integer.parseInt(value) : value;
+        return db.sql(SELECT + " WHERE " + column + " = :value").bind("value", parameter)
+                .map(SongReader::song).all();
+    }
+
+    private static Song song(Row row, RowMetadata metadata) {
+        Integer length = row.get("length", Integer.class);
+        return new Song(row.get("id", Integer.class), row.get("title", String.class), row.get("artist", String.class),
+                row.get("label", String.class), row.get("genre", String.class), length == null ? 0 : length);
+    }
+}
@@ -1,27 +1,40 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Reviews.controller;
 
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReview;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReviewRecord;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.service.AlbumReviewService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.controller.ImportJobController;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJob;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ImportJobService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/albumReviews")
 public class AlbumReviewController {
+    private static final String IMPORT_JSON = "albumReviews-json";
+    private static final String IMPORT_CSV = "albumReviews-csv";
+
     private final AlbumReviewService albumReviewService;
+    private final ImportJobService importJobService;
 
     /**
-     * Constructor to initialize the ReviewService.
+     * Constructor to initialize the ReviewService and register its imports as background jobs.
      *
-     * @param reviewService Service layer for review operations.
+     * @param reviewService    Service layer for review operations.
+     * @param importJobService Service running the imports as background jobs.
      */
-    public AlbumReviewController(AlbumReviewService reviewService) {
+    public AlbumReviewController(AlbumReviewService reviewService, ImportJobService importJobService) {
         this.albumReviewService = reviewService;
+        this.importJobService = importJobService;
+        importJobService.register(IMPORT_JSON, ImportJobService.chunked(reviewService::importReviewsJSON));
+        importJobService.register(IMPORT_CSV, ImportJobService.chunked(reviewService::importReviewsCSV));
     }
 
     /**
@@ -42,8 +55,8 @@ public class AlbumReviewController {
      * @return ResponseEntity containing the review if found, or 404 if not found.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<AlbumReview> getReview(@PathVariable int id) {
-        Optional<AlbumReview> review = albumReviewService.getReview(id);
+    public ResponseEntity<AlbumReviewRecord> getReview(@PathVariable int id) {
+        Optional<AlbumReviewRecord> review = albumReviewService.getReview(id);
         return review.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -87,11 +100,12 @@ public class AlbumReviewController {
      * @return ResponseEntity containing the list of reviews and HTTP status code.
      */
     @GetMapping
-    public ResponseEntity<List<AlbumReview>> getAllReviews(@RequestParam(value = "albumId", required = false) Integer albumId) {
+    public ResponseEntity<List<AlbumReviewRecord>> getAllReviews(
+            @RequestParam(value = "albumId", required = false) Integer albumId) {
         if (albumId == null) {
             albumId = 0;
         }
-        List<AlbumReview> reviews = albumReviewService.getAllReviews(albumId);
+        List<AlbumReviewRecord> reviews = albumReviewService.getReviewRecords(albumId);
         if (reviews.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -115,35 +129,35 @@ public class AlbumReviewController {
     }
 
     /**
-     * Imports reviews from a JSON string.
+     * Imports reviews from a JSON array as a background job. The reviews are committed in chunks; if the job
+     * fails or is cancelled, sending the same data again with the same import ID resumes after the last committed
+     * chunk.
      *
-     * @param data JSON formatted string containing reviews.
-     * @return ResponseEntity with HTTP status 201 if successfully imported, or 400 if an error occurs.
+     * @param importId Optional ID of the import and its job. A new one is generated if not given.
+     * @param data     JSON formatted stream containing reviews.
+     * @return ResponseEntity with HTTP status 202, the job and its location in the Location header, 400 if the data
+     * cannot be read, 409 if the import is still running or 503 if too many imports are waiting.
      */
     @PostMapping("/import/json")
-    public ResponseEntity<AlbumReview> importReviewsFromJSON(@RequestBody String data) {
-        try {
-            albumReviewService.importReviewsJSON(data);
-            return new ResponseEntity<>(HttpStatus.CREATED);
-        } catch (IOException e) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
+    public ResponseEntity<ImportJob> importReviewsFromJSON(@RequestParam Optional<String> importId, InputStream data) {
+        String id = importId.orElseGet(() -> UUID.randomUUID().toString());
+        return ImportJobController.accept(() -> importJobService.submit(id, IMPORT_JSON, data));
     }
 
     /**
-     * Imports reviews from a CSV string.
+     * Imports reviews from CSV data starting with a header row as a background job. The reviews are committed in
+     * chunks; if the job fails or is cancelled, sending the same data again with the same import ID resumes after
+     * the last committed chunk.
      *
-     * @param data CSV formatted string containing reviews.
-     * @return ResponseEntity with HTTP status 201 if successfully imported, or 400 if an error occurs.
+     * @param importId Optional ID of the import and its job. A new one is generated if not given.
+     * @param data     CSV formatted stream containing reviews.
+     * @return ResponseEntity with HTTP status 202, the job and its location in the Location header, 400 if the data
+     * cannot be read, 409 if the import is still running or 503 if too many imports are waiting.
      */
     @PostMapping("/import/csv")
-    public ResponseEntity<AlbumReview> importReviewsFromCSV(@RequestBody String data) {
-        try {
-            albumReviewService.importReviewsCSV(data);
-            return new ResponseEntity<>(HttpStatus.CREATED);
-        } catch (IOException e) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
+    public ResponseEntity<ImportJob> importReviewsFromCSV(@RequestParam Optional<String> importId, InputStream data) {
+        String id = importId.orElseGet(() -> UUID.randomUUID().toString());
+        return ImportJobController.accept(() -> importJobService.submit(id, IMPORT_CSV, data));
     }
 
     /**
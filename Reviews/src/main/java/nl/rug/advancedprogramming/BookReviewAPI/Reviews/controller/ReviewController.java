@@ -1,14 +1,19 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Reviews.controller;
 
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewRecord;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.service.ReviewService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.controller.ImportJobController;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJob;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ImportJobService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Controller class responsible for handling HTTP requests related to reviews.
@@ -19,15 +24,23 @@ import java.util.Optional;
 @RequestMapping("/reviews")
 public class ReviewController {
 
+    private static final String IMPORT_JSON = "reviews-json";
+    private static final String IMPORT_CSV = "reviews-csv";
+
     private final ReviewService reviewService;
+    private final ImportJobService importJobService;
 
     /**
-     * Constructor to initialize the ReviewService.
+     * Constructor to initialize the ReviewService and register its imports as background jobs.
      *
-     * @param reviewService Service layer for review operations.
+     * @param reviewService    Service layer for review operations.
+     * @param importJobService Service running the imports as background jobs.
      */
-    public ReviewController(ReviewService reviewService) {
+    public ReviewController(ReviewService reviewService, ImportJobService importJobService) {
         this.reviewService = reviewService;
+        this.importJobService = importJobService;
+        importJobService.register(IMPORT_JSON, ImportJobService.chunked(reviewService::importReviewsJSON));
+        importJobService.register(IMPORT_CSV, ImportJobService.chunked(reviewService::importReviewsCSV));
     }
 
     /**
@@ -48,8 +61,8 @@ public class ReviewController {
      * @return ResponseEntity containing the review if found, or 404 if not found.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Review> getReview(@PathVariable int id) {
-        Optional<Review> review = reviewService.getReview(id);
+    public ResponseEntity<ReviewRecord> getReview(@PathVariable int id) {
+        Optional<ReviewRecord> review = reviewService.getReview(id);
         return review.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -93,11 +106,12 @@ public class ReviewController {
      * @return ResponseEntity containing the list of reviews and HTTP status code.
      */
     @GetMapping
-    public ResponseEntity<List<Review>> getAllReviews(@RequestParam(value = "bookId", required = false) Integer bookId) {
+    public ResponseEntity<List<ReviewRecord>> getAllReviews(
+            @RequestParam(value = "bookId", required = false) Integer bookId) {
         if (bookId == null) {
             bookId = 0;
         }
-        List<Review> reviews = reviewService.getAllReviews(bookId);
+        List<ReviewRecord> reviews = reviewService.getReviewRecords(bookId);
         if (reviews.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -121,35 +135,35 @@ public class ReviewController {
     }
 
     /**
-     * Imports reviews from a JSON string.
+     * Imports reviews from a JSON array as a background job. The reviews are committed in chunks; if the job
+     * fails or is cancelled, sending the same data again with the same import ID resumes after the last committed
+     * chunk.
      *
-     * @param data JSON formatted string containing reviews.
-     * @return ResponseEntity with HTTP status 201 if successfully imported, or 400 if an error occurs.
+     * @param importId Optional ID of the import and its job. A new one is generated if not given.
+     * @param data     JSON formatted stream containing reviews.
+     * @return ResponseEntity with HTTP status 202, the job and its location in the Location header, 400 if the data
+     * cannot be read, 409 if the import is still running or 503 if too many imports are waiting.
      */
     @PostMapping("/import/json")
-    public ResponseEntity<Review> importReviewsFromJSON(@RequestBody String data) {
-        try {
-            reviewService.importReviewsJSON(data);
-            return new ResponseEntity<>(HttpStatus.CREATED);
-        } catch (IOException e) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
+    public ResponseEntity<ImportJob> importReviewsFromJSON(@RequestParam Optional<String> importId, InputStream data) {
+        String id = importId.orElseGet(() -> UUID.randomUUID().toString());
+        return ImportJobController.accept(() -> importJobService.submit(id, IMPORT_JSON, data));
     }
 
     /**
-     * Imports reviews from a CSV string.
+     * Imports reviews from CSV data starting with a header row as a background job. The reviews are committed in
+     * chunks; if the job fails or is cancelled, sending the same data again with the same import ID resumes after
+     * the last committed chunk.
      *
-     * @param data CSV formatted string containing reviews.
-     * @return ResponseEntity with HTTP status 201 if successfully imported, or 400 if an error occurs.
+     * @param importId Optional ID of the import and its job. A new one is generated if not given.
+     * @param data     CSV formatted stream containing reviews.
+     * @return ResponseEntity with HTTP status 202, the job and its location in the Location header, 400 if the data
+     * cannot be read, 409 if the import is still running or 503 if too many imports are waiting.
      */
     @PostMapping("/import/csv")
-    public ResponseEntity<Review> importReviewsFromCSV(@RequestBody String data) {
-        try {
-            reviewService.importReviewsCSV(data);
-            return new ResponseEntity<>(HttpStatus.CREATED);
-        } catch (IOException e) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
+    public ResponseEntity<ImportJob> importReviewsFromCSV(@RequestParam Optional<String> importId, InputStream data) {
+        String id = importId.orElseGet(() -> UUID.randomUUID().toString());
+        return ImportJobController.accept(() -> importJobService.submit(id, IMPORT_CSV, data));
     }
 
     /**
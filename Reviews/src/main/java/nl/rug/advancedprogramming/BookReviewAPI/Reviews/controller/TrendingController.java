@@ -0,0 +1,54 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.controller;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewTarget;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.TrendingItem;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.service.ReviewRollupService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller class responsible for the trending lists of books, songs and albums.
+ * The lists are computed from the review rollups only, never from the review tables themselves.
+ */
+@RestController
+@RequestMapping("/trending")
+public class TrendingController {
+    private final ReviewRollupService rollupService;
+
+    /**
+     * Constructor to initialize the ReviewRollupService.
+     *
+     * @param rollupService Service layer for the review rollups.
+     */
+    public TrendingController(ReviewRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    /**
+     * Retrieves the most reviewed books, songs or albums within a window.
+     *
+     * @param type   Kind of item: book, song or album.
+     * @param window Window to look at: day, week or month. Defaults to week.
+     * @param limit  Maximum number of items to return. Defaults to 10.
+     * @return ResponseEntity containing the trending items, most reviewed first, with HTTP status 200,
+     * or 400 if the type, window or limit is invalid.
+     */
+    @GetMapping
+    public ResponseEntity<List<TrendingItem>> getTrending(@RequestParam String type,
+                                                          @RequestParam(defaultValue = "week") String window,
+                                                          @RequestParam(defaultValue = "10") int limit) {
+        ReviewTarget target = ReviewTarget.fromString(type);
+        if (target == null || limit < 1) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+
+        List<TrendingItem> trending = rollupService.getTrending(target, window, limit);
+        if (trending == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        return ResponseEntity.ok(trending);
+    }
+}
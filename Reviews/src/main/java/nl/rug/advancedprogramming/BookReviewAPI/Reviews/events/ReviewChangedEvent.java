@@ -0,0 +1,13 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.events;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewTarget;
+
+/**
+ * Published after a review of an item was added, updated or deleted, so that read models
+ * containing the rating of that item can be refreshed.
+ *
+ * @param target   the kind of item the review belongs to.
+ * @param targetId the ID of the book, song or album.
+ */
+public record ReviewChangedEvent(ReviewTarget target, int targetId) {
+}
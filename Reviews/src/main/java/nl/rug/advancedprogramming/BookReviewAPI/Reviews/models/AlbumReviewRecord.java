@@ -0,0 +1,16 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.models;
+
+import java.util.Date;
+
+/**
+ * Read-only view of an album review as returned by the review endpoints, selected column by column instead of
+ * loading {@link AlbumReview} entities.
+ *
+ * @param reviewId the ID of the review
+ * @param albumId  the ID of the reviewed album
+ * @param rating   the rating given
+ * @param comment  the comment of the reviewer
+ * @param date     the date the review was made
+ */
+public record AlbumReviewRecord(int reviewId, int albumId, float rating, String comment, Date date) {
+}
@@ -0,0 +1,16 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.models;
+
+import java.util.Date;
+
+/**
+ * Read-only view of a book review as returned by the review endpoints, selected column by column instead of
+ * loading {@link Review} entities.
+ *
+ * @param reviewId the ID of the review
+ * @param bookId   the ID of the reviewed book
+ * @param rating   the rating given
+ * @param comment  the comment of the reviewer
+ * @param date     the date the review was made
+ */
+public record ReviewRecord(int reviewId, int bookId, float rating, String comment, Date date) {
+}
@@ -0,0 +1,39 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The number of reviews and the sum of their ratings that one book, song or album received
+ * within one time bucket. Rows are only ever written through the upsert queries in
+ * {@link nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.ReviewRollupRepository},
+ * so that concurrent writers add to the same bucket instead of overwriting each other.
+ */
+@Entity
+@Getter
+@Setter
+@IdClass(ReviewRollupId.class)
+public class ReviewRollup {
+    @Id
+    @Enumerated(EnumType.STRING)
+    private ReviewTarget targetType;
+    @Id
+    @Enumerated(EnumType.STRING)
+    private RollupGranularity granularity;
+    @Id
+    private LocalDateTime bucketStart;
+    @Id
+    private int targetId;
+    private long reviewCount;
+    private double ratingSum;
+
+    /**
+     * Default constructor required by the framework.
+     */
+    public ReviewRollup() {
+
+    }
+}
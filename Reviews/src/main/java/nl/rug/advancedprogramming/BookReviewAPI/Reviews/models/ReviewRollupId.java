@@ -0,0 +1,28 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.models;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Composite primary key of a {@link ReviewRollup}.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class ReviewRollupId implements Serializable {
+    private ReviewTarget targetType;
+    private RollupGranularity granularity;
+    private LocalDateTime bucketStart;
+    private int targetId;
+
+    /**
+     * Default constructor required by the framework.
+     */
+    public ReviewRollupId() {
+
+    }
+}
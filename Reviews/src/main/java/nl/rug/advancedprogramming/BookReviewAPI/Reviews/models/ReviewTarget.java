@@ -0,0 +1,26 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.models;
+
+/**
+ * The kinds of items that can be reviewed. Used to tell the review types apart in tables
+ * that aggregate over all of them, such as the review rollups.
+ */
+public enum ReviewTarget {
+    BOOK,
+    SONG,
+    ALBUM;
+
+    /**
+     * Parses a target type as given in a request parameter, e.g. "book" or "SONG".
+     *
+     * @param value the name of the target type, case insensitive.
+     * @return the matching ReviewTarget, or null if there is none.
+     */
+    public static ReviewTarget fromString(String value) {
+        for (ReviewTarget target : values()) {
+            if (target.name().equalsIgnoreCase(value)) {
+                return target;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,27 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.models;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The size of the time buckets that review rollups are kept in.
+ */
+public enum RollupGranularity {
+    HOUR,
+    DAY,
+    MONTH;
+
+    /**
+     * Truncates a point in time to the start of the bucket it falls in.
+     *
+     * @param time the time to truncate.
+     * @return the start of the bucket containing the given time.
+     */
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+    }
+}
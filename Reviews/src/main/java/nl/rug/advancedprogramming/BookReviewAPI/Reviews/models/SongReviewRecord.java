@@ -0,0 +1,16 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.models;
+
+import java.util.Date;
+
+/**
+ * Read-only view of a song review as returned by the review endpoints, selected column by column instead of
+ * loading {@link SongReview} entities.
+ *
+ * @param reviewId the ID of the review
+ * @param songId   the ID of the reviewed song
+ * @param rating   the rating given
+ * @param comment  the comment of the reviewer
+ * @param date     the date the review was made
+ */
+public record SongReviewRecord(int reviewId, int songId, float rating, String comment, Date date) {
+}
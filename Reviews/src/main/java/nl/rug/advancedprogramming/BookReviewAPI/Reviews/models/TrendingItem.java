@@ -0,0 +1,12 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.models;
+
+/**
+ * One entry of a trending list: a reviewed item together with the number of reviews
+ * it received within the requested window and their average rating.
+ *
+ * @param targetId      the ID of the book, song or album.
+ * @param reviewCount   the number of reviews within the window.
+ * @param averageRating the average rating of those reviews.
+ */
+public record TrendingItem(int targetId, long reviewCount, double averageRating) {
+}
@@ -0,0 +1,76 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufCodec;
+
+import java.io.IOException;
+import java.util.Date;
+
+import static nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufFields.*;
+
+/**
+ * Protobuf codec for the three review types, see protobuf/review.proto. Their messages only differ in the name of
+ * field 2, the ID of the reviewed book, song or album.
+ *
+ * @param <T> the review type.
+ */
+abstract class AbstractReviewProtobufCodec<T> implements ProtobufCodec<T> {
+    private static final int REVIEW_ID = 1;
+    private static final int TARGET_ID = 2;
+    private static final int RATING = 3;
+    private static final int COMMENT = 4;
+    private static final int DATE = 5;
+
+    protected abstract int reviewId(T review);
+
+    protected abstract int targetId(T review);
+
+    protected abstract float rating(T review);
+
+    protected abstract String comment(T review);
+
+    protected abstract Date date(T review);
+
+    protected abstract T create(int reviewId, int targetId, float rating, String comment, Date date);
+
+    @Override
+    public int size(T review) {
+        return int32Size(REVIEW_ID, reviewId(review))
+                + int32Size(TARGET_ID, targetId(review))
+                + floatSize(RATING, rating(review))
+                + stringSize(COMMENT, comment(review))
+                + dateSize(DATE, date(review));
+    }
+
+    @Override
+    public void write(T review, CodedOutputStream out) throws IOException {
+        writeInt32(out, REVIEW_ID, reviewId(review));
+        writeInt32(out, TARGET_ID, targetId(review));
+        writeFloat(out, RATING, rating(review));
+        writeString(out, COMMENT, comment(review));
+        writeDate(out, DATE, date(review));
+    }
+
+    @Override
+    public T read(CodedInputStream in) throws IOException {
+        int reviewId = 0;
+        int targetId = 0;
+        float rating = 0;
+        String comment = null;
+        Date date = null;
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case REVIEW_ID -> reviewId = in.readInt32();
+                case TARGET_ID -> targetId = in.readInt32();
+                case RATING -> rating = in.readFloat();
+                case COMMENT -> comment = in.readStringRequireUtf8();
+                case DATE -> date = readDate(in);
+                default -> in.skipField(tag);
+            }
+        }
+        return create(reviewId, targetId, rating, comment, date);
+    }
+}
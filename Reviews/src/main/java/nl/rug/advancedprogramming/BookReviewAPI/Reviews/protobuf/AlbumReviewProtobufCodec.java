@@ -0,0 +1,50 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.protobuf;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReview;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Protobuf codec for album reviews.
+ */
+@Component
+public class AlbumReviewProtobufCodec extends AbstractReviewProtobufCodec<AlbumReview> {
+
+    @Override
+    public Class<AlbumReview> type() {
+        return AlbumReview.class;
+    }
+
+    @Override
+    protected int reviewId(AlbumReview review) {
+        return review.getReviewId();
+    }
+
+    @Override
+    protected int targetId(AlbumReview review) {
+        return review.getAlbumId();
+    }
+
+    @Override
+    protected float rating(AlbumReview review) {
+        return review.getRating();
+    }
+
+    @Override
+    protected String comment(AlbumReview review) {
+        return review.getComment();
+    }
+
+    @Override
+    protected Date date(AlbumReview review) {
+        return review.getDate();
+    }
+
+    @Override
+    protected AlbumReview create(int reviewId, int targetId, float rating, String comment, Date date) {
+        AlbumReview review = new AlbumReview(targetId, rating, comment, date);
+        review.setReviewId(reviewId);
+        return review;
+    }
+}
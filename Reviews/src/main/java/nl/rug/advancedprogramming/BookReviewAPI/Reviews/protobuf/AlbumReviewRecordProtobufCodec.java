@@ -0,0 +1,48 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.protobuf;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReviewRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Protobuf codec for album reviews read as records. They use the same message as the entities.
+ */
+@Component
+public class AlbumReviewRecordProtobufCodec extends AbstractReviewProtobufCodec<AlbumReviewRecord> {
+
+    @Override
+    public Class<AlbumReviewRecord> type() {
+        return AlbumReviewRecord.class;
+    }
+
+    @Override
+    protected int reviewId(AlbumReviewRecord review) {
+        return review.reviewId();
+    }
+
+    @Override
+    protected int targetId(AlbumReviewRecord review) {
+        return review.albumId();
+    }
+
+    @Override
+    protected float rating(AlbumReviewRecord review) {
+        return review.rating();
+    }
+
+    @Override
+    protected String comment(AlbumReviewRecord review) {
+        return review.comment();
+    }
+
+    @Override
+    protected Date date(AlbumReviewRecord review) {
+        return review.date();
+    }
+
+    @Override
+    protected AlbumReviewRecord create(int reviewId, int targetId, float rating, String comment, Date date) {
+        return new AlbumReviewRecord(reviewId, targetId, rating, comment, date);
+    }
+}
@@ -0,0 +1,50 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.protobuf;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Protobuf codec for book reviews.
+ */
+@Component
+public class ReviewProtobufCodec extends AbstractReviewProtobufCodec<Review> {
+
+    @Override
+    public Class<Review> type() {
+        return Review.class;
+    }
+
+    @Override
+    protected int reviewId(Review review) {
+        return review.getReviewId();
+    }
+
+    @Override
+    protected int targetId(Review review) {
+        return review.getBookId();
+    }
+
+    @Override
+    protected float rating(Review review) {
+        return review.getRating();
+    }
+
+    @Override
+    protected String comment(Review review) {
+        return review.getComment();
+    }
+
+    @Override
+    protected Date date(Review review) {
+        return review.getDate();
+    }
+
+    @Override
+    protected Review create(int reviewId, int targetId, float rating, String comment, Date date) {
+        Review review = new Review(targetId, rating, comment, date);
+        review.setReviewId(reviewId);
+        return review;
+    }
+}
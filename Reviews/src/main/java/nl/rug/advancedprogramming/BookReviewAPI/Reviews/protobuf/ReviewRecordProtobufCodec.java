@@ -0,0 +1,48 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.protobuf;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Protobuf codec for book reviews read as records. They use the same message as the entities.
+ */
+@Component
+public class ReviewRecordProtobufCodec extends AbstractReviewProtobufCodec<ReviewRecord> {
+
+    @Override
+    public Class<ReviewRecord> type() {
+        return ReviewRecord.class;
+    }
+
+    @Override
+    protected int reviewId(ReviewRecord review) {
+        return review.reviewId();
+    }
+
+    @Override
+    protected int targetId(ReviewRecord review) {
+        return review.bookId();
+    }
+
+    @Override
+    protected float rating(ReviewRecord review) {
+        return review.rating();
+    }
+
+    @Override
+    protected String comment(ReviewRecord review) {
+        return review.comment();
+    }
+
+    @Override
+    protected Date date(ReviewRecord review) {
+        return review.date();
+    }
+
+    @Override
+    protected ReviewRecord create(int reviewId, int targetId, float rating, String comment, Date date) {
+        return new ReviewRecord(reviewId, targetId, rating, comment, date);
+    }
+}
@@ -0,0 +1,50 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.protobuf;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.SongReview;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Protobuf codec for song reviews.
+ */
+@Component
+public class SongReviewProtobufCodec extends AbstractReviewProtobufCodec<SongReview> {
+
+    @Override
+    public Class<SongReview> type() {
+        return SongReview.class;
+    }
+
+    @Override
+    protected int reviewId(SongReview review) {
+        return review.getReviewId();
+    }
+
+    @Override
+    protected int targetId(SongReview review) {
+        return review.getSongId();
+    }
+
+    @Override
+    protected float rating(SongReview review) {
+        return review.getRating();
+    }
+
+    @Override
+    protected String comment(SongReview review) {
+        return review.getComment();
+    }
+
+    @Override
+    protected Date date(SongReview review) {
+        return review.getDate();
+    }
+
+    @Override
+    protected SongReview create(int reviewId, int targetId, float rating, String comment, Date date) {
+        SongReview review = new SongReview(targetId, rating, comment, date);
+        review.setReviewId(reviewId);
+        return review;
+    }
+}
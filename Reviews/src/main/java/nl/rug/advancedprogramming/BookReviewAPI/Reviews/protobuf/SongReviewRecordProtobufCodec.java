@@ -0,0 +1,48 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.protobuf;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.SongReviewRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Protobuf codec for song reviews read as records. They use the same message as the entities.
+ */
+@Component
+public class SongReviewRecordProtobufCodec extends AbstractReviewProtobufCodec<SongReviewRecord> {
+
+    @Override
+    public Class<SongReviewRecord> type() {
+        return SongReviewRecord.class;
+    }
+
+    @Override
+    protected int reviewId(SongReviewRecord review) {
+        return review.reviewId();
+    }
+
+    @Override
+    protected int targetId(SongReviewRecord review) {
+        return review.songId();
+    }
+
+    @Override
+    protected float rating(SongReviewRecord review) {
+        return review.rating();
+    }
+
+    @Override
+    protected String comment(SongReviewRecord review) {
+        return review.comment();
+    }
+
+    @Override
+    protected Date date(SongReviewRecord review) {
+        return review.date();
+    }
+
+    @Override
+    protected SongReviewRecord create(int reviewId, int targetId, float rating, String comment, Date date) {
+        return new SongReviewRecord(reviewId, targetId, rating, comment, date);
+    }
+}
@@ -1,10 +1,15 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository;
 
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReview;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReviewRecord;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for managing `AlbumReview` entities, providing CRUD operations and
@@ -13,6 +18,12 @@ import java.util.List;
 @Repository
 public interface AlbumReviewRepository extends CrudRepository<AlbumReview, Integer> {
 
+    /**
+     * Selects the columns of the {@link AlbumReviewRecord}s returned by the review endpoints.
+     */
+    String SELECT_RECORD = "SELECT new nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReviewRecord("
+            + "r.reviewId, r.albumId, r.rating, r.comment, r.date) FROM AlbumReview r";
+
     /**
      * Retrieves a list of album reviews based on the ID of the associated album.
      *
@@ -20,4 +31,41 @@ public interface AlbumReviewRepository extends CrudRepository<AlbumReview, Integ
      * @return a list of `AlbumReview` objects for the specified album.
      */
     List<AlbumReview> findByAlbumId(int albumId);
+
+    /**
+     * Retrieves the review count and average rating of several albums with one grouped query.
+     * Albums without reviews are not part of the result.
+     *
+     * @param albumIds the IDs of the albums.
+     * @return one summary per reviewed album.
+     */
+    @Query("SELECT r.albumId AS targetId, COUNT(r) AS reviewCount, AVG(r.rating) AS averageRating " +
+            "FROM AlbumReview r WHERE r.albumId IN :albumIds GROUP BY r.albumId")
+    List<RatingSummary> summarizeByAlbumIdIn(@Param("albumIds") Collection<Integer> albumIds);
+
+    /**
+     * Retrieves a review as a record, without loading the entity.
+     *
+     * @param id the ID of the review.
+     * @return an Optional containing the review if found, or empty if not.
+     */
+    @Query(SELECT_RECORD + " WHERE r.reviewId = :id")
+    Optional<AlbumReviewRecord> findRecordById(@Param("id") int id);
+
+    /**
+     * Retrieves all reviews as records.
+     *
+     * @return the reviews.
+     */
+    @Query(SELECT_RECORD)
+    List<AlbumReviewRecord> findAllRecords();
+
+    /**
+     * Retrieves the reviews of a album as records.
+     *
+     * @param albumId the ID of the album.
+     * @return the reviews of the album.
+     */
+    @Query(SELECT_RECORD + " WHERE r.albumId = :albumId")
+    List<AlbumReviewRecord> findRecordsByAlbumId(@Param("albumId") int albumId);
 }
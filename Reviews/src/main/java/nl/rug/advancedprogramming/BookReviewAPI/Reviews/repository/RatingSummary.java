@@ -0,0 +1,12 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository;
+
+/**
+ * Projection of the reviews of one item, as returned by the grouped rating queries.
+ */
+public interface RatingSummary {
+    int getTargetId();
+
+    long getReviewCount();
+
+    double getAverageRating();
+}
@@ -1,10 +1,14 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository;
 
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewRecord;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * ReviewRepository interface for performing CRUD operations on Review entities.
@@ -14,6 +18,12 @@ import java.util.List;
 @Repository
 public interface ReviewRepository extends CrudRepository<Review, Integer> {
 
+    /**
+     * Selects the columns of the {@link ReviewRecord}s returned by the review endpoints.
+     */
+    String SELECT_RECORD = "SELECT new nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewRecord("
+            + "r.reviewId, r.bookId, r.rating, r.comment, r.date) FROM Review r";
+
     /**
      * Finds all reviews for a given book based on the book's ID.
      *
@@ -21,4 +31,30 @@ public interface ReviewRepository extends CrudRepository<Review, Integer> {
      * @return a list of reviews corresponding to the specified book ID
      */
     List<Review> findByBookId(int bookId);
+
+    /**
+     * Retrieves a review as a record, without loading the entity.
+     *
+     * @param id the ID of the review.
+     * @return an Optional containing the review if found, or empty if not.
+     */
+    @Query(SELECT_RECORD + " WHERE r.reviewId = :id")
+    Optional<ReviewRecord> findRecordById(@Param("id") int id);
+
+    /**
+     * Retrieves all reviews as records.
+     *
+     * @return the reviews.
+     */
+    @Query(SELECT_RECORD)
+    List<ReviewRecord> findAllRecords();
+
+    /**
+     * Retrieves the reviews of a book as records.
+     *
+     * @param bookId the ID of the book.
+     * @return the reviews of the book.
+     */
+    @Query(SELECT_RECORD + " WHERE r.bookId = :bookId")
+    List<ReviewRecord> findRecordsByBookId(@Param("bookId") int bookId);
 }
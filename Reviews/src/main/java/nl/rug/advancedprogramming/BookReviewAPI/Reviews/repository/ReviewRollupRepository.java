@@ -0,0 +1,106 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository;
+
+import jakarta.persistence.QueryHint;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewRollup;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewRollupId;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the time-bucketed review rollups. Buckets are updated with upserts that add to
+ * the stored totals, so the rollups stay correct when several reviews for the same bucket are
+ * written at the same time.
+ * <p>
+ * The native writes declare that they only touch the review_rollup table. Without that Hibernate cannot tell
+ * what they change and empties the whole second-level cache when they commit.
+ * </p>
+ */
+@Repository
+public interface ReviewRollupRepository extends CrudRepository<ReviewRollup, ReviewRollupId> {
+
+    /**
+     * Aggregated rollup totals of a single reviewed item.
+     */
+    interface TrendingRow {
+        int getTargetId();
+
+        long getReviewCount();
+
+        double getRatingSum();
+    }
+
+    /**
+     * Adds a number of reviews and their rating sum to a bucket, creating the bucket if it does not exist yet.
+     * Negative values are used to take reviews back out of a bucket.
+     *
+     * @param targetType  the name of the {@link nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewTarget}.
+     * @param targetId    the ID of the reviewed item.
+     * @param granularity the name of the {@link nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.RollupGranularity}.
+     * @param bucketStart the start of the bucket.
+     * @param count       the number of reviews to add.
+     * @param ratingSum   the sum of the ratings to add.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "review_rollup"))
+    @Query(value = "INSERT INTO review_rollup (target_type, target_id, granularity, bucket_start, review_count, rating_sum) " +
+            "VALUES (:targetType, :targetId, :granularity, :bucketStart, :count, :ratingSum) " +
+            "ON DUPLICATE KEY UPDATE review_count = review_count + VALUES(review_count), " +
+            "rating_sum = rating_sum + VALUES(rating_sum)", nativeQuery = true)
+    void add(@Param("targetType") String targetType, @Param("targetId") int targetId,
+             @Param("granularity") String granularity, @Param("bucketStart") LocalDateTime bucketStart,
+             @Param("count") long count, @Param("ratingSum") double ratingSum);
+
+    /**
+     * Sums up the buckets of one granularity since a point in time and returns the items with the most reviews.
+     *
+     * @param targetType  the name of the review target to get the trending items of.
+     * @param granularity the name of the granularity of the buckets to sum up.
+     * @param since       the start of the window, inclusive.
+     * @param limit       the maximum number of items to return.
+     * @return the items with the most reviews in the window, most reviewed first.
+     */
+    @Query(value = "SELECT target_id AS targetId, SUM(review_count) AS reviewCount, SUM(rating_sum) AS ratingSum " +
+            "FROM review_rollup " +
+            "WHERE target_type = :targetType AND granularity = :granularity AND bucket_start >= :since " +
+            "GROUP BY target_id HAVING SUM(review_count) > 0 " +
+            "ORDER BY reviewCount DESC, targetId " +
+            "LIMIT :limit", nativeQuery = true)
+    List<TrendingRow> findTrending(@Param("targetType") String targetType, @Param("granularity") String granularity,
+                                   @Param("since") LocalDateTime since, @Param("limit") int limit);
+
+    /**
+     * Removes all buckets of one granularity that start before the given time.
+     *
+     * @param granularity the name of the granularity of the buckets to remove.
+     * @param cutoff      buckets starting before this time are removed.
+     * @return the number of removed buckets.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "review_rollup"))
+    @Query(value = "DELETE FROM review_rollup WHERE granularity = :granularity AND bucket_start < :cutoff", nativeQuery = true)
+    int deleteOlderThan(@Param("granularity") String granularity, @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Folds the daily buckets that start before the given time into monthly buckets.
+     * The daily buckets themselves are left in place and have to be removed afterwards.
+     *
+     * @param cutoff daily buckets starting before this time are folded.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "review_rollup"))
+    @Query(value = "INSERT INTO review_rollup (target_type, target_id, granularity, bucket_start, review_count, rating_sum) " +
+            "SELECT target_type, target_id, 'MONTH', DATE_FORMAT(bucket_start, '%Y-%m-01'), SUM(review_count), SUM(rating_sum) " +
+            "FROM review_rollup WHERE granularity = 'DAY' AND bucket_start < :cutoff " +
+            "GROUP BY target_type, target_id, DATE_FORMAT(bucket_start, '%Y-%m-01') " +
+            "ON DUPLICATE KEY UPDATE review_count = review_count + VALUES(review_count), " +
+            "rating_sum = rating_sum + VALUES(rating_sum)", nativeQuery = true)
+    void foldDaysIntoMonths(@Param("cutoff") LocalDateTime cutoff);
+}
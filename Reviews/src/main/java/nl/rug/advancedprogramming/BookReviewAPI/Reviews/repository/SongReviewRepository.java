@@ -1,10 +1,15 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository;
 
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.SongReview;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.SongReviewRecord;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for managing `SongReview` entities, providing CRUD operations and
@@ -13,6 +18,12 @@ import java.util.List;
 @Repository
 public interface SongReviewRepository extends CrudRepository<SongReview, Integer> {
 
+    /**
+     * Selects the columns of the {@link SongReviewRecord}s returned by the review endpoints.
+     */
+    String SELECT_RECORD = "SELECT new nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.SongReviewRecord("
+            + "r.reviewId, r.songId, r.rating, r.comment, r.date) FROM SongReview r";
+
     /**
      * Retrieves a list of song reviews based on the ID of the associated song.
      *
@@ -20,4 +31,41 @@ public interface SongReviewRepository extends CrudRepository<SongReview, Integer
      * @return a list of `SongReview` objects for the specified song.
      */
     List<SongReview> findBySongId(int songId);
+
+    /**
+     * Retrieves the review count and average rating of several songs with one grouped query.
+     * Songs without reviews are not part of the result.
+     *
+     * @param songIds the IDs of the songs.
+     * @return one summary per reviewed song.
+     */
+    @Query("SELECT r.songId AS targetId, COUNT(r) AS reviewCount, AVG(r.rating) AS averageRating " +
+            "FROM SongReview r WHERE r.songId IN :songIds GROUP BY r.songId")
+    List<RatingSummary> summarizeBySongIdIn(@Param("songIds") Collection<Integer> songIds);
+
+    /**
+     * Retrieves a review as a record, without loading the entity.
+     *
+     * @param id the ID of the review.
+     * @return an Optional containing the review if found, or empty if not.
+     */
+    @Query(SELECT_RECORD + " WHERE r.reviewId = :id")
+    Optional<SongReviewRecord> findRecordById(@Param("id") int id);
+
+    /**
+     * Retrieves all reviews as records.
+     *
+     * @return the reviews.
+     */
+    @Query(SELECT_RECORD)
+    List<SongReviewRecord> findAllRecords();
+
+    /**
+     * Retrieves the reviews of a song as records.
+     *
+     * @param songId the ID of the song.
+     * @return the reviews of the song.
+     */
+    @Query(SELECT_RECORD + " WHERE r.songId = :songId")
+    List<SongReviewRecord> findRecordsBySongId(@Param("songId") int songId);
 }
@@ -1,31 +1,77 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Reviews.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportCheckpoint;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.CacheChangeLog;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ChunkedImportService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.SingleFlight;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.events.ReviewChangedEvent;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReview;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.AlbumReviewRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewTarget;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.AlbumReviewRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class AlbumReviewService {
+    /**
+     * Kind of the cache changes of album ratings, keyed by the ID of the album, see {@link CacheChangeLog}.
+     */
+    public static final String RATING_CACHE_KIND = "album-rating";
+
     private final AlbumReviewRepository albumReviewRepository;
+    private final ReviewRollupService rollupService;
+    private final ChunkedImportService importService;
+    private final ApplicationEventPublisher events;
+    private final RowMetrics rowMetrics;
+    private final SingleFlight singleFlight;
+    private final CacheChangeLog cacheChanges;
 
     /**
      * Constructor for the ReviewService.
      *
      * @param albumReviewRepository the repository for accessing review data
+     * @param rollupService the service keeping the trending rollups up to date
+     * @param importService the service running imports in checkpointed chunks
+     * @param events publisher for {@link ReviewChangedEvent}s
+     * @param rowMetrics counts the exported reviews
+     * @param singleFlight collapses concurrent calculations of the same average rating
+     * @param cacheChanges records the changed ratings for the caches of the other replicas
      */
-    public AlbumReviewService(AlbumReviewRepository albumReviewRepository) {
+    public AlbumReviewService(AlbumReviewRepository albumReviewRepository, ReviewRollupService rollupService,
+                              ChunkedImportService importService, ApplicationEventPublisher events,
+                              RowMetrics rowMetrics, SingleFlight singleFlight, CacheChangeLog cacheChanges) {
         this.albumReviewRepository = albumReviewRepository;
+        this.rollupService = rollupService;
+        this.importService = importService;
+        this.events = events;
+        this.rowMetrics = rowMetrics;
+        this.singleFlight = singleFlight;
+        this.cacheChanges = cacheChanges;
+
+        // Ratings changed by other replicas
+        cacheChanges.register(RATING_CACHE_KIND, id -> {
+            if (id != null) {
+                forgetRating(Integer.parseInt(id));
+            } else {
+                singleFlight.forgetAll("album-reviews-rating");
+            }
+        });
     }
 
     /**
@@ -34,8 +80,14 @@ public class AlbumReviewService {
      * @param review the review to be added
      * @return a ResponseEntity with the appropriate HTTP status
      */
+    @Transactional
     public ResponseEntity<AlbumReview> addReview(AlbumReview review) {
+        if (review.getDate() == null) {
+            review.setDate(new Date());
+        }
         albumReviewRepository.save(review);
+        rollupService.record(ReviewTarget.ALBUM, review.getAlbumId(), review.getRating(), review.getDate());
+        events.publishEvent(new ReviewChangedEvent(ReviewTarget.ALBUM, review.getAlbumId()));
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
@@ -45,8 +97,9 @@ public class AlbumReviewService {
      * @param id the ID of the review
      * @return an Optional containing the review if found, or empty if not
      */
-    public Optional<AlbumReview> getReview(int id) {
-        return albumReviewRepository.findById(id);
+    @Transactional(readOnly = true)
+    public Optional<AlbumReviewRecord> getReview(int id) {
+        return albumReviewRepository.findRecordById(id);
     }
 
     /**
@@ -56,15 +109,23 @@ public class AlbumReviewService {
      * @param updatedReview the new review data
      * @return true if the review was successfully updated, false otherwise
      */
+    @Transactional
     public boolean updateReview(int reviewId, AlbumReview updatedReview) {
         Optional<AlbumReview> toBeUpdated = albumReviewRepository.findById(reviewId);
         if (toBeUpdated.isPresent()) {
             AlbumReview existingReview = toBeUpdated.get();
+            rollupService.retract(ReviewTarget.ALBUM, existingReview.getAlbumId(), existingReview.getRating(), existingReview.getDate());
+            int previousTargetId = existingReview.getAlbumId();
             existingReview.setReviewId(updatedReview.getReviewId());
             existingReview.setAlbumId(updatedReview.getAlbumId());
             existingReview.setRating(updatedReview.getRating());
             existingReview.setComment(updatedReview.getComment());
             albumReviewRepository.save(existingReview);
+            rollupService.record(ReviewTarget.ALBUM, existingReview.getAlbumId(), existingReview.getRating(), existingReview.getDate());
+            events.publishEvent(new ReviewChangedEvent(ReviewTarget.ALBUM, previousTargetId));
+            if (existingReview.getAlbumId() != previousTargetId) {
+                events.publishEvent(new ReviewChangedEvent(ReviewTarget.ALBUM, existingReview.getAlbumId()));
+            }
             return true;
         } else {
             return false;
@@ -77,10 +138,14 @@ public class AlbumReviewService {
      * @param reviewId the ID of the review to delete
      * @return true if the review was deleted, false otherwise
      */
+    @Transactional
     public boolean deleteReview(int reviewId) {
         Optional<AlbumReview> toBeDeleted = albumReviewRepository.findById(reviewId);
         if (toBeDeleted.isPresent()) {
+            AlbumReview deleted = toBeDeleted.get();
             albumReviewRepository.deleteById(reviewId);
+            rollupService.retract(ReviewTarget.ALBUM, deleted.getAlbumId(), deleted.getRating(), deleted.getDate());
+            events.publishEvent(new ReviewChangedEvent(ReviewTarget.ALBUM, deleted.getAlbumId()));
             return true;
         } else {
             return false;
@@ -93,6 +158,7 @@ public class AlbumReviewService {
      * @param albumId the ID of the song to filter reviews by, or 0 for all reviews
      * @return a list of reviews
      */
+    @Transactional(readOnly = true)
     public List<AlbumReview> getAllReviews(int albumId) {
         if (albumId < 1) {
             return (List<AlbumReview>) albumReviewRepository.findAll();
@@ -100,6 +166,20 @@ public class AlbumReviewService {
         return albumReviewRepository.findByAlbumId(albumId);
     }
 
+    /**
+     * Retrieves all reviews as records, optionally filtered by album ID. Only the columns of the records are selected.
+     *
+     * @param albumId the ID of the album to filter reviews by, or 0 for all reviews
+     * @return a list of reviews
+     */
+    @Transactional(readOnly = true)
+    public List<AlbumReviewRecord> getReviewRecords(int albumId) {
+        if (albumId < 1) {
+            return albumReviewRepository.findAllRecords();
+        }
+        return albumReviewRepository.findRecordsByAlbumId(albumId);
+    }
+
     /**
      * Calculates the average rating for a song by its ID.
      *
@@ -107,7 +187,18 @@ public class AlbumReviewService {
      * @return the average rating of the song
      */
     public float calculateAverageRating(int albumId) {
-        List<AlbumReview> reviews = getAllReviews(albumId);
+        // IDs below 1 average over all reviews
+        int key = Math.max(albumId, 0);
+        return singleFlight.read("album-reviews-rating", key, () -> average(getAllReviews(key)));
+    }
+
+    /**
+     * Calculates the average rating of the given reviews.
+     *
+     * @param reviews the reviews
+     * @return the average rating, NaN if there are no reviews
+     */
+    private static float average(List<AlbumReview> reviews) {
         float sum = 0;
         for (AlbumReview review : reviews) {
             sum += review.getRating();
@@ -116,46 +207,70 @@ public class AlbumReviewService {
     }
 
     /**
-     * Imports reviews from a JSON string and saves them in the repository.
+     * Makes requests for the average rating of a album whose reviews changed wait for a new calculation, instead of
+     * one that started before the change was committed. Records the change for the caches of the other replicas.
      *
-     * @param data the JSON string containing the review data
+     * @param event the change of the reviews
+     */
+    @EventListener
+    public void onReviewChanged(ReviewChangedEvent event) {
+        if (event.target() == ReviewTarget.ALBUM) {
+            forgetRating(event.targetId());
+            cacheChanges.record(RATING_CACHE_KIND, event.targetId());
+        }
+    }
+
+    private void forgetRating(int id) {
+        singleFlight.forget("album-reviews-rating", id);
+        singleFlight.forget("album-reviews-rating", 0); // The average over all reviews
+    }
+
+    /**
+     * Imports reviews from a JSON array in chunks. Every chunk is saved in the repository together with a checkpoint,
+     * so running the import again with the same import ID resumes after the last committed chunk.
+     *
+     * @param importId the ID of the import
+     * @param data     the JSON array containing the review data
+     * @return the checkpoint of the finished import
      * @throws IOException if an error occurs during parsing
      */
-    public void importReviewsJSON(String data) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<AlbumReview> reviews;
-        reviews = objectMapper.readValue(data, new TypeReference<ArrayList<AlbumReview>>() {
-        });
-        albumReviewRepository.saveAll(reviews);
+    public ImportCheckpoint importReviewsJSON(String importId, InputStream data) throws IOException {
+        return importService.importJsonArray(importId, "albumReviews-json", data, AlbumReview.class, this::saveImported);
     }
 
     /**
-     * Imports reviews from a CSV string and saves them in the repository.
+     * Imports reviews from CSV in chunks. Every chunk is saved in the repository together with a checkpoint,
+     * so running the import again with the same import ID resumes after the last committed chunk.
      *
-     * @param data the CSV string containing the review data
+     * @param importId the ID of the import
+     * @param data     the CSV data, starting with a header row
+     * @return the checkpoint of the finished import
      * @throws IOException if an error occurs during parsing
      */
-    public void importReviewsCSV(String data) throws IOException {
-        List<AlbumReview> reviews = new ArrayList<>();
-        String[] lines = data.split("\\r?\\n");
+    public ImportCheckpoint importReviewsCSV(String importId, InputStream data) throws IOException {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        return importService.importLines(importId, "albumReviews-csv", data, true,
+                line -> parseCSVRow(line, dateFormat), this::saveImported);
+    }
 
-        for (int i = 1; i < lines.length; i++) {
-            String[] fields = lines[i].split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
-            int albumId = Integer.parseInt(fields[0].trim());
-            float rating = Float.parseFloat(fields[1].trim());
-            String comment = fields[2].replace("\"", "").trim();
-            String reviewDateStr = fields[3].trim();
-            java.util.Date reviewDate;
-            try {
-                reviewDate = dateFormat.parse(reviewDateStr);
-                AlbumReview review = new AlbumReview(albumId, rating, comment, reviewDate);
-                reviews.add(review);
-            } catch (ParseException e) {
-                throw new RuntimeException(e);
-            }
+    /**
+     * Parses one row of a CSV import in the format albumId,rating,comment,reviewDate.
+     *
+     * @param line       the row to parse
+     * @param dateFormat the format of the review date
+     * @return the parsed review
+     */
+    public static AlbumReview parseCSVRow(String line, SimpleDateFormat dateFormat) {
+        String[] fields = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+        int albumId = Integer.parseInt(fields[0].trim());
+        float rating = Float.parseFloat(fields[1].trim());
+        String comment = fields[2].replace("\"", "").trim();
+        String reviewDateStr = fields[3].replace("\"", "").trim();
+        try {
+            return new AlbumReview(albumId, rating, comment, dateFormat.parse(reviewDateStr));
+        } catch (ParseException e) {
+            throw new RuntimeException(e);
         }
-        albumReviewRepository.saveAll(reviews);
     }
 
     /**
@@ -164,6 +279,7 @@ public class AlbumReviewService {
      * @param songId the ID of the song whose reviews are to be exported
      * @return a JSON string representing the reviews
      */
+    @Transactional(readOnly = true)
     public String exportReviewsJSON(int songId) {
         List<AlbumReview> toBeExported = getAllReviews(songId);
         StringBuilder sb = new StringBuilder();
@@ -172,6 +288,7 @@ public class AlbumReviewService {
             sb.append(review.toJSON());
         }
         sb.append("]");
+        rowMetrics.exported("albumReviews-json", toBeExported.size());
         return sb.toString();
     }
 
@@ -181,6 +298,7 @@ public class AlbumReviewService {
      * @param albumId the ID of the song whose reviews are to be exported
      * @return a CSV string representing the reviews
      */
+    @Transactional(readOnly = true)
     public String exportReviewsCSV(int albumId) {
         List<AlbumReview> toBeExported = getAllReviews(albumId);
         StringBuilder sb = new StringBuilder();
@@ -188,6 +306,29 @@ public class AlbumReviewService {
         for (AlbumReview review : toBeExported) {
             sb.append(review.toCSV());
         }
+        rowMetrics.exported("albumReviews-csv", toBeExported.size());
         return sb.toString();
     }
+
+    /**
+     * Saves a chunk of imported reviews and counts them in the trending rollups.
+     * Runs inside the transaction of the chunk.
+     *
+     * @param reviews the imported reviews
+     */
+    private void saveImported(List<AlbumReview> reviews) {
+        for (AlbumReview review : reviews) {
+            if (review.getDate() == null) {
+                review.setDate(new Date());
+            }
+        }
+        albumReviewRepository.saveAll(reviews);
+        rollupService.recordAll(ReviewTarget.ALBUM, reviews, AlbumReview::getAlbumId, AlbumReview::getRating, AlbumReview::getDate);
+        Set<Integer> targetIds = new HashSet<>();
+        for (AlbumReview review : reviews) {
+            if (targetIds.add(review.getAlbumId())) {
+                events.publishEvent(new ReviewChangedEvent(ReviewTarget.ALBUM, review.getAlbumId()));
+            }
+        }
+    }
 }
@@ -0,0 +1,182 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Reviews.service;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewTarget;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.RollupGranularity;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.TrendingItem;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.ReviewRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Service that keeps the time-bucketed review rollups up to date and answers trending queries from them.
+ * Every review is counted in an hourly and a daily bucket. Old hourly buckets are dropped and old daily
+ * buckets are folded into monthly ones by a scheduled compaction, so the table stays small.
+ */
+@Service
+public class ReviewRollupService {
+    private static final RollupGranularity[] MAINTAINED = {RollupGranularity.HOUR, RollupGranularity.DAY};
+
+    private final ReviewRollupRepository rollupRepository;
+    private final int hourlyRetentionHours;
+    private final int dailyRetentionDays;
+
+    /**
+     * Constructor for the ReviewRollupService.
+     *
+     * @param rollupRepository     the repository for accessing the rollups
+     * @param hourlyRetentionHours how long hourly buckets are kept
+     * @param dailyRetentionDays   how long daily buckets are kept before they are folded into monthly ones
+     */
+    public ReviewRollupService(ReviewRollupRepository rollupRepository,
+                               @Value("${rollup.retention.hourly-hours:48}") int hourlyRetentionHours,
+                               @Value("${rollup.retention.daily-days:90}") int dailyRetentionDays) {
+        this.rollupRepository = rollupRepository;
+        this.hourlyRetentionHours = hourlyRetentionHours;
+        this.dailyRetentionDays = dailyRetentionDays;
+    }
+
+    /**
+     * Counts a newly written review in its buckets.
+     *
+     * @param target   the kind of item that was reviewed
+     * @param targetId the ID of the reviewed item
+     * @param rating   the rating of the review
+     * @param date     the date of the review
+     */
+    public void record(ReviewTarget target, int targetId, float rating, Date date) {
+        apply(target, targetId, 1, rating, date);
+    }
+
+    /**
+     * Takes a review that is deleted or about to be changed back out of its buckets.
+     *
+     * @param target   the kind of item that was reviewed
+     * @param targetId the ID of the reviewed item
+     * @param rating   the rating of the review
+     * @param date     the date of the review
+     */
+    public void retract(ReviewTarget target, int targetId, float rating, Date date) {
+        apply(target, targetId, -1, -rating, date);
+    }
+
+    /**
+     * Counts a batch of reviews in their buckets. The reviews are summed up per bucket first,
+     * so an import costs one upsert per touched bucket instead of two per review.
+     *
+     * @param target   the kind of item that was reviewed
+     * @param reviews  the reviews to count
+     * @param targetId function returning the ID of the reviewed item of a review
+     * @param rating   function returning the rating of a review
+     * @param date     function returning the date of a review
+     * @param <T>      the review type
+     */
+    public <T> void recordAll(ReviewTarget target, Iterable<T> reviews, ToIntFunction<T> targetId,
+                              ToDoubleFunction<T> rating, Function<T, Date> date) {
+        Map<BucketKey, double[]> totals = new HashMap<>();
+        for (T review : reviews) {
+            Date reviewDate = date.apply(review);
+            if (reviewDate == null) {
+                continue;
+            }
+            LocalDateTime time = toLocalDateTime(reviewDate);
+            for (RollupGranularity granularity : MAINTAINED) {
+                BucketKey key = new BucketKey(targetId.applyAsInt(review), granularity, granularity.bucketStart(time));
+                double[] total = totals.computeIfAbsent(key, k -> new double[2]);
+                total[0]++;
+                total[1] += rating.applyAsDouble(review);
+            }
+        }
+        for (Map.Entry<BucketKey, double[]> entry : totals.entrySet()) {
+            BucketKey key = entry.getKey();
+            rollupRepository.add(target.name(), key.targetId(), key.granularity().name(), key.bucketStart(),
+                    (long) entry.getValue()[0], entry.getValue()[1]);
+        }
+    }
+
+    /**
+     * Retrieves the most reviewed items of a kind within a window, using only the rollups.
+     *
+     * @param target the kind of item to get the trending items of
+     * @param window "day" for the last 24 hours, "week" for the last 7 days or "month" for the last 30 days
+     * @param limit  the maximum number of items to return
+     * @return the trending items, most reviewed first, or null if the window is not supported
+     */
+    @Transactional(readOnly = true)
+    public List<TrendingItem> getTrending(ReviewTarget target, String window, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        RollupGranularity granularity;
+        LocalDateTime since;
+        switch (window.toLowerCase()) {
+            case "day" -> {
+                granularity = RollupGranularity.HOUR;
+                since = granularity.bucketStart(now.minusHours(23));
+            }
+            case "week" -> {
+                granularity = RollupGranularity.DAY;
+                since = granularity.bucketStart(now.minusDays(6));
+            }
+            case "month" -> {
+                granularity = RollupGranularity.DAY;
+                since = granularity.bucketStart(now.minusDays(29));
+            }
+            default -> {
+                return null;
+            }
+        }
+
+        List<TrendingItem> trending = new ArrayList<>();
+        for (ReviewRollupRepository.TrendingRow row : rollupRepository.findTrending(target.name(), granularity.name(), since, limit)) {
+            trending.add(new TrendingItem(row.getTargetId(), row.getReviewCount(), row.getRatingSum() / row.getReviewCount()));
+        }
+        return trending;
+    }
+
+    /**
+     * Drops hourly buckets past their retention and folds daily buckets past their retention into monthly buckets.
+     * The retention of the daily buckets has to stay longer than the longest trending window.
+     */
+    @Scheduled(cron = "${rollup.compaction.cron:0 15 * * * *}")
+    @Transactional
+    public void compact() {
+        LocalDateTime now = LocalDateTime.now();
+        rollupRepository.deleteOlderThan(RollupGranularity.HOUR.name(),
+                RollupGranularity.HOUR.bucketStart(now.minusHours(hourlyRetentionHours)));
+
+        LocalDateTime dailyCutoff = RollupGranularity.DAY.bucketStart(now.minusDays(dailyRetentionDays));
+        rollupRepository.foldDaysIntoMonths(dailyCutoff);
+        rollupRepository.deleteOlderThan(RollupGranularity.DAY.name(), dailyCutoff);
+    }
+
+    private void apply(ReviewTarget target, int targetId, long count, double ratingSum, Date date) {
+        // Reviews without a date can not be placed in a bucket, so they are never counted.
+        if (date == null) {
+            return;
+        }
+        LocalDateTime time = toLocalDateTime(date);
+        for (RollupGranularity granularity : MAINTAINED) {
+            rollupRepository.add(target.name(), targetId, granularity.name(), granularity.bucketStart(time), count, ratingSum);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        // Dates are stored in the JVM time zone, so bucket in it too.
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault());
+    }
+
+    private record BucketKey(int targetId, RollupGranularity granularity, LocalDateTime bucketStart) {
+    }
+}
@@ -1,19 +1,31 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Reviews.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportCheckpoint;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.CacheChangeLog;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ChunkedImportService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.SingleFlight;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.events.ReviewChangedEvent;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.Review;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewTarget;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.ReviewRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class for handling the business logic related to Reviews.
@@ -21,15 +33,49 @@ import java.util.Optional;
  */
 @Service
 public class ReviewService {
+    /**
+     * Kind of the cache changes of book ratings, keyed by the ID of the book, see {@link CacheChangeLog}.
+     */
+    public static final String RATING_CACHE_KIND = "book-rating";
+
     private final ReviewRepository reviewRepository;
+    private final ReviewRollupService rollupService;
+    private final ChunkedImportService importService;
+    private final ApplicationEventPublisher events;
+    private final RowMetrics rowMetrics;
+    private final SingleFlight singleFlight;
+    private final CacheChangeLog cacheChanges;
 
     /**
      * Constructor for the ReviewService.
      *
      * @param reviewRepository the repository for accessing review data
+     * @param rollupService the service keeping the trending rollups up to date
+     * @param importService the service running imports in checkpointed chunks
+     * @param events publisher for {@link ReviewChangedEvent}s
+     * @param rowMetrics counts the exported reviews
+     * @param singleFlight collapses concurrent calculations of the same average rating
+     * @param cacheChanges records the changed ratings for the caches of the other replicas
      */
-    public ReviewService(ReviewRepository reviewRepository) {
+    public ReviewService(ReviewRepository reviewRepository, ReviewRollupService rollupService,
+                         ChunkedImportService importService, ApplicationEventPublisher events,
+                         RowMetrics rowMetrics, SingleFlight singleFlight, CacheChangeLog cacheChanges) {
         this.reviewRepository = reviewRepository;
+        this.rollupService = rollupService;
+        this.importService = importService;
+        this.events = events;
+        this.rowMetrics = rowMetrics;
+        this.singleFlight = singleFlight;
+        this.cacheChanges = cacheChanges;
+
+        // Ratings changed by other replicas
+        cacheChanges.register(RATING_CACHE_KIND, id -> {
+            if (id != null) {
+                forgetRating(Integer.parseInt(id));
+            } else {
+                singleFlight.forgetAll("book-rating");
+            }
+        });
     }
 
     /**
@@ -38,8 +84,14 @@ public class ReviewService {
      * @param review the review to be added
      * @return a ResponseEntity with the appropriate HTTP status
      */
+    @Transactional
     public ResponseEntity<Review> addReview(Review review) {
+        if (review.getDate() == null) {
+            review.setDate(new Date());
+        }
         reviewRepository.save(review);
+        rollupService.record(ReviewTarget.BOOK, review.getBookId(), review.getRating(), review.getDate());
+        events.publishEvent(new ReviewChangedEvent(ReviewTarget.BOOK, review.getBookId()));
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
@@ -49,8 +101,9 @@ public class ReviewService {
      * @param id the ID of the review
      * @return an Optional containing the review if found, or empty if not
      */
-    public Optional<Review> getReview(int id) {
-        return reviewRepository.findById(id);
+    @Transactional(readOnly = true)
+    public Optional<ReviewRecord> getReview(int id) {
+        return reviewRepository.findRecordById(id);
     }
 
     /**
@@ -60,15 +113,23 @@ public class ReviewService {
      * @param updatedReview the new review data
      * @return true if the review was successfully updated, false otherwise
      */
+    @Transactional
     public boolean updateReview(int reviewId, Review updatedReview) {
         Optional<Review> toBeUpdated = reviewRepository.findById(reviewId);
         if (toBeUpdated.isPresent()) {
             Review existingReview = toBeUpdated.get();
+            rollupService.retract(ReviewTarget.BOOK, existingReview.getBookId(), existingReview.getRating(), existingReview.getDate());
+            int previousTargetId = existingReview.getBookId();
             existingReview.setReviewId(updatedReview.getReviewId());
             existingReview.setBookId(updatedReview.getBookId());
             existingReview.setRating(updatedReview.getRating());
             existingReview.setComment(updatedReview.getComment());
             reviewRepository.save(existingReview);
+            rollupService.record(ReviewTarget.BOOK, existingReview.getBookId(), existingReview.getRating(), existingReview.getDate());
+            events.publishEvent(new ReviewChangedEvent(ReviewTarget.BOOK, previousTargetId));
+            if (existingReview.getBookId() != previousTargetId) {
+                events.publishEvent(new ReviewChangedEvent(ReviewTarget.BOOK, existingReview.getBookId()));
+            }
             return true;
         } else {
             return false;
@@ -81,10 +142,14 @@ public class ReviewService {
      * @param reviewId the ID of the review to delete
      * @return true if the review was deleted, false otherwise
      */
+    @Transactional
     public boolean deleteReview(int reviewId) {
         Optional<Review> toBeDeleted = reviewRepository.findById(reviewId);
         if (toBeDeleted.isPresent()) {
+            Review deleted = toBeDeleted.get();
             reviewRepository.deleteById(reviewId);
+            rollupService.retract(ReviewTarget.BOOK, deleted.getBookId(), deleted.getRating(), deleted.getDate());
+            events.publishEvent(new ReviewChangedEvent(ReviewTarget.BOOK, deleted.getBookId()));
             return true;
         } else {
             return false;
@@ -97,6 +162,7 @@ public class ReviewService {
      * @param bookId the ID of the book to filter reviews by, or 0 for all reviews
      * @return a list of reviews
      */
+    @Transactional(readOnly = true)
     public List<Review> getAllReviews(int bookId) {
         if (bookId < 1) {
             return (List<Review>) reviewRepository.findAll();
@@ -104,6 +170,20 @@ public class ReviewService {
         return reviewRepository.findByBookId(bookId);
     }
 
+    /**
+     * Retrieves all reviews as records, optionally filtered by book ID. Only the columns of the records are selected.
+     *
+     * @param bookId the ID of the book to filter reviews by, or 0 for all reviews
+     * @return a list of reviews
+     */
+    @Transactional(readOnly = true)
+    public List<ReviewRecord> getReviewRecords(int bookId) {
+        if (bookId < 1) {
+            return reviewRepository.findAllRecords();
+        }
+        return reviewRepository.findRecordsByBookId(bookId);
+    }
+
     /**
      * Calculates the average rating for a book by its ID.
      *
@@ -111,7 +191,18 @@ public class ReviewService {
      * @return the average rating of the book
      */
     public float calculateAverageRating(int bookId) {
-        List<Review> reviews = getAllReviews(bookId);
+        // IDs below 1 average over all reviews
+        int key = Math.max(bookId, 0);
+        return singleFlight.read("book-rating", key, () -> average(getAllReviews(key)));
+    }
+
+    /**
+     * Calculates the average rating of the given reviews.
+     *
+     * @param reviews the reviews
+     * @return the average rating, NaN if there are no reviews
+     */
+    private static float average(List<Review> reviews) {
         float sum = 0;
         for (Review review : reviews) {
             sum += review.getRating();
@@ -120,46 +211,70 @@ public class ReviewService {
     }
 
     /**
-     * Imports reviews from a JSON string and saves them in the repository.
+     * Makes requests for the average rating of a book whose reviews changed wait for a new calculation, instead of
+     * one that started before the change was committed. Records the change for the caches of the other replicas.
+     *
+     * @param event the change of the reviews
+     */
+    @EventListener
+    public void onReviewChanged(ReviewChangedEvent event) {
+        if (event.target() == ReviewTarget.BOOK) {
+            forgetRating(event.targetId());
+            cacheChanges.record(RATING_CACHE_KIND, event.targetId());
+        }
+    }
+
+    private void forgetRating(int id) {
+        singleFlight.forget("book-rating", id);
+        singleFlight.forget("book-rating", 0); // The average over all reviews
+    }
+
+    /**
+     * Imports reviews from a JSON array in chunks. Every chunk is saved in the repository together with a checkpoint,
+     * so running the import again with the same import ID resumes after the last committed chunk.
      *
-     * @param data the JSON string containing the review data
+     * @param importId the ID of the import
+     * @param data     the JSON array containing the review data
+     * @return the checkpoint of the finished import
      * @throws IOException if an error occurs during parsing
      */
-    public void importReviewsJSON(String data) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<Review> reviews;
-        reviews = objectMapper.readValue(data, new TypeReference<ArrayList<Review>>() {
-        });
-        reviewRepository.saveAll(reviews);
+    public ImportCheckpoint importReviewsJSON(String importId, InputStream data) throws IOException {
+        return importService.importJsonArray(importId, "reviews-json", data, Review.class, this::saveImported);
     }
 
     /**
-     * Imports reviews from a CSV string and saves them in the repository.
+     * Imports reviews from CSV in chunks. Every chunk is saved in the repository together with a checkpoint,
+     * so running the import again with the same import ID resumes after the last committed chunk.
      *
-     * @param data the CSV string containing the review data
+     * @param importId the ID of the import
+     * @param data     the CSV data, starting with a header row
+     * @return the checkpoint of the finished import
      * @throws IOException if an error occurs during parsing
      */
-    public void importReviewsCSV(String data) throws IOException {
-        List<Review> reviews = new ArrayList<>();
-        String[] lines = data.split("\\r?\\n");
+    public ImportCheckpoint importReviewsCSV(String importId, InputStream data) throws IOException {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        return importService.importLines(importId, "reviews-csv", data, true,
+                line -> parseCSVRow(line, dateFormat), this::saveImported);
+    }
 
-        for (int i = 1; i < lines.length; i++) {
-            String[] fields = lines[i].split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
-            int bookId = Integer.parseInt(fields[0].trim());
-            float rating = Float.parseFloat(fields[1].trim());
-            String comment = fields[2].replace("\"", "").trim();
-            String reviewDateStr = fields[3].trim();
-            java.util.Date reviewDate;
-            try {
-                reviewDate = dateFormat.parse(reviewDateStr);
-                Review review = new Review(bookId, rating, comment, reviewDate);
-                reviews.add(review);
-            } catch (ParseException e) {
-                throw new RuntimeException(e);
-            }
+    /**
+     * Parses one row of a CSV import in the format bookId,rating,comment,reviewDate.
+     *
+     * @param line       the row to parse
+     * @param dateFormat the format of the review date
+     * @return the parsed review
+     */
+    public static Review parseCSVRow(String line, SimpleDateFormat dateFormat) {
+        String[] fields = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+        int bookId = Integer.parseInt(fields[0].trim());
+        float rating = Float.parseFloat(fields[1].trim());
+        String comment = fields[2].replace("\"", "").trim();
+        String reviewDateStr = fields[3].replace("\"", "").trim();
+        try {
+            return new Review(bookId, rating, comment, dateFormat.parse(reviewDateStr));
+        } catch (ParseException e) {
+            throw new RuntimeException(e);
         }
-        reviewRepository.saveAll(reviews);
     }
 
     /**
@@ -168,6 +283,7 @@ public class ReviewService {
      * @param bookId the ID of the book whose reviews are to be exported
      * @return a JSON string representing the reviews
      */
+    @Transactional(readOnly = true)
     public String exportReviewsJSON(int bookId) {
         List<Review> toBeExported = getAllReviews(bookId);
         StringBuilder sb = new StringBuilder();
@@ -176,6 +292,7 @@ public class ReviewService {
             sb.append(review.toJSON());
         }
         sb.append("]");
+        rowMetrics.exported("reviews-json", toBeExported.size());
         return sb.toString();
     }
 
@@ -185,6 +302,7 @@ public class ReviewService {
      * @param bookId the ID of the book whose reviews are to be exported
      * @return a CSV string representing the reviews
      */
+    @Transactional(readOnly = true)
     public String exportReviewsCSV(int bookId) {
         List<Review> toBeExported = getAllReviews(bookId);
         StringBuilder sb = new StringBuilder();
@@ -192,6 +310,29 @@ public class ReviewService {
         for (Review review : toBeExported) {
             sb.append(review.toCSV());
         }
+        rowMetrics.exported("reviews-csv", toBeExported.size());
         return sb.toString();
     }
+
+    /**
+     * Saves a chunk of imported reviews and counts them in the trending rollups.
+     * Runs inside the transaction of the chunk.
+     *
+     * @param reviews the imported reviews
+     */
+    private void saveImported(List<Review> reviews) {
+        for (Review review : reviews) {
+            if (review.getDate() == null) {
+                review.setDate(new Date());
+            }
+        }
+        reviewRepository.saveAll(reviews);
+        rollupService.recordAll(ReviewTarget.BOOK, reviews, Review::getBookId, Review::getRating, Review::getDate);
+        Set<Integer> targetIds = new HashSet<>();
+        for (Review review : reviews) {
+            if (targetIds.add(review.getBookId())) {
+                events.publishEvent(new ReviewChangedEvent(ReviewTarget.BOOK, review.getBookId()));
+            }
+        }
+    }
 }
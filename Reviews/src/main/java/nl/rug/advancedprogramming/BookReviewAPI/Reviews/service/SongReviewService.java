@@ -1,31 +1,77 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Reviews.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportCheckpoint;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.CacheChangeLog;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ChunkedImportService;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.SingleFlight;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.events.ReviewChangedEvent;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.SongReview;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.SongReviewRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Reviews.models.ReviewTarget;
 import nl.rug.advancedprogramming.BookReviewAPI.Reviews.repository.SongReviewRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class SongReviewService {
+    /**
+     * Kind of the cache changes of song ratings, keyed by the ID of the song, see {@link CacheChangeLog}.
+     */
+    public static final String RATING_CACHE_KIND = "song-rating";
+
     private final SongReviewRepository songReviewRepository;
+    private final ReviewRollupService rollupService;
+    private final ChunkedImportService importService;
+    private final ApplicationEventPublisher events;
+    private final RowMetrics rowMetrics;
+    private final SingleFlight singleFlight;
+    private final CacheChangeLog cacheChanges;
 
     /**
      * Constructor for the ReviewService.
      *
      * @param songReviewRepository the repository for accessing review data
+     * @param rollupService the service keeping the trending rollups up to date
+     * @param importService the service running imports in checkpointed chunks
+     * @param events publisher for {@link ReviewChangedEvent}s
+     * @param rowMetrics counts the exported reviews
+     * @param singleFlight collapses concurrent calculations of the same average rating
+     * @param cacheChanges records the changed ratings for the caches of the other replicas
      */
-    public SongReviewService(SongReviewRepository songReviewRepository) {
+    public SongReviewService(SongReviewRepository songReviewRepository, ReviewRollupService rollupService,
+                             ChunkedImportService importService, ApplicationEventPublisher events,
+                             RowMetrics rowMetrics, SingleFlight singleFlight, CacheChangeLog cacheChanges) {
         this.songReviewRepository = songReviewRepository;
+        this.rollupService = rollupService;
+        this.importService = importService;
+        this.events = events;
+        this.rowMetrics = rowMetrics;
+        this.singleFlight = singleFlight;
+        this.cacheChanges = cacheChanges;
+
+        // Ratings changed by other replicas
+        cacheChanges.register(RATING_CACHE_KIND, id -> {
+            if (id != null) {
+                forgetRating(Integer.parseInt(id));
+            } else {
+                singleFlight.forgetAll("song-rating");
+            }
+        });
     }
 
     /**
@@ -34,8 +80,14 @@ public class SongReviewService {
      * @param review the review to be added
      * @return a ResponseEntity with the appropriate HTTP status
      */
+    @Transactional
     public ResponseEntity<SongReview> addReview(SongReview review) {
+        if (review.getDate() == null) {
+            review.setDate(new Date());
+        }
         songReviewRepository.save(review);
+        rollupService.record(ReviewTarget.SONG, review.getSongId(), review.getRating(), review.getDate());
+        events.publishEvent(new ReviewChangedEvent(ReviewTarget.SONG, review.getSongId()));
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
@@ -45,8 +97,9 @@ public class SongReviewService {
      * @param id the ID of the review
      * @return an Optional containing the review if found, or empty if not
      */
-    public Optional<SongReview> getReview(int id) {
-        return songReviewRepository.findById(id);
+    @Transactional(readOnly = true)
+    public Optional<SongReviewRecord> getReview(int id) {
+        return songReviewRepository.findRecordById(id);
     }
 
     /**
@@ -56,15 +109,23 @@ public class SongReviewService {
      * @param updatedReview the new review data
      * @return true if the review was successfully updated, false otherwise
      */
+    @Transactional
     public boolean updateReview(int reviewId, SongReview updatedReview) {
         Optional<SongReview> toBeUpdated = songReviewRepository.findById(reviewId);
         if (toBeUpdated.isPresent()) {
             SongReview existingReview = toBeUpdated.get();
+            rollupService.retract(ReviewTarget.SONG, existingReview.getSongId(), existingReview.getRating(), existingReview.getDate());
+            int previousTargetId = existingReview.getSongId();
             existingReview.setReviewId(updatedReview.getReviewId());
             existingReview.setSongId(updatedReview.getSongId());
             existingReview.setRating(updatedReview.getRating());
             existingReview.setComment(updatedReview.getComment());
             songReviewRepository.save(existingReview);
+            rollupService.record(ReviewTarget.SONG, existingReview.getSongId(), existingReview.getRating(), existingReview.getDate());
+            events.publishEvent(new ReviewChangedEvent(ReviewTarget.SONG, previousTargetId));
+            if (existingReview.getSongId() != previousTargetId) {
+                events.publishEvent(new ReviewChangedEvent(ReviewTarget.SONG, existingReview.getSongId()));
+            }
             return true;
         } else {
             return false;
@@ -77,10 +138,14 @@ public class SongReviewService {
      * @param reviewId the ID of the review to delete
      * @return true if the review was deleted, false otherwise
      */
+    @Transactional
     public boolean deleteReview(int reviewId) {
         Optional<SongReview> toBeDeleted = songReviewRepository.findById(reviewId);
         if (toBeDeleted.isPresent()) {
+            SongReview deleted = toBeDeleted.get();
             songReviewRepository.deleteById(reviewId);
+            rollupService.retract(ReviewTarget.SONG, deleted.getSongId(), deleted.getRating(), deleted.getDate());
+            events.publishEvent(new ReviewChangedEvent(ReviewTarget.SONG, deleted.getSongId()));
             return true;
         } else {
             return false;
@@ -93,6 +158,7 @@ public class SongReviewService {
      * @param songId the ID of the song to filter reviews by, or 0 for all reviews
      * @return a list of reviews
      */
+    @Transactional(readOnly = true)
     public List<SongReview> getAllReviews(int songId) {
         if (songId < 1) {
             return (List<SongReview>) songReviewRepository.findAll();
@@ -100,6 +166,20 @@ public class SongReviewService {
         return songReviewRepository.findBySongId(songId);
     }
 
+    /**
+     * Retrieves all reviews as records, optionally filtered by song ID. Only the columns of the records are selected.
+     *
+     * @param songId the ID of the song to filter reviews by, or 0 for all reviews
+     * @return a list of reviews
+     */
+    @Transactional(readOnly = true)
+    public List<SongReviewRecord> getReviewRecords(int songId) {
+        if (songId < 1) {
+            return songReviewRepository.findAllRecords();
+        }
+        return songReviewRepository.findRecordsBySongId(songId);
+    }
+
     /**
      * Calculates the average rating for a songId by its ID.
      *
@@ -107,7 +187,18 @@ public class SongReviewService {
      * @return the average rating of the song
      */
     public float calculateAverageRating(int songId) {
-        List<SongReview> reviews = getAllReviews(songId);
+        // IDs below 1 average over all reviews
+        int key = Math.max(songId, 0);
+        return singleFlight.read("song-rating", key, () -> average(getAllReviews(key)));
+    }
+
+    /**
+     * Calculates the average rating of the given reviews.
+     *
+     * @param reviews the reviews
+     * @return the average rating, NaN if there are no reviews
+     */
+    private static float average(List<SongReview> reviews) {
         float sum = 0;
         for (SongReview review : reviews) {
             sum += review.getRating();
@@ -116,46 +207,70 @@ public class SongReviewService {
     }
 
     /**
-     * Imports reviews from a JSON string and saves them in the repository.
+     * Makes requests for the average rating of a song whose reviews changed wait for a new calculation, instead of
+     * one that started before the change was committed. Records the change for the caches of the other replicas.
+     *
+     * @param event the change of the reviews
+     */
+    @EventListener
+    public void onReviewChanged(ReviewChangedEvent event) {
+        if (event.target() == ReviewTarget.SONG) {
+            forgetRating(event.targetId());
+            cacheChanges.record(RATING_CACHE_KIND, event.targetId());
+        }
+    }
+
+    private void forgetRating(int id) {
+        singleFlight.forget("song-rating", id);
+        singleFlight.forget("song-rating", 0); // The average over all reviews
+    }
+
+    /**
+     * Imports reviews from a JSON array in chunks. Every chunk is saved in the repository together with a checkpoint,
+     * so running the import again with the same import ID resumes after the last committed chunk.
      *
-     * @param data the JSON string containing the review data
+     * @param importId the ID of the import
+     * @param data     the JSON array containing the review data
+     * @return the checkpoint of the finished import
      * @throws IOException if an error occurs during parsing
      */
-    public void importReviewsJSON(String data) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<SongReview> reviews;
-        reviews = objectMapper.readValue(data, new TypeReference<ArrayList<SongReview>>() {
-        });
-        songReviewRepository.saveAll(reviews);
+    public ImportCheckpoint importReviewsJSON(String importId, InputStream data) throws IOException {
+        return importService.importJsonArray(importId, "songReviews-json", data, SongReview.class, this::saveImported);
     }
 
     /**
-     * Imports reviews from a CSV string and saves them in the repository.
+     * Imports reviews from CSV in chunks. Every chunk is saved in the repository together with a checkpoint,
+     * so running the import again with the same import ID resumes after the last committed chunk.
      *
-     * @param data the CSV string containing the review data
+     * @param importId the ID of the import
+     * @param data     the CSV data, starting with a header row
+     * @return the checkpoint of the finished import
      * @throws IOException if an error occurs during parsing
      */
-    public void importReviewsCSV(String data) throws IOException {
-        List<SongReview> reviews = new ArrayList<>();
-        String[] lines = data.split("\\r?\\n");
+    public ImportCheckpoint importReviewsCSV(String importId, InputStream data) throws IOException {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        return importService.importLines(importId, "songReviews-csv", data, true,
+                line -> parseCSVRow(line, dateFormat), this::saveImported);
+    }
 
-        for (int i = 1; i < lines.length; i++) {
-            String[] fields = lines[i].split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
-            int songId = Integer.parseInt(fields[0].trim());
-            float rating = Float.parseFloat(fields[1].trim());
-            String comment = fields[2].replace("\"", "").trim();
-            String reviewDateStr = fields[3].trim();
-            java.util.Date reviewDate;
-            try {
-                reviewDate = dateFormat.parse(reviewDateStr);
-                SongReview review = new SongReview(songId, rating, comment, reviewDate);
-                reviews.add(review);
-            } catch (ParseException e) {
-                throw new RuntimeException(e);
-            }
+    /**
+     * Parses one row of a CSV import in the format songId,rating,comment,reviewDate.
+     *
+     * @param line       the row to parse
+     * @param dateFormat the format of the review date
+     * @return the parsed review
+     */
+    public static SongReview parseCSVRow(String line, SimpleDateFormat dateFormat) {
+        String[] fields = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+        int songId = Integer.parseInt(fields[0].trim());
+        float rating = Float.parseFloat(fields[1].trim());
+        String comment = fields[2].replace("\"", "").trim();
+        String reviewDateStr = fields[3].replace("\"", "").trim();
+        try {
+            return new SongReview(songId, rating, comment, dateFormat.parse(reviewDateStr));
+        } catch (ParseException e) {
+            throw new RuntimeException(e);
         }
-        songReviewRepository.saveAll(reviews);
     }
 
     /**
@@ -164,6 +279,7 @@ public class SongReviewService {
      * @param songId the ID of the song whose reviews are to be exported
      * @return a JSON string representing the reviews
      */
+    @Transactional(readOnly = true)
     public String exportReviewsJSON(int songId) {
         List<SongReview> toBeExported = getAllReviews(songId);
         StringBuilder sb = new StringBuilder();
@@ -172,6 +288,7 @@ public class SongReviewService {
             sb.append(review.toJSON());
         }
         sb.append("]");
+        rowMetrics.exported("songReviews-json", toBeExported.size());
         return sb.toString();
     }
 
@@ -181,6 +298,7 @@ public class SongReviewService {
      * @param songId the ID of the song whose reviews are to be exported
      * @return a CSV string representing the reviews
      */
+    @Transactional(readOnly = true)
     public String exportReviewsCSV(int songId) {
         List<SongReview> toBeExported = getAllReviews(songId);
         StringBuilder sb = new StringBuilder();
@@ -188,6 +306,29 @@ public class SongReviewService {
         for (SongReview review : toBeExported) {
             sb.append(review.toCSV());
         }
+        rowMetrics.exported("songReviews-csv", toBeExported.size());
         return sb.toString();
     }
+
+    /**
+     * Saves a chunk of imported reviews and counts them in the trending rollups.
+     * Runs inside the transaction of the chunk.
+     *
+     * @param reviews the imported reviews
+     */
+    private void saveImported(List<SongReview> reviews) {
+        for (SongReview review : reviews) {
+            if (review.getDate() == null) {
+                review.setDate(new Date());
+            }
+        }
+        songReviewRepository.saveAll(reviews);
+        rollupService.recordAll(ReviewTarget.SONG, reviews, SongReview::getSongId, SongReview::getRating, SongReview::getDate);
+        Set<Integer> targetIds = new HashSet<>();
+        for (SongReview review : reviews) {
+            if (targetIds.add(review.getSongId())) {
+                events.publishEvent(new ReviewChangedEvent(ReviewTarget.SONG, review.getSongId()));
+            }
+        }
+    }
 }
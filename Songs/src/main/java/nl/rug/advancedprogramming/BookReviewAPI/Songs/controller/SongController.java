@@ -1,12 +1,23 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Songs.controller;
 
+import nl.rug.advancedprogramming.BookReviewAPI.Common.controller.ImportJobController;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportJob;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ImportJobService;
 import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongBatch;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
 import nl.rug.advancedprogramming.BookReviewAPI.Songs.service.SongService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Controller class for handling CRUD operations on songs.
@@ -14,15 +25,23 @@ import java.util.Optional;
 @RestController
 @RequestMapping("")
 public class SongController {
+    private static final String IMPORT_CSV = "songs-csv";
+    private static final String IMPORT_JSON = "songs-json";
+
     private final SongService songService;
+    private final ImportJobService importJobService;
 
     /**
-     * Constructor for SongController.
+     * Constructor for SongController. Registers the song imports as background jobs.
      *
-     * @param songService the SongService used to manage song data
+     * @param songService      the SongService used to manage song data
+     * @param importJobService the service running the imports as background jobs
      */
-    public SongController(SongService songService) {
+    public SongController(SongService songService, ImportJobService importJobService) {
         this.songService = songService;
+        this.importJobService = importJobService;
+        importJobService.register(IMPORT_CSV, ImportJobService.chunked(songService::importSongsCSV));
+        importJobService.register(IMPORT_JSON, ImportJobService.chunked(songService::importSongsJSON));
     }
 
     /**
@@ -43,10 +62,26 @@ public class SongController {
      * @return A {@link ResponseEntity} containing an Iterable of all songs with a 200 OK status.
      */
     @GetMapping("/songs")
-    public ResponseEntity<Iterable<Song>> getAllSongs() {
+    public ResponseEntity<Iterable<SongRecord>> getAllSongs() {
         return ResponseEntity.ok(songService.getAllSongs());
     }
 
+    /**
+     * Retrieves a list of songs by ID in one request, e.g. all tracks of an album.
+     *
+     * @param ids comma separated IDs of the songs
+     * @return A {@link ResponseEntity} containing the songs in the requested order and the IDs of songs that
+     * do not exist, with a 200 OK status, or 400 BAD REQUEST if an ID is empty or there are too many IDs.
+     */
+    @GetMapping(value = "/songs", params = "ids")
+    public ResponseEntity<SongBatch> getSongsByIds(@RequestParam List<Integer> ids) {
+        try {
+            return ResponseEntity.ok(songService.getSongsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Updates an existing song by ID.
      *
@@ -60,6 +95,26 @@ public class SongController {
         return ResponseEntity.ok(null);
     }
 
+    /**
+     * Updates only the supplied fields of a song.
+     *
+     * @param id      the ID of the song to update
+     * @param changes the fields to change (title, artist, label, genre or length) and their new values
+     * @return {@link ResponseEntity} with a 204 NO CONTENT HTTP status, 404 NOT FOUND if the song does not exist,
+     * or 400 BAD REQUEST if a field cannot be updated or has an invalid value.
+     */
+    @PatchMapping("/songs/{id}")
+    public ResponseEntity<Void> patchSong(@PathVariable int id, @RequestBody Map<String, Object> changes) {
+        try {
+            if (!songService.patchSong(id, changes)) {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Deletes a song by ID.
      *
@@ -81,7 +136,7 @@ public class SongController {
      * or a 400 BAD REQUEST if the request is malformed.
      */
     @GetMapping("/songs/search")
-    public ResponseEntity<Iterable<Song>> getByProperty(@RequestParam Optional<String> property, @RequestParam Optional<String> value) {
+    public ResponseEntity<Iterable<SongRecord>> getByProperty(@RequestParam Optional<String> property, @RequestParam Optional<String> value) {
         // We don't want to query by property. So get all songs
         if (property.isEmpty()) {
             return ResponseEntity.ok(songService.getAllSongs());
@@ -92,7 +147,7 @@ public class SongController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
 
-        Iterable<Song> result = songService.getByProperty(property.get(), value.get());
+        Iterable<SongRecord> result = songService.getByProperty(property.get(), value.get());
         if (result == null) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
@@ -100,4 +155,58 @@ public class SongController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Imports songs from CSV (id,title,artist,label,genre,length; the id column is ignored) as a background job.
+     * The songs are committed in chunks; if the job fails or is cancelled, sending the same data again
+     * with the same import ID resumes after the last committed chunk.
+     *
+     * @param importId optional ID of the import and its job, a new one is generated if not given
+     * @param data     the CSV data, starting with a header row
+     * @return {@link ResponseEntity} with a 202 ACCEPTED HTTP status, the job and its location in the Location
+     * header, a 400 BAD REQUEST if the data could not be read, a 409 CONFLICT if the import is still running or a
+     * 503 SERVICE UNAVAILABLE if too many imports are waiting.
+     */
+    @PostMapping("/songs/import/csv")
+    public ResponseEntity<ImportJob> importSongsCSV(@RequestParam Optional<String> importId, InputStream data) {
+        String id = importId.orElseGet(() -> UUID.randomUUID().toString());
+        return ImportJobController.accept(() -> importJobService.submit(id, IMPORT_CSV, data));
+    }
+
+    /**
+     * Imports songs from a JSON array as a background job. IDs in the data are ignored.
+     * The songs are committed in chunks; if the job fails or is cancelled, sending the same data again
+     * with the same import ID resumes after the last committed chunk.
+     *
+     * @param importId optional ID of the import and its job, a new one is generated if not given
+     * @param data     the JSON array of songs
+     * @return {@link ResponseEntity} with a 202 ACCEPTED HTTP status, the job and its location in the Location
+     * header, a 400 BAD REQUEST if the data could not be read, a 409 CONFLICT if the import is still running or a
+     * 503 SERVICE UNAVAILABLE if too many imports are waiting.
+     */
+    @PostMapping("/songs/import/json")
+    public ResponseEntity<ImportJob> importSongsJSON(@RequestParam Optional<String> importId, InputStream data) {
+        String id = importId.orElseGet(() -> UUID.randomUUID().toString());
+        return ImportJobController.accept(() -> importJobService.submit(id, IMPORT_JSON, data));
+    }
+
+    /**
+     * Exports all songs as CSV. The response is streamed while the songs are read from the database.
+     *
+     * @return {@link ResponseEntity} streaming the CSV with a 200 OK status.
+     */
+    @GetMapping("/songs/export/csv")
+    public ResponseEntity<StreamingResponseBody> exportSongsCSV() {
+        return ResponseEntity.ok().contentType(new MediaType("text", "csv")).body(songService::exportCSV);
+    }
+
+    /**
+     * Exports all songs as a JSON array. The response is streamed while the songs are read from the database.
+     *
+     * @return {@link ResponseEntity} streaming the JSON with a 200 OK status.
+     */
+    @GetMapping("/songs/export/json")
+    public ResponseEntity<StreamingResponseBody> exportSongsJSON() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(songService::exportJSON);
+    }
+
 }
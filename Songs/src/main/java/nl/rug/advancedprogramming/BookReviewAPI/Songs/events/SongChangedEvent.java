@@ -0,0 +1,25 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.events;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+
+/**
+ * Published after a song was added, updated or deleted, once the song index reflects the change.
+ *
+ * @param id     the ID of the song
+ * @param before the song before the change, or null if it did not exist
+ * @param after  the song after the change, or null if it was deleted
+ */
+public record SongChangedEvent(int id, SongRecord before, SongRecord after) {
+
+    /**
+     * Whether the length of the song changed, including the song appearing or disappearing.
+     *
+     * @return true if anything derived from the song length has to be recomputed
+     */
+    public boolean lengthChanged() {
+        if (before == null || after == null) {
+            return before != after;
+        }
+        return before.length() != after.length();
+    }
+}
@@ -0,0 +1,12 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.events;
+
+import java.util.Set;
+
+/**
+ * Published after a chunk of songs was bulk imported. Bulk inserts do not return the generated IDs,
+ * so the event only tells which artists gained songs.
+ *
+ * @param artists the distinct artists of the imported songs
+ */
+public record SongsImportedEvent(Set<String> artists) {
+}
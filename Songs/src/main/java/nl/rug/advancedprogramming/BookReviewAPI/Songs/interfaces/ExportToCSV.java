@@ -0,0 +1,11 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.interfaces;
+
+public interface ExportToCSV {
+
+    /**
+     * Serialize the object of the class to a CSV row.
+     *
+     * @return the object of the class in CSV format.
+     */
+    String toCSV();
+}
@@ -0,0 +1,11 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.interfaces;
+
+public interface ExportToJSON {
+
+    /**
+     * Serialize the object of the class to a JSON object.
+     *
+     * @return the object of the class in JSON format.
+     */
+    String toJSON();
+}
@@ -1,19 +1,30 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Songs.models;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import lombok.Getter;
 import lombok.Setter;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.interfaces.ExportToCSV;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.interfaces.ExportToJSON;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
- * Entity class representing a song in the database.
+ * Entity class representing a song in the database. Songs are kept in the "songs" region of the second-level cache.
  */
 @Setter
 @Getter
 @Entity
-public class Song {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "songs")
+public class Song implements ExportToCSV, ExportToJSON {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     public int id;
@@ -49,4 +60,34 @@ public class Song {
 
     }
 
+    @Override
+    public String toCSV() {
+        // javadoc is on the interface that this overrides
+        return String.join(",",
+                String.valueOf(id), quote(title), quote(artist), quote(label), quote(genre), String.valueOf(length)
+        );
+    }
+
+    @Override
+    public String toJSON() {
+        // javadoc is on the interface that this overrides
+        try {
+            return JSON.writeValueAsString(this);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Quotes a CSV field if it contains a separator, quote or line break.
+     */
+    private static String quote(String field) {
+        if (field == null) {
+            return "";
+        }
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
 }
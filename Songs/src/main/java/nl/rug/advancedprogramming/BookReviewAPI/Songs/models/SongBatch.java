@@ -0,0 +1,12 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.models;
+
+import java.util.List;
+
+/**
+ * Result of looking up a list of songs by ID.
+ *
+ * @param songs      the songs that were found, in the order their IDs were requested
+ * @param missingIds the requested IDs for which no song exists, in the order they were requested
+ */
+public record SongBatch(List<SongRecord> songs, List<Integer> missingIds) {
+}
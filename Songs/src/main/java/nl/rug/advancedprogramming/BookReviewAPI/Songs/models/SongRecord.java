@@ -0,0 +1,25 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.models;
+
+/**
+ * Immutable snapshot of a song, as kept in the in-memory {@link nl.rug.advancedprogramming.BookReviewAPI.Songs.service.SongIndex}.
+ * Unlike the {@link Song} entity it can be shared between threads and handed out without copying.
+ *
+ * @param id     the ID of the song
+ * @param title  the title of the song
+ * @param artist the artist of the song
+ * @param label  the label of the song
+ * @param genre  the genre of the song
+ * @param length the length of the song
+ */
+public record SongRecord(int id, String title, String artist, String label, String genre, int length) {
+
+    /**
+     * Takes a snapshot of a song entity.
+     *
+     * @param song the song to take a snapshot of
+     * @return the snapshot
+     */
+    public static SongRecord of(Song song) {
+        return new SongRecord(song.id, song.title, song.artist, song.label, song.genre, song.length);
+    }
+}
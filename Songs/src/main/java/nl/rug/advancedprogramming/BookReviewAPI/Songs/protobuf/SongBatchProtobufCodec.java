@@ -0,0 +1,68 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufCodec;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongBatch;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufFields.*;
+
+/**
+ * Protobuf codec for the result of a multi-get, see the SongBatch message in protobuf/song.proto.
+ */
+@Component
+public class SongBatchProtobufCodec implements ProtobufCodec<SongBatch> {
+    private static final int SONGS = 1;
+    private static final int MISSING_IDS = 2;
+
+    private final SongRecordProtobufCodec songs = new SongRecordProtobufCodec();
+
+    @Override
+    public Class<SongBatch> type() {
+        return SongBatch.class;
+    }
+
+    @Override
+    public int size(SongBatch batch) {
+        int size = 0;
+        for (SongRecord song : batch.songs()) {
+            int songSize = songs.size(song);
+            size += CodedOutputStream.computeTagSize(SONGS) + CodedOutputStream.computeUInt32SizeNoTag(songSize)
+                    + songSize;
+        }
+        return size + packedInt32Size(MISSING_IDS, batch.missingIds());
+    }
+
+    @Override
+    public void write(SongBatch batch, CodedOutputStream out) throws IOException {
+        // SONGS is field 1, so the songs are written like a list
+        songs.writeList(batch.songs(), out);
+        writePackedInt32(out, MISSING_IDS, batch.missingIds());
+    }
+
+    @Override
+    public SongBatch read(CodedInputStream in) throws IOException {
+        List<SongRecord> found = new ArrayList<>();
+        List<Integer> missingIds = new ArrayList<>();
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case SONGS -> {
+                    int limit = in.pushLimit(in.readRawVarint32());
+                    found.add(songs.read(in));
+                    in.popLimit(limit);
+                }
+                case MISSING_IDS -> readRepeatedInt32(in, tag, missingIds);
+                default -> in.skipField(tag);
+            }
+        }
+        return new SongBatch(found, missingIds);
+    }
+}
@@ -0,0 +1,68 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufCodec;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+import static nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufFields.*;
+
+/**
+ * Protobuf codec for song entities, see protobuf/song.proto.
+ */
+@Component
+public class SongProtobufCodec implements ProtobufCodec<Song> {
+    static final int ID = 1;
+    static final int TITLE = 2;
+    static final int ARTIST = 3;
+    static final int LABEL = 4;
+    static final int GENRE = 5;
+    static final int LENGTH = 6;
+
+    @Override
+    public Class<Song> type() {
+        return Song.class;
+    }
+
+    @Override
+    public int size(Song song) {
+        return int32Size(ID, song.id)
+                + stringSize(TITLE, song.title)
+                + stringSize(ARTIST, song.artist)
+                + stringSize(LABEL, song.label)
+                + stringSize(GENRE, song.genre)
+                + int32Size(LENGTH, song.length);
+    }
+
+    @Override
+    public void write(Song song, CodedOutputStream out) throws IOException {
+        writeInt32(out, ID, song.id);
+        writeString(out, TITLE, song.title);
+        writeString(out, ARTIST, song.artist);
+        writeString(out, LABEL, song.label);
+        writeString(out, GENRE, song.genre);
+        writeInt32(out, LENGTH, song.length);
+    }
+
+    @Override
+    public Song read(CodedInputStream in) throws IOException {
+        Song song = new Song();
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case ID -> song.id = in.readInt32();
+                case TITLE -> song.title = in.readStringRequireUtf8();
+                case ARTIST -> song.artist = in.readStringRequireUtf8();
+                case LABEL -> song.label = in.readStringRequireUtf8();
+                case GENRE -> song.genre = in.readStringRequireUtf8();
+                case LENGTH -> song.length = in.readInt32();
+                default -> in.skipField(tag);
+            }
+        }
+        return song;
+    }
+}
@@ -0,0 +1,52 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufCodec;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+import static nl.rug.advancedprogramming.BookReviewAPI.Common.protobuf.ProtobufFields.*;
+import static nl.rug.advancedprogramming.BookReviewAPI.Songs.protobuf.SongProtobufCodec.*;
+
+/**
+ * Protobuf codec for song snapshots from the song index. They use the same Song message as the entities.
+ */
+@Component
+public class SongRecordProtobufCodec implements ProtobufCodec<SongRecord> {
+    private final SongProtobufCodec songs = new SongProtobufCodec();
+
+    @Override
+    public Class<SongRecord> type() {
+        return SongRecord.class;
+    }
+
+    @Override
+    public int size(SongRecord song) {
+        return int32Size(ID, song.id())
+                + stringSize(TITLE, song.title())
+                + stringSize(ARTIST, song.artist())
+                + stringSize(LABEL, song.label())
+                + stringSize(GENRE, song.genre())
+                + int32Size(LENGTH, song.length());
+    }
+
+    @Override
+    public void write(SongRecord song, CodedOutputStream out) throws IOException {
+        writeInt32(out, ID, song.id());
+        writeString(out, TITLE, song.title());
+        writeString(out, ARTIST, song.artist());
+        writeString(out, LABEL, song.label());
+        writeString(out, GENRE, song.genre());
+        writeInt32(out, LENGTH, song.length());
+    }
+
+    @Override
+    public SongRecord read(CodedInputStream in) throws IOException {
+        Song song = songs.read(in);
+        return SongRecord.of(song);
+    }
+}
@@ -4,25 +4,44 @@
  */
 package nl.rug.advancedprogramming.BookReviewAPI.Songs.repository;
 
+import jakarta.persistence.QueryHint;
 import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repository interface for managing Song entities.
  * <p>
- * Provides methods for retrieving songs based on specific properties.
+ * Provides methods for retrieving songs based on specific properties. The results of the property searches are
+ * kept in the "songs.queries" region of the query cache until a song is written.
  * </p>
  */
 
 @Repository
-public interface SongRepository extends CrudRepository<Song, String> {
+public interface SongRepository extends CrudRepository<Song, Integer>, SongRepositoryCustom {
 
-    /*
-     The framework will automagically recognise these names and create the right queries in the implementation that it feeds the beans.
-     See https://docs.spring.io/spring-data/data-jpa/docs/1.0.0.M1/reference/html/#jpa.query-methods.query-creation
-     paragraph 2.1.2
+    /**
+     * Selects songs into {@link SongRecord}s. The searches use it instead of loading Song entities, so the results
+     * are plain values that need nothing from the database once the query has returned.
      */
+    String SELECT_RECORD = "SELECT new nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord("
+            + "s.id, s.title, s.artist, s.label, s.genre, s.length) FROM Song s";
+
+    /**
+     * Retrieves all songs in database.
+     *
+     * @return {@link List} of all songs.
+     */
+    @Query(SELECT_RECORD)
+    List<SongRecord> findAllRecords();
 
     /**
      * Retrieves books in database of given id.
@@ -30,7 +49,10 @@ public interface SongRepository extends CrudRepository<Song, String> {
      * @param id id to query by.
      * @return {@link Iterable} of songs that match given id.
      */
-    Iterable<Song> getById(int id);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "songs.queries")})
+    @Query(SELECT_RECORD + " WHERE s.id = :id")
+    Iterable<SongRecord> getById(@Param("id") int id);
 
     /**
      * Retrieves songs in database of given title.
@@ -38,7 +60,10 @@ public interface SongRepository extends CrudRepository<Song, String> {
      * @param title Title to query by.
      * @return {@link Iterable} of songs that match given title.
      */
-    Iterable<Song> getByTitle(String title);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "songs.queries")})
+    @Query(SELECT_RECORD + " WHERE s.title = :title")
+    Iterable<SongRecord> getByTitle(@Param("title") String title);
 
     /**
      * Retrieves songs in database of given artist.
@@ -46,7 +71,10 @@ public interface SongRepository extends CrudRepository<Song, String> {
      * @param artist Artist to query by.
      * @return {@link Iterable} of songs that match given artist.
      */
-    Iterable<Song> getByArtist(String artist);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "songs.queries")})
+    @Query(SELECT_RECORD + " WHERE s.artist = :artist")
+    Iterable<SongRecord> getByArtist(@Param("artist") String artist);
 
     /**
      * Retrieves songs in database of given label.
@@ -54,7 +82,10 @@ public interface SongRepository extends CrudRepository<Song, String> {
      * @param label Label to query by.
      * @return {@link Iterable} of songs that match given label.
      */
-    Iterable<Song> getByLabel(String label);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "songs.queries")})
+    @Query(SELECT_RECORD + " WHERE s.label = :label")
+    Iterable<SongRecord> getByLabel(@Param("label") String label);
 
     /**
      * Retrieves songs in database of given genre.
@@ -62,7 +93,10 @@ public interface SongRepository extends CrudRepository<Song, String> {
      * @param genre Genre to query by.
      * @return {@link Iterable} of songs that match given genre.
      */
-    Iterable<Song> getByGenre(String genre);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "songs.queries")})
+    @Query(SELECT_RECORD + " WHERE s.genre = :genre")
+    Iterable<SongRecord> getByGenre(@Param("genre") String genre);
 
     /**
      * Retrieves books in database of given length.
@@ -70,6 +104,30 @@ public interface SongRepository extends CrudRepository<Song, String> {
      * @param length Length to query by.
      * @return {@link Iterable} of songs that match given title.
      */
-    Iterable<Song> getByLength(int length);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "songs.queries")})
+    @Query(SELECT_RECORD + " WHERE s.length = :length")
+    Iterable<SongRecord> getByLength(@Param("length") int length);
+
+    /**
+     * Retrieves the next page of songs after a cursor, ordered by ID. Used to stream all songs
+     * without an OFFSET that gets slower with every page.
+     *
+     * @param id    the ID of the last song of the previous page, or 0 for the first page.
+     * @param limit the maximum number of songs to return.
+     * @return {@link List} of songs with an ID greater than the given one.
+     */
+    List<Song> findByIdGreaterThanOrderByIdAsc(int id, Limit limit);
+
+    /**
+     * Retrieves the next page of songs after a cursor as snapshots instead of managed entities, so a long
+     * transaction reading page after page does not keep every song in its persistence context.
+     *
+     * @param id    the ID of the last song of the previous page, or 0 for the first page.
+     * @param limit the maximum number of songs to return.
+     * @return {@link List} of songs with an ID greater than the given one, ordered by ID.
+     */
+    @Query(SELECT_RECORD + " WHERE s.id > :id ORDER BY s.id")
+    List<SongRecord> findRecordsAfter(@Param("id") int id, Limit limit);
 
 }
@@ -0,0 +1,31 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.repository;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Song repository methods that are implemented by hand instead of derived by the framework.
+ */
+public interface SongRepositoryCustom {
+
+    /**
+     * Inserts new songs with a single JDBC batch. Hibernate can not batch inserts into IDENTITY tables,
+     * so bulk imports go through this instead of saveAll. The IDs of the songs are ignored and generated.
+     * Has to be called inside a transaction; cached song searches are invalidated when it ends.
+     *
+     * @param songs the songs to insert.
+     */
+    void insertAll(List<Song> songs);
+
+    /**
+     * Updates only the given fields of a song with a single UPDATE statement.
+     *
+     * @param id      the ID of the song.
+     * @param changes the new values by field name (title, artist, label, genre or length).
+     * @return the number of updated rows, 0 if the song does not exist.
+     * @throws IllegalArgumentException if a field cannot be updated or a value has the wrong type.
+     */
+    int patch(int id, Map<String, Object> changes);
+}
@@ -0,0 +1,63 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.repository;
+
+import jakarta.persistence.EntityManager;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.repository.PartialUpdate;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation of the hand-written song repository methods. Picked up by the framework through its name.
+ */
+public class SongRepositoryCustomImpl implements SongRepositoryCustom {
+    private static final Set<String> UPDATABLE = Set.of("title", "artist", "label", "genre", "length");
+    private static final String[] SONG_TABLE = {"song"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    /**
+     * Constructor for SongRepositoryCustomImpl.
+     *
+     * @param jdbcTemplate  template used for the batched statements.
+     * @param entityManager entity manager used for the partial updates.
+     */
+    public SongRepositoryCustomImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void insertAll(List<Song> songs) {
+        // The batch bypasses Hibernate, so tell the query cache that the song table changed the way Hibernate's own
+        // writes do: cached searches stop being used now, and searches cached while this transaction runs are
+        // dropped once it ends. The cached songs themselves are not affected by new rows.
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+        if (timestamps != null) {
+            timestamps.preInvalidate(SONG_TABLE, session);
+            session.getActionQueue().registerProcess((success, completed) -> timestamps.invalidate(SONG_TABLE, completed));
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO song (title, artist, label, genre, length) VALUES (?, ?, ?, ?, ?)",
+                songs, songs.size(), (statement, song) -> {
+                    statement.setString(1, song.title);
+                    statement.setString(2, song.artist);
+                    statement.setString(3, song.label);
+                    statement.setString(4, song.genre);
+                    statement.setInt(5, song.length);
+                });
+    }
+
+    @Override
+    @Transactional
+    public int patch(int id, Map<String, Object> changes) {
+        return PartialUpdate.apply(entityManager, Song.class, "id", id, changes, UPDATABLE);
+    }
+}
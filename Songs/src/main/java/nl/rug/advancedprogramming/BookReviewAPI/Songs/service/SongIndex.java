@@ -0,0 +1,191 @@
+package nl.rug.advancedprogramming.BookReviewAPI.Songs.service;
+
+import nl.rug.advancedprogramming.BookReviewAPI.Common.util.IntObjectMap;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.repository.SongRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of songs by their int ID, used to resolve songs (e.g. the tracks of albums) without a database
+ * round trip per song. The index is read-through: songs that are not indexed yet are loaded from the repository
+ * in one batch and kept. {@link SongService} updates the index on every write, so it stays coherent with the table.
+ */
+@Component
+public class SongIndex {
+    // Songs missing from the index are loaded with IN queries of at most this many IDs.
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final SongRepository songs;
+    private final boolean preload;
+    private final IntObjectMap<SongRecord> index = new IntObjectMap<>(1024);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Incremented on every write, so loads that raced with a write do not put an outdated song into the index.
+    private long writeEpoch;
+
+    /**
+     * Constructor for SongIndex.
+     *
+     * @param songs   the SongRepository songs are loaded from when they are not indexed yet
+     * @param preload whether to load all songs into the index on startup
+     */
+    public SongIndex(SongRepository songs, @Value("${songs.index.preload:false}") boolean preload) {
+        this.songs = songs;
+        this.preload = preload;
+    }
+
+    /**
+     * Loads all songs into the index once the application has started, if enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (preload) {
+            long epoch = currentEpoch();
+            List<SongRecord> loaded = new ArrayList<>();
+            for (Song song : songs.findAll()) {
+                loaded.add(SongRecord.of(song));
+            }
+            cacheLoaded(loaded, epoch);
+        }
+    }
+
+    /**
+     * Resolves a single song.
+     *
+     * @param id the ID of the song
+     * @return the song, or null if it does not exist
+     */
+    public SongRecord get(int id) {
+        return getAll(new int[]{id})[0];
+    }
+
+    /**
+     * Resolves a batch of songs. Songs that are not indexed yet are loaded with a single query,
+     * or one query per {@value #LOAD_CHUNK_SIZE} IDs for very long lists.
+     *
+     * @param ids the IDs of the songs, may contain duplicates
+     * @return the songs in the same order as the IDs, with null for IDs that do not exist
+     */
+    public SongRecord[] getAll(int[] ids) {
+        SongRecord[] result = new SongRecord[ids.length];
+        List<Integer> missing = null;
+        IntObjectMap<Boolean> seen = null;
+        long epoch;
+
+        lock.readLock().lock();
+        try {
+            epoch = writeEpoch;
+            for (int i = 0; i < ids.length; i++) {
+                result[i] = index.get(ids[i]);
+                if (result[i] == null) {
+                    if (missing == null) {
+                        missing = new ArrayList<>();
+                        seen = new IntObjectMap<>(16);
+                    }
+                    if (seen.put(ids[i], Boolean.TRUE) == null) {
+                        missing.add(ids[i]);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (missing != null) {
+            List<SongRecord> loaded = new ArrayList<>(missing.size());
+            for (int from = 0; from < missing.size(); from += LOAD_CHUNK_SIZE) {
+                List<Integer> chunk = missing.subList(from, Math.min(from + LOAD_CHUNK_SIZE, missing.size()));
+                for (Song song : songs.findAllById(chunk)) {
+                    loaded.add(SongRecord.of(song));
+                }
+            }
+            cacheLoaded(loaded, epoch);
+
+            IntObjectMap<SongRecord> byId = new IntObjectMap<>(loaded.size());
+            for (SongRecord record : loaded) {
+                byId.put(record.id(), record);
+            }
+            for (int i = 0; i < ids.length; i++) {
+                if (result[i] == null) {
+                    result[i] = byId.get(ids[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds or replaces a song in the index. Called after the song has been saved.
+     *
+     * @param song the saved song
+     */
+    public void put(Song song) {
+        SongRecord record = SongRecord.of(song);
+        lock.writeLock().lock();
+        try {
+            index.put(record.id(), record);
+            writeEpoch++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a song from the index. Called after the song has been deleted.
+     *
+     * @param id the ID of the deleted song
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            index.remove(id);
+            writeEpoch++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Empties the index, e.g. when any song may have been changed by another replica. Songs are loaded again as
+     * they are resolved.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            writeEpoch++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long currentEpoch() {
+        lock.readLock().lock();
+        try {
+            return writeEpoch;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void cacheLoaded(List<SongRecord> loaded, long epoch) {
+        lock.writeLock().lock();
+        try {
+            if (epoch != writeEpoch) {
+                return;
+            }
+            for (SongRecord record : loaded) {
+                index.put(record.id(), record);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
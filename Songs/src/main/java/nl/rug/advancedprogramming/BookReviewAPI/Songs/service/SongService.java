@@ -1,25 +1,85 @@
 package nl.rug.advancedprogramming.BookReviewAPI.Songs.service;
 
+import nl.rug.advancedprogramming.BookReviewAPI.Common.metrics.RowMetrics;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.models.ImportCheckpoint;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.CacheChangeLog;
+import nl.rug.advancedprogramming.BookReviewAPI.Common.service.ChunkedImportService;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.events.SongChangedEvent;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.events.SongsImportedEvent;
 import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.Song;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongBatch;
+import nl.rug.advancedprogramming.BookReviewAPI.Songs.models.SongRecord;
 import nl.rug.advancedprogramming.BookReviewAPI.Songs.repository.SongRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service class that provides methods for managing songs.
  */
 @Service
 public class SongService {
+    /**
+     * Kind of the cache changes of songs, keyed by ID, see {@link CacheChangeLog}.
+     */
+    public static final String CACHE_KIND = "song";
+
     private final SongRepository songs;
+    private final SongIndex songIndex;
+    private final ChunkedImportService importService;
+    private final ApplicationEventPublisher events;
+    private final RowMetrics rowMetrics;
+    private final CacheChangeLog cacheChanges;
+    private final int exportPageSize;
+    private final int maxBatchIds;
 
     /**
      * Constructor for SongService.
      *
-     * @param songs the SongRepository used to interact with the song database
+     * @param songs          the SongRepository used to interact with the song database
+     * @param songIndex      the in-memory index of songs, kept up to date on every write
+     * @param importService  the service running imports in checkpointed chunks
+     * @param events         publisher for {@link SongChangedEvent}s
+     * @param rowMetrics     counts the exported songs
+     * @param cacheChanges   records the writes for the caches of the other replicas
+     * @param exportPageSize the number of songs read from the database at a time while exporting
+     * @param maxBatchIds    the maximum number of songs looked up by ID in one request
      */
     @Autowired
-    public SongService(SongRepository songs) {
+    public SongService(SongRepository songs, SongIndex songIndex, ChunkedImportService importService,
+                       ApplicationEventPublisher events, RowMetrics rowMetrics, CacheChangeLog cacheChanges,
+                       @Value("${songs.export.page-size:1000}") int exportPageSize,
+                       @Value("${songs.batch.max-ids:1000}") int maxBatchIds) {
         this.songs = songs;
+        this.songIndex = songIndex;
+        this.importService = importService;
+        this.events = events;
+        this.rowMetrics = rowMetrics;
+        this.cacheChanges = cacheChanges;
+        this.exportPageSize = exportPageSize;
+        this.maxBatchIds = maxBatchIds;
+
+        // Songs written by other replicas. The second-level cache goes first, the index reloads through it.
+        cacheChanges.registerEntity(CACHE_KIND, Song.class, Integer::valueOf);
+        cacheChanges.register(CACHE_KIND, id -> {
+            if (id != null) {
+                songIndex.remove(Integer.parseInt(id));
+            } else {
+                songIndex.clear();
+            }
+        });
     }
 
     /**
@@ -28,16 +88,19 @@ public class SongService {
      * @param song the Song object to be added
      */
     public void addSong(Song song) {
-        songs.save(song);
+        Song saved = songs.save(song);
+        songIndex.put(saved);
+        cacheChanges.record(CACHE_KIND, saved.id);
+        events.publishEvent(new SongChangedEvent(saved.id, null, SongRecord.of(saved)));
     }
 
     /**
      * Retrieves all songs from the repository.
      *
-     * @return an {@link Iterable} of all Song objects
+     * @return an {@link Iterable} of all songs
      */
-    public Iterable<Song> getAllSongs() {
-        return songs.findAll();
+    public Iterable<SongRecord> getAllSongs() {
+        return songs.findAllRecords();
     }
 
     /**
@@ -47,8 +110,32 @@ public class SongService {
      * @param song the Song object containing updated details
      */
     public void updateSong(int id, Song song) {
+        SongRecord before = songIndex.get(id);
         song.id = id;
-        songs.save(song);
+        Song saved = songs.save(song);
+        songIndex.put(saved);
+        cacheChanges.record(CACHE_KIND, id);
+        events.publishEvent(new SongChangedEvent(id, before, SongRecord.of(saved)));
+    }
+
+    /**
+     * Updates only the given fields of a song, without loading and saving the whole song.
+     *
+     * @param id      the ID of the song to update
+     * @param changes the new values by field name (title, artist, label, genre or length)
+     * @return true if the song was updated, false if it does not exist
+     * @throws IllegalArgumentException if a field cannot be updated or a value has the wrong type
+     */
+    public boolean patchSong(int id, Map<String, Object> changes) {
+        SongRecord before = songIndex.get(id);
+        if (songs.patch(id, changes) == 0) {
+            return false;
+        }
+        // Reload the song into the index, the update did not go through an entity
+        songIndex.remove(id);
+        cacheChanges.record(CACHE_KIND, id);
+        events.publishEvent(new SongChangedEvent(id, before, songIndex.get(id)));
+        return true;
     }
 
     /**
@@ -57,8 +144,57 @@ public class SongService {
      * @param id the ID of the song to delete
      */
     public void deleteSong(int id) {
-        // id has to be a string for the method to work
-        songs.deleteById(String.valueOf(id));
+        SongRecord before = songIndex.get(id);
+        songs.deleteById(id);
+        songIndex.remove(id);
+        cacheChanges.record(CACHE_KIND, id);
+        if (before != null) {
+            events.publishEvent(new SongChangedEvent(id, before, null));
+        }
+    }
+
+    /**
+     * Resolves a batch of songs by ID from the in-memory song index, loading the ones that are not indexed yet.
+     *
+     * @param ids the IDs of the songs
+     * @return the songs in the same order as the IDs, with null for IDs that do not exist
+     */
+    public SongRecord[] getSongsById(int[] ids) {
+        return songIndex.getAll(ids);
+    }
+
+    /**
+     * Looks up a list of songs by ID in one round trip.
+     *
+     * @param ids the IDs of the songs
+     * @return the songs that exist in the requested order, and the IDs that do not exist
+     * @throws IllegalArgumentException if an ID is missing, e.g. in "1,,2", or there are more IDs than
+     *                                  {@code songs.batch.max-ids}
+     */
+    public SongBatch getSongsByIds(List<Integer> ids) {
+        if (ids.size() > maxBatchIds) {
+            throw new IllegalArgumentException(ids.size() + " IDs requested, at most " + maxBatchIds + " are allowed");
+        }
+        int[] idArray = new int[ids.size()];
+        for (int i = 0; i < idArray.length; i++) {
+            Integer id = ids.get(i);
+            if (id == null) {
+                throw new IllegalArgumentException("ID " + (i + 1) + " is missing");
+            }
+            idArray[i] = id;
+        }
+
+        SongRecord[] found = songIndex.getAll(idArray);
+        List<SongRecord> songList = new ArrayList<>(found.length);
+        Set<Integer> missingIds = new LinkedHashSet<>();
+        for (int i = 0; i < found.length; i++) {
+            if (found[i] != null) {
+                songList.add(found[i]);
+            } else {
+                missingIds.add(idArray[i]);
+            }
+        }
+        return new SongBatch(songList, new ArrayList<>(missingIds));
     }
 
     /**
@@ -66,9 +202,9 @@ public class SongService {
      *
      * @param key   the property name to filter by (e.g. "title", "artist")
      * @param value the value of the property to search for
-     * @return an {@link Iterable} of Song objects that match the property and value
+     * @return an {@link Iterable} of songs that match the property and value
      */
-    public Iterable<Song> getByProperty(String key, String value) {
+    public Iterable<SongRecord> getByProperty(String key, String value) {
         // Parse property names into the right repository function
         return switch (key) {
             case "id" -> songs.getById(Integer.parseInt(value));
@@ -81,4 +217,126 @@ public class SongService {
         };
     }
 
+    /**
+     * Imports songs from CSV in the export format (id,title,artist,label,genre,length). The id column is ignored,
+     * new IDs are generated. Quoted fields may span lines. Songs are inserted in batched chunks, each committed together with a checkpoint,
+     * so importing the same data again with the same import ID resumes after the last committed chunk.
+     *
+     * @param importId the ID of the import
+     * @param data     the CSV data, starting with a header row
+     * @return the checkpoint of the finished import
+     * @throws IOException if reading the data fails
+     */
+    public ImportCheckpoint importSongsCSV(String importId, InputStream data) throws IOException {
+        return importService.importCsvRecords(importId, "songs-csv", data, true, SongService::parseCSVRow, this::insertImported);
+    }
+
+    /**
+     * Imports songs from a JSON array of song objects. IDs in the data are ignored, new IDs are generated.
+     * Songs are inserted in batched chunks, each committed together with a checkpoint,
+     * so importing the same data again with the same import ID resumes after the last committed chunk.
+     *
+     * @param importId the ID of the import
+     * @param data     the JSON array
+     * @return the checkpoint of the finished import
+     * @throws IOException if reading the data fails or it is not a JSON array
+     */
+    public ImportCheckpoint importSongsJSON(String importId, InputStream data) throws IOException {
+        return importService.importJsonArray(importId, "songs-json", data, Song.class, this::insertImported);
+    }
+
+    /**
+     * Parses one record of a song CSV import.
+     *
+     * @param row the fields of the record, unquoted
+     * @return the parsed song, or null if the record does not have enough fields
+     */
+    public static Song parseCSVRow(String[] row) {
+        if (row.length < 6) {
+            return null;
+        }
+        return new Song(0, row[1], row[2], row[3], row[4], Integer.parseInt(row[5].trim()));
+    }
+
+    /**
+     * Writes all songs as CSV to a stream. Songs are read page by page with an ID cursor,
+     * so memory use does not grow with the number of songs. Runs in one read-only transaction,
+     * which can be served by a read replica and sees a consistent snapshot of all pages.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true)
+    public void exportCSV(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,title,artist,label,genre,length\n");
+
+        List<SongRecord> page = songs.findRecordsAfter(0, Limit.of(exportPageSize));
+        while (!page.isEmpty()) {
+            for (SongRecord song : page) {
+                writer.write(toSong(song).toCSV());
+                writer.write('\n');
+            }
+            writer.flush();
+            rowMetrics.exported("songs-csv", page.size());
+            page = songs.findRecordsAfter(page.get(page.size() - 1).id(), Limit.of(exportPageSize));
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes all songs as a JSON array to a stream. Songs are read page by page with an ID cursor,
+     * so memory use does not grow with the number of songs. Runs in one read-only transaction,
+     * which can be served by a read replica and sees a consistent snapshot of all pages.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true)
+    public void exportJSON(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("[\n");
+
+        boolean first = true; // Same comma placement as the book export
+        List<SongRecord> page = songs.findRecordsAfter(0, Limit.of(exportPageSize));
+        while (!page.isEmpty()) {
+            for (SongRecord song : page) {
+                if (!first) {
+                    writer.write(",\n");
+                }
+                writer.write(toSong(song).toJSON());
+                first = false;
+            }
+            writer.flush();
+            rowMetrics.exported("songs-json", page.size());
+            page = songs.findRecordsAfter(page.get(page.size() - 1).id(), Limit.of(exportPageSize));
+        }
+
+        writer.write("\n]\n");
+        writer.flush();
+    }
+
+    /**
+     * Turns a snapshot back into a detached song, so exports keep the format of {@link Song#toCSV()} and
+     * {@link Song#toJSON()}.
+     */
+    private static Song toSong(SongRecord song) {
+        return new Song(song.id(), song.title(), song.artist(), song.label(), song.genre(), song.length());
+    }
+
+    /**
+     * Inserts a chunk of imported songs with one batched statement. Runs inside the transaction of the chunk.
+     *
+     * @param imported the imported songs
+     */
+    private void insertImported(List<Song> imported) {
+        songs.insertAll(imported);
+        // The batch does not return the new IDs, so the chunk is recorded as a change of any song
+        cacheChanges.record(CACHE_KIND, null);
+        Set<String> artists = new HashSet<>();
+        for (Song song : imported) {
+            artists.add(song.artist);
+        }
+        events.publishEvent(new SongsImportedEvent(artists));
+    }
 }
@@ -0,0 +1,136 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to first request of the API: starts it, polls a URL until it answers with a 2xx status and
+ * stops it again, a number of times. The time is taken from launching the command, so it includes JVM startup.
+ * Run it once for the regular jar and once for the startup-optimized one, against the same database:
+ *
+ * <pre>
+ * java bench/StartupBenchmark.java --label default --runs 10 --out bench/startup.csv \
+ *     --cmd "java -jar Application/target/Application-0.0.1-SNAPSHOT.jar"
+ * java bench/StartupBenchmark.java --label startup --runs 10 --out bench/startup.csv \
+ *     --cmd "java -XX:SharedArchiveFile=startup/application.jsa -Dspring.aot.enabled=true -jar startup/Application-0.0.1-SNAPSHOT.jar"
+ * </pre>
+ *
+ * Options:
+ * <ul>
+ *     <li>--cmd: shell command that starts the API, it inherits the DB_* environment variables (required)</li>
+ *     <li>--url: URL polled for the first answer (default http://localhost:8080/songs)</li>
+ *     <li>--runs: number of starts, the first one is a warmup for the disk cache and not counted (default 10)</li>
+ *     <li>--timeout: seconds to wait for the first answer (default 120)</li>
+ *     <li>--label: name of the run in the output, e.g. default or startup (default run)</li>
+ *     <li>--out: CSV file the results are appended to (optional)</li>
+ * </ul>
+ * The output of the API goes to a temporary file, whose path is printed when a start fails.
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String cmd = null;
+        URI url = URI.create("http://localhost:8080/songs");
+        int runs = 10;
+        int timeout = 120;
+        String label = "run";
+        Path out = null;
+
+        for (int i = 0; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--cmd" -> cmd = value;
+                case "--url" -> url = URI.create(value);
+                case "--runs" -> runs = Integer.parseInt(value);
+                case "--timeout" -> timeout = Integer.parseInt(value);
+                case "--label" -> label = value;
+                case "--out" -> out = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (cmd == null) {
+            throw new IllegalArgumentException("--cmd is required");
+        }
+        if (runs < 2) {
+            throw new IllegalArgumentException("--runs must be at least 2, the first run is not counted");
+        }
+
+        long[] millis = new long[runs - 1];
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            for (int run = 0; run < runs; run++) {
+                long elapsed = startOnce(client, cmd, url, Duration.ofSeconds(timeout));
+                System.out.printf("%-10s run %2d: %6d ms%s%n", label, run, elapsed, run == 0 ? " (warmup)" : "");
+                if (run > 0) {
+                    millis[run - 1] = elapsed;
+                }
+            }
+        }
+
+        Arrays.sort(millis);
+        long median = millis[millis.length / 2];
+        System.out.printf("%-10s min %d ms, median %d ms, max %d ms%n", label, millis[0], median,
+                millis[millis.length - 1]);
+        if (out != null) {
+            append(out, label, millis, median);
+        }
+    }
+
+    private static long startOnce(HttpClient client, String cmd, URI url, Duration timeout)
+            throws IOException, InterruptedException {
+        Path log = Files.createTempFile("startup-benchmark", ".log");
+        HttpRequest request = HttpRequest.newBuilder(url).timeout(Duration.ofSeconds(5)).GET().build();
+
+        long start = System.nanoTime();
+        // exec, so stopping the shell stops the JVM
+        Process process = new ProcessBuilder("sh", "-c", "exec " + cmd)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The API exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() / 100 == 2) {
+                        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        Files.delete(log);
+                        return elapsed;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No answer within " + timeout.toSeconds() + " s, see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void append(Path out, String label, long[] millis, long median) throws IOException {
+        boolean header = !Files.exists(out);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (header) {
+                writer.println("label,runs,min_ms,median_ms,max_ms");
+            }
+            writer.printf(Locale.ROOT, "%s,%d,%d,%d,%d%n", label, millis.length, millis[0], median,
+                    millis[millis.length - 1]);
+        }
+    }
+}
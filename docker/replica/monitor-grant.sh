@@ -0,0 +1,4 @@
+#!/bin/bash
+# Sourced by the entrypoint of the mariadb image on the first start of the replica.
+# The API checks the replica lag with SHOW REPLICA STATUS, which needs the SLAVE MONITOR privilege.
+docker_process_sql --database=mysql <<<"GRANT SLAVE MONITOR ON *.* TO '${MARIADB_USER}'@'%';"